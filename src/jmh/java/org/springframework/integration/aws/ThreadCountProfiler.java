@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.Defaults;
+
+/**
+ * The JMH profiler which reports the live JVM threads at the end of each iteration
+ * and the peak number of live threads during the iteration as secondary results.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+public class ThreadCountProfiler implements InternalProfiler {
+
+	private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+	@Override
+	public String getDescription() {
+		return "Live and peak JVM thread counts";
+	}
+
+	@Override
+	public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+		this.threadMXBean.resetPeakThreadCount();
+	}
+
+	@Override
+	public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+			IterationParams iterationParams, IterationResult result) {
+
+		return List.of(
+				new ScalarResult(Defaults.PREFIX + "threads.live", this.threadMXBean.getThreadCount(),
+						"threads", AggregationPolicy.MAX),
+				new ScalarResult(Defaults.PREFIX + "threads.peak", this.threadMXBean.getPeakThreadCount(),
+						"threads", AggregationPolicy.MAX));
+	}
+
+}
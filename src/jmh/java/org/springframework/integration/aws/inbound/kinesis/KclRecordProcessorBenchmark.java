@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchAsyncClient;
+import software.amazon.kinesis.common.StreamIdentifier;
+import software.amazon.kinesis.coordinator.Scheduler;
+import software.amazon.kinesis.lifecycle.events.InitializationInput;
+import software.amazon.kinesis.lifecycle.events.ProcessRecordsInput;
+import software.amazon.kinesis.processor.RecordProcessorCheckpointer;
+import software.amazon.kinesis.processor.ShardRecordProcessor;
+import software.amazon.kinesis.retrieval.KinesisClientRecord;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.aws.testing.InMemoryDynamoDbClient;
+import org.springframework.integration.aws.testing.InMemoryKinesisClient;
+
+/**
+ * Measures the record processing of the {@link KclMessageDrivenChannelAdapter}:
+ * the {@link ShardRecordProcessor#processRecords(ProcessRecordsInput)} of its record processor
+ * in the {@link ListenerMode#record} and {@link ListenerMode#batch} modes with the {@link CheckpointMode#batch}.
+ * The adapter is started with an executor which does not run the KCL {@link Scheduler}:
+ * the record processor is obtained from the scheduler and the records are handed over directly to it.
+ * The {@link RecordProcessorCheckpointer} is an in-memory stub.
+ * The scores are per {@code ProcessRecordsInput} of the {@code records} size.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KclRecordProcessorBenchmark {
+
+	private static final String STREAM = "benchmarkStream";
+
+	@Param({ "record", "batch" })
+	public ListenerMode listenerMode;
+
+	@Param({ "10", "500" })
+	public int records;
+
+	@Param("256")
+	public int recordSize;
+
+	private KclMessageDrivenChannelAdapter adapter;
+
+	private Scheduler scheduler;
+
+	private ShardRecordProcessor recordProcessor;
+
+	private ProcessRecordsInput processRecordsInput;
+
+	private long checkpoints;
+
+	@Setup
+	public void setup(Blackhole blackhole) {
+		BigInteger sequence = new BigInteger("49590338271490256608559692538361571095921575989136588898");
+		byte[] data = new byte[this.recordSize];
+		Instant arrivalTimestamp = Instant.now();
+		List<KinesisClientRecord> recordList = new ArrayList<>(this.records);
+		for (int i = 0; i < this.records; i++) {
+			sequence = sequence.add(BigInteger.ONE);
+			recordList.add(
+					KinesisClientRecord.builder()
+							.partitionKey("partitionKey-" + i)
+							.sequenceNumber(sequence.toString())
+							.approximateArrivalTimestamp(arrivalTimestamp)
+							.data(ByteBuffer.wrap(data).asReadOnlyBuffer())
+							.build());
+		}
+
+		RecordProcessorCheckpointer checkpointer =
+				(RecordProcessorCheckpointer) Proxy.newProxyInstance(getClass().getClassLoader(),
+						new Class<?>[] { RecordProcessorCheckpointer.class },
+						(proxy, method, args) -> {
+							if ("checkpoint".equals(method.getName())) {
+								this.checkpoints++;
+							}
+							else if ("toString".equals(method.getName())) {
+								return "InMemoryRecordProcessorCheckpointer";
+							}
+							return null;
+						});
+
+		this.processRecordsInput =
+				ProcessRecordsInput.builder()
+						.records(recordList)
+						.checkpointer(checkpointer)
+						.millisBehindLatest(0L)
+						.build();
+
+		this.adapter =
+				new KclMessageDrivenChannelAdapter(new InMemoryKinesisClient(), new NoopCloudWatchClient(),
+						new InMemoryDynamoDbClient(), STREAM);
+		this.adapter.setBeanFactory(new DefaultListableBeanFactory());
+		this.adapter.setListenerMode(this.listenerMode);
+		this.adapter.setCheckpointMode(CheckpointMode.batch);
+		this.adapter.setConverter(bytes -> bytes);
+		this.adapter.setOutputChannel((message, timeout) -> {
+			blackhole.consume(message);
+			return true;
+		});
+		// Capture the KCL Scheduler instead of running it
+		this.adapter.setExecutor(task -> this.scheduler = (Scheduler) task);
+		this.adapter.setGracefulShutdownTimeout(0);
+		this.adapter.afterPropertiesSet();
+		this.adapter.start();
+
+		this.recordProcessor =
+				this.scheduler.shardRecordProcessorFactory()
+						.shardRecordProcessor(StreamIdentifier.singleStreamInstance(STREAM));
+		this.recordProcessor.initialize(
+				InitializationInput.builder()
+						.shardId("shardId-000000000000")
+						.build());
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.adapter.destroy();
+	}
+
+	@Benchmark
+	public long processRecords() {
+		this.recordProcessor.processRecords(this.processRecordsInput);
+		return this.checkpoints;
+	}
+
+	/**
+	 * The {@link CloudWatchAsyncClient} which is not expected to be called.
+	 */
+	private static final class NoopCloudWatchClient implements CloudWatchAsyncClient {
+
+		@Override
+		public String serviceName() {
+			return SERVICE_NAME;
+		}
+
+		@Override
+		public void close() {
+			// No-op
+		}
+
+	}
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.PutRecordRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.aws.ThreadCountProfiler;
+import org.springframework.integration.aws.testing.InMemoryKinesisClient;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+
+/**
+ * Compares the shard consumption models of the {@link KinesisMessageDrivenChannelAdapter}:
+ * the {@code ConsumerDispatcher} submitting tasks to the {@code consumerExecutor},
+ * the fixed number of {@code ConsumerInvoker}s and the thread-per-shard mode
+ * (virtual threads on Java 21+).
+ * <p>
+ * The {@code jmh} task runs on the Gradle JVM, so the thread-per-shard mode falls back
+ * to platform threads on Java 17. Run it with the {@code -PjmhJavaVersion=21} to measure virtual threads.
+ * <p>
+ * Every call of the {@link InMemoryKinesisClient} is served with a fixed latency,
+ * and a record is put into every shard each {@code 100} milliseconds, so all the shards are polled
+ * without the backoff for empty batches.
+ * The benchmark method puts a probe record into the next shard and waits for its delivery,
+ * so the sampled time (with its p50/p99 percentiles) is the end-to-end latency of a record.
+ * The live and peak JVM thread counts are reported by the {@link ThreadCountProfiler}.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class KinesisConsumerThreadingBenchmark {
+
+	private static final String STREAM = "benchmarkStream";
+
+	private static final long LOAD_INTERVAL_MILLIS = 100;
+
+	private static final int PUT_RECORDS_LIMIT = 500;
+
+	private static final SdkBytes LOAD_DATA = SdkBytes.fromByteArrayUnsafe(new byte[1]);
+
+	private static final SdkBytes PROBE_DATA = SdkBytes.fromByteArrayUnsafe(new byte[Long.BYTES]);
+
+	@Param({ "64", "512" })
+	public int shards;
+
+	@Param({ "dispatcher", "invokers", "threadPerShard" })
+	public String mode;
+
+	@Param("5")
+	public long getRecordsLatencyMillis;
+
+	private final Semaphore probeDeliveries = new Semaphore(0);
+
+	private final List<PutRecordsRequest> loadRequests = new ArrayList<>();
+
+	private final ScheduledExecutorService loadProducer = Executors.newSingleThreadScheduledExecutor();
+
+	private InMemoryKinesisClient amazonKinesis;
+
+	private PutRecordRequest[] probeRequests;
+
+	private int probeShard;
+
+	private KinesisMessageDrivenChannelAdapter adapter;
+
+	@Setup
+	public void setup() {
+		this.amazonKinesis = new InMemoryKinesisClient();
+		this.amazonKinesis.setLatency(Duration.ofMillis(this.getRecordsLatencyMillis));
+		this.amazonKinesis.createStream(request -> request.streamName(STREAM).shardCount(this.shards)).join();
+
+		List<Shard> streamShards =
+				this.amazonKinesis.listShards(request -> request.streamName(STREAM).maxResults(this.shards))
+						.join()
+						.shards();
+		this.probeRequests = new PutRecordRequest[streamShards.size()];
+		List<PutRecordsRequestEntry> loadEntries = new ArrayList<>(PUT_RECORDS_LIMIT);
+		for (int i = 0; i < streamShards.size(); i++) {
+			String hashKey = streamShards.get(i).hashKeyRange().startingHashKey();
+			this.probeRequests[i] =
+					PutRecordRequest.builder()
+							.streamName(STREAM)
+							.partitionKey("probe")
+							.explicitHashKey(hashKey)
+							.data(PROBE_DATA)
+							.build();
+			loadEntries.add(
+					PutRecordsRequestEntry.builder()
+							.partitionKey("load")
+							.explicitHashKey(hashKey)
+							.data(LOAD_DATA)
+							.build());
+			if (loadEntries.size() == PUT_RECORDS_LIMIT || i == streamShards.size() - 1) {
+				this.loadRequests.add(
+						PutRecordsRequest.builder()
+								.streamName(STREAM)
+								.records(loadEntries)
+								.build());
+				loadEntries = new ArrayList<>(PUT_RECORDS_LIMIT);
+			}
+		}
+
+		this.adapter = new KinesisMessageDrivenChannelAdapter(this.amazonKinesis, STREAM);
+		this.adapter.setBeanFactory(new DefaultListableBeanFactory());
+		this.adapter.setCheckpointStore(new SimpleMetadataStore());
+		this.adapter.setStreamInitialSequence(KinesisShardOffset.trimHorizon());
+		this.adapter.setConverter(data -> data);
+		this.adapter.setOutputChannel((message, timeout) -> {
+			if (((byte[]) message.getPayload()).length == Long.BYTES) {
+				this.probeDeliveries.release();
+			}
+			return true;
+		});
+		this.adapter.setIdleBetweenPolls(250);
+		switch (this.mode) {
+			case "invokers" -> this.adapter.setConcurrency(Runtime.getRuntime().availableProcessors());
+			case "threadPerShard" -> this.adapter.setThreadPerShard(true);
+			default -> {
+			}
+		}
+		this.adapter.afterPropertiesSet();
+		this.adapter.start();
+
+		this.loadProducer.scheduleWithFixedDelay(() -> {
+			for (PutRecordsRequest loadRequest : this.loadRequests) {
+				this.amazonKinesis.putRecords(loadRequest).join();
+			}
+		}, 0, LOAD_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.loadProducer.shutdownNow();
+		this.adapter.stop();
+		this.adapter.destroy();
+		this.amazonKinesis.close();
+	}
+
+	@Benchmark
+	public void deliverRecord() throws InterruptedException {
+		this.amazonKinesis.putRecord(this.probeRequests[this.probeShard++ % this.probeRequests.length]);
+		this.probeDeliveries.acquire();
+	}
+
+}
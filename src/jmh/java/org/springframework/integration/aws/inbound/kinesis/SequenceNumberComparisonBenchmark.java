@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.metadata.SimpleMetadataStore;
+
+/**
+ * Compares the {@link BigInteger} based Kinesis sequence number comparison with the {@link SequenceNumbers}
+ * and measures the record-mode checkpoint hot path of the {@link ShardCheckpointer}.
+ * The allocation rate ({@code gc.alloc.rate.norm}) is reported by the {@code gc} profiler
+ * configured for the {@code jmh} task.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SequenceNumberComparisonBenchmark {
+
+	private static final int RECORDS = 1024;
+
+	private final String[] sequenceNumbers = new String[RECORDS];
+
+	private ShardCheckpointer checkpointer;
+
+	private int index;
+
+	@Setup
+	public void setup() {
+		BigInteger sequence = new BigInteger("49590338271490256608559692538361571095921575989136588898");
+		for (int i = 0; i < RECORDS; i++) {
+			this.sequenceNumbers[i] = sequence.add(BigInteger.valueOf(i)).toString();
+		}
+		this.checkpointer = new ShardCheckpointer(new SimpleMetadataStore(), "benchmarkKey", true);
+	}
+
+	@Benchmark
+	public int compareBigInteger() {
+		String current = nextSequenceNumber();
+		return new BigInteger(this.sequenceNumbers[0]).compareTo(new BigInteger(current));
+	}
+
+	@Benchmark
+	public int compareSequenceNumbers() {
+		String current = nextSequenceNumber();
+		return SequenceNumbers.compare(this.sequenceNumbers[0], current);
+	}
+
+	/**
+	 * The {@link CheckpointMode#record} hot path with write-behind checkpoints:
+	 * every record advances the in-memory high-water mark which is flushed once per "batch".
+	 * @return whether the checkpoint has been accepted.
+	 */
+	@Benchmark
+	public boolean recordModeCheckpoint() {
+		String current = nextSequenceNumber();
+		if (this.index == 0) {
+			this.checkpointer.flush();
+			// Start over for the next "batch"
+			this.checkpointer.remove();
+		}
+		return this.checkpointer.checkpoint(current);
+	}
+
+	private String nextSequenceNumber() {
+		String sequenceNumber = this.sequenceNumbers[this.index];
+		this.index = (this.index + 1) % RECORDS;
+		return sequenceNumber;
+	}
+
+}
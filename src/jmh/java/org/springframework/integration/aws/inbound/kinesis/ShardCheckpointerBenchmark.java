@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.integration.metadata.SimpleMetadataStore;
+
+/**
+ * Measures the {@link ShardCheckpointer#checkpoint(String)} against an in-memory checkpoint store
+ * with and without write-behind: for every record of a batch ({@link CheckpointMode#record})
+ * and once per batch ({@link CheckpointMode#batch}).
+ * The write-behind checkpoints are flushed at the end of each batch.
+ * The scores are per record.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardCheckpointerBenchmark {
+
+	private static final int RECORDS = 100;
+
+	private static final int BATCHES = 64;
+
+	@Param({ "false", "true" })
+	public boolean writeBehind;
+
+	private final String[][] batches = new String[BATCHES][RECORDS];
+
+	private ShardCheckpointer checkpointer;
+
+	private int batch;
+
+	@Setup
+	public void setup() {
+		BigInteger sequence = new BigInteger("49590338271490256608559692538361571095921575989136588898");
+		for (String[] sequenceNumbers : this.batches) {
+			for (int i = 0; i < RECORDS; i++) {
+				sequence = sequence.add(BigInteger.ONE);
+				sequenceNumbers[i] = sequence.toString();
+			}
+		}
+		this.checkpointer = new ShardCheckpointer(new SimpleMetadataStore(), "benchmarkKey", this.writeBehind);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public boolean recordCheckpoint() {
+		String[] sequenceNumbers = nextBatch();
+		boolean checkpointed = false;
+		for (String sequenceNumber : sequenceNumbers) {
+			checkpointed |= this.checkpointer.checkpoint(sequenceNumber);
+		}
+		this.checkpointer.flush();
+		return checkpointed;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(RECORDS)
+	public boolean batchCheckpoint() {
+		String[] sequenceNumbers = nextBatch();
+		this.checkpointer.setHighestSequence(sequenceNumbers[RECORDS - 1]);
+		boolean checkpointed = this.checkpointer.checkpoint();
+		this.checkpointer.flush();
+		return checkpointed;
+	}
+
+	private String[] nextBatch() {
+		if (this.batch == 0) {
+			// Start over: the next batches must be ahead of the checkpoint
+			this.checkpointer.remove();
+		}
+		String[] sequenceNumbers = this.batches[this.batch];
+		this.batch = (this.batch + 1) % BATCHES;
+		return sequenceNumbers;
+	}
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.aws.testing.InMemoryKinesisClient;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+
+/**
+ * Measures the records processing of the {@link KinesisMessageDrivenChannelAdapter}
+ * in the {@link ListenerMode#record} and {@link ListenerMode#batch} modes:
+ * the records are converted, emitted to the output channel
+ * and checkpointed (the {@link CheckpointMode#batch}) into an in-memory checkpoint store.
+ * <p>
+ * The single-shard stream of the {@link InMemoryKinesisClient} is consumed via the enhanced fan-out
+ * in the {@link KinesisMessageDrivenChannelAdapter#setThreadPerShard(boolean)} mode:
+ * the records are pushed to the shard consumer as soon as they are put into the stream,
+ * so neither the {@code GetRecords} polling cadence nor the backoff for empty batches is a part of the score.
+ * The stream and the adapter are re-created for every iteration since the in-memory records are never trimmed.
+ * The scores are per batch of the {@code records} size put into the stream and delivered to the output channel.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardConsumerRecordsBenchmark {
+
+	private static final String STREAM = "benchmarkStream";
+
+	@Param({ "record", "batch" })
+	public ListenerMode listenerMode;
+
+	@Param({ "10", "500" })
+	public int records;
+
+	@Param("256")
+	public int recordSize;
+
+	private final Semaphore deliveredRecords = new Semaphore(0);
+
+	private PutRecordsRequest putRecordsRequest;
+
+	private InMemoryKinesisClient amazonKinesis;
+
+	private KinesisMessageDrivenChannelAdapter adapter;
+
+	@Setup(Level.Iteration)
+	public void setup() throws InterruptedException {
+		SdkBytes data = SdkBytes.fromByteArrayUnsafe(new byte[this.recordSize]);
+		List<PutRecordsRequestEntry> entries = new ArrayList<>(this.records);
+		for (int i = 0; i < this.records; i++) {
+			entries.add(
+					PutRecordsRequestEntry.builder()
+							.partitionKey("partitionKey-" + i)
+							.data(data)
+							.build());
+		}
+		this.putRecordsRequest =
+				PutRecordsRequest.builder()
+						.streamName(STREAM)
+						.records(entries)
+						.build();
+
+		this.amazonKinesis = new InMemoryKinesisClient();
+		this.amazonKinesis.createStream(request -> request.streamName(STREAM).shardCount(1)).join();
+
+		this.adapter = new KinesisMessageDrivenChannelAdapter(this.amazonKinesis, STREAM);
+		this.adapter.setBeanFactory(new DefaultListableBeanFactory());
+		this.adapter.setCheckpointStore(new SimpleMetadataStore());
+		this.adapter.setStreamInitialSequence(KinesisShardOffset.trimHorizon());
+		this.adapter.setEnhancedFanOutConsumerName("benchmarkConsumer");
+		this.adapter.setThreadPerShard(true);
+		this.adapter.setListenerMode(this.listenerMode);
+		this.adapter.setConverter(bytes -> bytes);
+		this.adapter.setOutputChannel((message, timeout) -> {
+			this.deliveredRecords.release(message.getPayload() instanceof List<?> batch ? batch.size() : 1);
+			return true;
+		});
+		this.adapter.afterPropertiesSet();
+		this.adapter.start();
+
+		// Wait for the shard subscription to be established, so the measurement is not affected by the shard discovery
+		processRecords();
+		this.deliveredRecords.drainPermits();
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		this.adapter.stop();
+		this.adapter.destroy();
+		this.amazonKinesis.close();
+		this.deliveredRecords.drainPermits();
+	}
+
+	@Benchmark
+	public void processRecords() throws InterruptedException {
+		this.amazonKinesis.putRecords(this.putRecordsRequest).join();
+		this.deliveredRecords.acquire(this.records);
+	}
+
+}
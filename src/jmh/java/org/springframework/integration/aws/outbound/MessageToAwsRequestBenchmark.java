@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.outbound;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.awscore.AwsRequest;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.integration.aws.support.SnsHeaderMapper;
+import org.springframework.integration.aws.support.SqsHeaderMapper;
+import org.springframework.integration.aws.testing.InMemoryKinesisClient;
+import org.springframework.integration.aws.testing.InMemorySnsClient;
+import org.springframework.integration.aws.testing.InMemorySqsClient;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Measures the outbound hot paths of the AWS message handlers:
+ * the {@code messageToAwsRequest()} of the {@link SqsMessageHandler}, {@link SnsMessageHandler}
+ * and {@link KinesisMessageHandler}, and the
+ * {@link org.springframework.integration.aws.support.AbstractMessageAttributesHeaderMapper#fromHeaders}
+ * of the {@link SqsHeaderMapper} and {@link SnsHeaderMapper}.
+ * The AWS clients are the in-memory ones: the requests are built, but never sent.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageToAwsRequestBenchmark {
+
+	private static final String QUEUE = "benchmarkQueue";
+
+	private static final String TOPIC_ARN = "arn:aws:sns:us-east-1:000000000000:benchmarkTopic";
+
+	private final SqsHeaderMapper sqsHeaderMapper = new SqsHeaderMapper();
+
+	private final SnsHeaderMapper snsHeaderMapper = new SnsHeaderMapper();
+
+	private SqsMessageHandler sqsMessageHandler;
+
+	private SnsMessageHandler snsMessageHandler;
+
+	private KinesisMessageHandler kinesisMessageHandler;
+
+	private Message<String> message;
+
+	private Message<byte[]> recordMessage;
+
+	@Setup
+	public void setup() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+
+		InMemorySqsClient amazonSqs = new InMemorySqsClient();
+		amazonSqs.createQueue(request -> request.queueName(QUEUE)).join();
+
+		this.sqsMessageHandler = new SqsMessageHandler(amazonSqs);
+		this.sqsMessageHandler.setBeanFactory(beanFactory);
+		this.sqsMessageHandler.setQueue(QUEUE);
+		this.sqsMessageHandler.afterPropertiesSet();
+
+		this.snsMessageHandler = new SnsMessageHandler(new InMemorySnsClient());
+		this.snsMessageHandler.setBeanFactory(beanFactory);
+		this.snsMessageHandler.setTopicArn(TOPIC_ARN);
+		this.snsMessageHandler.afterPropertiesSet();
+
+		this.kinesisMessageHandler = new KinesisMessageHandler(new InMemoryKinesisClient());
+		this.kinesisMessageHandler.setBeanFactory(beanFactory);
+		this.kinesisMessageHandler.setStream("benchmarkStream");
+		this.kinesisMessageHandler.setPartitionKey("benchmarkPartitionKey");
+		this.kinesisMessageHandler.afterPropertiesSet();
+
+		this.message =
+				MessageBuilder.withPayload("{\"order\":42,\"items\":[\"foo\",\"bar\",\"baz\"]}")
+						.setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON)
+						.setHeader("traceId", "5f2b9c1e7a3d4e6f")
+						.setHeader("tenant", "benchmark")
+						.setHeader("priority", 5)
+						.setHeader("deadline", System.currentTimeMillis())
+						.setHeader("retry", Boolean.FALSE)
+						.setHeader("signature", new byte[32])
+						.build();
+
+		this.recordMessage = MessageBuilder.withPayload(new byte[256]).build();
+	}
+
+	@Benchmark
+	public AwsRequest sqsSendMessageRequest() {
+		return this.sqsMessageHandler.messageToAwsRequest(this.message);
+	}
+
+	@Benchmark
+	public AwsRequest snsPublishRequest() {
+		return this.snsMessageHandler.messageToAwsRequest(this.message);
+	}
+
+	@Benchmark
+	public AwsRequest kinesisPutRecordRequest() {
+		return this.kinesisMessageHandler.messageToAwsRequest(this.recordMessage);
+	}
+
+	@Benchmark
+	public Map<String, ?> sqsHeaderMapper() {
+		Map<String, software.amazon.awssdk.services.sqs.model.MessageAttributeValue> messageAttributes =
+				new HashMap<>();
+		this.sqsHeaderMapper.fromHeaders(this.message.getHeaders(), messageAttributes);
+		return messageAttributes;
+	}
+
+	@Benchmark
+	public Map<String, ?> snsHeaderMapper() {
+		Map<String, software.amazon.awssdk.services.sns.model.MessageAttributeValue> messageAttributes =
+				new HashMap<>();
+		this.snsHeaderMapper.fromHeaders(this.message.getHeaders(), messageAttributes);
+		return messageAttributes;
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.integration.aws.inbound.kinesis;
 
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -139,6 +140,9 @@ public class KclMessageDrivenChannelAdapter extends MessageProducerSupport
 
 	private Converter<byte[], Object> converter = new DeserializingConverter();
 
+	@Nullable
+	private Converter<ByteBuffer, Object> byteBufferConverter;
+
 	private ListenerMode listenerMode = ListenerMode.record;
 
 	private long checkpointsInterval = 5_000L;
@@ -259,6 +263,19 @@ public class KclMessageDrivenChannelAdapter extends MessageProducerSupport
 		this.converter = converter;
 	}
 
+	/**
+	 * Specify a {@link Converter} to deserialize the record's body from a read-only {@link ByteBuffer} view
+	 * over the record data without copying it into a {@code byte[]}.
+	 * Takes precedence over the {@link #setConverter(Converter)}.
+	 * Not used when an {@link #setEmbeddedHeadersMapper(InboundMessageMapper)} is provided.
+	 * @param byteBufferConverter the {@link Converter} to use.
+	 * @since 3.0.11
+	 * @see KinesisMessageDrivenChannelAdapter#setByteBufferConverter(Converter)
+	 */
+	public void setByteBufferConverter(Converter<ByteBuffer, Object> byteBufferConverter) {
+		this.byteBufferConverter = byteBufferConverter;
+	}
+
 	public void setListenerMode(ListenerMode listenerMode) {
 		Assert.notNull(listenerMode, "'listenerMode' must not be null");
 		this.listenerMode = listenerMode;
@@ -704,7 +721,9 @@ public class KclMessageDrivenChannelAdapter extends MessageProducerSupport
 
 				messageBuilder = getMessageBuilderFactory().withPayload(payload);
 			}
-			else if (KclMessageDrivenChannelAdapter.this.converter != null) {
+			else if (KclMessageDrivenChannelAdapter.this.converter != null
+					|| KclMessageDrivenChannelAdapter.this.byteBufferConverter != null) {
+
 				final List<String> partitionKeys = new ArrayList<>();
 				final List<String> sequenceNumbers = new ArrayList<>();
 
@@ -713,7 +732,7 @@ public class KclMessageDrivenChannelAdapter extends MessageProducerSupport
 							partitionKeys.add(r.partitionKey());
 							sequenceNumbers.add(r.sequenceNumber());
 
-							return KclMessageDrivenChannelAdapter.this.converter.convert(BinaryUtils.copyAllBytesFrom(r.data()));
+							return convertRecordData(r.data());
 						})
 						.toList();
 
@@ -725,9 +744,29 @@ public class KclMessageDrivenChannelAdapter extends MessageProducerSupport
 			performSend(messageBuilder, records, checkpointer);
 		}
 
+		@Nullable
+		private Object convertRecordData(ByteBuffer data) {
+			Converter<ByteBuffer, Object> byteBufferConverter = KclMessageDrivenChannelAdapter.this.byteBufferConverter;
+			if (byteBufferConverter != null) {
+				// A read-only view over the record data - no copy
+				return byteBufferConverter.convert(data.asReadOnlyBuffer());
+			}
+			return KclMessageDrivenChannelAdapter.this.converter.convert(BinaryUtils.copyAllBytesFrom(data));
+		}
+
 		private AbstractIntegrationMessageBuilder<Object> prepareMessageForRecord(KinesisClientRecord record) {
-			Object payload = BinaryUtils.copyAllBytesFrom(record.data());
+			Object payload;
 			Message<?> messageToUse = null;
+			boolean zeroCopy =
+					KclMessageDrivenChannelAdapter.this.embeddedHeadersMapper == null
+							&& KclMessageDrivenChannelAdapter.this.byteBufferConverter != null;
+
+			if (zeroCopy) {
+				payload = convertRecordData(record.data());
+			}
+			else {
+				payload = BinaryUtils.copyAllBytesFrom(record.data());
+			}
 
 			if (KclMessageDrivenChannelAdapter.this.embeddedHeadersMapper != null) {
 				try {
@@ -743,7 +782,7 @@ public class KclMessageDrivenChannelAdapter extends MessageProducerSupport
 				}
 			}
 
-			if (payload instanceof byte[] && KclMessageDrivenChannelAdapter.this.converter != null) {
+			if (!zeroCopy && payload instanceof byte[] && KclMessageDrivenChannelAdapter.this.converter != null) {
 				payload = KclMessageDrivenChannelAdapter.this.converter.convert((byte[]) payload);
 			}
 
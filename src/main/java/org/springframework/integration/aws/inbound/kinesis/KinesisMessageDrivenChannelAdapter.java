@@ -16,7 +16,8 @@
 
 package org.springframework.integration.aws.inbound.kinesis;
 
-import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -25,27 +26,49 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.ChildShard;
+import software.amazon.awssdk.services.kinesis.model.ConsumerDescription;
+import software.amazon.awssdk.services.kinesis.model.ConsumerStatus;
 import software.amazon.awssdk.services.kinesis.model.ExpiredIteratorException;
 import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
 import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
@@ -57,8 +80,14 @@ import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
 import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
 import software.amazon.awssdk.services.kinesis.model.ProvisionedThroughputExceededException;
 import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.ResourceInUseException;
 import software.amazon.awssdk.services.kinesis.model.Shard;
 import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.model.StartingPosition;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEvent;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEventStream;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardRequest;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponseHandler;
 
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.context.ApplicationEventPublisher;
@@ -68,7 +97,10 @@ import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.serializer.support.DeserializingConverter;
 import org.springframework.integration.IntegrationMessageHeaderAccessor;
 import org.springframework.integration.aws.event.KinesisShardEndedEvent;
+import org.springframework.integration.aws.lock.DynamoDbLockRegistry;
+import org.springframework.integration.aws.metadata.BatchMetadataStore;
 import org.springframework.integration.aws.support.AwsHeaders;
+import org.springframework.integration.channel.QueueChannelOperations;
 import org.springframework.integration.endpoint.MessageProducerSupport;
 import org.springframework.integration.mapping.InboundMessageMapper;
 import org.springframework.integration.metadata.ConcurrentMetadataStore;
@@ -79,10 +111,13 @@ import org.springframework.integration.support.ErrorMessageUtils;
 import org.springframework.integration.support.locks.LockRegistry;
 import org.springframework.integration.support.locks.RenewableLockRegistry;
 import org.springframework.integration.support.management.IntegrationManagedResource;
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.lang.Nullable;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
 import org.springframework.scheduling.SchedulingAwareRunnable;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.util.Assert;
@@ -109,6 +144,14 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 	private static final ThreadLocal<AttributeAccessor> attributesHolder = new ThreadLocal<>();
 
+	/**
+	 * The minimum interval between {@code GetRecords} calls for the same shard:
+	 * Kinesis allows up to 5 calls per second per shard.
+	 */
+	private static final long MIN_GET_RECORDS_INTERVAL = 200L;
+
+	private static final int MAX_RECORDS_LIMIT = 10000;
+
 	private final KinesisAsyncClient amazonKinesis;
 
 	private final String[] streams;
@@ -117,10 +160,28 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 	private final Map<KinesisShardOffset, ShardConsumer> shardConsumers = new ConcurrentHashMap<>();
 
+	/**
+	 * The meters of the current {@link ShardConsumer} per shard key:
+	 * the meters of a replaced consumer are removed before registering the ones for its replacement.
+	 */
+	private final Map<String, KinesisShardMetrics> shardMetrics = new ConcurrentHashMap<>();
+
 	private final Set<String> inResharding = new ConcurrentSkipListSet<>();
 
+	/**
+	 * The last known shard list per stream: the ending sequence numbers of closed shards
+	 * are resolved from there without listing the stream again.
+	 */
+	private final Map<String, CompletableFuture<List<Shard>>> shardListings = new ConcurrentHashMap<>();
+
+	private final Map<String, String> fanOutConsumerArns = new ConcurrentHashMap<>();
+
 	private final List<ConsumerInvoker> consumerInvokers = new ArrayList<>();
 
+	private final BlockingQueue<ShardConsumer> readyShardConsumers = new LinkedBlockingQueue<>();
+
+	private final DelayQueue<ScheduledShardConsumer> scheduledShardConsumers = new DelayQueue<>();
+
 	private final ShardConsumerManager shardConsumerManager = new ShardConsumerManager();
 
 	private final ExecutorService shardLocksExecutor =
@@ -146,6 +207,13 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 	private boolean consumerExecutorExplicitlySet;
 
+	private int keyOrderedConcurrency = 1;
+
+	@Nullable
+	private Executor keyOrderedExecutor;
+
+	private boolean keyOrderedExecutorExplicitlySet;
+
 	private int maxConcurrency;
 
 	private int concurrency;
@@ -154,18 +222,29 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 	private Converter<byte[], Object> converter = new DeserializingConverter();
 
+	@Nullable
+	private Converter<ByteBuffer, Object> byteBufferConverter;
+
 	private ListenerMode listenerMode = ListenerMode.record;
 
 	private CheckpointMode checkpointMode = CheckpointMode.batch;
 
 	private long checkpointsInterval = 5_000L;
 
+	private long checkpointFlushInterval;
+
 	private int recordsLimit = 10000;
 
 	private int idleBetweenPolls = 1000;
 
 	private int consumerBackoff = 1000;
 
+	private int maxConsumerBackoff = 30_000;
+
+	private boolean adaptivePolling;
+
+	private long adaptivePollingLagThreshold = 10_000L;
+
 	private int startTimeout = 60 * 1000;
 
 	private int describeStreamBackoff = 1000;
@@ -174,6 +253,8 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 	private long lockRenewalTimeout = 10_000L;
 
+	private long leaseBalancingInterval;
+
 	private boolean resetCheckpoints;
 
 	private InboundMessageMapper<byte[]> embeddedHeadersMapper;
@@ -182,17 +263,70 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 	private boolean bindSourceRecord;
 
+	private boolean deaggregateKplRecords;
+
+	private boolean backpressure;
+
+	@Nullable
+	private IntSupplier downstreamCapacity;
+
+	private long backpressureCheckInterval = 100L;
+
+	/**
+	 * The downstream capacity requested by in-flight {@code GetRecords} calls of all the shard consumers.
+	 */
+	private final AtomicInteger reservedDownstreamCapacity = new AtomicInteger();
+
 	private volatile boolean active;
 
 	private volatile int consumerInvokerMaxCapacity;
 
 	private volatile Future<?> shardConsumerManagerFuture;
 
+	@Nullable
+	private volatile ScheduledFuture<?> checkpointFlusherFuture;
+
 	private ApplicationEventPublisher applicationEventPublisher;
 
 	@Nullable
 	private Function<List<Shard>, List<Shard>> shardListFilter;
 
+	@Nullable
+	private String fanOutConsumerName;
+
+	private int prefetchDepth;
+
+	private long prefetchMaxBytes = 10 * 1024 * 1024;
+
+	private boolean nonBlockingConsumers;
+
+	private boolean threadPerShard;
+
+	private boolean workStealing;
+
+	private boolean deadlineScheduling;
+
+	@Nullable
+	private KinesisReadQuota readQuota;
+
+	private int maxRecordAttempts;
+
+	private long shardIteratorRefreshInterval = TimeUnit.MINUTES.toMillis(4);
+
+	@Nullable
+	private MessageChannel deadLetterChannel;
+
+	@Nullable
+	private String deadLetterChannelName;
+
+	@Nullable
+	private MetricsCaptor metricsCaptor;
+
+	private final List<MetricsCaptor.MeterFacade> meters = new ArrayList<>();
+
+	@Nullable
+	private MetricsCaptor.TimerFacade lockRenewTimer;
+
 	public KinesisMessageDrivenChannelAdapter(KinesisAsyncClient amazonKinesis, String... streams) {
 		Assert.notNull(amazonKinesis, "'amazonKinesis' must not be null.");
 		Assert.notEmpty(streams, "'streams' must not be null.");
@@ -243,6 +377,37 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		this.dispatcherExecutorExplicitlySet = true;
 	}
 
+	/**
+	 * Process records of a shard in parallel with the provided concurrency, partitioned by their partition key:
+	 * the records with the same partition key are processed in order, and different keys in parallel.
+	 * The next {@code GetRecords} batch of the shard is processed when all the records
+	 * of the current batch are processed.
+	 * The {@link CheckpointMode#record} and {@link CheckpointMode#periodic} checkpoints advance
+	 * a contiguous low-water mark of the processed records,
+	 * so the records after a gap might be re-processed after a failure.
+	 * Only used in the {@link ListenerMode#record}.
+	 * Defaults to {@code 1} - the records are processed one by one on the consumer thread.
+	 * @param keyOrderedConcurrency the number of parallel partitions of records for a shard.
+	 * @since 3.0.11
+	 * @see #setKeyOrderedExecutor(Executor)
+	 */
+	public void setKeyOrderedConcurrency(int keyOrderedConcurrency) {
+		Assert.isTrue(keyOrderedConcurrency > 0, "'keyOrderedConcurrency' must be greater than 0");
+		this.keyOrderedConcurrency = keyOrderedConcurrency;
+	}
+
+	/**
+	 * Set an {@link Executor} to process partitions of records in the {@link #setKeyOrderedConcurrency(int)} mode.
+	 * Defaults to the cached thread pool.
+	 * @param keyOrderedExecutor the {@link Executor} to use.
+	 * @since 3.0.11
+	 */
+	public void setKeyOrderedExecutor(Executor keyOrderedExecutor) {
+		Assert.notNull(keyOrderedExecutor, "'keyOrderedExecutor' must not be null");
+		this.keyOrderedExecutor = keyOrderedExecutor;
+		this.keyOrderedExecutorExplicitlySet = true;
+	}
+
 	public void setStreamInitialSequence(KinesisShardOffset streamInitialSequence) {
 		Assert.notNull(streamInitialSequence, "'streamInitialSequence' must not be null");
 		this.streamInitialSequence = streamInitialSequence;
@@ -257,6 +422,21 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		this.converter = converter;
 	}
 
+	/**
+	 * Specify a {@link Converter} to deserialize the record's body from a read-only {@link ByteBuffer} view
+	 * over the record data without copying it into a {@code byte[]}.
+	 * Takes precedence over the {@link #setConverter(Converter)}.
+	 * Use {@code ByteBuffer::asReadOnlyBuffer} (or similar identity function)
+	 * to deliver the {@link ByteBuffer} view as a payload.
+	 * Not used when an {@link #setEmbeddedHeadersMapper(InboundMessageMapper)} is provided
+	 * since the record data has to be parsed as a {@code byte[]}.
+	 * @param byteBufferConverter the {@link Converter} to use.
+	 * @since 3.0.11
+	 */
+	public void setByteBufferConverter(Converter<ByteBuffer, Object> byteBufferConverter) {
+		this.byteBufferConverter = byteBufferConverter;
+	}
+
 	public void setListenerMode(ListenerMode listenerMode) {
 		Assert.notNull(listenerMode, "'listenerMode' must not be null");
 		this.listenerMode = listenerMode;
@@ -276,6 +456,24 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		this.checkpointsInterval = checkpointsInterval;
 	}
 
+	/**
+	 * Enable a write-behind checkpointing with the provided flush interval in milliseconds.
+	 * The checkpoints (including manual ones) only advance an in-memory high-water mark for the shard,
+	 * and a background task persists the latest value per shard into the checkpoint store on this interval.
+	 * So, the consumer thread never waits for the checkpoint store and the number of writes is bounded
+	 * per shard, not per record.
+	 * The pending checkpoint is always flushed when the shard is ended, its lock is lost
+	 * and when this channel adapter is stopped.
+	 * Only the checkpoints which happen after the last flush might be reprocessed after a crash.
+	 * Defaults to {@code 0} - the checkpoints are persisted synchronously.
+	 * @param checkpointFlushInterval the interval for flushing checkpoints in milliseconds.
+	 * @since 3.0.11
+	 */
+	public void setCheckpointFlushInterval(long checkpointFlushInterval) {
+		Assert.isTrue(checkpointFlushInterval >= 0, "'checkpointFlushInterval' must not be negative");
+		this.checkpointFlushInterval = checkpointFlushInterval;
+	}
+
 	/**
 	 * The maximum record to poll per on get-records request. Not greater then {@code 10000}.
 	 * @param recordsLimit the number of records to for per on get-records request.
@@ -283,13 +481,54 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 	 */
 	public void setRecordsLimit(int recordsLimit) {
 		Assert.isTrue(recordsLimit > 0, "'recordsLimit' must be more than 0");
-		this.recordsLimit = Math.min(10000, recordsLimit);
+		this.recordsLimit = Math.min(MAX_RECORDS_LIMIT, recordsLimit);
 	}
 
 	public void setConsumerBackoff(int consumerBackoff) {
 		this.consumerBackoff = Math.max(1000, consumerBackoff);
 	}
 
+	/**
+	 * The upper bound in milliseconds for the exponential backoff of a shard consumer:
+	 * the backoff after consecutive {@code GetRecords} throttling, starting from the {@link #setConsumerBackoff(int)}
+	 * with a random jitter, and the backoff between consecutive empty batches in the
+	 * {@link #setAdaptivePolling(boolean)} mode.
+	 * Defaults to {@code 30000}.
+	 * @param maxConsumerBackoff the maximum backoff for a shard consumer.
+	 * @since 3.0.11
+	 */
+	public void setMaxConsumerBackoff(int maxConsumerBackoff) {
+		Assert.isTrue(maxConsumerBackoff > 0, "'maxConsumerBackoff' must be more than 0");
+		this.maxConsumerBackoff = maxConsumerBackoff;
+	}
+
+	/**
+	 * Set to true to adapt the polling rate of every shard to its {@code millisBehindLatest}
+	 * reported by the {@code GetRecords} response.
+	 * When a shard is behind the tip of the stream for more than {@link #setAdaptivePollingLagThreshold(long)},
+	 * it is polled again as soon as Kinesis limits allow (5 calls per second per shard) with the maximum
+	 * {@code GetRecords} limit of {@code 10000} records, instead of {@link #setRecordsLimit(int)}.
+	 * Otherwise, the shard is polled every {@link #setIdleBetweenPolls(int)} and consecutive empty
+	 * batches double the backoff from {@link #setConsumerBackoff(int)} up to {@link #setMaxConsumerBackoff(int)}.
+	 * Not used in the enhanced fan-out mode.
+	 * @param adaptivePolling true to adapt the polling rate to the shard lag.
+	 * @since 3.0.11
+	 */
+	public void setAdaptivePolling(boolean adaptivePolling) {
+		this.adaptivePolling = adaptivePolling;
+	}
+
+	/**
+	 * The {@code millisBehindLatest} from which a shard is considered as lagging in the
+	 * {@link #setAdaptivePolling(boolean)} mode. Defaults to {@code 10000}.
+	 * @param adaptivePollingLagThreshold the lag in milliseconds to poll a shard at the maximum rate.
+	 * @since 3.0.11
+	 */
+	public void setAdaptivePollingLagThreshold(long adaptivePollingLagThreshold) {
+		Assert.isTrue(adaptivePollingLagThreshold >= 0, "'adaptivePollingLagThreshold' must not be negative");
+		this.adaptivePollingLagThreshold = adaptivePollingLagThreshold;
+	}
+
 	public void setDescribeStreamBackoff(int describeStreamBackoff) {
 		this.describeStreamBackoff = Math.max(1000, describeStreamBackoff);
 	}
@@ -306,6 +545,9 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 	/**
 	 * Configure a timeout in milliseconds to wait for lock on shard renewal.
+	 * All the held shard locks are renewed in a batch by a background task:
+	 * if the batch is not completed during this timeout, its result is awaited on the next pass
+	 * and only the locks which leases have expired meanwhile are considered as lost.
 	 * @param lockRenewalTimeout the timeout to wait for lock renew in milliseconds.
 	 * @since 2.3.5
 	 */
@@ -314,6 +556,26 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		this.lockRenewalTimeout = lockRenewalTimeout;
 	}
 
+	/**
+	 * Enable a fair balancing of shard locks between cluster nodes of the same consumer group
+	 * with the provided interval in milliseconds.
+	 * Every node stores a heartbeat via {@link DynamoDbLockRegistry#heartbeat(String)} on this interval
+	 * and computes its fair share of shards as the number of shards divided by the number of live nodes.
+	 * A node does not acquire more shard locks than its fair share and releases surplus shards
+	 * (after stopping their consumers) for under-loaded nodes.
+	 * A released shard is not acquired again by the same node during two intervals.
+	 * Requires a {@link DynamoDbLockRegistry} as the {@link #setLockRegistry(LockRegistry)}.
+	 * The interval must be at most a half of the {@link DynamoDbLockRegistry#getLeaseDuration()}
+	 * since the heartbeats are valid for the lease duration.
+	 * Defaults to {@code 0} - no balancing: the shard locks are acquired by the first node to try.
+	 * @param leaseBalancingInterval the interval for heartbeat and balancing in milliseconds.
+	 * @since 3.0.11
+	 */
+	public void setLeaseBalancingInterval(long leaseBalancingInterval) {
+		Assert.isTrue(leaseBalancingInterval >= 0, "'leaseBalancingInterval' must not be negative");
+		this.leaseBalancingInterval = leaseBalancingInterval;
+	}
+
 	/**
 	 * The maximum number of concurrent {@link ConsumerInvoker}s running. The {@link ShardConsumer}s
 	 * are evenly distributed between {@link ConsumerInvoker}s. Messages from within the same shard
@@ -365,6 +627,67 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		this.bindSourceRecord = bindSourceRecord;
 	}
 
+	/**
+	 * Set to true to de-aggregate records produced by the KPL with aggregation
+	 * (e.g. via {@link org.springframework.integration.aws.outbound.KplMessageHandler})
+	 * and deliver their sub-records as individual records.
+	 * The sub-records are parsed lazily from the aggregated record data in the {@link ListenerMode#record}.
+	 * A sub-record gets the sequence number of the aggregated record with a {@code .subSequence} suffix
+	 * (except the last one, which gets the aggregated record sequence number as is),
+	 * so the checkpoints can be done for sub-records and consumption is resumed after the checkpointed sub-record.
+	 * The records which are not aggregated are delivered as is.
+	 * @param deaggregateKplRecords true to de-aggregate KPL records.
+	 * @since 3.0.11
+	 */
+	public void setDeaggregateKplRecords(boolean deaggregateKplRecords) {
+		this.deaggregateKplRecords = deaggregateKplRecords;
+	}
+
+	/**
+	 * Set to true to pause polling of shards when the output channel is saturated.
+	 * The remaining capacity of the output channel is checked before every {@code GetRecords} call,
+	 * and it limits the number of records to request in the {@link ListenerMode#record}.
+	 * The capacity is reserved by each {@code GetRecords} call until its records are processed,
+	 * so the shard consumers don't request the same capacity concurrently.
+	 * When there is no capacity, the shard consumers are paused (sleep) without {@code GetRecords} calls
+	 * and re-check the capacity on the {@link #setBackpressureCheckInterval(long)}.
+	 * The shard iterators of paused consumers are refreshed proactively after the last delivered record,
+	 * so a long pause doesn't end up with an {@code ExpiredIteratorException}.
+	 * Requires the output channel to be a {@link QueueChannelOperations} (e.g. a bounded {@code QueueChannel}),
+	 * or a {@link #setDownstreamCapacity(IntSupplier)}.
+	 * Not used in the enhanced fan-out mode.
+	 * @param backpressure true to pause polling on downstream saturation.
+	 * @since 3.0.11
+	 */
+	public void setBackpressure(boolean backpressure) {
+		this.backpressure = backpressure;
+	}
+
+	/**
+	 * Set a function for the remaining capacity of the downstream flow (e.g. a queue size of an executor channel)
+	 * to pause shard polling on saturation.
+	 * Implies {@link #setBackpressure(boolean)}.
+	 * @param downstreamCapacity the function for the number of messages which can be sent without blocking.
+	 * @since 3.0.11
+	 */
+	public void setDownstreamCapacity(IntSupplier downstreamCapacity) {
+		Assert.notNull(downstreamCapacity, "'downstreamCapacity' must not be null");
+		this.downstreamCapacity = downstreamCapacity;
+		this.backpressure = true;
+	}
+
+	/**
+	 * The interval in milliseconds to re-check the downstream capacity by the shard consumers
+	 * paused because of {@link #setBackpressure(boolean)}.
+	 * Defaults to {@code 100}.
+	 * @param backpressureCheckInterval the interval to re-check the downstream capacity.
+	 * @since 3.0.11
+	 */
+	public void setBackpressureCheckInterval(long backpressureCheckInterval) {
+		Assert.isTrue(backpressureCheckInterval > 0, "'backpressureCheckInterval' must be more than 0");
+		this.backpressureCheckInterval = backpressureCheckInterval;
+	}
+
 	/**
 	 * Specify a {@link Function Function&lt;List&lt;Shard&gt;, List&lt;Shard&gt;&gt;} to filter the shards which will
 	 * be read from.
@@ -375,16 +698,318 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		this.shardListFilter = shardListFilter;
 	}
 
+	/**
+	 * The number of {@code GetRecords} responses to fetch ahead for each shard while the current batch
+	 * is processed. Defaults to {@code 0} - no prefetch: the next {@code GetRecords} request is performed
+	 * only after the current batch is processed and its {@code nextShardIterator} is stored.
+	 * Prefetched batches are discarded when the processing fails, so the shard iterator is rewound
+	 * according to the checkpoint as usual.
+	 * Makes sense only for hot streams: a prefetch is not initiated after an empty batch.
+	 * Not used in the enhanced fan-out mode.
+	 * @param prefetchDepth the number of batches to prefetch.
+	 * @since 3.0.11
+	 * @see #setPrefetchMaxBytes(long)
+	 */
+	public void setPrefetchDepth(int prefetchDepth) {
+		Assert.isTrue(prefetchDepth >= 0, "'prefetchDepth' must not be negative");
+		this.prefetchDepth = prefetchDepth;
+	}
+
+	/**
+	 * The maximum number of record data bytes to hold in the prefetched batches for each shard.
+	 * No more prefetches are initiated when the received, but not consumed yet batches reach this budget.
+	 * Defaults to 10 MB - the maximum size of a single {@code GetRecords} response.
+	 * @param prefetchMaxBytes the byte budget for prefetched batches.
+	 * @since 3.0.11
+	 * @see #setPrefetchDepth(int)
+	 */
+	public void setPrefetchMaxBytes(long prefetchMaxBytes) {
+		Assert.isTrue(prefetchMaxBytes > 0, "'prefetchMaxBytes' must be more than 0");
+		this.prefetchMaxBytes = prefetchMaxBytes;
+	}
+
+	/**
+	 * Set to true to drive the {@link ShardConsumer} state transitions by the {@link CompletableFuture}s
+	 * of the {@link KinesisAsyncClient} instead of blocking a consumer thread for the Kinesis calls.
+	 * In this mode the {@link ConsumerInvoker}s are not used and the {@link #setConcurrency(int)} is ignored:
+	 * only the records processing (and the checkpoint store interaction) is performed on the
+	 * {@link #setConsumerExecutor(Executor)} which is a fixed thread pool of the number of available
+	 * processors by default.
+	 * This way a small number of threads can multiplex a large number of shards.
+	 * The shard unlock on consumer stop is not waited for in this mode.
+	 * The checkpoint store calls remain blocking since the {@link ConcurrentMetadataStore} API is synchronous,
+	 * therefore they are never performed on the {@link KinesisAsyncClient} completion threads.
+	 * The stream and shards discovery remains blocking as well and is performed on the dispatcher thread.
+	 * Not used in the enhanced fan-out mode.
+	 * @param nonBlockingConsumers true to not block consumer threads for the Kinesis calls.
+	 * @since 3.0.11
+	 */
+	public void setNonBlockingConsumers(boolean nonBlockingConsumers) {
+		this.nonBlockingConsumers = nonBlockingConsumers;
+	}
+
+	/**
+	 * Set to true to run each {@link ShardConsumer} in its own long-lived task on the
+	 * {@link #setConsumerExecutor(Executor)} instead of multiplexing shards over {@link ConsumerInvoker}s.
+	 * Each shard makes its progress independently, so a slow shard does not delay others.
+	 * The {@link #setConcurrency(int)} is ignored in this mode.
+	 * If no explicit {@link #setConsumerExecutor(Executor)} is provided, a virtual thread per task executor
+	 * is used when available in the JVM (Java 21+), otherwise a cached thread pool of platform threads.
+	 * Ignored in the {@link #setNonBlockingConsumers(boolean)} mode.
+	 * @param threadPerShard true to consume every shard on its own thread.
+	 * @since 3.0.11
+	 */
+	public void setThreadPerShard(boolean threadPerShard) {
+		this.threadPerShard = threadPerShard;
+	}
+
+	/**
+	 * Set to true to not pin {@link ShardConsumer}s to {@link ConsumerInvoker}s.
+	 * Instead, the shard consumers with a ready task are placed to a shared queue
+	 * and any idle {@link ConsumerInvoker} takes the next one from there.
+	 * This way a few hot shards cannot starve others assigned to the same invoker.
+	 * A shard task is never run concurrently, so the order of records in the shard is preserved.
+	 * The number of invokers is still controlled by the {@link #setConcurrency(int)}, which must be set.
+	 * Ignored in the {@link #setNonBlockingConsumers(boolean)} and {@link #setThreadPerShard(boolean)} modes.
+	 * @param workStealing true to balance shard tasks between {@link ConsumerInvoker}s.
+	 * @since 3.0.11
+	 * @see #getConsumerInvokersUtilization()
+	 */
+	public void setWorkStealing(boolean workStealing) {
+		this.workStealing = workStealing;
+	}
+
+	/**
+	 * Set to true to let the {@link ConsumerDispatcher} wake up {@link ShardConsumer}s by their deadlines
+	 * instead of visiting every consumer each {@link #setIdleBetweenPolls(int)} interval.
+	 * A consumer is scheduled on a delay queue when its sleep ends or when its previous task completes
+	 * (not earlier than {@link #setIdleBetweenPolls(int)} since the previous task has been dispatched).
+	 * This way idle shards do not cost anything for the dispatcher and the wake-up latency does not depend
+	 * on the number of shards.
+	 * @param deadlineScheduling true to dispatch shard consumers by their deadlines.
+	 * @since 3.0.11
+	 */
+	public void setDeadlineScheduling(boolean deadlineScheduling) {
+		this.deadlineScheduling = deadlineScheduling;
+	}
+
+	/**
+	 * Return the fraction of time (from {@code 0} to {@code 1}) each {@link ConsumerInvoker}
+	 * has spent running shard tasks since it has been started, keyed by its thread name.
+	 * @return the utilization of the current {@link ConsumerInvoker}s.
+	 * @since 3.0.11
+	 */
+	public Map<String, Double> getConsumerInvokersUtilization() {
+		Map<String, Double> utilization = new LinkedHashMap<>();
+		synchronized (this.consumerInvokers) {
+			for (ConsumerInvoker consumerInvoker : this.consumerInvokers) {
+				utilization.put(consumerInvoker.toString(), consumerInvoker.utilization());
+			}
+		}
+		return utilization;
+	}
+
+	/**
+	 * Set a {@link KinesisReadQuota} to schedule {@code GetRecords} calls of every shard within its read limits
+	 * on the client side instead of reacting to the {@code ProvisionedThroughputExceededException}.
+	 * The same instance can be shared between adapters for different consumer groups of the same stream.
+	 * Not used in the enhanced fan-out mode.
+	 * @param readQuota the {@link KinesisReadQuota} to use.
+	 * @since 3.0.11
+	 */
+	public void setReadQuota(KinesisReadQuota readQuota) {
+		Assert.notNull(readQuota, "'readQuota' must not be null");
+		this.readQuota = readQuota;
+	}
+
+	/**
+	 * Set the number of attempts to process a record (or a batch of records in the {@link ListenerMode#batch})
+	 * failed downstream before it is recovered and skipped, so a poison record does not block the shard forever.
+	 * The records are re-fetched after the last checkpoint for every attempt, and the shard consumer backs off
+	 * exponentially between attempts: from the {@link #setConsumerBackoff(int)} up to the
+	 * {@link #setMaxConsumerBackoff(int)}.
+	 * When all the attempts are exhausted, an {@code ErrorMessage} with a {@link MessagingException}
+	 * for the failed message is sent to the {@link #setDeadLetterChannel(MessageChannel)}
+	 * (or to the error channel, if any), and the consumption continues after the failed records.
+	 * Defaults to {@code 0} - unlimited attempts without a backoff.
+	 * @param maxRecordAttempts the number of attempts for the failed records.
+	 * @since 3.0.11
+	 */
+	public void setMaxRecordAttempts(int maxRecordAttempts) {
+		Assert.isTrue(maxRecordAttempts >= 0, "'maxRecordAttempts' must not be negative");
+		this.maxRecordAttempts = maxRecordAttempts;
+	}
+
+	/**
+	 * Set a channel for the {@code ErrorMessage}s of records failed after all the
+	 * {@link #setMaxRecordAttempts(int)}. Defaults to the error channel of this adapter.
+	 * @param deadLetterChannel the channel for the failed records.
+	 * @since 3.0.11
+	 */
+	public void setDeadLetterChannel(MessageChannel deadLetterChannel) {
+		Assert.notNull(deadLetterChannel, "'deadLetterChannel' must not be null");
+		this.deadLetterChannel = deadLetterChannel;
+	}
+
+	/**
+	 * Set a channel name for the {@code ErrorMessage}s of records failed after all the
+	 * {@link #setMaxRecordAttempts(int)}. Defaults to the error channel of this adapter.
+	 * @param deadLetterChannelName the channel name for the failed records.
+	 * @since 3.0.11
+	 */
+	public void setDeadLetterChannelName(String deadLetterChannelName) {
+		Assert.hasText(deadLetterChannelName, "'deadLetterChannelName' must not be empty");
+		this.deadLetterChannelName = deadLetterChannelName;
+	}
+
+	/**
+	 * Set the age of a shard iterator after which it is refreshed for a sleeping (or paused) shard consumer,
+	 * so the consumer resumes without an {@link ExpiredIteratorException}.
+	 * The shard iterators are checked every 1/8 of this interval.
+	 * Must be less than 5 minutes - the lifetime of a shard iterator in Kinesis.
+	 * Defaults to 4 minutes.
+	 * Not used in the enhanced fan-out mode.
+	 * @param shardIteratorRefreshInterval the shard iterator age in milliseconds to refresh it.
+	 * @since 3.0.11
+	 */
+	public void setShardIteratorRefreshInterval(long shardIteratorRefreshInterval) {
+		Assert.isTrue(shardIteratorRefreshInterval > 0
+						&& shardIteratorRefreshInterval < TimeUnit.MINUTES.toMillis(5),
+				"'shardIteratorRefreshInterval' must be more than 0 and less than 5 minutes");
+		this.shardIteratorRefreshInterval = shardIteratorRefreshInterval;
+	}
+
+	/**
+	 * Switch the adapter to the enhanced fan-out mode: a stream consumer with the provided name
+	 * is registered (or reused if it exists already) for every consumed stream and the shards are
+	 * read via {@code SubscribeToShard} HTTP/2 event streams instead of {@code GetRecords} polling.
+	 * This way each consumer group gets its own dedicated read throughput per shard.
+	 * The {@link ListenerMode}, {@link CheckpointMode} and checkpoint store semantics remain the same.
+	 * The registered stream consumer is not deregistered when this adapter is stopped.
+	 * Since a shard subscription waits for events, it is recommended to not limit a
+	 * {@link #setConcurrency(int)} in this mode.
+	 * @param fanOutConsumerName the name of the stream consumer to register.
+	 * @since 3.0.11
+	 */
+	public void setEnhancedFanOutConsumerName(String fanOutConsumerName) {
+		Assert.hasText(fanOutConsumerName, "'fanOutConsumerName' must not be empty");
+		this.fanOutConsumerName = fanOutConsumerName;
+	}
+
+	/**
+	 * Register the meters for this adapter and its shard consumers with the provided {@link MetricsCaptor}.
+	 * Typically called by the framework when the integration management is enabled and a
+	 * {@code MeterRegistry} is present.
+	 * Besides the per-shard meters (see {@link KinesisShardMetrics}), these adapter meters are registered
+	 * (tagged with the {@code name} of this adapter):
+	 * <ul>
+	 * <li>{@code spring.integration.kinesis.consumers} - the number of shard consumers per {@code state} tag
+	 * ({@code NEW}, {@code EXPIRED}, {@code CONSUME}, {@code SLEEP}, {@code STOP});
+	 * <li>{@code spring.integration.kinesis.invoker.queue} - the number of shard consumers with tasks waiting
+	 * for (or being run by) the consumer invokers;
+	 * <li>{@code spring.integration.kinesis.lock.renew} - the latency of the shard locks renewal cycle.
+	 * </ul>
+	 * @param metricsCaptor the {@link MetricsCaptor} to use.
+	 * @since 3.0.11
+	 */
+	@Override
+	public void registerMetricsCaptor(MetricsCaptor metricsCaptor) {
+		super.registerMetricsCaptor(metricsCaptor);
+		this.metricsCaptor = metricsCaptor;
+	}
+
+	private String metricsName() {
+		String componentName = getComponentName();
+		return componentName != null ? componentName : getComponentType();
+	}
+
+	private void registerMetersIfAny() {
+		MetricsCaptor captor = this.metricsCaptor;
+		if (captor == null || !this.meters.isEmpty()) {
+			return;
+		}
+		String name = metricsName();
+		for (ConsumerState consumerState : ConsumerState.values()) {
+			this.meters.add(
+					captor.gaugeBuilder(KinesisShardMetrics.PREFIX + "consumers", this,
+									adapter -> ((KinesisMessageDrivenChannelAdapter) adapter).shardConsumers.values()
+											.stream()
+											.filter(shardConsumer -> consumerState == shardConsumer.state)
+											.count())
+							.tag("name", name)
+							.tag("state", consumerState.name())
+							.description("The number of shard consumers in the state")
+							.build());
+		}
+		this.meters.add(
+				captor.gaugeBuilder(KinesisShardMetrics.PREFIX + "invoker.queue", this,
+								adapter -> ((KinesisMessageDrivenChannelAdapter) adapter).invokerQueueDepth())
+						.tag("name", name)
+						.description("The number of shard consumers with tasks waiting for the consumer invokers")
+						.build());
+		this.lockRenewTimer =
+				captor.timerBuilder(KinesisShardMetrics.PREFIX + "lock.renew")
+						.tag("name", name)
+						.description("The latency of the shard locks renewal")
+						.build();
+		this.meters.add(this.lockRenewTimer);
+	}
+
+	private double invokerQueueDepth() {
+		if (this.workStealing) {
+			return this.readyShardConsumers.size();
+		}
+		return this.shardConsumers.values()
+				.stream()
+				.filter(shardConsumer -> shardConsumer.task != null)
+				.count();
+	}
+
 	@Override
 	protected void onInit() {
 		super.onInit();
 
 		final String componentName = getComponentName();
+		if (this.nonBlockingConsumers && isEnhancedFanOut()) {
+			logger.warn("The 'nonBlockingConsumers' is ignored in the enhanced fan-out mode.");
+			this.nonBlockingConsumers = false;
+		}
+		if (this.adaptivePolling && isEnhancedFanOut()) {
+			logger.warn("The 'adaptivePolling' is ignored in the enhanced fan-out mode.");
+			this.adaptivePolling = false;
+		}
+		if (this.workStealing && (this.threadPerShard || this.nonBlockingConsumers || this.maxConcurrency <= 0)) {
+			logger.warn("The 'workStealing' is ignored in the 'threadPerShard' or 'nonBlockingConsumers' mode, "
+					+ "or without 'concurrency'.");
+			this.workStealing = false;
+		}
+		if (this.threadPerShard && this.nonBlockingConsumers) {
+			logger.warn("The 'threadPerShard' is ignored in the 'nonBlockingConsumers' mode.");
+			this.threadPerShard = false;
+		}
 		if (this.consumerExecutor == null) {
-			this.consumerExecutor =
+			CustomizableThreadFactory threadFactory =
+					new CustomizableThreadFactory((componentName == null ? "" : componentName) + "-kinesis-consumer-");
+			if (this.nonBlockingConsumers) {
+				this.consumerExecutor =
+						Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory);
+			}
+			else if (this.threadPerShard) {
+				this.consumerExecutor = virtualThreadPerTaskExecutorIfAny(threadFactory);
+			}
+			else {
+				this.consumerExecutor = Executors.newCachedThreadPool(threadFactory);
+			}
+		}
+		if (this.keyOrderedConcurrency > 1 && !ListenerMode.record.equals(this.listenerMode)) {
+			logger.warn("The 'keyOrderedConcurrency' is ignored in the 'ListenerMode.batch'.");
+			this.keyOrderedConcurrency = 1;
+		}
+		if (this.keyOrderedConcurrency > 1 && this.keyOrderedExecutor == null) {
+			this.keyOrderedExecutor =
 					Executors.newCachedThreadPool(
 							new CustomizableThreadFactory(
-									(componentName == null ? "" : componentName) + "-kinesis-consumer-"));
+									(componentName == null ? "" : componentName) + "-kinesis-key-ordered-"));
 		}
 		if (this.dispatcherExecutor == null) {
 			this.dispatcherExecutor =
@@ -399,6 +1024,28 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 			}
 			this.lockRegistry = null;
 		}
+		if (this.leaseBalancingInterval > 0 && !(this.lockRegistry instanceof DynamoDbLockRegistry)) {
+			logger.warn("The 'leaseBalancingInterval' is ignored without a DynamoDbLockRegistry.");
+			this.leaseBalancingInterval = 0;
+		}
+		if (this.leaseBalancingInterval > 0) {
+			long leaseDuration = ((DynamoDbLockRegistry) this.lockRegistry).getLeaseDuration().toMillis();
+			Assert.state(this.leaseBalancingInterval * 2 <= leaseDuration,
+					() -> "The 'leaseBalancingInterval' [" + this.leaseBalancingInterval + "] must be at most a half "
+							+ "of the DynamoDbLockRegistry lease duration [" + leaseDuration + "] to not let "
+							+ "the heartbeats of live nodes to expire between balancing cycles.");
+		}
+	}
+
+	private ExecutorService virtualThreadPerTaskExecutorIfAny(ThreadFactory fallbackThreadFactory) {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch (ReflectiveOperationException ex) {
+			logger.info("Virtual threads are not available in this JVM. "
+					+ "Falling back to platform threads for the 'threadPerShard' mode.");
+			return Executors.newCachedThreadPool(fallbackThreadFactory);
+		}
 	}
 
 	@Override
@@ -409,6 +1056,13 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		if (!this.dispatcherExecutorExplicitlySet) {
 			((ExecutorService) this.dispatcherExecutor).shutdown();
 		}
+		if (this.keyOrderedExecutor != null && !this.keyOrderedExecutorExplicitlySet) {
+			((ExecutorService) this.keyOrderedExecutor).shutdown();
+		}
+		for (MetricsCaptor.MeterFacade meter : this.meters) {
+			meter.remove();
+		}
+		this.meters.clear();
 	}
 
 	@ManagedOperation
@@ -522,11 +1176,52 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 		this.active = true;
 
-		this.concurrency = Math.min(this.maxConcurrency, this.shardOffsets.size());
+		this.concurrency =
+				this.nonBlockingConsumers || this.threadPerShard
+						? 0
+						: Math.min(this.maxConcurrency, this.shardOffsets.size());
+
+		if (this.backpressure && this.downstreamCapacity == null) {
+			if (isEnhancedFanOut()) {
+				logger.warn("The 'backpressure' is ignored in the enhanced fan-out mode.");
+				this.backpressure = false;
+			}
+			else if (getOutputChannel() instanceof QueueChannelOperations queueChannel) {
+				this.downstreamCapacity = queueChannel::getRemainingCapacity;
+			}
+			else {
+				logger.warn("The 'backpressure' is ignored: the output channel is not a 'QueueChannelOperations' "
+						+ "and no 'downstreamCapacity' is provided.");
+				this.backpressure = false;
+			}
+		}
+
+		registerMetersIfAny();
 
 		this.dispatcherExecutor.execute(new ConsumerDispatcher());
 
 		this.shardConsumerManagerFuture = this.shardLocksExecutor.submit(this.shardConsumerManager);
+
+		if (this.checkpointFlushInterval > 0) {
+			this.checkpointFlusherFuture =
+					getTaskScheduler()
+							.scheduleAtFixedRate(this::flushCheckpoints, Duration.ofMillis(this.checkpointFlushInterval));
+		}
+	}
+
+	private void flushCheckpoints() {
+		for (ShardConsumer shardConsumer : this.shardConsumers.values()) {
+			if (this.lockRegistry != null && this.shardConsumerManager.isLockNotRenewed(shardConsumer.key)) {
+				// The ShardConsumer drops the pending checkpoint when it handles the lost lock
+				continue;
+			}
+			try {
+				shardConsumer.checkpointer.flush();
+			}
+			catch (Exception ex) {
+				logger.warn(ex, () -> "Cannot flush checkpoint for [" + shardConsumer + "]. Will be retried.");
+			}
+		}
 	}
 
 	private Collection<ShardConsumer> shardConsumerSubset(int i) {
@@ -554,56 +1249,100 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 	}
 
 	private List<Shard> readShardList(String stream) {
-		return this.readShardList(stream, 0);
+		try {
+			return readShardListAsync(stream, 0).join();
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof IllegalStateException illegalStateException) {
+				throw illegalStateException;
+			}
+			throw ex;
+		}
 	}
 
-	private List<Shard> readShardList(String stream, int retryCount) {
-		List<Shard> shardList = new ArrayList<>();
-
+	private CompletableFuture<List<Shard>> readShardListAsync(String stream, int retryCount) {
 		if (retryCount > this.describeStreamRetries) {
-			throw new IllegalStateException(
-					"Kinesis could not read shards from stream with name [" + stream + "] ");
+			return CompletableFuture.failedFuture(
+					new IllegalStateException("Kinesis could not read shards from stream with name [" + stream + "] "));
 		}
 
-		String nextToken = null;
 		ListShardsRequest.Builder listShardsRequest = ListShardsRequest.builder().streamName(stream);
 
-		try {
-			do {
-				ListShardsResponse listShardsResult =
-						this.amazonKinesis.listShards(listShardsRequest.nextToken(nextToken).build()).join();
-				shardList.addAll(listShardsResult.shards());
-				nextToken = listShardsResult.nextToken();
-			}
-			while (nextToken != null);
-		}
-		catch (CompletionException ex) {
-			if (ex.getCause() instanceof LimitExceededException) {
-				logger.info(() ->
-						"Got LimitExceededException when listing stream ["
-								+ stream
-								+ "]. "
-								+ "Backing off for ["
-								+ this.describeStreamBackoff
-								+ "] millis.");
+		return listShards(listShardsRequest, null, new ArrayList<>())
+				.exceptionallyCompose(ex -> {
+					Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+					if (cause instanceof LimitExceededException) {
+						logger.info(() ->
+								"Got LimitExceededException when listing stream ["
+										+ stream
+										+ "]. "
+										+ "Backing off for ["
+										+ this.describeStreamBackoff
+										+ "] millis.");
+
+						Executor delayedExecutor =
+								CompletableFuture.delayedExecutor(this.describeStreamBackoff, TimeUnit.MILLISECONDS);
+						return CompletableFuture.runAsync(() -> { }, delayedExecutor)
+								.thenCompose(v -> readShardListAsync(stream, retryCount + 1));
+					}
+					return CompletableFuture.failedFuture(cause);
+				});
+	}
 
-				try {
-					Thread.sleep(this.describeStreamBackoff);
-					readShardList(stream, retryCount + 1);
-				}
-				catch (InterruptedException interrupt) {
-					Thread.currentThread().interrupt();
-					throw new IllegalStateException(
-							"The [describeStream] thread for the stream [" + stream + "] has been interrupted.",
-							interrupt);
-				}
+	private CompletableFuture<List<Shard>> listShards(ListShardsRequest.Builder listShardsRequest,
+			@Nullable String nextToken, List<Shard> shardList) {
+
+		return this.amazonKinesis.listShards(listShardsRequest.nextToken(nextToken).build())
+				.thenCompose(listShardsResult -> {
+					shardList.addAll(listShardsResult.shards());
+					String next = listShardsResult.nextToken();
+					return next != null
+							? listShards(listShardsRequest, next, shardList)
+							: CompletableFuture.completedFuture(shardList);
+				});
+	}
+
+	/**
+	 * Resolve the ending sequence number of the closed shard from the known shard list of the stream.
+	 * The stream is listed again only if the shard is not known as closed there yet,
+	 * and the shards closed at the same time share a single listing.
+	 * @param stream the stream of the shard.
+	 * @param shardId the closed shard.
+	 * @param retryCount the number of listings which have not seen the shard closed yet.
+	 * @return the future for the ending sequence number, or for {@code null} if it is not resolved.
+	 */
+	private CompletableFuture<String> resolveEndingSequenceNumber(String stream, String shardId, int retryCount) {
+		CompletableFuture<List<Shard>> shardListing =
+				this.shardListings.compute(stream, (key, current) ->
+						current != null && (!current.isDone() || endingSequenceNumber(current, shardId) != null)
+								? current
+								: readShardListAsync(stream, 0));
+
+		return shardListing.thenCompose(shards -> {
+			String endingSequenceNumber = endingSequenceNumber(shards, shardId);
+			if (endingSequenceNumber == null && retryCount < this.describeStreamRetries) {
+				// The listing has been requested before the shard was closed
+				return resolveEndingSequenceNumber(stream, shardId, retryCount + 1);
 			}
-			else {
-				throw ex;
+			return CompletableFuture.completedFuture(endingSequenceNumber);
+		});
+	}
+
+	@Nullable
+	private static String endingSequenceNumber(CompletableFuture<List<Shard>> shardListing, String shardId) {
+		return shardListing.isDone() && !shardListing.isCompletedExceptionally()
+				? endingSequenceNumber(shardListing.join(), shardId)
+				: null;
+	}
+
+	@Nullable
+	private static String endingSequenceNumber(List<Shard> shards, String shardId) {
+		for (Shard shard : shards) {
+			if (shard.shardId().equals(shardId)) {
+				return shard.sequenceNumberRange().endingSequenceNumber();
 			}
 		}
-
-		return shardList;
+		return null;
 	}
 
 	private void populateShardsForStreams() {
@@ -637,16 +1376,18 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		List<Shard> shardsToConsume = new ArrayList<>();
 
 		List<Shard> shards = readShardList(stream);
+		this.shardListings.put(stream, CompletableFuture.completedFuture(shards));
 
 		try {
+			Map<String, String> checkpoints = readClosedShardsCheckpoints(stream, shards);
 			for (Shard shard : shards) {
 				String key = buildCheckpointKeyForShard(stream, shard.shardId());
 				String endingSequenceNumber = shard.sequenceNumberRange().endingSequenceNumber();
 				if (endingSequenceNumber != null) {
-					String checkpoint = this.checkpointStore.get(key);
+					String checkpoint = checkpoints.get(key);
 
-					boolean skipClosedAndExhaustedShard = checkpoint != null && new BigInteger(endingSequenceNumber)
-							.compareTo(new BigInteger(checkpoint)) <= 0;
+					boolean skipClosedAndExhaustedShard = checkpoint != null
+							&& SequenceNumbers.compare(endingSequenceNumber, checkpoint) <= 0;
 
 					logger.trace(() -> "The shard [" + shard + "] in stream [" + stream
 							+ "] is closed CLOSED and exhausted with endingSequenceNumber [" + endingSequenceNumber
@@ -670,13 +1411,46 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 				throw new IllegalStateException(exceptionMessage, ex);
 			}
 			//Retry
-			detectShardsToConsume(stream, retry + 1);
 			sleep(this.describeStreamBackoff, new IllegalStateException(exceptionMessage), false);
+			return detectShardsToConsume(stream, retry + 1);
 		}
 
 		return this.shardListFilter != null ? this.shardListFilter.apply(shardsToConsume) : shardsToConsume;
 	}
 
+	/**
+	 * Read the checkpoints for the closed shards of the stream: in bulk if the {@link #checkpointStore}
+	 * is a {@link BatchMetadataStore}, or one by one otherwise.
+	 * @param stream the stream of the shards.
+	 * @param shards the shards of the stream.
+	 * @return the map of checkpoint keys to checkpoints.
+	 */
+	private Map<String, String> readClosedShardsCheckpoints(String stream, List<Shard> shards) {
+		List<String> keys = new ArrayList<>();
+		for (Shard shard : shards) {
+			if (shard.sequenceNumberRange().endingSequenceNumber() != null) {
+				keys.add(buildCheckpointKeyForShard(stream, shard.shardId()));
+			}
+		}
+
+		if (keys.isEmpty()) {
+			return Collections.emptyMap();
+		}
+		else if (this.checkpointStore instanceof BatchMetadataStore batchMetadataStore) {
+			return batchMetadataStore.getAll(keys);
+		}
+		else {
+			Map<String, String> checkpoints = new HashMap<>();
+			for (String key : keys) {
+				String checkpoint = this.checkpointStore.get(key);
+				if (checkpoint != null) {
+					checkpoints.put(key, checkpoint);
+				}
+			}
+			return checkpoints;
+		}
+	}
+
 	private void sleep(long sleepAmount, RuntimeException error, boolean interruptThread) {
 		try {
 			Thread.sleep(sleepAmount);
@@ -741,7 +1515,20 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		shardOffset.setReset(this.resetCheckpoints);
 		ShardConsumer shardConsumer = new ShardConsumer(shardOffset);
 
-		if (this.active) {
+		if (this.active && this.threadPerShard) {
+			this.consumerExecutor.execute(shardConsumer::consumeInLoop);
+		}
+		else if (this.active && this.workStealing) {
+			synchronized (this.consumerInvokers) {
+				if (this.consumerInvokers.size() < this.maxConcurrency) {
+					// The invokers are not bound to shards: they take ready consumers from the shared queue
+					ConsumerInvoker consumerInvoker = new ConsumerInvoker(Collections.emptyList());
+					this.consumerInvokers.add(consumerInvoker);
+					this.consumerExecutor.execute(consumerInvoker);
+				}
+			}
+		}
+		else if (this.active && !this.nonBlockingConsumers) {
 			synchronized (this.consumerInvokers) {
 				if (this.consumerInvokers.size() < this.maxConcurrency) {
 					ConsumerInvoker consumerInvoker =
@@ -769,18 +1556,90 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		}
 
 		this.shardConsumers.put(shardOffset, shardConsumer);
+
+		if (this.deadlineScheduling) {
+			shardConsumer.schedule();
+		}
 	}
 
 	private String buildCheckpointKeyForShard(String stream, String shardId) {
 		return this.consumerGroup + ":" + stream + ":" + shardId;
 	}
 
+	private boolean isEnhancedFanOut() {
+		return this.fanOutConsumerName != null;
+	}
+
+	private String obtainFanOutConsumerArn(String stream) {
+		return this.fanOutConsumerArns.computeIfAbsent(stream, this::registerStreamConsumer);
+	}
+
+	private String registerStreamConsumer(String stream) {
+		String streamArn =
+				this.amazonKinesis.describeStreamSummary(request -> request.streamName(stream))
+						.join()
+						.streamDescriptionSummary()
+						.streamARN();
+
+		String consumerArn;
+		ConsumerStatus consumerStatus;
+		try {
+			var consumer =
+					this.amazonKinesis.registerStreamConsumer(request ->
+									request.streamARN(streamArn)
+											.consumerName(this.fanOutConsumerName))
+							.join()
+							.consumer();
+			consumerArn = consumer.consumerARN();
+			consumerStatus = consumer.consumerStatus();
+			logger.info(() -> "The stream consumer [" + this.fanOutConsumerName + "] has been registered for stream ["
+					+ stream + "].");
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof ResourceInUseException) {
+				ConsumerDescription consumerDescription = describeStreamConsumer(streamArn);
+				consumerArn = consumerDescription.consumerARN();
+				consumerStatus = consumerDescription.consumerStatus();
+			}
+			else {
+				throw ex;
+			}
+		}
+
+		for (int i = 0; ConsumerStatus.ACTIVE != consumerStatus; i++) {
+			if (i > this.describeStreamRetries) {
+				throw new IllegalStateException("The stream consumer [" + this.fanOutConsumerName
+						+ "] has not become ACTIVE for stream [" + stream + "]");
+			}
+			sleep(this.describeStreamBackoff,
+					new IllegalStateException("The stream consumer registration for stream [" + stream
+							+ "] has been interrupted"),
+					true);
+			consumerStatus = describeStreamConsumer(streamArn).consumerStatus();
+		}
+
+		return consumerArn;
+	}
+
+	private ConsumerDescription describeStreamConsumer(String streamArn) {
+		return this.amazonKinesis.describeStreamConsumer(request ->
+						request.streamARN(streamArn)
+								.consumerName(this.fanOutConsumerName))
+				.join()
+				.consumerDescription();
+	}
+
 	@Override
 	protected void doStop() {
 		for (ConsumerInvoker consumerInvoker : this.consumerInvokers) {
 			consumerInvoker.notifyBarrier();
 		}
 		super.doStop();
+		ScheduledFuture<?> checkpointFlusher = this.checkpointFlusherFuture;
+		if (checkpointFlusher != null) {
+			checkpointFlusher.cancel(false);
+			this.checkpointFlusherFuture = null;
+		}
 		stopConsumers();
 
 		this.active = false;
@@ -792,6 +1651,8 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 			shardConsumer.stop();
 		}
 		this.shardConsumers.clear();
+		this.readyShardConsumers.clear();
+		this.scheduledShardConsumers.clear();
 	}
 
 	/**
@@ -809,6 +1670,14 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 		}
 	}
 
+	@Nullable
+	private MessageChannel obtainDeadLetterChannel() {
+		if (this.deadLetterChannel == null && this.deadLetterChannelName != null) {
+			this.deadLetterChannel = getChannelResolver().resolveDestination(this.deadLetterChannelName);
+		}
+		return this.deadLetterChannel != null ? this.deadLetterChannel : getErrorChannel();
+	}
+
 	@Override
 	protected AttributeAccessor getErrorMessageAttributes(
 			org.springframework.messaging.Message<?> message) {
@@ -844,44 +1713,255 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 		private final Set<String> inReshardingProcess = new HashSet<>();
 
+		/**
+		 * The child shards waiting for their parents to be exhausted (possibly on other cluster nodes).
+		 */
+		private final Map<KinesisShardOffset, ChildShard> deferredChildShards = new HashMap<>();
+
+		private long nextShardIteratorsRefreshTime;
+
+		private long nextDeferredChildShardsCheckTime;
+
 		@Override
 		public void run() {
 			// We can't rely on the 'isRunning()' because of race condition,
 			// when 'running' is set after submitting this task
 			while (KinesisMessageDrivenChannelAdapter.this.active) {
-				for (String stream : KinesisMessageDrivenChannelAdapter.this.inResharding) {
-					// Local store to avoid several tasks for the same 'stream'
-					if (this.inReshardingProcess.add(stream)) {
-						logger.debug(() -> "Resharding has happened for stream [" + stream + "]. Rebalancing...");
-						populateShardsForStream(stream, null);
-					}
+				rebalanceReshardedStreams();
+				consumeDeferredChildShards();
+				refreshStaleShardIterators();
+
+				if (KinesisMessageDrivenChannelAdapter.this.deadlineScheduling) {
+					dispatchNextDue();
+					continue;
 				}
 
+				long sleepAmount = KinesisMessageDrivenChannelAdapter.this.idleBetweenPolls;
 				Iterator<ShardConsumer> iterator =
 						KinesisMessageDrivenChannelAdapter.this.shardConsumers.values().iterator();
 				while (iterator.hasNext()) {
 					ShardConsumer shardConsumer = iterator.next();
-					shardConsumer.execute();
+					if (!KinesisMessageDrivenChannelAdapter.this.threadPerShard
+							|| ConsumerState.STOP == shardConsumer.state) {
+
+						// In the 'threadPerShard' mode the consumer is driven by its own thread
+						shardConsumer.execute();
+						if (KinesisMessageDrivenChannelAdapter.this.adaptivePolling) {
+							sleepAmount = Math.min(sleepAmount, shardConsumer.nextPollDelay());
+						}
+					}
 					if (ConsumerState.STOP == shardConsumer.state) {
 						iterator.remove();
-						if (KinesisMessageDrivenChannelAdapter.this.streams != null
-								&& shardConsumer.shardIterator == null) {
-
-							// Shard is CLOSED and we are capable for resharding
-							KinesisShardOffset shardOffset = shardConsumer.shardOffset;
-							String stream = shardOffset.getStream();
-							if (KinesisMessageDrivenChannelAdapter.this.inResharding.add(stream)) {
-								this.inReshardingProcess.remove(stream);
-								synchronized (KinesisMessageDrivenChannelAdapter.this.shardOffsets) {
-									KinesisMessageDrivenChannelAdapter.this.shardOffsets.remove(shardOffset);
-								}
-							}
-						}
+						onConsumerStopped(shardConsumer);
 					}
 				}
 				String errorMsg = "ConsumerDispatcher Thread [" + this + "] has been interrupted";
-				sleep(KinesisMessageDrivenChannelAdapter.this.idleBetweenPolls, new IllegalStateException(errorMsg), true);
+				sleep(Math.max(1, sleepAmount), new IllegalStateException(errorMsg), true);
+			}
+		}
+
+		private void rebalanceReshardedStreams() {
+			for (String stream : KinesisMessageDrivenChannelAdapter.this.inResharding) {
+				// Local store to avoid several tasks for the same 'stream'
+				if (this.inReshardingProcess.add(stream)) {
+					logger.debug(() -> "Resharding has happened for stream [" + stream + "]. Rebalancing...");
+					populateShardsForStream(stream, null);
+				}
+			}
+		}
+
+		/**
+		 * Check the deferred child shards every {@code consumerBackoff}
+		 * and start consumers for those whose parents are exhausted now.
+		 */
+		private void consumeDeferredChildShards() {
+			if (this.deferredChildShards.isEmpty()) {
+				return;
+			}
+			long now = System.currentTimeMillis();
+			if (now < this.nextDeferredChildShardsCheckTime) {
+				return;
+			}
+			this.nextDeferredChildShardsCheckTime = now + KinesisMessageDrivenChannelAdapter.this.consumerBackoff;
+			for (Map.Entry<KinesisShardOffset, ChildShard> entry : new ArrayList<>(this.deferredChildShards.entrySet())) {
+				consumeChildShardIfParentsExhausted(entry.getKey().getStream(), entry.getValue());
+			}
+		}
+
+		/**
+		 * Refresh in one pass the shard iterators of all the sleeping (or paused) consumers which are going
+		 * to expire, so these consumers resume without an {@link ExpiredIteratorException} and the shard iterator
+		 * re-request after the checkpoint.
+		 * The pass is performed every 1/8 of the {@code shardIteratorRefreshInterval} independently of
+		 * the consumers' deadlines or threads, and the {@code GetShardIterator} requests are sent concurrently.
+		 */
+		private void refreshStaleShardIterators() {
+			long now = System.currentTimeMillis();
+			if (now < this.nextShardIteratorsRefreshTime) {
+				return;
+			}
+			this.nextShardIteratorsRefreshTime =
+					now + KinesisMessageDrivenChannelAdapter.this.shardIteratorRefreshInterval / 8;
+			int refreshing = 0;
+			for (ShardConsumer shardConsumer : KinesisMessageDrivenChannelAdapter.this.shardConsumers.values()) {
+				if (shardConsumer.refreshShardIteratorIfStale(now)) {
+					refreshing++;
+				}
+			}
+			if (refreshing > 0) {
+				int refreshed = refreshing;
+				logger.debug(() -> "Refreshing [" + refreshed + "] shard iterators ahead of their expiration.");
+			}
+		}
+
+		/**
+		 * Wait for the next {@link ShardConsumer} with an expired deadline, but not longer than
+		 * {@code idleBetweenPolls} to check the resharding, and execute it.
+		 */
+		private void dispatchNextDue() {
+			ScheduledShardConsumer scheduled;
+			try {
+				scheduled =
+						KinesisMessageDrivenChannelAdapter.this.scheduledShardConsumers.poll(
+								KinesisMessageDrivenChannelAdapter.this.idleBetweenPolls, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("ConsumerDispatcher Thread [" + this + "] has been interrupted", ex);
+			}
+
+			if (scheduled != null) {
+				ShardConsumer shardConsumer = scheduled.shardConsumer;
+				shardConsumer.scheduled.set(false);
+				KinesisShardOffset shardOffset = shardConsumer.shardOffset;
+				if (KinesisMessageDrivenChannelAdapter.this.shardConsumers.get(shardOffset) != shardConsumer) {
+					// Removed in between
+					return;
+				}
+				if (!KinesisMessageDrivenChannelAdapter.this.threadPerShard
+						|| ConsumerState.STOP == shardConsumer.state) {
+
+					shardConsumer.execute();
+				}
+				if (ConsumerState.STOP == shardConsumer.state) {
+					KinesisMessageDrivenChannelAdapter.this.shardConsumers.remove(shardOffset, shardConsumer);
+					onConsumerStopped(shardConsumer);
+				}
+				else if (shardConsumer.task == null) {
+					// Otherwise, the consumer is scheduled when its task is done
+					shardConsumer.schedule();
+				}
+			}
+		}
+
+		private void onConsumerStopped(ShardConsumer shardConsumer) {
+			shardConsumer.removeMetrics();
+			if (KinesisMessageDrivenChannelAdapter.this.streams != null && shardConsumer.isShardClosed()) {
+				// Shard is CLOSED and we are capable for resharding
+				if (consumeChildShards(shardConsumer)) {
+					return;
+				}
+				KinesisShardOffset shardOffset = shardConsumer.shardOffset;
+				String stream = shardOffset.getStream();
+				if (KinesisMessageDrivenChannelAdapter.this.inResharding.add(stream)) {
+					this.inReshardingProcess.remove(stream);
+					synchronized (KinesisMessageDrivenChannelAdapter.this.shardOffsets) {
+						KinesisMessageDrivenChannelAdapter.this.shardOffsets.remove(shardOffset);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Start consumers for the child shards reported by Kinesis for the closed shard
+		 * without listing the whole stream.
+		 * The child shard is not started until all its parents are exhausted:
+		 * the other parents may be consumed by this or other cluster nodes,
+		 * so their state is checked against the checkpoint store (the checkpoint at the ending sequence number).
+		 * Otherwise, the child shard is deferred and checked again every {@code consumerBackoff}.
+		 * The child shards are consumed from the {@link ShardIteratorType#TRIM_HORIZON}
+		 * (or their checkpoints) to not lose records produced before their consumers start.
+		 * @param shardConsumer the consumer for the closed shard.
+		 * @return false if the child shards are not known (or the {@code shardListFilter} has to be applied)
+		 * and the stream has to be listed again.
+		 */
+		private boolean consumeChildShards(ShardConsumer shardConsumer) {
+			List<ChildShard> childShards = shardConsumer.childShards;
+			if (childShards.isEmpty() || KinesisMessageDrivenChannelAdapter.this.shardListFilter != null) {
+				return false;
+			}
+
+			KinesisShardOffset parentOffset = shardConsumer.shardOffset;
+			synchronized (KinesisMessageDrivenChannelAdapter.this.shardOffsets) {
+				KinesisMessageDrivenChannelAdapter.this.shardOffsets.remove(parentOffset);
+			}
+			for (ChildShard childShard : childShards) {
+				consumeChildShardIfParentsExhausted(parentOffset.getStream(), childShard);
+			}
+			return true;
+		}
+
+		private void consumeChildShardIfParentsExhausted(String stream, ChildShard childShard) {
+			String childShardId = childShard.shardId();
+			KinesisShardOffset childOffset = KinesisShardOffset.trimHorizon(stream, childShardId);
+			Set<KinesisShardOffset> shardOffsets = KinesisMessageDrivenChannelAdapter.this.shardOffsets;
+			synchronized (shardOffsets) {
+				if (shardOffsets.contains(childOffset)) {
+					// Already started by another parent or by the stream listing
+					this.deferredChildShards.remove(childOffset);
+					return;
+				}
 			}
+			for (String parentShardId : childShard.parentShards()) {
+				if (!isParentShardExhausted(stream, parentShardId)) {
+					if (this.deferredChildShards.put(childOffset, childShard) == null) {
+						logger.debug(() -> "The child shard [" + childShardId + "] in stream [" + stream
+								+ "] is deferred until all its parents " + childShard.parentShards() + " are exhausted.");
+					}
+					return;
+				}
+			}
+			this.deferredChildShards.remove(childOffset);
+			boolean added;
+			synchronized (shardOffsets) {
+				for (String parentShardId : childShard.parentShards()) {
+					// Exhausted on other cluster nodes
+					shardOffsets.remove(KinesisShardOffset.latest(stream, parentShardId));
+				}
+				added = shardOffsets.add(childOffset);
+			}
+			if (added && KinesisMessageDrivenChannelAdapter.this.active) {
+				logger.debug(() -> "Starting a consumer for the child shard [" + childShardId + "] in stream ["
+						+ stream + "] of the closed shards " + childShard.parentShards() + ".");
+				KinesisMessageDrivenChannelAdapter.this.shardConsumerManager.addShardToConsume(childOffset);
+			}
+		}
+
+		private boolean isParentShardExhausted(String stream, String parentShardId) {
+			KinesisShardOffset parentOffset = KinesisShardOffset.latest(stream, parentShardId);
+			if (KinesisMessageDrivenChannelAdapter.this.shardConsumers.containsKey(parentOffset)) {
+				// Still consumed on this node
+				return false;
+			}
+			synchronized (KinesisMessageDrivenChannelAdapter.this.shardOffsets) {
+				if (!KinesisMessageDrivenChannelAdapter.this.shardOffsets.contains(parentOffset)) {
+					// Closed on this node or skipped as exhausted by the stream listing
+					return true;
+				}
+			}
+			CompletableFuture<List<Shard>> shardListing =
+					KinesisMessageDrivenChannelAdapter.this.shardListings.get(stream);
+			String endingSequenceNumber =
+					shardListing != null ? endingSequenceNumber(shardListing, parentShardId) : null;
+			if (endingSequenceNumber == null) {
+				// The listing is older than the parent closing: refresh it for the next check
+				resolveEndingSequenceNumber(stream, parentShardId, 0);
+				return false;
+			}
+			String checkpoint =
+					KinesisMessageDrivenChannelAdapter.this.checkpointStore.get(
+							buildCheckpointKeyForShard(stream, parentShardId));
+			return checkpoint != null && SequenceNumbers.compare(endingSequenceNumber, checkpoint) <= 0;
 		}
 
 		@Override
@@ -909,15 +1989,119 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 		private volatile String shardIterator;
 
+		private volatile long shardIteratorTime;
+
+		private volatile boolean paused;
+
+		/**
+		 * The downstream capacity reserved by the {@code GetRecords} calls of this consumer.
+		 */
+		private final AtomicInteger reservedCapacity = new AtomicInteger();
+
+		private volatile boolean shardIteratorRefreshing;
+
+		/**
+		 * The sequence number the current shard iterator is positioned after;
+		 * null if the shard iterator has been requested for the {@code shardOffset}.
+		 */
+		@Nullable
+		private volatile String shardIteratorSequenceNumber;
+
 		private volatile long sleepUntil;
 
-		private final Runnable processTask = processTask();
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private volatile long lastDispatchTime;
+
+		private volatile boolean lagging;
+
+		private int emptyPolls;
+
+		private int throttledPolls;
+
+		private volatile FanOutSubscriber fanOutSubscriber;
+
+		private volatile String continuationSequenceNumber;
+
+		/**
+		 * The sub-record checkpoint to skip KPL sub-records up to when resuming in the middle
+		 * of the aggregated record.
+		 */
+		@Nullable
+		private volatile String resumeAfterSubSequenceNumber;
+
+		/**
+		 * The earliest records failed downstream during the current processing cycle.
+		 */
+		private final AtomicReference<FailedRecords> failedRecords = new AtomicReference<>();
+
+		/**
+		 * The first sequence number of the failed records being retried.
+		 */
+		@Nullable
+		private String retrySequenceNumber;
+
+		private int retryAttempts;
+
+		/**
+		 * The last sequence number of the records recovered after all the attempts:
+		 * the records up to this one are skipped when re-fetched.
+		 */
+		@Nullable
+		private volatile String recoveredSequenceNumber;
+
+		private volatile boolean fanOutShardEnded;
+
+		/**
+		 * The child shards reported by Kinesis when this shard has been closed.
+		 */
+		private volatile List<ChildShard> childShards = Collections.emptyList();
+
+		private final Queue<CompletableFuture<GetRecordsResponse>> prefetched = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * The {@code GetRecords} requests issued by the prefetch chain and not completed yet.
+		 */
+		private final Set<CompletableFuture<GetRecordsResponse>> prefetchRequests = ConcurrentHashMap.newKeySet();
+
+		/**
+		 * The bytes of the prefetched batches received, but not consumed yet.
+		 */
+		private final AtomicLong prefetchedBytes = new AtomicLong();
+
+		private final Runnable shardIteratorTask = shardIteratorTask();
+
+		private final Runnable asyncShardIteratorTask = asyncShardIteratorTask();
+
+		private final Runnable processTask = () -> consume(() -> nextRecords().join());
+
+		private final Runnable asyncProcessTask = asyncProcessTask();
+
+		private final Runnable fanOutTask = fanOutTask();
+
+		@Nullable
+		private final KinesisShardMetrics metrics;
 
 		ShardConsumer(KinesisShardOffset shardOffset) {
 			this.shardOffset = new KinesisShardOffset(shardOffset);
 			this.key = buildCheckpointKeyForShard(shardOffset.getStream(), shardOffset.getShard());
 			this.checkpointer =
-					new ShardCheckpointer(KinesisMessageDrivenChannelAdapter.this.checkpointStore, this.key);
+					new ShardCheckpointer(KinesisMessageDrivenChannelAdapter.this.checkpointStore, this.key,
+							KinesisMessageDrivenChannelAdapter.this.checkpointFlushInterval > 0);
+			MetricsCaptor captor = KinesisMessageDrivenChannelAdapter.this.metricsCaptor;
+			this.metrics =
+					captor != null
+							? KinesisMessageDrivenChannelAdapter.this.shardMetrics.compute(this.key,
+							(shardKey, replacedMetrics) -> {
+								if (replacedMetrics != null) {
+									// Otherwise, the registry returns the replaced meters bound to the replaced consumer
+									replacedMetrics.remove();
+								}
+								return new KinesisShardMetrics(captor, metricsName(), shardOffset.getStream(),
+										shardOffset.getShard());
+							})
+							: null;
+			this.checkpointer.setMetrics(this.metrics);
 		}
 
 		void setNotifier(Runnable notifier) {
@@ -926,9 +2110,29 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 		void stop() {
 			this.state = ConsumerState.STOP;
+			flushCheckpoint();
+			discardPrefetched();
+			releaseDownstreamCapacity();
+			FanOutSubscriber subscriber = this.fanOutSubscriber;
+			if (subscriber != null) {
+				subscriber.cancel();
+			}
 			if (KinesisMessageDrivenChannelAdapter.this.lockRegistry != null) {
 				LockCompletableFuture unlockFuture = new LockCompletableFuture(this.key);
 				KinesisMessageDrivenChannelAdapter.this.shardConsumerManager.unlock(unlockFuture);
+				if (KinesisMessageDrivenChannelAdapter.this.nonBlockingConsumers) {
+					// Don't block the calling consumer executor thread until the ShardConsumerManager cycle
+					unlockFuture.orTimeout(KinesisMessageDrivenChannelAdapter.this.lockRenewalTimeout,
+									TimeUnit.MILLISECONDS)
+							.whenComplete((unlocked, ex) -> {
+								if (ex != null) {
+									logger.info(ex, () ->
+											"The lock for key '" + this.key + "' was not unlocked in time");
+								}
+								stopped();
+							});
+					return;
+				}
 				try {
 					unlockFuture.get(KinesisMessageDrivenChannelAdapter.this.lockRenewalTimeout, TimeUnit.MILLISECONDS);
 				}
@@ -939,9 +2143,23 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 					logger.info(ex, () -> "The lock for key '" + this.key + "' was not unlocked in time");
 				}
 			}
+			stopped();
+		}
+
+		private void stopped() {
 			if (this.notifier != null) {
 				this.notifier.run();
 			}
+			removeMetrics();
+		}
+
+		void removeMetrics() {
+			// Not the meters of a replacement consumer for the same shard
+			if (this.metrics != null
+					&& KinesisMessageDrivenChannelAdapter.this.shardMetrics.remove(this.key, this.metrics)) {
+
+				this.metrics.remove();
+			}
 		}
 
 		void close() {
@@ -949,6 +2167,15 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 			this.checkpointer.close();
 		}
 
+		private void flushCheckpoint() {
+			try {
+				this.checkpointer.flush();
+			}
+			catch (Exception ex) {
+				logger.warn(ex, () -> "Cannot flush checkpoint for [" + this + "]");
+			}
+		}
+
 		void execute() {
 			if (this.task == null) {
 				if (!renewLockIfAny()) {
@@ -958,60 +2185,41 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 				switch (this.state) {
 					case NEW:
 					case EXPIRED:
-						this.task =
-								() -> {
-									try {
-										if (this.shardOffset.isReset()) {
-											this.checkpointer.remove();
-										}
-										else {
-											String checkpoint = this.checkpointer.getCheckpoint();
-											if (checkpoint != null) {
-												this.shardOffset.setSequenceNumber(checkpoint);
-												this.shardOffset.setIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER);
-											}
-										}
-										if (this.state == ConsumerState.NEW) {
-											logger.info(() -> "The [" + this + "] has been started.");
-										}
-										GetShardIteratorRequest shardIteratorRequest =
-												this.shardOffset.toShardIteratorRequest();
-										try {
-											this.shardIterator =
-													KinesisMessageDrivenChannelAdapter.this
-															.amazonKinesis
-															.getShardIterator(shardIteratorRequest)
-															.thenApply(GetShardIteratorResponse::shardIterator)
-															.join();
-										}
-										catch (CompletionException ex) {
-											if (ex.getCause() instanceof InvalidArgumentException cause &&
-													cause.getMessage()
-															.contains("has reached max possible value for the shard")) {
-
-												logger.info(() ->
-														"The [" + this.shardOffset + "] has been closed. Skipping...");
-											}
-											else {
-												throw ex;
-											}
-										}
-										if (this.shardIterator == null) {
-											// The shard is closed - stop consumer
-											this.state = ConsumerState.STOP;
-										}
-										if (ConsumerState.STOP != this.state) {
-											this.state = ConsumerState.CONSUME;
-										}
-									}
-									finally {
-										this.task = null;
-									}
-								};
+						if (System.currentTimeMillis() < this.sleepUntil) {
+							// Back off the retry of the failed records before re-requesting the shard iterator
+							this.task = null;
+						}
+						else {
+							this.task =
+									KinesisMessageDrivenChannelAdapter.this.nonBlockingConsumers
+											? this.asyncShardIteratorTask
+											: this.shardIteratorTask;
+						}
 						break;
 
 					case CONSUME:
-						this.task = this.processTask;
+						if (isEnhancedFanOut()) {
+							this.task = this.fanOutTask;
+						}
+						else if (this.shardIteratorRefreshing) {
+							// Wait in the SLEEP state for the fresh shard iterator
+							prepareSleepState(MIN_GET_RECORDS_INTERVAL);
+							this.task = null;
+						}
+						else if (pauseOnBackpressure()) {
+							// Wait in the SLEEP state for the downstream capacity
+							this.task = null;
+						}
+						else if (this.prefetched.isEmpty() && !tryAcquireReadQuota()) {
+							// Wait in the SLEEP state for the read quota of the shard
+							this.task = null;
+						}
+						else {
+							this.task =
+									KinesisMessageDrivenChannelAdapter.this.nonBlockingConsumers
+											? this.asyncProcessTask
+											: this.processTask;
+						}
 						break;
 
 					case SLEEP:
@@ -1022,12 +2230,12 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 						break;
 
 					case STOP:
-						if (this.shardIterator == null) {
+						if (isShardClosed()) {
 							logger.info(() ->
 									"Stopping the ["
 											+ this
 											+ "] on the checkpoint ["
-											+ this.checkpointer.getCheckpoint()
+											+ this.checkpointer.getLastCheckpointValue()
 											+ "] because the shard has been CLOSED and exhausted.");
 						}
 						else {
@@ -1038,152 +2246,819 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 				}
 
 				if (this.task != null) {
-					if (this.notifier != null) {
-						this.notifier.run();
+					this.lastDispatchTime = System.currentTimeMillis();
+					if (KinesisMessageDrivenChannelAdapter.this.nonBlockingConsumers) {
+						// The task just initiates async requests
+						this.task.run();
+					}
+					else if (KinesisMessageDrivenChannelAdapter.this.workStealing) {
+						// The task is set only when the previous one is done, so the consumer is queued only once
+						KinesisMessageDrivenChannelAdapter.this.readyShardConsumers.add(this);
 					}
-					if (KinesisMessageDrivenChannelAdapter.this.concurrency == 0) {
-						KinesisMessageDrivenChannelAdapter.this.consumerExecutor.execute(this.task);
+					else if (!KinesisMessageDrivenChannelAdapter.this.threadPerShard) {
+						if (this.notifier != null) {
+							this.notifier.run();
+						}
+						if (KinesisMessageDrivenChannelAdapter.this.concurrency == 0) {
+							KinesisMessageDrivenChannelAdapter.this.consumerExecutor.execute(this.task);
+						}
 					}
 				}
 			}
 		}
 
-		private boolean renewLockIfAny() {
-			if (KinesisMessageDrivenChannelAdapter.this.lockRegistry != null && this.state == ConsumerState.CONSUME) {
-				LockCompletableFuture renewLockFuture = new LockCompletableFuture(this.key);
-				KinesisMessageDrivenChannelAdapter.this.shardConsumerManager.renewLock(renewLockFuture);
-				boolean lockRenewed = false;
-				try {
-					lockRenewed = renewLockFuture.get(KinesisMessageDrivenChannelAdapter.this.lockRenewalTimeout,
-							TimeUnit.MILLISECONDS);
-				}
-				catch (Exception ex) {
-					if (ex instanceof InterruptedException) {
-						Thread.currentThread().interrupt();
-					}
-					logger.info(ex, () -> "The lock for key '" + this.key + "' was not renewed in time");
-				}
+		private boolean pauseOnBackpressure() {
+			if (!KinesisMessageDrivenChannelAdapter.this.backpressure) {
+				return false;
+			}
+			if (remainingDownstreamCapacity()
+					- KinesisMessageDrivenChannelAdapter.this.reservedDownstreamCapacity.get() > 0) {
 
-				if (!lockRenewed && this.state == ConsumerState.CONSUME) {
-					this.state = ConsumerState.STOP;
-					this.checkpointer.close();
-					if (this.notifier != null) {
-						this.notifier.run();
-					}
-					if (KinesisMessageDrivenChannelAdapter.this.active) {
-						KinesisMessageDrivenChannelAdapter.this.shardConsumerManager.addShardToConsume(this.shardOffset);
-					}
-					return false;
+				if (this.paused) {
+					this.paused = false;
+					logger.debug(() -> "The [" + this + "] is resumed.");
 				}
+				return false;
 			}
+			if (!this.paused) {
+				this.paused = true;
+				logger.debug(() -> "The [" + this + "] is paused because the downstream is saturated.");
+			}
+			prepareSleepState(KinesisMessageDrivenChannelAdapter.this.backpressureCheckInterval);
 			return true;
 		}
 
-		private Runnable processTask() {
-			return () -> {
-				GetRecordsRequest getRecordsRequest =
-						GetRecordsRequest.builder()
-								.shardIterator(this.shardIterator)
-								.limit(KinesisMessageDrivenChannelAdapter.this.recordsLimit)
-								.build();
-
-				GetRecordsResponse result = null;
-
-				try {
-					result = getRecords(getRecordsRequest);
-					if (result != null) {
-						List<Record> records = result.records();
+		/**
+		 * Refresh the shard iterator of this consumer if it is sleeping (or paused)
+		 * and its shard iterator is going to expire soon.
+		 * @param now the current time.
+		 * @return true if the shard iterator is being refreshed.
+		 */
+		boolean refreshShardIteratorIfStale(long now) {
+			String staleShardIterator = this.shardIterator;
+			if (ConsumerState.SLEEP != this.state
+					|| this.task != null
+					|| this.shardIteratorRefreshing
+					|| staleShardIterator == null
+					|| isEnhancedFanOut()
+					|| now - this.shardIteratorTime
+							< KinesisMessageDrivenChannelAdapter.this.shardIteratorRefreshInterval) {
+
+				return false;
+			}
+			return refreshShardIterator(staleShardIterator);
+		}
 
-						if (!records.isEmpty()) {
-							processRecords(records);
-						}
-						this.shardIterator = result.nextShardIterator();
-					}
+		/**
+		 * Request a fresh shard iterator at the same position as the current one
+		 * without blocking the caller.
+		 * If the current iterator is positioned after the last fetched record,
+		 * the fresh one is requested after its sequence number.
+		 * Otherwise, the iterator has been requested for the {@code shardOffset}, and its position
+		 * cannot be requested again, e.g. the {@code LATEST} would skip the records added since.
+		 * Therefore, the next record is peeked with the stale iterator and the fresh one is requested at it,
+		 * or the next iterator of an empty batch is taken as is.
+		 * The peek is a {@code GetRecords} call: it is skipped until the next pass if the read quota is exhausted.
+		 * The consumer is kept sleeping until the iterator is refreshed.
+		 * @param staleShardIterator the shard iterator to replace.
+		 * @return true if the shard iterator is being refreshed.
+		 */
+		private boolean refreshShardIterator(String staleShardIterator) {
+			String sequenceNumber = this.shardIteratorSequenceNumber;
+			KinesisReadQuota quota = KinesisMessageDrivenChannelAdapter.this.readQuota;
+			if (sequenceNumber == null
+					&& quota != null
+					&& quota.tryAcquireCall(this.shardOffset.getStream(), this.shardOffset.getShard()) > 0) {
+
+				logger.trace(() -> "The read quota is exhausted for [" + this + "]. "
+						+ "The shard iterator is refreshed on the next pass.");
+				return false;
+			}
+			this.shardIteratorRefreshing = true;
+			discardPrefetched();
+			logger.debug(() -> "Refreshing the shard iterator for [" + this + "].");
+			CompletableFuture<String> freshShardIterator;
+			if (sequenceNumber != null) {
+				KinesisShardOffset offset = new KinesisShardOffset(this.shardOffset);
+				positionAfterCheckpoint(offset, sequenceNumber);
+				freshShardIterator = getShardIterator(offset);
+			}
+			else {
+				freshShardIterator =
+						peekRecord(staleShardIterator)
+								.thenCompose(response -> {
+									if (response.records().isEmpty()) {
+										return CompletableFuture.completedFuture(response.nextShardIterator());
+									}
+									return getShardIterator(
+											KinesisShardOffset.atSequenceNumber(this.shardOffset.getStream(),
+													this.shardOffset.getShard(),
+													response.records().get(0).sequenceNumber()));
+								});
+			}
+			freshShardIterator.whenComplete((shardIterator, ex) -> {
+				if (ex != null) {
+					logger.info(ex, () -> "Cannot refresh the shard iterator for [" + this + "]. "
+							+ "Will be retried on the next iteration.");
 				}
-				catch (Exception ex) {
-					rewindIteratorOnError(ex, result);
+				else if (shardIterator != null && staleShardIterator.equals(this.shardIterator)) {
+					// Not replaced in between, e.g. by the rewind on error
+					this.shardIterator = shardIterator;
+					this.shardIteratorTime = System.currentTimeMillis();
 				}
-				finally {
-					attributesHolder.remove();
-					if (result != null) {
-						if (this.shardIterator == null) {
-							if (KinesisMessageDrivenChannelAdapter.this.lockRegistry != null) {
-								KinesisMessageDrivenChannelAdapter.this.shardConsumerManager.shardOffsetsToConsumer
-										.remove(this.key);
-							}
-							// Shard is closed: nothing to consume anymore.
-							// Checkpoint endingSequenceNumber to ensure shard is marked exhausted.
-							for (Shard shard : readShardList(this.shardOffset.getStream())) {
-								if (shard.shardId().equals(this.shardOffset.getShard())) {
-									String endingSequenceNumber =
-											shard.sequenceNumberRange().endingSequenceNumber();
-									if (endingSequenceNumber != null) {
-										checkpointSwallowingProvisioningExceptions(endingSequenceNumber);
-									}
-									break;
-								}
-							}
+				this.shardIteratorRefreshing = false;
+			});
+			return true;
+		}
 
-							// Resharding is possible.
-							if (KinesisMessageDrivenChannelAdapter.this.applicationEventPublisher != null) {
-								KinesisMessageDrivenChannelAdapter.this.applicationEventPublisher.publishEvent(
-										new KinesisShardEndedEvent(KinesisMessageDrivenChannelAdapter.this, this.key));
+		/**
+		 * Request the next record with the shard iterator: the call is accounted in the {@link KinesisShardMetrics}
+		 * and the bytes of the record against the read quota, the same way as for regular {@code GetRecords}.
+		 * @param shardIterator the shard iterator to peek the record with.
+		 * @return the future for the {@code GetRecords} response with at most one record.
+		 */
+		private CompletableFuture<GetRecordsResponse> peekRecord(String shardIterator) {
+			long start = System.nanoTime();
+			GetRecordsRequest peekRequest =
+					GetRecordsRequest.builder()
+							.shardIterator(shardIterator)
+							.limit(1)
+							.build();
+			KinesisShardMetrics shardMetrics = this.metrics;
+			KinesisReadQuota quota = KinesisMessageDrivenChannelAdapter.this.readQuota;
+			return KinesisMessageDrivenChannelAdapter.this.amazonKinesis
+					.getRecords(peekRequest)
+					.whenComplete((response, ex) -> {
+						if (shardMetrics != null) {
+							shardMetrics.getRecords(start);
+							Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+							if (cause instanceof ProvisionedThroughputExceededException) {
+								shardMetrics.throttled();
 							}
-							stop();
 						}
-
-						if (ConsumerState.STOP != this.state && result.records().isEmpty()) {
-							logger.debug(() ->
-									"No records for ["
-											+ this
-											+ "] on sequenceNumber ["
-											+ this.checkpointer.getLastCheckpointValue()
-											+ "]. Suspend consuming for ["
-											+ KinesisMessageDrivenChannelAdapter.this.consumerBackoff
-											+ "] milliseconds.");
-							prepareSleepState();
+						if (response != null && quota != null) {
+							quota.recordBytes(this.shardOffset.getStream(), this.shardOffset.getShard(),
+									recordsBytes(response));
 						}
-					}
+					});
+		}
 
-					this.task = null;
-				}
-			};
+		private CompletableFuture<String> getShardIterator(KinesisShardOffset offset) {
+			return KinesisMessageDrivenChannelAdapter.this.amazonKinesis
+					.getShardIterator(offset.toShardIteratorRequest())
+					.thenApply(GetShardIteratorResponse::shardIterator);
 		}
 
-		private void rewindIteratorOnError(Exception ex, @Nullable GetRecordsResponse result) {
-			String lastCheckpoint = this.checkpointer.getLastCheckpointValue();
-			String highestSequence = this.checkpointer.getHighestSequence();
+		private int remainingDownstreamCapacity() {
+			IntSupplier capacity = KinesisMessageDrivenChannelAdapter.this.downstreamCapacity;
+			return capacity != null ? capacity.getAsInt() : Integer.MAX_VALUE;
+		}
 
-			if (highestSequence == null) {
-				// Haven't reached record process - reuse the current shard iterator.
-				logger.info(ex, "getRecords request has thrown exception. " +
-						"No checkpoints - re-request with the current shard iterator.");
-			}
-			else if (highestSequence.equals(lastCheckpoint) && result != null) {
-				logger.info(ex, "Record processor has thrown exception. " +
-						"Ignore since the highest sequence in batch was check-pointed.");
-				this.shardIterator = result.nextShardIterator();
+		/**
+		 * Reserve (atomically across all the shard consumers) up to the limit of the remaining
+		 * downstream capacity for a {@code GetRecords} call.
+		 * At least one record is reserved since it is the minimum for the call.
+		 * @param limit the maximum number of records to reserve.
+		 * @return the number of records reserved.
+		 */
+		private int reserveDownstreamCapacity(int limit) {
+			AtomicInteger reserved = KinesisMessageDrivenChannelAdapter.this.reservedDownstreamCapacity;
+			int capacity = remainingDownstreamCapacity();
+			int current;
+			int reservation;
+			do {
+				current = reserved.get();
+				reservation = Math.max(1, Math.min(limit, capacity - current));
 			}
-			else if (reRequestCurrentShardIterator(lastCheckpoint, result)) {
-				// No checkpoints for the shard - reuse the current shard iterator.
-				logger.info(ex, "Record processor has thrown exception. " +
-						"No checkpoints - re-request with the current shard iterator.");
+			while (!reserved.compareAndSet(current, current + reservation));
+			this.reservedCapacity.addAndGet(reservation);
+			return reservation;
+		}
+
+		/**
+		 * Release the downstream capacity reserved by this consumer:
+		 * the processed records are accounted by the downstream itself.
+		 */
+		private void releaseDownstreamCapacity() {
+			int reservation = this.reservedCapacity.getAndSet(0);
+			if (reservation > 0) {
+				KinesisMessageDrivenChannelAdapter.this.reservedDownstreamCapacity.addAndGet(-reservation);
+			}
+		}
+
+		private void taskDone() {
+			this.task = null;
+			if (KinesisMessageDrivenChannelAdapter.this.deadlineScheduling) {
+				schedule();
+			}
+		}
+
+		/**
+		 * Place this consumer to the {@code scheduledShardConsumers} (if not there yet)
+		 * for the {@link ConsumerDispatcher} according to its state.
+		 */
+		void schedule() {
+			if (KinesisMessageDrivenChannelAdapter.this.threadPerShard && ConsumerState.STOP != this.state) {
+				// Driven by its own thread; only a stopped consumer has to be handled by the dispatcher
+				return;
+			}
+			long deadline;
+			if (ConsumerState.STOP == this.state) {
+				deadline = System.currentTimeMillis();
+			}
+			else if (ConsumerState.SLEEP == this.state
+					|| ConsumerState.EXPIRED == this.state && this.sleepUntil > System.currentTimeMillis()) {
+
+				deadline = this.sleepUntil;
+			}
+			else if (KinesisMessageDrivenChannelAdapter.this.adaptivePolling) {
+				// The pace is set via the SLEEP state
+				deadline = System.currentTimeMillis();
+			}
+			else {
+				deadline = this.lastDispatchTime + KinesisMessageDrivenChannelAdapter.this.idleBetweenPolls;
+			}
+			if (this.scheduled.compareAndSet(false, true)) {
+				KinesisMessageDrivenChannelAdapter.this.scheduledShardConsumers.add(
+						new ScheduledShardConsumer(this, deadline));
+			}
+		}
+
+		/**
+		 * The main loop for the {@code threadPerShard} mode: the state transitions and
+		 * tasks are performed on the current thread until this consumer is stopped.
+		 */
+		void consumeInLoop() {
+			while (KinesisMessageDrivenChannelAdapter.this.active && ConsumerState.STOP != this.state) {
+				long nextIterationTime =
+						System.currentTimeMillis() + KinesisMessageDrivenChannelAdapter.this.idleBetweenPolls;
+				execute();
+				Runnable taskToRun = this.task;
+				if (taskToRun != null) {
+					try {
+						taskToRun.run();
+					}
+					catch (Exception ex) {
+						logger.info(ex, () ->
+								"Got an exception during [" + this + "] task invocation"
+										+ ".\nProcess will be retried on the next iteration.");
+						this.task = null;
+					}
+				}
+				// Same polling rate per shard as with the ConsumerDispatcher
+				long sleepAmount;
+				if (ConsumerState.SLEEP == this.state) {
+					sleepAmount = this.sleepUntil - System.currentTimeMillis();
+				}
+				else if (ConsumerState.CONSUME == this.state && taskToRun == null) {
+					// Just woke up - perform the task without waiting for the full polling cycle
+					sleepAmount = 0;
+				}
+				else {
+					// The pace is set via the SLEEP state in the 'adaptivePolling' mode
+					sleepAmount =
+							KinesisMessageDrivenChannelAdapter.this.adaptivePolling
+									? 0
+									: nextIterationTime - System.currentTimeMillis();
+				}
+				if (sleepAmount > 0 && ConsumerState.STOP != this.state) {
+					sleep(sleepAmount,
+							new IllegalStateException("ShardConsumer thread [" + this + "] has been interrupted"),
+							true);
+				}
+				if (Thread.currentThread().isInterrupted()) {
+					break;
+				}
+			}
+			if (KinesisMessageDrivenChannelAdapter.this.deadlineScheduling) {
+				// Let the ConsumerDispatcher to handle the stopped consumer
+				schedule();
+			}
+		}
+
+		private Runnable shardIteratorTask() {
+			return () -> {
+				try {
+					resolveStartingOffset();
+					if (isEnhancedFanOut()) {
+						// The subscription is established by the fan-out task
+						this.continuationSequenceNumber = null;
+						if (ConsumerState.STOP != this.state) {
+							this.state = ConsumerState.CONSUME;
+						}
+					}
+					else {
+						requestShardIterator().join();
+					}
+				}
+				finally {
+					taskDone();
+				}
+			};
+		}
+
+		private Runnable asyncShardIteratorTask() {
+			return () ->
+					CompletableFuture.runAsync(this::resolveStartingOffset,
+									KinesisMessageDrivenChannelAdapter.this.consumerExecutor)
+							.thenCompose(v -> requestShardIterator())
+							.whenComplete((v, ex) -> {
+								if (ex != null) {
+									logger.info(ex, () ->
+											"Cannot obtain a shard iterator for [" + this + "]. "
+													+ "Process will be retried on the next iteration.");
+								}
+								taskDone();
+							});
+		}
+
+		private void resolveStartingOffset() {
+			discardPrefetched();
+			if (this.shardOffset.isReset()) {
+				this.checkpointer.remove();
+			}
+			else {
+				String checkpoint = this.checkpointer.getCheckpoint();
+				if (checkpoint != null) {
+					positionAfterCheckpoint(this.shardOffset, checkpoint);
+				}
+			}
+			if (this.state == ConsumerState.NEW) {
+				logger.info(() -> "The [" + this + "] has been started.");
+			}
+		}
+
+		private CompletableFuture<Void> requestShardIterator() {
+			GetShardIteratorRequest shardIteratorRequest = this.shardOffset.toShardIteratorRequest();
+			return KinesisMessageDrivenChannelAdapter.this.amazonKinesis
+					.getShardIterator(shardIteratorRequest)
+					.thenApply(GetShardIteratorResponse::shardIterator)
+					.exceptionally(ex -> {
+						Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+						if (cause instanceof InvalidArgumentException &&
+								cause.getMessage()
+										.contains("has reached max possible value for the shard")) {
+
+							logger.info(() ->
+									"The [" + this.shardOffset + "] has been closed. Skipping...");
+							return null;
+						}
+						throw ex instanceof CompletionException completionException
+								? completionException
+								: new CompletionException(cause);
+					})
+					.thenAccept(shardIterator -> {
+						this.shardIterator = shardIterator;
+						this.shardIteratorTime = System.currentTimeMillis();
+						this.shardIteratorSequenceNumber = null;
+						if (this.shardIterator == null) {
+							// The shard is closed - stop consumer
+							this.state = ConsumerState.STOP;
+						}
+						if (ConsumerState.STOP != this.state) {
+							this.state = ConsumerState.CONSUME;
+						}
+					});
+		}
+
+		boolean isShardClosed() {
+			return isEnhancedFanOut() ? this.fanOutShardEnded : this.shardIterator == null;
+		}
+
+		private boolean renewLockIfAny() {
+			if (KinesisMessageDrivenChannelAdapter.this.lockRegistry != null && this.state == ConsumerState.CONSUME) {
+				// The locks are renewed by the ShardConsumerManager: just check if it has been lost
+				ShardConsumerManager manager = KinesisMessageDrivenChannelAdapter.this.shardConsumerManager;
+				boolean lockReleased = manager.isLockReleased(this.key);
+				boolean lockLost = lockReleased || manager.isLockLost(this.key);
+				if (lockLost && this.state == ConsumerState.CONSUME) {
+					this.state = ConsumerState.STOP;
+					if (lockReleased) {
+						// The lock is still held until unlock: flush a pending write-behind checkpoint (if any)
+						this.checkpointer.close();
+						logger.info(() -> "The lock for key '" + this.key + "' is released for other cluster nodes");
+						// Don't wait for the ShardConsumerManager cycle
+						manager.unlock(new LockCompletableFuture(this.key));
+					}
+					else {
+						// Another node may already own the shard: drop a pending write-behind checkpoint (if any)
+						this.checkpointer.abandon();
+						logger.info(() -> "The lock for key '" + this.key + "' has been lost");
+					}
+					if (this.notifier != null) {
+						this.notifier.run();
+					}
+					if (KinesisMessageDrivenChannelAdapter.this.active) {
+						KinesisMessageDrivenChannelAdapter.this.shardConsumerManager.addShardToConsume(this.shardOffset);
+					}
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private Runnable asyncProcessTask() {
+			return () -> {
+				try {
+					CompletableFuture<GetRecordsResponse> records = nextRecords();
+					records.handle((response, ex) -> null)
+							.thenRunAsync(() -> consume(records::join),
+									KinesisMessageDrivenChannelAdapter.this.consumerExecutor)
+							.exceptionally(ex -> {
+								logger.info(ex, () ->
+										"Got an exception during [" + this + "] task invocation"
+												+ ".\nProcess will be retried on the next iteration.");
+								taskDone();
+								return null;
+							});
+				}
+				catch (Exception ex) {
+					logger.info(ex, () ->
+							"Got an exception during [" + this + "] task invocation"
+									+ ".\nProcess will be retried on the next iteration.");
+					taskDone();
+				}
+			};
+		}
+
+		private void consume(Supplier<GetRecordsResponse> recordsSupplier) {
+			long pollStartTime = System.currentTimeMillis();
+			GetRecordsResponse result = null;
+			CompletableFuture<Void> shardClosing = null;
+
+			try {
+				result = getRecords(recordsSupplier);
+				if (result != null) {
+					KinesisReadQuota quota = KinesisMessageDrivenChannelAdapter.this.readQuota;
+					long bytes = quota != null || this.metrics != null ? recordsBytes(result) : 0;
+					if (quota != null) {
+						quota.recordBytes(this.shardOffset.getStream(), this.shardOffset.getShard(), bytes);
+					}
+					List<Record> records = result.records();
+					if (this.metrics != null) {
+						this.metrics.records(records.size(), bytes, result.millisBehindLatest());
+					}
+
+					if (!records.isEmpty()) {
+						prefetch(result);
+						processRecords(records);
+						this.retrySequenceNumber = null;
+						this.shardIteratorSequenceNumber = records.get(records.size() - 1).sequenceNumber();
+					}
+					this.shardIterator = result.nextShardIterator();
+					this.shardIteratorTime = System.currentTimeMillis();
+				}
+				else {
+					discardPrefetched();
+				}
+			}
+			catch (Exception ex) {
+				discardPrefetched();
+				long retryBackoff = onRecordsFailure(ex);
+				rewindIteratorOnError(ex, result);
+				backOffRetry(retryBackoff);
+			}
+			finally {
+				attributesHolder.remove();
+				releaseDownstreamCapacity();
+				if (result != null) {
+					if (this.shardIterator == null) {
+						shardClosing = onShardClosed(result.childShards());
+					}
+
+					if (KinesisMessageDrivenChannelAdapter.this.adaptivePolling) {
+						if (ConsumerState.CONSUME == this.state) {
+							adaptPolling(result, pollStartTime);
+						}
+					}
+					else if (ConsumerState.STOP != this.state && result.records().isEmpty()) {
+						logger.debug(() ->
+								"No records for ["
+										+ this
+										+ "] on sequenceNumber ["
+										+ this.checkpointer.getLastCheckpointValue()
+										+ "]. Suspend consuming for ["
+										+ KinesisMessageDrivenChannelAdapter.this.consumerBackoff
+										+ "] milliseconds.");
+						prepareSleepState();
+					}
+				}
+
+				if (shardClosing == null) {
+					taskDone();
+				}
+				else {
+					shardClosing.whenComplete((v, ex) -> taskDone());
+				}
+			}
+		}
+
+		@Nullable
+		private CompletableFuture<Void> onShardClosed(@Nullable List<ChildShard> childShards) {
+			if (KinesisMessageDrivenChannelAdapter.this.lockRegistry != null) {
+				KinesisMessageDrivenChannelAdapter.this.shardConsumerManager.shardOffsetsToConsumer
+						.remove(this.key);
+			}
+			if (childShards != null) {
+				this.childShards = childShards;
+			}
+			CompletableFuture<String> endingSequenceNumber =
+					resolveEndingSequenceNumber(this.shardOffset.getStream(), this.shardOffset.getShard(), 0)
+							.exceptionally(ex -> {
+								logger.warn(ex, () -> "Cannot resolve the ending sequence number for the closed ["
+										+ this + "]. The shard is not marked as exhausted.");
+								return null;
+							});
+			if (KinesisMessageDrivenChannelAdapter.this.nonBlockingConsumers) {
+				return endingSequenceNumber
+						.thenAcceptAsync(this::closeShard, KinesisMessageDrivenChannelAdapter.this.consumerExecutor);
+			}
+			else {
+				closeShard(endingSequenceNumber.join());
+				return null;
+			}
+		}
+
+		private void closeShard(@Nullable String endingSequenceNumber) {
+			// Shard is closed: nothing to consume anymore.
+			// Checkpoint endingSequenceNumber to ensure shard is marked exhausted.
+			if (endingSequenceNumber != null) {
+				checkpointSwallowingProvisioningExceptions(endingSequenceNumber);
+			}
+
+			// Resharding is possible.
+			if (KinesisMessageDrivenChannelAdapter.this.applicationEventPublisher != null) {
+				KinesisMessageDrivenChannelAdapter.this.applicationEventPublisher.publishEvent(
+						new KinesisShardEndedEvent(KinesisMessageDrivenChannelAdapter.this, this.key));
+			}
+			stop();
+		}
+
+		private Runnable fanOutTask() {
+			return () -> {
+				SubscribeToShardEvent event = null;
+				boolean rewound = false;
+
+				try {
+					FanOutSubscriber subscriber = this.fanOutSubscriber;
+					if (subscriber == null || subscriber.isExhausted()) {
+						if (subscriber != null && subscriber.error != null) {
+							Throwable error = subscriber.error;
+							logger.info(error, () ->
+									"The shard subscription for [" + this + "] has failed. "
+											+ "Re-subscribe after [" + KinesisMessageDrivenChannelAdapter.this.consumerBackoff
+											+ "] milliseconds.");
+							this.fanOutSubscriber = null;
+							prepareSleepState();
+							return;
+						}
+						subscriber = subscribeToShard();
+					}
+
+					// Keep draining events until the next dispatching cycle to deliver them as soon as they arrive
+					long deadline = System.currentTimeMillis() + KinesisMessageDrivenChannelAdapter.this.idleBetweenPolls;
+					long timeout;
+					while (ConsumerState.CONSUME == this.state
+							&& (timeout = deadline - System.currentTimeMillis()) > 0) {
+
+						event = subscriber.poll(timeout);
+						if (event == null) {
+							break;
+						}
+						List<Record> records = event.records();
+						if (this.metrics != null) {
+							this.metrics.records(records.size(),
+									records.isEmpty() ? 0 : recordsBytes(records), event.millisBehindLatest());
+						}
+						if (!records.isEmpty()) {
+							processRecords(records);
+							this.retrySequenceNumber = null;
+						}
+						this.continuationSequenceNumber = event.continuationSequenceNumber();
+						if (this.continuationSequenceNumber == null) {
+							break;
+						}
+					}
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				catch (Exception ex) {
+					long retryBackoff = onRecordsFailure(ex);
+					rewound = rewindSubscriptionOnError(ex, event);
+					backOffRetry(retryBackoff);
+				}
+				finally {
+					attributesHolder.remove();
+					if (event != null && !rewound && event.continuationSequenceNumber() == null
+							&& ConsumerState.STOP != this.state) {
+
+						this.fanOutShardEnded = true;
+						onShardClosed(event.childShards());
+					}
+					taskDone();
+				}
+			};
+		}
+
+		private FanOutSubscriber subscribeToShard() {
+			StartingPosition startingPosition = this.shardOffset.toStartingPosition();
+			String continuation = this.continuationSequenceNumber;
+			if (continuation != null) {
+				KinesisShardOffset continuationOffset = new KinesisShardOffset(this.shardOffset);
+				continuationOffset.setTimestamp(null);
+				positionAfterCheckpoint(continuationOffset, continuation);
+				startingPosition = continuationOffset.toStartingPosition();
+			}
+
+			SubscribeToShardRequest subscribeToShardRequest =
+					SubscribeToShardRequest.builder()
+							.consumerARN(obtainFanOutConsumerArn(this.shardOffset.getStream()))
+							.shardId(this.shardOffset.getShard())
+							.startingPosition(startingPosition)
+							.build();
+
+			FanOutSubscriber subscriber = new FanOutSubscriber();
+			this.fanOutSubscriber = subscriber;
+
+			logger.debug(() -> "Subscribing [" + this + "] to shard from " + startingPosition);
+
+			KinesisMessageDrivenChannelAdapter.this.amazonKinesis
+					.subscribeToShard(subscribeToShardRequest,
+							SubscribeToShardResponseHandler.builder()
+									.subscriber(() -> subscriber)
+									.build())
+					.whenComplete((result, ex) -> subscriber.finish(ex));
+
+			return subscriber;
+		}
+
+		/**
+		 * Count the attempt for the records failed downstream during the current processing cycle
+		 * and recover them when the {@code maxRecordAttempts} is exhausted.
+		 * @param ex the records processing exception.
+		 * @return the backoff before the next attempt or {@code 0} if there is nothing to retry.
+		 */
+		private long onRecordsFailure(Exception ex) {
+			FailedRecords failure = this.failedRecords.getAndSet(null);
+			if (failure == null) {
+				return 0;
+			}
+			if (failure.firstSequenceNumber.equals(this.retrySequenceNumber)) {
+				this.retryAttempts++;
+			}
+			else {
+				this.retrySequenceNumber = failure.firstSequenceNumber;
+				this.retryAttempts = 1;
+			}
+			if (this.retryAttempts < KinesisMessageDrivenChannelAdapter.this.maxRecordAttempts) {
+				if (this.metrics != null) {
+					this.metrics.recordsRetried();
+				}
+				return exponentialBackoff(this.retryAttempts - 1);
+			}
+
+			recover(failure, ex);
+			this.retrySequenceNumber = null;
+			this.recoveredSequenceNumber = failure.lastSequenceNumber;
+			if (CheckpointMode.record.equals(KinesisMessageDrivenChannelAdapter.this.checkpointMode)) {
+				// All the records before the failed ones have been processed
+				this.checkpointer.checkpoint(failure.lastSequenceNumber);
+			}
+			if (this.metrics != null) {
+				this.metrics.recordsSkipped();
+			}
+			return 0;
+		}
+
+		private void recover(FailedRecords failure, Exception ex) {
+			int attempts = this.retryAttempts;
+			Supplier<String> description = () ->
+					"the records [" + failure.firstSequenceNumber + ".." + failure.lastSequenceNumber
+							+ "] of [" + this + "] failed after [" + attempts + "] attempts";
+			MessageChannel deadLetterChannel = obtainDeadLetterChannel();
+			if (deadLetterChannel == null) {
+				logger.error(ex, () -> "No dead letter or error channel: skipping " + description.get());
+				return;
+			}
+			AttributeAccessor attributes = ErrorMessageUtils.getAttributeAccessor(failure.message, null);
+			attributes.setAttribute(AwsHeaders.RAW_RECORD, failure.rawRecord);
+			attributesHolder.set(attributes);
+			try {
+				deadLetterChannel.send(buildErrorMessage(failure.message,
+						new MessagingException(failure.message, "Skipping " + description.get(), ex)));
+			}
+			catch (Exception recoveryEx) {
+				logger.error(recoveryEx, () -> "Cannot send to the dead letter channel: skipping " + description.get());
+			}
+		}
+
+		private void backOffRetry(long backoff) {
+			if (backoff <= 0 || ConsumerState.STOP == this.state) {
+				return;
+			}
+			logger.info(() -> "Retry the failed records of [" + this + "] in [" + backoff + "] milliseconds.");
+			if (ConsumerState.EXPIRED == this.state) {
+				// The shard iterator is re-requested by the EXPIRED state task after the backoff
+				this.sleepUntil = System.currentTimeMillis() + backoff;
+			}
+			else {
+				prepareSleepState(backoff);
+			}
+		}
+
+		private boolean rewindSubscriptionOnError(Exception ex, @Nullable SubscribeToShardEvent event) {
+			String lastCheckpoint = this.checkpointer.getLastCheckpointValue();
+			String highestSequence = this.checkpointer.getHighestSequence();
+
+			if (event != null && highestSequence != null && highestSequence.equals(lastCheckpoint)) {
+				logger.info(ex, "Record processor has thrown exception. " +
+						"Ignore since the highest sequence in batch was check-pointed.");
+				this.continuationSequenceNumber = event.continuationSequenceNumber();
+				return false;
+			}
+			else {
+				logger.info(ex, () ->
+						"Record processor has thrown exception. " +
+								"Re-subscribe to shard after sequence number: " +
+								(lastCheckpoint != null ? lastCheckpoint : this.continuationSequenceNumber));
+
+				FanOutSubscriber subscriber = this.fanOutSubscriber;
+				if (subscriber != null) {
+					subscriber.cancel();
+				}
+				this.fanOutSubscriber = null;
+				if (lastCheckpoint != null) {
+					this.continuationSequenceNumber = lastCheckpoint;
+				}
+				return true;
+			}
+		}
+
+		private void rewindIteratorOnError(Exception ex, @Nullable GetRecordsResponse result) {
+			String lastCheckpoint = this.checkpointer.getLastCheckpointValue();
+			String highestSequence = this.checkpointer.getHighestSequence();
+
+			if (highestSequence == null) {
+				// Haven't reached record process - reuse the current shard iterator.
+				logger.info(ex, "getRecords request has thrown exception. " +
+						"No checkpoints - re-request with the current shard iterator.");
+			}
+			else if (highestSequence.equals(lastCheckpoint) && result != null) {
+				logger.info(ex, "Record processor has thrown exception. " +
+						"Ignore since the highest sequence in batch was check-pointed.");
+				this.shardIterator = result.nextShardIterator();
+				this.shardIteratorTime = System.currentTimeMillis();
+				this.shardIteratorSequenceNumber = highestSequence;
+			}
+			else if (reRequestCurrentShardIterator(lastCheckpoint, result)) {
+				// No checkpoints for the shard - reuse the current shard iterator.
+				logger.info(ex, "Record processor has thrown exception. " +
+						"No checkpoints - re-request with the current shard iterator.");
+			}
+			else if (KinesisMessageDrivenChannelAdapter.this.nonBlockingConsumers) {
+				logger.info(ex, () ->
+						"Record processor has thrown exception. " +
+								"Rewind shard iterator after sequence number: " + lastCheckpoint);
+				// The shard iterator is re-requested after the checkpoint by the async EXPIRED state task
+				this.state = ConsumerState.EXPIRED;
 			}
 			else {
 				KinesisShardOffset newOffset = new KinesisShardOffset(this.shardOffset);
-				newOffset.setIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER);
 
 				logger.info(ex, () ->
 						"Record processor has thrown exception. " +
 								"Rewind shard iterator after sequence number: " + lastCheckpoint);
 
-				newOffset.setSequenceNumber(lastCheckpoint);
+				positionAfterCheckpoint(newOffset, lastCheckpoint);
 				GetShardIteratorRequest shardIteratorRequest = newOffset.toShardIteratorRequest();
 				this.shardIterator =
 						KinesisMessageDrivenChannelAdapter.this.amazonKinesis
 								.getShardIterator(shardIteratorRequest)
 								.join()
 								.shardIterator();
+				this.shardIteratorTime = System.currentTimeMillis();
+				this.shardIteratorSequenceNumber = lastCheckpoint;
+			}
+		}
+
+		/**
+		 * Position the offset after the checkpoint.
+		 * For the KPL sub-record checkpoint the offset is positioned at the aggregated record
+		 * and its sub-records up to the checkpoint are skipped.
+		 * @param offset the offset to position.
+		 * @param checkpoint the checkpoint to start after.
+		 */
+		private void positionAfterCheckpoint(KinesisShardOffset offset, String checkpoint) {
+			if (SequenceNumbers.isSubSequenceNumber(checkpoint)) {
+				offset.setSequenceNumber(SequenceNumbers.recordSequenceNumber(checkpoint));
+				offset.setIteratorType(ShardIteratorType.AT_SEQUENCE_NUMBER);
+				this.resumeAfterSubSequenceNumber = checkpoint;
+			}
+			else {
+				offset.setSequenceNumber(checkpoint);
+				offset.setIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER);
+				this.resumeAfterSubSequenceNumber = null;
 			}
 		}
 
@@ -1195,13 +3070,14 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 			}
 			List<Record> records = result.records();
 			return !records.isEmpty() &&
-					new BigInteger(lastCheckpoint)
-							.compareTo(new BigInteger(records.get(records.size() - 1).sequenceNumber())) < 0;
+					SequenceNumbers.compare(lastCheckpoint, records.get(records.size() - 1).sequenceNumber()) < 0;
 		}
 
 		private void checkpointSwallowingProvisioningExceptions(String endingSequenceNumber) {
 			try {
 				this.checkpointer.checkpoint(endingSequenceNumber);
+				// The shard has ended: persist write-behind checkpoint immediately
+				this.checkpointer.flush();
 			}
 			catch (ProvisionedThroughputExceededException ignored) {
 				// This exception is ignored to guarantee that an exhausted shard is marked as CLOSED
@@ -1212,9 +3088,203 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 			}
 		}
 
-		private GetRecordsResponse getRecords(GetRecordsRequest getRecordsRequest) {
+		private GetRecordsRequest buildGetRecordsRequest(String shardIterator) {
+			int limit = this.lagging ? MAX_RECORDS_LIMIT : KinesisMessageDrivenChannelAdapter.this.recordsLimit;
+			if (KinesisMessageDrivenChannelAdapter.this.backpressure
+					&& ListenerMode.record.equals(KinesisMessageDrivenChannelAdapter.this.listenerMode)) {
+
+				// Don't request more records than downstream can accept without blocking
+				limit = reserveDownstreamCapacity(limit);
+			}
+			return GetRecordsRequest.builder()
+					.shardIterator(shardIterator)
+					.limit(limit)
+					.build();
+		}
+
+		/**
+		 * Schedule the next {@code GetRecords} call for this shard according to the lag of the
+		 * provided batch: immediately (within Kinesis limits) if the shard is lagging,
+		 * in the {@code idleBetweenPolls} if there are records, or with an exponential backoff
+		 * for consecutive empty batches.
+		 * @param result the batch just consumed.
+		 * @param pollStartTime the time when this batch has been requested for consumption.
+		 */
+		private void adaptPolling(GetRecordsResponse result, long pollStartTime) {
+			Long millisBehindLatest = result.millisBehindLatest();
+			this.lagging =
+					millisBehindLatest != null
+							&& millisBehindLatest >= KinesisMessageDrivenChannelAdapter.this.adaptivePollingLagThreshold;
+			long nextPollDelay;
+			if (this.lagging) {
+				this.emptyPolls = 0;
+				nextPollDelay = MIN_GET_RECORDS_INTERVAL;
+			}
+			else if (result.records().isEmpty()) {
+				nextPollDelay = exponentialBackoff(this.emptyPolls++);
+				logger.debug(() ->
+						"No records for ["
+								+ this
+								+ "] on sequenceNumber ["
+								+ this.checkpointer.getLastCheckpointValue()
+								+ "]. Suspend consuming for ["
+								+ nextPollDelay
+								+ "] milliseconds.");
+			}
+			else {
+				this.emptyPolls = 0;
+				nextPollDelay = KinesisMessageDrivenChannelAdapter.this.idleBetweenPolls;
+			}
+			this.sleepUntil = pollStartTime + nextPollDelay;
+			this.state = ConsumerState.SLEEP;
+		}
+
+		private long exponentialBackoff(int attempt) {
+			long backoff = (long) KinesisMessageDrivenChannelAdapter.this.consumerBackoff << Math.min(attempt, 16);
+			return Math.min(backoff, KinesisMessageDrivenChannelAdapter.this.maxConsumerBackoff);
+		}
+
+		/**
+		 * The time in milliseconds until this consumer has to be executed again by the {@link ConsumerDispatcher}.
+		 * Used in the {@code adaptivePolling} mode.
+		 */
+		long nextPollDelay() {
+			if (ConsumerState.SLEEP == this.state) {
+				return this.sleepUntil - System.currentTimeMillis();
+			}
+			else if (ConsumerState.CONSUME == this.state && this.task == null) {
+				// Just woke up - dispatch the task without waiting for the full polling cycle
+				return 0;
+			}
+			else if (this.lagging) {
+				return MIN_GET_RECORDS_INTERVAL;
+			}
+			else {
+				return KinesisMessageDrivenChannelAdapter.this.idleBetweenPolls;
+			}
+		}
+
+		/**
+		 * Initiate {@code GetRecords} requests ahead for the batches following the provided one
+		 * according to the {@link #prefetchDepth} and {@link #prefetchMaxBytes}.
+		 * Each prefetch is chained to the previous one, since it needs its {@code nextShardIterator}.
+		 * @param current the batch to be processed.
+		 */
+		private void prefetch(GetRecordsResponse current) {
+			int prefetchDepth = KinesisMessageDrivenChannelAdapter.this.prefetchDepth;
+			if (prefetchDepth == 0 || current.nextShardIterator() == null) {
+				return;
+			}
+
+			CompletableFuture<GetRecordsResponse> tail = null;
+			for (CompletableFuture<GetRecordsResponse> prefetchedRecords : this.prefetched) {
+				tail = prefetchedRecords;
+			}
+
+			if (tail == null) {
+				tail = CompletableFuture.completedFuture(current);
+			}
+
+			// Only the batches already received are accounted; the in-flight ones are bounded by the depth
+			KinesisReadQuota quota = KinesisMessageDrivenChannelAdapter.this.readQuota;
+			while (this.prefetched.size() < prefetchDepth
+					&& this.prefetchedBytes.get() < KinesisMessageDrivenChannelAdapter.this.prefetchMaxBytes
+					&& (quota == null
+					|| quota.tryAcquireCall(this.shardOffset.getStream(), this.shardOffset.getShard()) == 0)) {
+
+				tail = tail.thenCompose(previous -> {
+							if (previous == null || previous.nextShardIterator() == null
+									|| previous.records().isEmpty()) {
+
+								// End of shard or caught up with the tip - nothing to prefetch
+								return CompletableFuture.completedFuture(null);
+							}
+							CompletableFuture<GetRecordsResponse> request = requestRecords(previous.nextShardIterator());
+							this.prefetchRequests.add(request);
+							request.whenComplete((response, ex) -> this.prefetchRequests.remove(request));
+							return request;
+						})
+						.whenComplete((response, ex) -> {
+							if (response != null) {
+								this.prefetchedBytes.addAndGet(recordsBytes(response));
+							}
+						});
+				this.prefetched.add(tail);
+			}
+		}
+
+		private boolean tryAcquireReadQuota() {
+			KinesisReadQuota quota = KinesisMessageDrivenChannelAdapter.this.readQuota;
+			if (quota != null) {
+				long delay = quota.tryAcquireCall(this.shardOffset.getStream(), this.shardOffset.getShard());
+				if (delay > 0) {
+					logger.trace(() -> "The read quota is exhausted for [" + this + "]. "
+							+ "Suspend consuming for [" + delay + "] milliseconds.");
+					prepareSleepState(delay);
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Drop the prefetched batches and abort the in-flight prefetch requests.
+		 * The batches already received are still accounted against the shard read quota,
+		 * since Kinesis has served them anyway.
+		 */
+		private void discardPrefetched() {
+			CompletableFuture<GetRecordsResponse> prefetchedRecords;
+			while ((prefetchedRecords = this.prefetched.poll()) != null) {
+				if (!prefetchedRecords.cancel(true) && !prefetchedRecords.isCompletedExceptionally()) {
+					GetRecordsResponse response = prefetchedRecords.join();
+					if (response != null) {
+						long bytes = recordsBytes(response);
+						this.prefetchedBytes.addAndGet(-bytes);
+						KinesisReadQuota quota = KinesisMessageDrivenChannelAdapter.this.readQuota;
+						if (quota != null) {
+							quota.recordBytes(this.shardOffset.getStream(), this.shardOffset.getShard(), bytes);
+						}
+					}
+				}
+			}
+			// Cancelling the future returned by the SDK client aborts the HTTP request
+			this.prefetchRequests.forEach(request -> request.cancel(true));
+		}
+
+		private CompletableFuture<GetRecordsResponse> nextRecords() {
+			CompletableFuture<GetRecordsResponse> prefetchedRecords = this.prefetched.poll();
+			if (prefetchedRecords != null) {
+				return prefetchedRecords.thenApply(response -> {
+					if (response != null) {
+						this.prefetchedBytes.addAndGet(-recordsBytes(response));
+					}
+					// The null means the prefetch chain has been stopped: end of shard or caught up with the tip.
+					// The next cycle requests records from the current shard iterator under the read quota.
+					return response;
+				});
+			}
+			return requestRecords(this.shardIterator);
+		}
+
+		private CompletableFuture<GetRecordsResponse> requestRecords(String shardIterator) {
+			long start = System.nanoTime();
+			CompletableFuture<GetRecordsResponse> response =
+					KinesisMessageDrivenChannelAdapter.this.amazonKinesis.getRecords(
+							buildGetRecordsRequest(shardIterator));
+			KinesisShardMetrics shardMetrics = this.metrics;
+			if (shardMetrics != null) {
+				// Return the SDK future itself to let its cancellation reach the HTTP request
+				response.whenComplete((result, ex) -> shardMetrics.getRecords(start));
+			}
+			return response;
+		}
+
+		@Nullable
+		private GetRecordsResponse getRecords(Supplier<GetRecordsResponse> getRecordsCall) {
 			try {
-				return KinesisMessageDrivenChannelAdapter.this.amazonKinesis.getRecords(getRecordsRequest).join();
+				GetRecordsResponse result = getRecordsCall.get();
+				this.throttledPolls = 0;
+				return result;
 			}
 			catch (CompletionException ex) {
 				Throwable cause = ex.getCause();
@@ -1236,40 +3306,184 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 									+ ShardConsumer.this
 									+ "] with the reason: "
 									+ cause.getMessage());
-					// We are throttled, so let's sleep
-					prepareSleepState();
+					if (this.metrics != null) {
+						this.metrics.throttled();
+					}
+					// We are throttled, so let's sleep with a jittered exponential backoff
+					long backoff = exponentialBackoff(this.throttledPolls++);
+					prepareSleepState(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
 				}
 				else {
 					throw ex;
 				}
 			}
-
-			return null;
+
+			return null;
+		}
+
+		private void prepareSleepState() {
+			prepareSleepState(KinesisMessageDrivenChannelAdapter.this.consumerBackoff);
+		}
+
+		private void prepareSleepState(long sleepAmount) {
+			ShardConsumer.this.sleepUntil = System.currentTimeMillis() + sleepAmount;
+			ShardConsumer.this.state = ConsumerState.SLEEP;
+		}
+
+		private void processRecords(List<Record> records) {
+			logger.trace(() -> "Processing records: " + records + " for [" + ShardConsumer.this + "]");
+
+			this.checkpointer.setHighestSequence(records.get(records.size() - 1).sequenceNumber());
+
+			if (KinesisMessageDrivenChannelAdapter.this.keyOrderedConcurrency > 1) {
+				processRecordsInParallel(records);
+			}
+			else if (ListenerMode.record.equals(KinesisMessageDrivenChannelAdapter.this.listenerMode)) {
+				for (Record record : records) {
+					if (KinesisMessageDrivenChannelAdapter.this.deaggregateKplRecords) {
+						Iterator<Record> subRecords = KplRecordDeaggregator.deaggregate(record);
+						while (subRecords.hasNext()) {
+							processRecord(subRecords.next());
+						}
+					}
+					else {
+						processRecord(record);
+					}
+				}
+			}
+			else if (ListenerMode.batch.equals(KinesisMessageDrivenChannelAdapter.this.listenerMode)) {
+				List<Record> recordsToProcess = records;
+				if (KinesisMessageDrivenChannelAdapter.this.deaggregateKplRecords) {
+					recordsToProcess = KplRecordDeaggregator.deaggregate(records);
+				}
+				if (skipRecords()) {
+					recordsToProcess = recordsToProcess.stream().filter(this::notProcessedYet).toList();
+				}
+				if (!recordsToProcess.isEmpty()) {
+					processMultipleRecords(recordsToProcess);
+				}
+				checkpointIfPeriodicMode(null);
+			}
+			checkpointIfBatchMode();
+		}
+
+		private void processRecordsInParallel(List<Record> records) {
+			List<Record> deaggregated =
+					KinesisMessageDrivenChannelAdapter.this.deaggregateKplRecords
+							? KplRecordDeaggregator.deaggregate(records)
+							: records;
+			List<Record> recordsToProcess =
+					skipRecords()
+							? deaggregated.stream().filter(this::notProcessedYet).toList()
+							: deaggregated;
+			if (recordsToProcess.isEmpty()) {
+				return;
+			}
+
+			int concurrency = KinesisMessageDrivenChannelAdapter.this.keyOrderedConcurrency;
+			List<List<Integer>> partitions = new ArrayList<>(concurrency);
+			for (int i = 0; i < concurrency; i++) {
+				partitions.add(new ArrayList<>());
+			}
+			for (int i = 0; i < recordsToProcess.size(); i++) {
+				String partitionKey = recordsToProcess.get(i).partitionKey();
+				partitions.get(Math.floorMod(partitionKey != null ? partitionKey.hashCode() : 0, concurrency)).add(i);
+			}
+
+			LowWaterMark lowWaterMark = new LowWaterMark(recordsToProcess);
+			List<CompletableFuture<Void>> futures = new ArrayList<>();
+			Runnable inlinePartition = null;
+			for (List<Integer> partition : partitions) {
+				if (!partition.isEmpty()) {
+					Runnable partitionTask = () -> processPartition(recordsToProcess, partition, lowWaterMark);
+					if (inlinePartition == null) {
+						// One of the partitions is processed on the consumer thread
+						inlinePartition = partitionTask;
+					}
+					else {
+						futures.add(CompletableFuture.runAsync(partitionTask,
+								KinesisMessageDrivenChannelAdapter.this.keyOrderedExecutor));
+					}
+				}
+			}
+
+			RuntimeException failure = null;
+			try {
+				inlinePartition.run();
+			}
+			catch (RuntimeException ex) {
+				failure = ex;
+			}
+			for (CompletableFuture<Void> future : futures) {
+				try {
+					future.join();
+				}
+				catch (CompletionException ex) {
+					if (failure == null) {
+						failure = ex.getCause() instanceof RuntimeException runtimeException
+								? runtimeException
+								: ex;
+					}
+				}
+			}
+			if (failure != null) {
+				throw failure;
+			}
 		}
 
-		private void prepareSleepState() {
-			ShardConsumer.this.sleepUntil =
-					System.currentTimeMillis() + KinesisMessageDrivenChannelAdapter.this.consumerBackoff;
-			ShardConsumer.this.state = ConsumerState.SLEEP;
+		private void processPartition(List<Record> records, List<Integer> partition, LowWaterMark lowWaterMark) {
+			try {
+				for (int index : partition) {
+					Record record = records.get(index);
+					processSingleRecord(record);
+					Record lowWaterRecord = lowWaterMark.complete(index);
+					if (lowWaterRecord != null) {
+						synchronized (lowWaterMark) {
+							checkpointIfRecordMode(lowWaterRecord);
+							checkpointIfPeriodicMode(lowWaterRecord);
+						}
+					}
+				}
+			}
+			finally {
+				attributesHolder.remove();
+			}
 		}
 
-		private void processRecords(List<Record> records) {
-			logger.trace(() -> "Processing records: " + records + " for [" + ShardConsumer.this + "]");
-
-			this.checkpointer.setHighestSequence(records.get(records.size() - 1).sequenceNumber());
+		private void processRecord(Record record) {
+			if (notProcessedYet(record)) {
+				processSingleRecord(record);
+				checkpointIfRecordMode(record);
+				checkpointIfPeriodicMode(record);
+			}
+		}
 
-			if (ListenerMode.record.equals(KinesisMessageDrivenChannelAdapter.this.listenerMode)) {
-				for (Record record : records) {
-					processSingleRecord(record);
-					checkpointIfRecordMode(record);
-					checkpointIfPeriodicMode(record);
+		/**
+		 * Check the record against the sub-record checkpoint the consumption has been resumed after
+		 * and against the records recovered after all the attempts.
+		 * @param record the record to check.
+		 * @return false if the KPL sub-record has been processed before or the record has been recovered.
+		 */
+		private boolean notProcessedYet(Record record) {
+			String resumeAfter = this.resumeAfterSubSequenceNumber;
+			if (resumeAfter != null) {
+				if (SequenceNumbers.compare(record.sequenceNumber(), resumeAfter) <= 0) {
+					return false;
 				}
+				this.resumeAfterSubSequenceNumber = null;
 			}
-			else if (ListenerMode.batch.equals(KinesisMessageDrivenChannelAdapter.this.listenerMode)) {
-				processMultipleRecords(records);
-				checkpointIfPeriodicMode(null);
+			String recovered = this.recoveredSequenceNumber;
+			if (recovered != null) {
+				if (SequenceNumbers.compare(record.sequenceNumber(), recovered) <= 0) {
+					return false;
+				}
+				this.recoveredSequenceNumber = null;
 			}
-			checkpointIfBatchMode();
+			return true;
+		}
+
+		private boolean skipRecords() {
+			return this.resumeAfterSubSequenceNumber != null || this.recoveredSequenceNumber != null;
 		}
 
 		private void processSingleRecord(Record record) {
@@ -1288,7 +3502,9 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 				messageBuilder = getMessageBuilderFactory().withPayload(payload);
 			}
-			else if (KinesisMessageDrivenChannelAdapter.this.converter != null) {
+			else if (KinesisMessageDrivenChannelAdapter.this.converter != null
+					|| KinesisMessageDrivenChannelAdapter.this.byteBufferConverter != null) {
+
 				final List<String> partitionKeys = new ArrayList<>();
 				final List<String> sequenceNumbers = new ArrayList<>();
 
@@ -1299,8 +3515,7 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 											partitionKeys.add(r.partitionKey());
 											sequenceNumbers.add(r.sequenceNumber());
 
-											return KinesisMessageDrivenChannelAdapter.this.converter.convert(
-													r.data().asByteArray());
+											return convertRecordData(r.data());
 										})
 								.collect(Collectors.toList());
 
@@ -1314,9 +3529,30 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 			performSend(messageBuilder, records);
 		}
 
+		@Nullable
+		private Object convertRecordData(SdkBytes data) {
+			Converter<ByteBuffer, Object> byteBufferConverter =
+					KinesisMessageDrivenChannelAdapter.this.byteBufferConverter;
+			if (byteBufferConverter != null) {
+				// A read-only view over the record data - no copy
+				return byteBufferConverter.convert(data.asByteBuffer());
+			}
+			return KinesisMessageDrivenChannelAdapter.this.converter.convert(data.asByteArray());
+		}
+
 		private AbstractIntegrationMessageBuilder<Object> prepareMessageForRecord(Record record) {
-			Object payload = record.data().asByteArray();
+			Object payload;
 			Message<?> messageToUse = null;
+			boolean zeroCopy =
+					KinesisMessageDrivenChannelAdapter.this.embeddedHeadersMapper == null
+							&& KinesisMessageDrivenChannelAdapter.this.byteBufferConverter != null;
+
+			if (zeroCopy) {
+				payload = convertRecordData(record.data());
+			}
+			else {
+				payload = record.data().asByteArray();
+			}
 
 			if (KinesisMessageDrivenChannelAdapter.this.embeddedHeadersMapper != null) {
 				try {
@@ -1331,7 +3567,7 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 				}
 			}
 
-			if (payload instanceof byte[] && KinesisMessageDrivenChannelAdapter.this.converter != null) {
+			if (!zeroCopy && payload instanceof byte[] && KinesisMessageDrivenChannelAdapter.this.converter != null) {
 				payload = KinesisMessageDrivenChannelAdapter.this.converter.convert((byte[]) payload);
 			}
 
@@ -1364,7 +3600,36 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 			Message<?> messageToSend = messageBuilder.build();
 			setAttributesIfNecessary(rawRecord, messageToSend);
-			sendMessage(messageToSend);
+			try {
+				sendMessage(messageToSend);
+			}
+			catch (RuntimeException ex) {
+				if (KinesisMessageDrivenChannelAdapter.this.maxRecordAttempts > 0) {
+					failed(rawRecord, messageToSend);
+				}
+				throw ex;
+			}
+		}
+
+		private void failed(Object rawRecord, Message<?> message) {
+			String firstSequenceNumber;
+			String lastSequenceNumber;
+			if (rawRecord instanceof Record record) {
+				firstSequenceNumber = record.sequenceNumber();
+				lastSequenceNumber = firstSequenceNumber;
+			}
+			else {
+				List<?> records = (List<?>) rawRecord;
+				firstSequenceNumber = ((Record) records.get(0)).sequenceNumber();
+				lastSequenceNumber = ((Record) records.get(records.size() - 1)).sequenceNumber();
+			}
+			FailedRecords failure = new FailedRecords(firstSequenceNumber, lastSequenceNumber, message, rawRecord);
+			// The key-ordered partitions may fail concurrently: retry from the earliest failure
+			this.failedRecords.accumulateAndGet(failure, (existing, candidate) ->
+					existing == null
+							|| SequenceNumbers.compare(candidate.firstSequenceNumber, existing.firstSequenceNumber) < 0
+							? candidate
+							: existing);
 		}
 
 		private void checkpointIfBatchMode() {
@@ -1409,6 +3674,12 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 		private final Runnable notifier = this::notifyBarrier;
 
+		private final long startTime = System.nanoTime();
+
+		private final AtomicLong busyTime = new AtomicLong();
+
+		private volatile String name = super.toString();
+
 		ConsumerInvoker(Collection<ShardConsumer> shardConsumers) {
 			for (ShardConsumer shardConsumer : shardConsumers) {
 				addConsumer(shardConsumer);
@@ -1424,8 +3695,18 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 			this.processBarrier.release();
 		}
 
+		double utilization() {
+			long elapsed = System.nanoTime() - this.startTime;
+			return elapsed > 0 ? Math.min(1.0, (double) this.busyTime.get() / elapsed) : 0;
+		}
+
 		@Override
 		public void run() {
+			this.name = Thread.currentThread().getName();
+			if (KinesisMessageDrivenChannelAdapter.this.workStealing) {
+				runReadyConsumers();
+				return;
+			}
 			while (KinesisMessageDrivenChannelAdapter.this.active) {
 				try {
 					this.processBarrier.acquire();
@@ -1443,20 +3724,7 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 						iterator.remove();
 					}
 					else {
-						if (shardConsumer.task != null) {
-							try {
-								shardConsumer.task.run();
-							}
-							catch (Exception ex) {
-								logger.info(() ->
-										"Got an exception "
-												+ ex
-												+ " during ["
-												+ shardConsumer
-												+ "] task invocation"
-												+ ".\nProcess will be retried on the next iteration.");
-							}
-						}
+						runTask(shardConsumer);
 					}
 				}
 				synchronized (KinesisMessageDrivenChannelAdapter.this.consumerInvokers) {
@@ -1473,11 +3741,62 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 			}
 		}
 
+		private void runReadyConsumers() {
+			try {
+				while (KinesisMessageDrivenChannelAdapter.this.active) {
+					ShardConsumer shardConsumer =
+							KinesisMessageDrivenChannelAdapter.this.readyShardConsumers.poll(
+									KinesisMessageDrivenChannelAdapter.this.idleBetweenPolls, TimeUnit.MILLISECONDS);
+					if (shardConsumer != null && ConsumerState.STOP != shardConsumer.state) {
+						runTask(shardConsumer);
+					}
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+
+				throw new IllegalStateException(
+						"ConsumerInvoker thread [" + this + "] has been interrupted", e);
+			}
+			finally {
+				synchronized (KinesisMessageDrivenChannelAdapter.this.consumerInvokers) {
+					KinesisMessageDrivenChannelAdapter.this.consumerInvokers.remove(this);
+				}
+			}
+		}
+
+		private void runTask(ShardConsumer shardConsumer) {
+			Runnable task = shardConsumer.task;
+			if (task != null) {
+				long start = System.nanoTime();
+				try {
+					task.run();
+				}
+				catch (Exception ex) {
+					logger.info(() ->
+							"Got an exception "
+									+ ex
+									+ " during ["
+									+ shardConsumer
+									+ "] task invocation"
+									+ ".\nProcess will be retried on the next iteration.");
+				}
+				finally {
+					this.busyTime.addAndGet(System.nanoTime() - start);
+				}
+			}
+		}
+
 		@Override
 		public boolean isLongLived() {
 			return true;
 		}
 
+		@Override
+		public String toString() {
+			return this.name;
+		}
+
 	}
 
 	private final class ShardConsumerManager implements SchedulingAwareRunnable {
@@ -1489,7 +3808,27 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 		private final Queue<LockCompletableFuture> forUnlocking = new ConcurrentLinkedQueue<>();
 
-		private final Queue<LockCompletableFuture> forRenewing = new ConcurrentLinkedQueue<>();
+		private final Set<String> lostLocks = ConcurrentHashMap.newKeySet();
+
+		/**
+		 * The time of the acquisition or of the last confirmed renewal of the lock lease.
+		 */
+		private final Map<String, Long> leaseRenewalTimes = new HashMap<>();
+
+		private final Set<String> releasedLocks = ConcurrentHashMap.newKeySet();
+
+		private final Map<String, Long> releasedLocksCooldown = new HashMap<>();
+
+		private int fairShare = Integer.MAX_VALUE;
+
+		private long nextBalancingTime;
+
+		@Nullable
+		private CompletableFuture<Set<String>> pendingRenewal;
+
+		private Set<String> pendingRenewalKeys = Collections.emptySet();
+
+		private long pendingRenewalTime;
 
 		ShardConsumerManager() {
 		}
@@ -1504,14 +3843,39 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 			this.forUnlocking.add(unlockFuture);
 		}
 
-		void renewLock(LockCompletableFuture renewLockFuture) {
-			this.forRenewing.add(renewLockFuture);
+		/**
+		 * Check (and forget) if the lock for the key has not been renewed.
+		 * @param lockKey the key for lock.
+		 * @return true if the lock has been lost.
+		 */
+		boolean isLockLost(String lockKey) {
+			return this.lostLocks.remove(lockKey);
+		}
+
+		/**
+		 * Check (without forgetting) if the lock for the key has not been renewed.
+		 * @param lockKey the key for lock.
+		 * @return true if the lock has not been renewed.
+		 */
+		boolean isLockNotRenewed(String lockKey) {
+			return this.lostLocks.contains(lockKey);
+		}
+
+		/**
+		 * Check (and forget) if the lock for the key has to be released for other cluster nodes.
+		 * @param lockKey the key for lock.
+		 * @return true if the lock has to be released.
+		 */
+		boolean isLockReleased(String lockKey) {
+			return this.releasedLocks.remove(lockKey);
 		}
 
 		@Override
 		public void run() {
 			try {
 				while (!Thread.currentThread().isInterrupted()) {
+					balanceLocksIfAny();
+
 					this.shardOffsetsToConsumer
 							.entrySet()
 							.removeIf(
@@ -1519,10 +3883,18 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 										boolean remove = true;
 										if (KinesisMessageDrivenChannelAdapter.this.lockRegistry != null) {
 											String key = entry.getKey();
+											if (this.locks.size() >= this.fairShare
+													|| this.releasedLocksCooldown.containsKey(key)) {
+
+												// Leave the shard for other cluster nodes
+												return false;
+											}
 											Lock lock = KinesisMessageDrivenChannelAdapter.this.lockRegistry.obtain(key);
 											try {
 												if (lock.tryLock()) {
 													this.locks.put(key, lock);
+													this.leaseRenewalTimes.put(key, System.currentTimeMillis());
+													this.lostLocks.remove(key);
 												}
 												else {
 													remove = false;
@@ -1545,6 +3917,7 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 						LockCompletableFuture forUnlocking = this.forUnlocking.poll();
 						if (forUnlocking != null) {
 							Lock lock = this.locks.remove(forUnlocking.lockKey);
+							this.leaseRenewalTimes.remove(forUnlocking.lockKey);
 							if (lock != null) {
 								try {
 									lock.unlock();
@@ -1560,29 +3933,8 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 						}
 					}
 
-					while (KinesisMessageDrivenChannelAdapter.this.lockRegistry != null) {
-						LockCompletableFuture lockFuture = this.forRenewing.poll();
-						if (lockFuture != null) {
-							Lock lock = this.locks.get(lockFuture.lockKey);
-							if (lock != null) {
-								try {
-									if (!renewLockInRegistry(lockFuture)) {
-										lockFuture.complete(false);
-										this.locks.remove(lockFuture.lockKey);
-									}
-								}
-								catch (Exception ex) {
-									lockFuture.complete(false);
-									logger.error(ex, () -> "Error during locking: " + lock);
-								}
-							}
-							else {
-								lockFuture.complete(false);
-							}
-						}
-						else {
-							break;
-						}
+					if (KinesisMessageDrivenChannelAdapter.this.lockRegistry != null && !this.locks.isEmpty()) {
+						renewLocks();
 					}
 
 					sleep(1000,
@@ -1608,35 +3960,155 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 						iterator.remove();
 					}
 				}
+				this.leaseRenewalTimes.clear();
 			}
 		}
 
-		private boolean renewLockInRegistry(LockCompletableFuture renewLockFuture) {
-			if (KinesisMessageDrivenChannelAdapter.this.lockRegistry
-					instanceof RenewableLockRegistry renewableLockRegistry) {
+		private void balanceLocksIfAny() {
+			if (KinesisMessageDrivenChannelAdapter.this.leaseBalancingInterval > 0) {
+				long now = System.currentTimeMillis();
+				this.releasedLocksCooldown.values().removeIf(cooldown -> cooldown <= now);
+				if (now >= this.nextBalancingTime) {
+					this.nextBalancingTime = now + KinesisMessageDrivenChannelAdapter.this.leaseBalancingInterval;
+					try {
+						int liveNodes =
+								((DynamoDbLockRegistry) KinesisMessageDrivenChannelAdapter.this.lockRegistry)
+										.heartbeat(KinesisMessageDrivenChannelAdapter.this.consumerGroup);
+						int shards = this.locks.size() + this.shardOffsetsToConsumer.size();
+						this.fairShare = (int) Math.ceil((double) shards / Math.max(1, liveNodes));
+						logger.debug(() -> "The fair share of shards for this node is [" + this.fairShare
+								+ "] of [" + shards + "] for [" + liveNodes + "] live nodes");
+					}
+					catch (Exception ex) {
+						logger.error(ex, "Cannot store a heartbeat for lease balancing");
+					}
+				}
+
+				int surplus = this.locks.size() - this.releasedLocks.size() - this.fairShare;
+				if (surplus > 0) {
+					long cooldown = now + 2 * KinesisMessageDrivenChannelAdapter.this.leaseBalancingInterval;
+					for (String lockKey : this.locks.keySet()) {
+						if (surplus == 0) {
+							break;
+						}
+						if (!this.releasedLocksCooldown.containsKey(lockKey)) {
+							// The ShardConsumer stops and then requests an unlock for this key
+							this.releasedLocks.add(lockKey);
+							this.releasedLocksCooldown.put(lockKey, cooldown);
+							surplus--;
+						}
+					}
+				}
+			}
+		}
 
+		/**
+		 * Renew all the held locks in a batch: concurrently for the {@link DynamoDbLockRegistry},
+		 * one by one for other {@link RenewableLockRegistry} implementations.
+		 * The locks which are reported as not renewed are unlocked and moved to the {@link #lostLocks}
+		 * to let their {@link ShardConsumer}s to stop.
+		 * A {@link DynamoDbLockRegistry} batch which is not completed in time (or failed) is awaited
+		 * (or retried) on the next pass: only the locks which leases have expired meanwhile are lost.
+		 */
+		private void renewLocks() {
+			long start = System.nanoTime();
+			Set<String> notRenewed = new HashSet<>();
+			LockRegistry lockRegistry = KinesisMessageDrivenChannelAdapter.this.lockRegistry;
+			if (lockRegistry instanceof DynamoDbLockRegistry dynamoDbLockRegistry) {
+				if (this.pendingRenewal == null) {
+					this.pendingRenewalKeys = new HashSet<>(this.locks.keySet());
+					this.pendingRenewalTime = System.currentTimeMillis();
+					this.pendingRenewal = dynamoDbLockRegistry.renewLocks(this.pendingRenewalKeys);
+				}
 				try {
-					renewableLockRegistry.renewLock(renewLockFuture.lockKey);
-					return renewLockFuture.complete(true);
+					Set<String> notRenewedInBatch =
+							this.pendingRenewal.get(KinesisMessageDrivenChannelAdapter.this.lockRenewalTimeout,
+									TimeUnit.MILLISECONDS);
+					this.pendingRenewal = null;
+					for (String lockKey : this.pendingRenewalKeys) {
+						Long renewalTime = this.leaseRenewalTimes.get(lockKey);
+						// Skip the locks released (or acquired again) after the batch has been requested
+						if (renewalTime != null && renewalTime <= this.pendingRenewalTime) {
+							if (notRenewedInBatch.contains(lockKey)) {
+								notRenewed.add(lockKey);
+							}
+							else {
+								this.leaseRenewalTimes.put(lockKey, this.pendingRenewalTime);
+							}
+						}
+					}
 				}
-				catch (IllegalStateException ex) {
-					return false;
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				catch (TimeoutException ex) {
+					logger.warn(() -> "The shard locks were not renewed in time; "
+							+ "the result is awaited on the next pass");
+				}
+				catch (ExecutionException ex) {
+					this.pendingRenewal = null;
+					logger.error(ex.getCause(), "The shard locks were not renewed; retrying on the next pass");
+				}
+				long expiration = System.currentTimeMillis() - dynamoDbLockRegistry.getLeaseDuration().toMillis();
+				for (String lockKey : this.locks.keySet()) {
+					if (this.leaseRenewalTimes.getOrDefault(lockKey, 0L) <= expiration) {
+						notRenewed.add(lockKey);
+					}
 				}
 			}
 			else {
-				Lock lock = this.locks.get(renewLockFuture.lockKey);
-				if (lock.tryLock()) {
+				for (Map.Entry<String, Lock> entry : this.locks.entrySet()) {
 					try {
-						return renewLockFuture.complete(true);
+						if (!renewLockInRegistry(entry.getKey(), entry.getValue())) {
+							notRenewed.add(entry.getKey());
+						}
 					}
-					finally {
+					catch (Exception ex) {
+						logger.error(ex, () -> "Error during locking: " + entry.getValue());
+						notRenewed.add(entry.getKey());
+					}
+				}
+			}
+			for (String lockKey : notRenewed) {
+				Lock lock = this.locks.remove(lockKey);
+				this.leaseRenewalTimes.remove(lockKey);
+				if (lock != null) {
+					try {
 						lock.unlock();
 					}
+					catch (Exception ex) {
+						logger.debug(ex, () -> "Error during unlocking of the lost lock: " + lock);
+					}
+				}
+				this.lostLocks.add(lockKey);
+			}
+			MetricsCaptor.TimerFacade timer = KinesisMessageDrivenChannelAdapter.this.lockRenewTimer;
+			if (timer != null) {
+				timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			}
+		}
+
+		private boolean renewLockInRegistry(String lockKey, Lock lock) {
+			if (KinesisMessageDrivenChannelAdapter.this.lockRegistry
+					instanceof RenewableLockRegistry renewableLockRegistry) {
+
+				try {
+					renewableLockRegistry.renewLock(lockKey);
+					return true;
 				}
+				catch (IllegalStateException ex) {
+					return false;
+				}
+			}
+			else if (lock.tryLock()) {
+				lock.unlock();
+				return true;
 			}
 			return false;
 		}
 
+
 		@Override
 		public boolean isLongLived() {
 			return true;
@@ -1644,6 +4116,191 @@ public class KinesisMessageDrivenChannelAdapter extends MessageProducerSupport
 
 	}
 
+	private static long recordsBytes(GetRecordsResponse response) {
+		return recordsBytes(response.records());
+	}
+
+	private static long recordsBytes(List<Record> records) {
+		long bytes = 0;
+		for (Record record : records) {
+			bytes += record.data().asByteArrayUnsafe().length;
+		}
+		return bytes;
+	}
+
+	/**
+	 * The {@link Subscriber} for the {@code SubscribeToShard} event stream.
+	 * Requests events one by one: the next event is requested when the current one is taken
+	 * by the {@link ShardConsumer}, so the next batch is transferred while the current one
+	 * is processed.
+	 */
+	private static final class FanOutSubscriber implements Subscriber<SubscribeToShardEventStream> {
+
+		private final BlockingQueue<SubscribeToShardEvent> events = new LinkedBlockingQueue<>();
+
+		private volatile Subscription subscription;
+
+		private volatile boolean done;
+
+		private volatile Throwable error;
+
+		FanOutSubscriber() {
+		}
+
+		@Override
+		public void onSubscribe(Subscription subscription) {
+			this.subscription = subscription;
+			if (this.done) {
+				subscription.cancel();
+			}
+			else {
+				subscription.request(1);
+			}
+		}
+
+		@Override
+		public void onNext(SubscribeToShardEventStream eventStream) {
+			if (eventStream instanceof SubscribeToShardEvent subscribeToShardEvent) {
+				this.events.add(subscribeToShardEvent);
+			}
+			else {
+				requestNext();
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			finish(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			finish(null);
+		}
+
+		void finish(@Nullable Throwable throwable) {
+			if (throwable != null && this.error == null && !this.done) {
+				this.error = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+			}
+			this.done = true;
+		}
+
+		boolean isExhausted() {
+			return this.done && this.events.isEmpty();
+		}
+
+		@Nullable
+		SubscribeToShardEvent poll(long timeout) throws InterruptedException {
+			SubscribeToShardEvent event =
+					this.done
+							? this.events.poll()
+							: this.events.poll(timeout, TimeUnit.MILLISECONDS);
+			if (event != null) {
+				requestNext();
+			}
+			return event;
+		}
+
+		void cancel() {
+			this.done = true;
+			this.events.clear();
+			Subscription subscriptionToCancel = this.subscription;
+			if (subscriptionToCancel != null) {
+				subscriptionToCancel.cancel();
+			}
+		}
+
+		private void requestNext() {
+			Subscription subscriptionToRequest = this.subscription;
+			if (subscriptionToRequest != null && !this.done) {
+				subscriptionToRequest.request(1);
+			}
+		}
+
+	}
+
+	/**
+	 * The records failed downstream: the sequence numbers range and the failed message.
+	 */
+	private static final class FailedRecords {
+
+		private final String firstSequenceNumber;
+
+		private final String lastSequenceNumber;
+
+		private final Message<?> message;
+
+		private final Object rawRecord;
+
+		FailedRecords(String firstSequenceNumber, String lastSequenceNumber, Message<?> message, Object rawRecord) {
+			this.firstSequenceNumber = firstSequenceNumber;
+			this.lastSequenceNumber = lastSequenceNumber;
+			this.message = message;
+			this.rawRecord = rawRecord;
+		}
+
+	}
+
+	/**
+	 * The tracker of the contiguous prefix of processed records in the batch.
+	 */
+	private static final class LowWaterMark {
+
+		private final List<Record> records;
+
+		private final boolean[] completed;
+
+		private int lowWater = -1;
+
+		LowWaterMark(List<Record> records) {
+			this.records = records;
+			this.completed = new boolean[records.size()];
+		}
+
+		/**
+		 * Mark the record as processed.
+		 * @param index the index of record in the batch.
+		 * @return the record of the new low-water mark or null if it has not been advanced.
+		 */
+		@Nullable
+		synchronized Record complete(int index) {
+			this.completed[index] = true;
+			int newLowWater = this.lowWater;
+			while (newLowWater + 1 < this.completed.length && this.completed[newLowWater + 1]) {
+				newLowWater++;
+			}
+			if (newLowWater == this.lowWater) {
+				return null;
+			}
+			this.lowWater = newLowWater;
+			return this.records.get(newLowWater);
+		}
+
+	}
+
+	private static final class ScheduledShardConsumer implements Delayed {
+
+		private final ShardConsumer shardConsumer;
+
+		private final long deadline;
+
+		ScheduledShardConsumer(ShardConsumer shardConsumer, long deadline) {
+			this.shardConsumer = shardConsumer;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(this.deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(this.deadline, ((ScheduledShardConsumer) other).deadline);
+		}
+
+	}
+
 	private static final class LockCompletableFuture extends CompletableFuture<Boolean> {
 
 		private final String lockKey;
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.kinesis.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.integration.aws.support.AwsHeaders;
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.messaging.Message;
+import org.springframework.util.Assert;
+
+/**
+ * A reactive source of messages for Kinesis shards.
+ * Each shard is exposed as a {@link Flux} where the downstream demand drives {@code GetRecords} calls
+ * directly on the {@link KinesisAsyncClient}: a call is performed only when there is an outstanding demand,
+ * and it requests no more records than this demand.
+ * No threads are blocked: the records are emitted from the {@link KinesisAsyncClient} completion threads.
+ * <p>
+ * The consumption is resumed after the checkpoint in the {@link #setCheckpointStore(ConcurrentMetadataStore)}
+ * (compatible with the {@link KinesisMessageDrivenChannelAdapter} for the same consumer group).
+ * The checkpoint is tied to the downstream acknowledgement: every message carries
+ * an {@link AwsHeaders#CHECKPOINTER} header to checkpoint its record when it has been processed.
+ * The messages may be acknowledged in any order: the checkpoint is advanced only to the last record
+ * of the contiguous acknowledged prefix of the emitted records (the low-water mark).
+ * The checkpoint store is a blocking API, so it is read on subscription and written after acknowledgements
+ * on the {@link Schedulers#boundedElastic()} - never on the Reactor threads of the subscriber.
+ * <p>
+ * The shard locks and resharding are not handled: the shards to consume are provided explicitly.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+public class KinesisReactiveSource {
+
+	private static final Log logger = LogFactory.getLog(KinesisReactiveSource.class);
+
+	private static final int MAX_RECORDS_LIMIT = 10000;
+
+	private final KinesisAsyncClient amazonKinesis;
+
+	private String consumerGroup = "SpringIntegration";
+
+	private ConcurrentMetadataStore checkpointStore = new SimpleMetadataStore();
+
+	@Nullable
+	private Converter<byte[], Object> converter;
+
+	private int recordsLimit = MAX_RECORDS_LIMIT;
+
+	private Duration idleBetweenPolls = Duration.ofSeconds(1);
+
+	private Duration consumerBackoff = Duration.ofSeconds(1);
+
+	public KinesisReactiveSource(KinesisAsyncClient amazonKinesis) {
+		Assert.notNull(amazonKinesis, "'amazonKinesis' must not be null");
+		this.amazonKinesis = amazonKinesis;
+	}
+
+	public void setConsumerGroup(String consumerGroup) {
+		Assert.hasText(consumerGroup, "'consumerGroup' must not be empty");
+		this.consumerGroup = consumerGroup;
+	}
+
+	public void setCheckpointStore(ConcurrentMetadataStore checkpointStore) {
+		Assert.notNull(checkpointStore, "'checkpointStore' must not be null");
+		this.checkpointStore = checkpointStore;
+	}
+
+	/**
+	 * Specify a {@link Converter} to deserialize the {@code byte[]} from record's body.
+	 * Defaults to {@code null} - the {@code byte[]} payload.
+	 * @param converter the {@link Converter} to use.
+	 */
+	public void setConverter(@Nullable Converter<byte[], Object> converter) {
+		this.converter = converter;
+	}
+
+	/**
+	 * The maximum number of records to request per {@code GetRecords} call regardless of the demand.
+	 * Not greater than {@code 10000}.
+	 * @param recordsLimit the maximum number of records per call.
+	 */
+	public void setRecordsLimit(int recordsLimit) {
+		Assert.isTrue(recordsLimit > 0, "'recordsLimit' must be more than 0");
+		this.recordsLimit = Math.min(MAX_RECORDS_LIMIT, recordsLimit);
+	}
+
+	/**
+	 * The delay before the next {@code GetRecords} call when the shard has no new records.
+	 * Defaults to 1 second.
+	 * @param idleBetweenPolls the delay between polls of the shard which has no new records.
+	 */
+	public void setIdleBetweenPolls(Duration idleBetweenPolls) {
+		Assert.notNull(idleBetweenPolls, "'idleBetweenPolls' must not be null");
+		this.idleBetweenPolls = idleBetweenPolls;
+	}
+
+	/**
+	 * The delay before the next {@code GetRecords} call when the previous one has been throttled.
+	 * Defaults to 1 second.
+	 * @param consumerBackoff the delay after throttling.
+	 */
+	public void setConsumerBackoff(Duration consumerBackoff) {
+		Assert.notNull(consumerBackoff, "'consumerBackoff' must not be null");
+		this.consumerBackoff = consumerBackoff;
+	}
+
+	/**
+	 * Consume the provided shards as a single merged {@link Flux}.
+	 * @param shardOffsets the shards to consume.
+	 * @return the {@link Flux} of messages for records from all the shards.
+	 */
+	public Flux<Message<?>> consume(KinesisShardOffset... shardOffsets) {
+		Assert.notEmpty(shardOffsets, "'shardOffsets' must not be empty");
+		List<Flux<Message<?>>> shards = Arrays.stream(shardOffsets).map(this::consume).toList();
+		return Flux.merge(shards);
+	}
+
+	/**
+	 * Consume the shard as a {@link Flux}.
+	 * The {@link Flux} is completed when the shard is closed and all its records are emitted.
+	 * @param shardOffset the shard to consume.
+	 * @return the {@link Flux} of messages for records from the shard.
+	 */
+	public Flux<Message<?>> consume(KinesisShardOffset shardOffset) {
+		Assert.notNull(shardOffset, "'shardOffset' must not be null");
+		return Flux.create(sink -> new ShardReader(shardOffset, sink).start());
+	}
+
+	private final class ShardReader {
+
+		private final KinesisShardOffset shardOffset;
+
+		private final FluxSink<Message<?>> sink;
+
+		private final ShardCheckpointer checkpointer;
+
+		private final AtomicBoolean inFlight = new AtomicBoolean();
+
+		private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+		/**
+		 * The emitted records (sequence number to acknowledged flag) above the low-water mark in the emission order.
+		 */
+		private final Map<String, Boolean> unacknowledged = new LinkedHashMap<>();
+
+		private volatile String shardIterator;
+
+		@Nullable
+		private volatile String lastEmittedSequence;
+
+		@Nullable
+		private volatile Disposable delayedPoll;
+
+		private volatile boolean disposed;
+
+		ShardReader(KinesisShardOffset shardOffset, FluxSink<Message<?>> sink) {
+			this.shardOffset = new KinesisShardOffset(shardOffset);
+			this.sink = sink;
+			// The write-behind mode: the acknowledgement only advances the checkpoint in memory
+			this.checkpointer =
+					new ShardCheckpointer(KinesisReactiveSource.this.checkpointStore,
+							KinesisReactiveSource.this.consumerGroup + ":" + shardOffset.getStream() + ":"
+									+ shardOffset.getShard(), true);
+		}
+
+		void start() {
+			this.sink.onRequest(demand -> poll());
+			this.sink.onDispose(this::dispose);
+
+			this.inFlight.set(true);
+			Mono.fromRunnable(this::resolveStartingOffset)
+					.subscribeOn(Schedulers.boundedElastic())
+					.subscribe(null, this.sink::error, () -> {
+						if (!this.disposed) {
+							requestShardIterator(this.shardOffset);
+						}
+					});
+		}
+
+		private void resolveStartingOffset() {
+			if (this.shardOffset.isReset()) {
+				this.checkpointer.remove();
+			}
+			else {
+				String checkpoint = this.checkpointer.getCheckpoint();
+				if (checkpoint != null) {
+					this.shardOffset.setSequenceNumber(checkpoint);
+					this.shardOffset.setIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER);
+				}
+			}
+		}
+
+		private void requestShardIterator(KinesisShardOffset offset) {
+			KinesisReactiveSource.this.amazonKinesis.getShardIterator(offset.toShardIteratorRequest())
+					.thenApply(GetShardIteratorResponse::shardIterator)
+					.whenComplete((shardIterator, ex) -> {
+						if (ex != null) {
+							this.sink.error(ex instanceof CompletionException ? ex.getCause() : ex);
+						}
+						else if (shardIterator == null) {
+							this.sink.complete();
+						}
+						else {
+							this.shardIterator = shardIterator;
+							this.inFlight.set(false);
+							poll();
+						}
+					});
+		}
+
+		private void poll() {
+			if (this.disposed || this.sink.requestedFromDownstream() == 0 || !this.inFlight.compareAndSet(false, true)) {
+				return;
+			}
+
+			long limit = Math.min(this.sink.requestedFromDownstream(), KinesisReactiveSource.this.recordsLimit);
+			GetRecordsRequest request =
+					GetRecordsRequest.builder()
+							.shardIterator(this.shardIterator)
+							.limit((int) Math.max(1, limit))
+							.build();
+
+			KinesisReactiveSource.this.amazonKinesis.getRecords(request)
+					.whenComplete((response, ex) -> {
+						if (ex != null) {
+							onError(ex instanceof CompletionException ? ex.getCause() : ex);
+						}
+						else {
+							emit(response);
+						}
+					});
+		}
+
+		private void emit(GetRecordsResponse response) {
+			List<Record> records = response.records();
+			for (Record record : records) {
+				synchronized (this.unacknowledged) {
+					this.unacknowledged.put(record.sequenceNumber(), false);
+				}
+				this.sink.next(toMessage(record));
+				this.lastEmittedSequence = record.sequenceNumber();
+			}
+
+			String nextShardIterator = response.nextShardIterator();
+			if (nextShardIterator == null) {
+				logger.info("The shard [" + this.shardOffset + "] has been closed.");
+				this.sink.complete();
+				return;
+			}
+
+			this.shardIterator = nextShardIterator;
+			if (records.isEmpty()) {
+				pollLater(KinesisReactiveSource.this.idleBetweenPolls);
+			}
+			else {
+				this.inFlight.set(false);
+				poll();
+			}
+		}
+
+		private void onError(Throwable error) {
+			if (error instanceof ExpiredIteratorException) {
+				logger.info("Shard iterator for [" + this.shardOffset + "] expired. Requesting a new one.");
+				KinesisShardOffset offset = new KinesisShardOffset(this.shardOffset);
+				String lastSequence = this.lastEmittedSequence;
+				if (lastSequence != null) {
+					offset.setSequenceNumber(lastSequence);
+					offset.setIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER);
+				}
+				requestShardIterator(offset);
+			}
+			else if (error instanceof ProvisionedThroughputExceededException) {
+				logger.warn("GetRecords request throttled for [" + this.shardOffset + "] with the reason: "
+						+ error.getMessage());
+				pollLater(KinesisReactiveSource.this.consumerBackoff);
+			}
+			else {
+				this.sink.error(error);
+			}
+		}
+
+		private void pollLater(Duration delay) {
+			this.delayedPoll =
+					Mono.delay(delay)
+							.subscribe(tick -> {
+								this.inFlight.set(false);
+								poll();
+							});
+		}
+
+		private Message<?> toMessage(Record record) {
+			Object payload = record.data().asByteArray();
+			Converter<byte[], Object> converter = KinesisReactiveSource.this.converter;
+			if (converter != null) {
+				payload = converter.convert((byte[]) payload);
+			}
+			String sequenceNumber = record.sequenceNumber();
+			return MessageBuilder.withPayload(payload)
+					.setHeader(AwsHeaders.RECEIVED_STREAM, this.shardOffset.getStream())
+					.setHeader(AwsHeaders.SHARD, this.shardOffset.getShard())
+					.setHeader(AwsHeaders.RECEIVED_PARTITION_KEY, record.partitionKey())
+					.setHeader(AwsHeaders.RECEIVED_SEQUENCE_NUMBER, sequenceNumber)
+					.setHeader(AwsHeaders.CHECKPOINTER, new RecordCheckpointer(this, sequenceNumber))
+					.build();
+		}
+
+		/**
+		 * Acknowledge the emitted record and advance the checkpoint to the new low-water mark (if any).
+		 * @param sequenceNumber the sequence number of the record.
+		 * @param upTo whether all the emitted records up to the sequence number are acknowledged.
+		 * @return true if the record has been waiting for the acknowledgement.
+		 */
+		boolean acknowledge(String sequenceNumber, boolean upTo) {
+			String lowWater = null;
+			boolean accepted;
+			synchronized (this.unacknowledged) {
+				accepted = this.unacknowledged.replace(sequenceNumber, true) != null;
+				Iterator<Map.Entry<String, Boolean>> iterator = this.unacknowledged.entrySet().iterator();
+				while (iterator.hasNext()) {
+					Map.Entry<String, Boolean> entry = iterator.next();
+					if (entry.getValue()
+							|| (upTo && SequenceNumbers.compare(entry.getKey(), sequenceNumber) <= 0)) {
+
+						lowWater = entry.getKey();
+						iterator.remove();
+						accepted = true;
+					}
+					else {
+						break;
+					}
+				}
+			}
+			if (lowWater != null && this.checkpointer.checkpoint(lowWater)) {
+				scheduleFlush();
+			}
+			return accepted;
+		}
+
+		private void scheduleFlush() {
+			if (this.flushScheduled.compareAndSet(false, true)) {
+				Mono.fromRunnable(() -> {
+							this.flushScheduled.set(false);
+							this.checkpointer.flush();
+						})
+						.subscribeOn(Schedulers.boundedElastic())
+						.subscribe(null, error ->
+								logger.warn("Cannot store the checkpoint for [" + this.shardOffset + "]", error));
+			}
+		}
+
+		private void dispose() {
+			this.disposed = true;
+			Disposable delayed = this.delayedPoll;
+			if (delayed != null) {
+				delayed.dispose();
+			}
+			// The checkpointer is not closed: the messages emitted before might be acknowledged later
+		}
+
+	}
+
+	/**
+	 * The {@link Checkpointer} for the specific record: the {@link #checkpoint()}
+	 * acknowledges this record, and the {@link #checkpoint(String)} acknowledges all the emitted records
+	 * up to the provided sequence number.
+	 * The checkpoint is stored asynchronously for the low-water mark of acknowledged records,
+	 * so the result only indicates that the acknowledgement is accepted.
+	 */
+	private static final class RecordCheckpointer implements Checkpointer {
+
+		private final ShardReader shardReader;
+
+		private final String sequenceNumber;
+
+		RecordCheckpointer(ShardReader shardReader, String sequenceNumber) {
+			this.shardReader = shardReader;
+			this.sequenceNumber = sequenceNumber;
+		}
+
+		@Override
+		public boolean checkpoint() {
+			return this.shardReader.acknowledge(this.sequenceNumber, false);
+		}
+
+		@Override
+		public boolean checkpoint(String sequenceNumber) {
+			return this.shardReader.acknowledge(sequenceNumber, true);
+		}
+
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+/**
+ * A client-side token bucket based read quota for Kinesis shards.
+ * By default, it follows the Kinesis limits of {@code 5} {@code GetRecords} calls
+ * and {@code 2 MB} of data per second per shard.
+ * Optionally, the number of calls per second can be limited for the whole stream.
+ * <p>
+ * The same instance can be shared between several {@link KinesisMessageDrivenChannelAdapter}s
+ * (e.g. different consumer groups for the same stream in one JVM), so they share the read budget
+ * of each shard instead of being throttled by Kinesis.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ *
+ * @see KinesisMessageDrivenChannelAdapter#setReadQuota(KinesisReadQuota)
+ */
+public class KinesisReadQuota {
+
+	private final Map<String, TokenBucket> callBuckets = new ConcurrentHashMap<>();
+
+	private final Map<String, TokenBucket> bytesBuckets = new ConcurrentHashMap<>();
+
+	private final Map<String, TokenBucket> streamCallBuckets = new ConcurrentHashMap<>();
+
+	private double callsPerSecond = 5;
+
+	private long bytesPerSecond = 2 * 1024 * 1024;
+
+	private double streamCallsPerSecond;
+
+	/**
+	 * The number of {@code GetRecords} calls per second allowed for each shard. Defaults to {@code 5}.
+	 * @param callsPerSecond the calls per second for a shard.
+	 */
+	public void setCallsPerSecond(double callsPerSecond) {
+		Assert.isTrue(callsPerSecond > 0, "'callsPerSecond' must be more than 0");
+		this.callsPerSecond = callsPerSecond;
+	}
+
+	/**
+	 * The number of record data bytes per second allowed to read from each shard. Defaults to {@code 2 MB}.
+	 * @param bytesPerSecond the bytes per second for a shard.
+	 */
+	public void setBytesPerSecond(long bytesPerSecond) {
+		Assert.isTrue(bytesPerSecond > 0, "'bytesPerSecond' must be more than 0");
+		this.bytesPerSecond = bytesPerSecond;
+	}
+
+	/**
+	 * The number of {@code GetRecords} calls per second allowed for all the shards of a stream.
+	 * Defaults to {@code 0} - not limited on the stream level.
+	 * @param streamCallsPerSecond the calls per second for a stream.
+	 */
+	public void setStreamCallsPerSecond(double streamCallsPerSecond) {
+		Assert.isTrue(streamCallsPerSecond >= 0, "'streamCallsPerSecond' must not be negative");
+		this.streamCallsPerSecond = streamCallsPerSecond;
+	}
+
+	/**
+	 * Try to reserve a {@code GetRecords} call for the shard.
+	 * @param stream the stream of the shard.
+	 * @param shard the shard to read.
+	 * @return {@code 0} if the call is reserved, otherwise the number of milliseconds
+	 * to wait before trying again.
+	 */
+	public long tryAcquireCall(String stream, String shard) {
+		String key = stream + ':' + shard;
+		TokenBucket callBucket =
+				this.callBuckets.computeIfAbsent(key, k -> new TokenBucket(this.callsPerSecond, this.callsPerSecond));
+		TokenBucket bytesBucket =
+				this.bytesBuckets.computeIfAbsent(key, k -> new TokenBucket(this.bytesPerSecond, this.bytesPerSecond));
+		TokenBucket streamCallBucket =
+				this.streamCallsPerSecond > 0
+						? this.streamCallBuckets.computeIfAbsent(stream,
+						k -> new TokenBucket(this.streamCallsPerSecond, this.streamCallsPerSecond))
+						: null;
+
+		// The data read before might have exceeded the budget: wait until it is refilled
+		long delay = bytesBucket.delayFor(0);
+		if (delay > 0) {
+			return delay;
+		}
+		synchronized (callBucket) {
+			delay = callBucket.delayFor(1);
+			if (delay == 0 && streamCallBucket != null) {
+				synchronized (streamCallBucket) {
+					delay = streamCallBucket.delayFor(1);
+					if (delay == 0) {
+						streamCallBucket.take(1);
+					}
+				}
+			}
+			if (delay == 0) {
+				callBucket.take(1);
+			}
+		}
+		return delay;
+	}
+
+	/**
+	 * Register the number of record data bytes read from the shard.
+	 * The bytes budget of the shard may go negative, so the next call
+	 * is delayed until it is refilled.
+	 * @param stream the stream of the shard.
+	 * @param shard the shard read.
+	 * @param bytes the number of bytes read.
+	 */
+	public void recordBytes(String stream, String shard, long bytes) {
+		if (bytes > 0) {
+			this.bytesBuckets.computeIfAbsent(stream + ':' + shard,
+							k -> new TokenBucket(this.bytesPerSecond, this.bytesPerSecond))
+					.take(bytes);
+		}
+	}
+
+	private static final class TokenBucket {
+
+		private final double capacity;
+
+		private final double tokensPerNano;
+
+		private double tokens;
+
+		private long lastRefill = System.nanoTime();
+
+		TokenBucket(double capacity, double tokensPerSecond) {
+			this.capacity = capacity;
+			this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+			this.tokens = capacity;
+		}
+
+		synchronized long delayFor(double required) {
+			refill();
+			double missing = required - this.tokens;
+			if (missing <= 0) {
+				return 0;
+			}
+			return Math.max(1, TimeUnit.NANOSECONDS.toMillis((long) Math.ceil(missing / this.tokensPerNano)));
+		}
+
+		synchronized void take(double amount) {
+			refill();
+			this.tokens -= amount;
+		}
+
+		private void refill() {
+			long now = System.nanoTime();
+			this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefill) * this.tokensPerNano);
+			this.lastRefill = now;
+		}
+
+	}
+
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.integration.support.management.metrics.MetricsCaptor;
+import org.springframework.lang.Nullable;
+
+/**
+ * The per-shard meters of the {@link KinesisMessageDrivenChannelAdapter} registered via the {@link MetricsCaptor}.
+ * All the meters are tagged with the {@code name} of the adapter, the {@code stream} and the {@code shard}.
+ * <ul>
+ * <li>{@code spring.integration.kinesis.consumer.millis.behind.latest} - the last {@code MillisBehindLatest}
+ * reported by Kinesis for the shard;
+ * <li>{@code spring.integration.kinesis.consumer.records.rate} - records per second;
+ * <li>{@code spring.integration.kinesis.consumer.bytes.rate} - record bytes per second;
+ * <li>{@code spring.integration.kinesis.consumer.get.records} - the {@code GetRecords} latency;
+ * <li>{@code spring.integration.kinesis.consumer.throttled} - the throttled {@code GetRecords} calls;
+ * <li>{@code spring.integration.kinesis.consumer.polls} - the {@code GetRecords} results
+ * with the {@code result} tag as {@code records} or {@code empty}, which is a base for the empty-poll ratio;
+ * <li>{@code spring.integration.kinesis.consumer.checkpoint} - the checkpoint store writes
+ * with the {@code result} tag as {@code stored}, {@code rejected} (a newer checkpoint is in the store)
+ * or {@code failure};
+ * <li>{@code spring.integration.kinesis.consumer.failed.records} - the records failed downstream
+ * with the {@code action} tag as {@code retried} or {@code skipped} (after all the attempts).
+ * </ul>
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+final class KinesisShardMetrics {
+
+	static final String PREFIX = "spring.integration.kinesis.";
+
+	private final List<MetricsCaptor.MeterFacade> meters = new ArrayList<>();
+
+	private final Rate recordsRate = new Rate();
+
+	private final Rate bytesRate = new Rate();
+
+	private final MetricsCaptor.TimerFacade getRecordsTimer;
+
+	private final MetricsCaptor.CounterFacade throttledCounter;
+
+	private final MetricsCaptor.CounterFacade recordsPollsCounter;
+
+	private final MetricsCaptor.CounterFacade emptyPollsCounter;
+
+	private final MetricsCaptor.TimerFacade checkpointStoredTimer;
+
+	private final MetricsCaptor.TimerFacade checkpointRejectedTimer;
+
+	private final MetricsCaptor.TimerFacade checkpointFailureTimer;
+
+	private final MetricsCaptor.CounterFacade retriedRecordsCounter;
+
+	private final MetricsCaptor.CounterFacade skippedRecordsCounter;
+
+	private volatile double millisBehindLatest = Double.NaN;
+
+	KinesisShardMetrics(MetricsCaptor metricsCaptor, String name, String stream, String shard) {
+		this.meters.add(
+				metricsCaptor.gaugeBuilder(PREFIX + "consumer.millis.behind.latest", this,
+								metrics -> ((KinesisShardMetrics) metrics).millisBehindLatest)
+						.tag("name", name)
+						.tag("stream", stream)
+						.tag("shard", shard)
+						.description("The last MillisBehindLatest reported for the shard")
+						.build());
+		this.meters.add(
+				metricsCaptor.gaugeBuilder(PREFIX + "consumer.records.rate", this,
+								metrics -> ((KinesisShardMetrics) metrics).recordsRate.perSecond())
+						.tag("name", name)
+						.tag("stream", stream)
+						.tag("shard", shard)
+						.description("Records per second consumed from the shard")
+						.build());
+		this.meters.add(
+				metricsCaptor.gaugeBuilder(PREFIX + "consumer.bytes.rate", this,
+								metrics -> ((KinesisShardMetrics) metrics).bytesRate.perSecond())
+						.tag("name", name)
+						.tag("stream", stream)
+						.tag("shard", shard)
+						.description("Record bytes per second consumed from the shard")
+						.build());
+		this.getRecordsTimer =
+				register(metricsCaptor.timerBuilder(PREFIX + "consumer.get.records")
+						.tag("name", name)
+						.tag("stream", stream)
+						.tag("shard", shard)
+						.description("The GetRecords latency")
+						.build());
+		this.throttledCounter =
+				register(metricsCaptor.counterBuilder(PREFIX + "consumer.throttled")
+						.tag("name", name)
+						.tag("stream", stream)
+						.tag("shard", shard)
+						.description("The throttled GetRecords calls")
+						.build());
+		this.recordsPollsCounter = pollsCounter(metricsCaptor, name, stream, shard, "records");
+		this.emptyPollsCounter = pollsCounter(metricsCaptor, name, stream, shard, "empty");
+		this.checkpointStoredTimer = checkpointTimer(metricsCaptor, name, stream, shard, "stored");
+		this.checkpointRejectedTimer = checkpointTimer(metricsCaptor, name, stream, shard, "rejected");
+		this.checkpointFailureTimer = checkpointTimer(metricsCaptor, name, stream, shard, "failure");
+		this.retriedRecordsCounter = failedRecordsCounter(metricsCaptor, name, stream, shard, "retried");
+		this.skippedRecordsCounter = failedRecordsCounter(metricsCaptor, name, stream, shard, "skipped");
+	}
+
+	private MetricsCaptor.CounterFacade pollsCounter(MetricsCaptor metricsCaptor, String name, String stream,
+			String shard, String result) {
+
+		return register(metricsCaptor.counterBuilder(PREFIX + "consumer.polls")
+				.tag("name", name)
+				.tag("stream", stream)
+				.tag("shard", shard)
+				.tag("result", result)
+				.description("The GetRecords results")
+				.build());
+	}
+
+	private MetricsCaptor.TimerFacade checkpointTimer(MetricsCaptor metricsCaptor, String name, String stream,
+			String shard, String result) {
+
+		return register(metricsCaptor.timerBuilder(PREFIX + "consumer.checkpoint")
+				.tag("name", name)
+				.tag("stream", stream)
+				.tag("shard", shard)
+				.tag("result", result)
+				.description("The checkpoint store writes")
+				.build());
+	}
+
+	private MetricsCaptor.CounterFacade failedRecordsCounter(MetricsCaptor metricsCaptor, String name, String stream,
+			String shard, String action) {
+
+		return register(metricsCaptor.counterBuilder(PREFIX + "consumer.failed.records")
+				.tag("name", name)
+				.tag("stream", stream)
+				.tag("shard", shard)
+				.tag("action", action)
+				.description("The records failed downstream")
+				.build());
+	}
+
+	private <T extends MetricsCaptor.MeterFacade> T register(T meter) {
+		this.meters.add(meter);
+		return meter;
+	}
+
+	void getRecords(long startNanos) {
+		this.getRecordsTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	void throttled() {
+		this.throttledCounter.increment();
+	}
+
+	void records(int records, long bytes, @Nullable Long millisBehindLatest) {
+		if (millisBehindLatest != null) {
+			this.millisBehindLatest = millisBehindLatest;
+		}
+		if (records > 0) {
+			this.recordsPollsCounter.increment();
+			this.recordsRate.add(records);
+			this.bytesRate.add(bytes);
+		}
+		else {
+			this.emptyPollsCounter.increment();
+		}
+	}
+
+	void checkpoint(long startNanos, boolean stored) {
+		(stored ? this.checkpointStoredTimer : this.checkpointRejectedTimer)
+				.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	void checkpointFailed(long startNanos) {
+		this.checkpointFailureTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	void recordsRetried() {
+		this.retriedRecordsCounter.increment();
+	}
+
+	void recordsSkipped() {
+		this.skippedRecordsCounter.increment();
+	}
+
+	void remove() {
+		synchronized (this.meters) {
+			for (MetricsCaptor.MeterFacade meter : this.meters) {
+				meter.remove();
+			}
+			this.meters.clear();
+		}
+	}
+
+	/**
+	 * The per-second rate of the values added during the last (at least one second long) window.
+	 */
+	private static final class Rate {
+
+		private long windowStart = System.currentTimeMillis();
+
+		private long windowSum;
+
+		private double rate;
+
+		synchronized void add(long value) {
+			roll();
+			this.windowSum += value;
+		}
+
+		synchronized double perSecond() {
+			roll();
+			return this.rate;
+		}
+
+		private void roll() {
+			long now = System.currentTimeMillis();
+			long elapsed = now - this.windowStart;
+			if (elapsed >= 1000) {
+				this.rate = this.windowSum * 1000.0 / elapsed;
+				this.windowSum = 0;
+				this.windowStart = now;
+			}
+		}
+
+	}
+
+}
@@ -21,6 +21,7 @@ import java.util.Objects;
 
 import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
 import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.model.StartingPosition;
 
 import org.springframework.util.Assert;
 
@@ -123,6 +124,19 @@ public class KinesisShardOffset {
 				.build();
 	}
 
+	/**
+	 * Convert this offset to the {@link StartingPosition} for the {@code SubscribeToShard} request.
+	 * @return the {@link StartingPosition} based on this offset.
+	 * @since 3.0.11
+	 */
+	public StartingPosition toStartingPosition() {
+		return StartingPosition.builder()
+				.type(this.iteratorType)
+				.sequenceNumber(this.sequenceNumber)
+				.timestamp(this.timestamp)
+				.build();
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -0,0 +1,324 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+/**
+ * An internal streaming de-aggregator for the Kinesis records produced by the KPL with aggregation.
+ * <p>
+ * The aggregated record data is {@code magic (4 bytes) + AggregatedRecord protobuf + MD5 of protobuf (16 bytes)}.
+ * The protobuf is parsed in place over the record data and the sub-records are produced one by one,
+ * so only the current sub-record data is copied.
+ * The records which are not aggregated (or have a wrong checksum) are returned as is.
+ * <p>
+ * The sub-records get a sequence number of the aggregated record with a {@code .subSequence} suffix,
+ * except the last one, which gets the sequence number of the aggregated record as is,
+ * so a checkpoint for it means the whole aggregated record is processed.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ *
+ * @see SequenceNumbers
+ */
+final class KplRecordDeaggregator {
+
+	private static final byte[] KPL_AGGREGATED_RECORD_MAGIC = { (byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2 };
+
+	private static final int DIGEST_LENGTH = 16;
+
+	private static final int PARTITION_KEY_TABLE_FIELD = 1;
+
+	private static final int RECORDS_FIELD = 3;
+
+	private static final int PARTITION_KEY_INDEX_FIELD = 1;
+
+	private static final int DATA_FIELD = 3;
+
+	private static final int WIRE_TYPE_VARINT = 0;
+
+	private static final int WIRE_TYPE_FIXED64 = 1;
+
+	private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+
+	private static final int WIRE_TYPE_FIXED32 = 5;
+
+	/**
+	 * Produce sub-records of the KPL aggregated record lazily.
+	 * @param record the record to de-aggregate.
+	 * @return the iterator over sub-records or over the record itself if it is not aggregated.
+	 */
+	static Iterator<Record> deaggregate(Record record) {
+		byte[] data = record.data().asByteArrayUnsafe();
+		if (isAggregated(data)) {
+			try {
+				return new SubRecordIterator(record, data);
+			}
+			catch (IllegalArgumentException ex) {
+				// Not a valid protobuf - deliver as is
+			}
+		}
+		return Collections.singletonList(record).iterator();
+	}
+
+	/**
+	 * De-aggregate all the records into a list.
+	 * @param records the records to de-aggregate.
+	 * @return the list of sub-records and not aggregated records.
+	 */
+	static List<Record> deaggregate(List<Record> records) {
+		List<Record> result = new ArrayList<>(records.size());
+		for (Record record : records) {
+			deaggregate(record).forEachRemaining(result::add);
+		}
+		return result;
+	}
+
+	private static boolean isAggregated(byte[] data) {
+		if (data.length <= KPL_AGGREGATED_RECORD_MAGIC.length + DIGEST_LENGTH
+				|| !Arrays.equals(data, 0, KPL_AGGREGATED_RECORD_MAGIC.length,
+				KPL_AGGREGATED_RECORD_MAGIC, 0, KPL_AGGREGATED_RECORD_MAGIC.length)) {
+
+			return false;
+		}
+		int digestStart = data.length - DIGEST_LENGTH;
+		try {
+			MessageDigest md5 = MessageDigest.getInstance("MD5");
+			md5.update(data, KPL_AGGREGATED_RECORD_MAGIC.length, digestStart - KPL_AGGREGATED_RECORD_MAGIC.length);
+			return Arrays.equals(md5.digest(), 0, DIGEST_LENGTH, data, digestStart, data.length);
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private KplRecordDeaggregator() {
+	}
+
+	/**
+	 * The cursor over a protobuf message in the byte array.
+	 */
+	private static final class ProtobufReader {
+
+		private final byte[] data;
+
+		private final int end;
+
+		private int position;
+
+		private int fieldNumber;
+
+		private int wireType;
+
+		ProtobufReader(byte[] data, int start, int end) {
+			this.data = data;
+			this.position = start;
+			this.end = end;
+		}
+
+		boolean nextField() {
+			if (this.position >= this.end) {
+				return false;
+			}
+			long tag = readVarint();
+			this.fieldNumber = (int) (tag >>> 3);
+			this.wireType = (int) (tag & 0x7);
+			return true;
+		}
+
+		long readVarint() {
+			long result = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				if (this.position >= this.end) {
+					throw new IllegalArgumentException("Truncated varint");
+				}
+				byte b = this.data[this.position++];
+				result |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+			}
+			throw new IllegalArgumentException("Malformed varint");
+		}
+
+		/**
+		 * Read the length of the length-delimited field and move the position after it.
+		 * @return the start of the field value.
+		 */
+		int readLengthDelimited() {
+			long length = readVarint();
+			int start = this.position;
+			if (length < 0 || length > this.end - start) {
+				throw new IllegalArgumentException("Truncated length-delimited field");
+			}
+			this.position = start + (int) length;
+			return start;
+		}
+
+		void skipField() {
+			switch (this.wireType) {
+				case WIRE_TYPE_VARINT -> readVarint();
+				case WIRE_TYPE_FIXED64 -> skip(8);
+				case WIRE_TYPE_LENGTH_DELIMITED -> readLengthDelimited();
+				case WIRE_TYPE_FIXED32 -> skip(4);
+				default -> throw new IllegalArgumentException("Unsupported wire type: " + this.wireType);
+			}
+		}
+
+		private void skip(int length) {
+			if (this.end - this.position < length) {
+				throw new IllegalArgumentException("Truncated field");
+			}
+			this.position += length;
+		}
+
+	}
+
+	private static final class SubRecordIterator implements Iterator<Record> {
+
+		private final Record record;
+
+		private final byte[] data;
+
+		private final List<String> partitionKeys = new ArrayList<>();
+
+		private final ProtobufReader reader;
+
+		private int nextStart = -1;
+
+		private int nextEnd;
+
+		private long subSequence;
+
+		SubRecordIterator(Record record, byte[] data) {
+			this.record = record;
+			this.data = data;
+			int start = KPL_AGGREGATED_RECORD_MAGIC.length;
+			int end = data.length - DIGEST_LENGTH;
+
+			// The first pass collects the partition keys table and validates the structure
+			// to not fail in the middle of the iteration
+			ProtobufReader tableReader = new ProtobufReader(data, start, end);
+			while (tableReader.nextField()) {
+				if (tableReader.fieldNumber == PARTITION_KEY_TABLE_FIELD
+						&& tableReader.wireType == WIRE_TYPE_LENGTH_DELIMITED) {
+
+					int keyStart = tableReader.readLengthDelimited();
+					this.partitionKeys.add(
+							new String(data, keyStart, tableReader.position - keyStart, StandardCharsets.UTF_8));
+				}
+				else if (tableReader.fieldNumber == RECORDS_FIELD
+						&& tableReader.wireType == WIRE_TYPE_LENGTH_DELIMITED) {
+
+					int recordStart = tableReader.readLengthDelimited();
+					ProtobufReader subRecordReader = new ProtobufReader(data, recordStart, tableReader.position);
+					while (subRecordReader.nextField()) {
+						subRecordReader.skipField();
+					}
+				}
+				else {
+					tableReader.skipField();
+				}
+			}
+
+			this.reader = new ProtobufReader(data, start, end);
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.nextStart >= 0;
+		}
+
+		@Override
+		public Record next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int start = this.nextStart;
+			int end = this.nextEnd;
+			advance();
+			String sequenceNumber =
+					hasNext()
+							? SequenceNumbers.subSequenceNumber(this.record.sequenceNumber(), this.subSequence++)
+							: this.record.sequenceNumber();
+			return toRecord(start, end, sequenceNumber);
+		}
+
+		private void advance() {
+			this.nextStart = -1;
+			while (this.reader.nextField()) {
+				if (this.reader.fieldNumber == RECORDS_FIELD
+						&& this.reader.wireType == WIRE_TYPE_LENGTH_DELIMITED) {
+
+					this.nextStart = this.reader.readLengthDelimited();
+					this.nextEnd = this.reader.position;
+					return;
+				}
+				this.reader.skipField();
+			}
+		}
+
+		private Record toRecord(int start, int end, String sequenceNumber) {
+			String partitionKey = this.record.partitionKey();
+			int dataStart = start;
+			int dataEnd = start;
+			ProtobufReader subRecordReader = new ProtobufReader(this.data, start, end);
+			while (subRecordReader.nextField()) {
+				if (subRecordReader.fieldNumber == PARTITION_KEY_INDEX_FIELD
+						&& subRecordReader.wireType == WIRE_TYPE_VARINT) {
+
+					long index = subRecordReader.readVarint();
+					if (index >= 0 && index < this.partitionKeys.size()) {
+						partitionKey = this.partitionKeys.get((int) index);
+					}
+				}
+				else if (subRecordReader.fieldNumber == DATA_FIELD
+						&& subRecordReader.wireType == WIRE_TYPE_LENGTH_DELIMITED) {
+
+					dataStart = subRecordReader.readLengthDelimited();
+					dataEnd = subRecordReader.position;
+				}
+				else {
+					subRecordReader.skipField();
+				}
+			}
+
+			return Record.builder()
+					.partitionKey(partitionKey)
+					.sequenceNumber(sequenceNumber)
+					.approximateArrivalTimestamp(this.record.approximateArrivalTimestamp())
+					.encryptionType(this.record.encryptionType())
+					.data(SdkBytes.fromByteArrayUnsafe(Arrays.copyOfRange(this.data, dataStart, dataEnd)))
+					.build();
+		}
+
+	}
+
+}
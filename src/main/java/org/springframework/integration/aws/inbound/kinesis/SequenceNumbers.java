@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+/**
+ * An internal utility for Kinesis sequence numbers which are non-negative decimals
+ * of up to 128 bits (56 digits at most).
+ * The comparison is done by the number of significant digits and then lexicographically,
+ * without parsing into {@link java.math.BigInteger}s.
+ * <p>
+ * A sequence number may have a {@code .subSequence} suffix for a sub-record of the KPL aggregated record.
+ * Such a sequence number is less than the sequence number of the aggregated record itself,
+ * which means the whole aggregated record.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+final class SequenceNumbers {
+
+	private static final char SUB_SEQUENCE_SEPARATOR = '.';
+
+	/**
+	 * Compare two sequence numbers numerically.
+	 * @param sequence1 the first sequence number.
+	 * @param sequence2 the second sequence number.
+	 * @return negative, zero or positive if the first sequence number is less than,
+	 * equal to or greater than the second one.
+	 * @throws NumberFormatException if any of sequence numbers is not a non-negative decimal.
+	 */
+	static int compare(String sequence1, String sequence2) {
+		int end1 = sequenceEnd(sequence1);
+		int end2 = sequenceEnd(sequence2);
+		int start1 = significantStart(sequence1, end1);
+		int start2 = significantStart(sequence2, end2);
+		int length1 = end1 - start1;
+		int length2 = end2 - start2;
+		if (length1 != length2) {
+			return length1 < length2 ? -1 : 1;
+		}
+		for (int i = 0; i < length1; i++) {
+			int diff = sequence1.charAt(start1 + i) - sequence2.charAt(start2 + i);
+			if (diff != 0) {
+				return diff;
+			}
+		}
+		return Long.compare(subSequence(sequence1, end1), subSequence(sequence2, end2));
+	}
+
+	/**
+	 * Build a sequence number for the sub-record of the KPL aggregated record.
+	 * @param sequenceNumber the sequence number of the aggregated record.
+	 * @param subSequence the index of the sub-record.
+	 * @return the sequence number for the sub-record.
+	 */
+	static String subSequenceNumber(String sequenceNumber, long subSequence) {
+		return sequenceNumber + SUB_SEQUENCE_SEPARATOR + subSequence;
+	}
+
+	/**
+	 * Check if the sequence number is for a sub-record of the KPL aggregated record.
+	 * @param sequenceNumber the sequence number to check.
+	 * @return true if the sequence number has a sub-sequence.
+	 */
+	static boolean isSubSequenceNumber(String sequenceNumber) {
+		return sequenceNumber.indexOf(SUB_SEQUENCE_SEPARATOR) > 0;
+	}
+
+	/**
+	 * Return the Kinesis record sequence number without a sub-sequence suffix (if any).
+	 * @param sequenceNumber the sequence number.
+	 * @return the Kinesis record sequence number.
+	 */
+	static String recordSequenceNumber(String sequenceNumber) {
+		return sequenceNumber.substring(0, sequenceEnd(sequenceNumber));
+	}
+
+	private static int sequenceEnd(String sequence) {
+		int separator = sequence.indexOf(SUB_SEQUENCE_SEPARATOR);
+		return separator < 0 ? sequence.length() : separator;
+	}
+
+	private static long subSequence(String sequence, int sequenceEnd) {
+		return sequenceEnd == sequence.length()
+				? Long.MAX_VALUE
+				: Long.parseLong(sequence, sequenceEnd + 1, sequence.length(), 10);
+	}
+
+	private static int significantStart(String sequence, int end) {
+		if (end == 0) {
+			throw new NumberFormatException("Zero length sequence number: \"" + sequence + '"');
+		}
+		int start = end;
+		for (int i = 0; i < end; i++) {
+			char c = sequence.charAt(i);
+			if (c < '0' || c > '9') {
+				throw new NumberFormatException("Not a sequence number: \"" + sequence + '"');
+			}
+			if (c != '0' && start == end) {
+				start = i;
+			}
+		}
+		return start;
+	}
+
+	private SequenceNumbers() {
+	}
+
+}
@@ -16,7 +16,7 @@
 
 package org.springframework.integration.aws.inbound.kinesis;
 
-import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -31,6 +31,12 @@ import org.springframework.lang.Nullable;
  * <p>
  * The instances of this class is created by the
  * {@link KinesisMessageDrivenChannelAdapter} for each {@code ShardConsumer}.
+ * <p>
+ * In the write-behind mode, the {@link #checkpoint(String)} only advances an in-memory
+ * high-water mark and the latest value is persisted into the store by the {@link #flush()}.
+ * <p>
+ * Since the consumer owns the shard, the last persisted checkpoint is kept locally
+ * and the store is read only when a conditional write has failed.
  *
  * @author Artem Bilan
  * @since 1.1
@@ -47,11 +53,29 @@ class ShardCheckpointer implements Checkpointer {
 
 	private volatile String lastCheckpointValue;
 
+	private volatile boolean lastCheckpointKnown;
+
+	private final AtomicReference<String> pendingCheckpoint = new AtomicReference<>();
+
+	private final boolean writeBehind;
+
 	private volatile boolean active = true;
 
+	@Nullable
+	private volatile KinesisShardMetrics metrics;
+
 	ShardCheckpointer(ConcurrentMetadataStore checkpointStore, String key) {
+		this(checkpointStore, key, false);
+	}
+
+	ShardCheckpointer(ConcurrentMetadataStore checkpointStore, String key, boolean writeBehind) {
 		this.checkpointStore = checkpointStore;
 		this.key = key;
+		this.writeBehind = writeBehind;
+	}
+
+	void setMetrics(@Nullable KinesisShardMetrics metrics) {
+		this.metrics = metrics;
 	}
 
 	@Override
@@ -62,20 +86,10 @@ class ShardCheckpointer implements Checkpointer {
 	@Override
 	public boolean checkpoint(String sequenceNumber) {
 		if (this.active) {
-			String existingSequence = getCheckpoint();
-			if (existingSequence == null
-					|| new BigInteger(existingSequence).compareTo(new BigInteger(sequenceNumber)) < 0) {
-				if (existingSequence != null) {
-					return this.checkpointStore.replace(this.key, existingSequence, sequenceNumber);
-				}
-				else {
-					boolean stored = this.checkpointStore.putIfAbsent(this.key, sequenceNumber) == null;
-					if (stored) {
-						this.lastCheckpointValue = sequenceNumber;
-					}
-					return stored;
-				}
+			if (this.writeBehind) {
+				return advancePendingCheckpoint(sequenceNumber);
 			}
+			return persist(sequenceNumber);
 		}
 		else {
 			if (logger.isInfoEnabled()) {
@@ -86,6 +100,75 @@ class ShardCheckpointer implements Checkpointer {
 		return false;
 	}
 
+	private boolean advancePendingCheckpoint(String sequenceNumber) {
+		while (true) {
+			String pending = this.pendingCheckpoint.get();
+			String current = pending != null ? pending : this.lastCheckpointValue;
+			if (current != null && SequenceNumbers.compare(current, sequenceNumber) >= 0) {
+				return false;
+			}
+			if (this.pendingCheckpoint.compareAndSet(pending, sequenceNumber)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Persist the pending write-behind checkpoint (if any) into the store.
+	 * The pending checkpoint is kept for the next attempt if the store has failed.
+	 */
+	synchronized void flush() {
+		String pending = this.pendingCheckpoint.get();
+		if (pending != null) {
+			persist(pending);
+			this.pendingCheckpoint.compareAndSet(pending, null);
+		}
+	}
+
+	private boolean persist(String sequenceNumber) {
+		KinesisShardMetrics shardMetrics = this.metrics;
+		if (shardMetrics == null) {
+			return doPersist(sequenceNumber);
+		}
+		long start = System.nanoTime();
+		try {
+			boolean stored = doPersist(sequenceNumber);
+			shardMetrics.checkpoint(start, stored);
+			return stored;
+		}
+		catch (RuntimeException ex) {
+			shardMetrics.checkpointFailed(start);
+			throw ex;
+		}
+	}
+
+	private boolean doPersist(String sequenceNumber) {
+		String existingSequence = this.lastCheckpointKnown ? this.lastCheckpointValue : getStoredCheckpoint();
+		if (existingSequence != null && SequenceNumbers.compare(existingSequence, sequenceNumber) >= 0) {
+			return false;
+		}
+		boolean stored;
+		if (existingSequence != null) {
+			stored = this.checkpointStore.replace(this.key, existingSequence, sequenceNumber);
+		}
+		else {
+			stored = this.checkpointStore.putIfAbsent(this.key, sequenceNumber) == null;
+		}
+		if (stored) {
+			this.lastCheckpointValue = sequenceNumber;
+			this.lastCheckpointKnown = true;
+			return true;
+		}
+		// Another consumer (e.g. a new owner of the shard) has stored a checkpoint: don't overwrite its progress.
+		// Just re-read the store for the next attempt.
+		getStoredCheckpoint();
+		if (logger.isInfoEnabled()) {
+			logger.info("The checkpoint [" + sequenceNumber + "] is not stored for [" + this
+					+ "] since the store has been updated by another consumer.");
+		}
+		return false;
+	}
+
 	void setHighestSequence(String highestSequence) {
 		this.highestSequence = highestSequence;
 	}
@@ -97,21 +180,57 @@ class ShardCheckpointer implements Checkpointer {
 
 	@Nullable
 	String getCheckpoint() {
+		String pending = this.pendingCheckpoint.get();
+		if (pending != null) {
+			// Not flushed yet, but ahead of the store since this consumer owns the shard
+			return pending;
+		}
+		return getStoredCheckpoint();
+	}
+
+	@Nullable
+	private String getStoredCheckpoint() {
 		this.lastCheckpointValue = this.checkpointStore.get(this.key);
+		this.lastCheckpointKnown = true;
 		return this.lastCheckpointValue;
 	}
 
 	@Nullable
 	String getLastCheckpointValue() {
-		return this.lastCheckpointValue;
+		String pending = this.pendingCheckpoint.get();
+		return pending != null ? pending : this.lastCheckpointValue;
 	}
 
 	void remove() {
+		this.pendingCheckpoint.set(null);
 		this.checkpointStore.remove(this.key);
+		this.lastCheckpointValue = null;
+		this.lastCheckpointKnown = true;
+	}
+
+	/**
+	 * Close this checkpointer without persisting the pending write-behind checkpoint (if any).
+	 * Used when the shard lock has been lost, so another consumer may already own the shard.
+	 */
+	synchronized void abandon() {
+		this.active = false;
+		String pending = this.pendingCheckpoint.getAndSet(null);
+		if (pending != null && logger.isInfoEnabled()) {
+			logger.info("The pending checkpoint [" + pending + "] is dropped for [" + this
+					+ "] since the shard is not owned anymore.");
+		}
 	}
 
 	void close() {
 		this.active = false;
+		if (this.writeBehind) {
+			try {
+				flush();
+			}
+			catch (Exception ex) {
+				logger.warn("Cannot flush the pending checkpoint for [" + this + "]", ex);
+			}
+		}
 	}
 
 	@Override
@@ -18,14 +18,22 @@ package org.springframework.integration.aws.lock;
 
 import java.text.SimpleDateFormat;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import software.amazon.awssdk.services.dynamodb.model.TransactionConflictException;
 
 import org.springframework.dao.CannotAcquireLockException;
@@ -46,6 +54,8 @@ import org.springframework.util.Assert;
  */
 public class DynamoDbLockRegistry implements ExpirableLockRegistry, RenewableLockRegistry {
 
+	private static final Log LOGGER = LogFactory.getLog(DynamoDbLockRegistry.class);
+
 	private static final int DEFAULT_IDLE = 100;
 
 	private final Map<String, DynamoDbLock> locks = new ConcurrentHashMap<>();
@@ -101,6 +111,59 @@ public class DynamoDbLockRegistry implements ExpirableLockRegistry, RenewableLoc
 		}
 	}
 
+	/**
+	 * Renew the leases for the provided locks concurrently.
+	 * The locks must be held by the current thread.
+	 * A lease which renewal is in a transaction conflict is considered as still held:
+	 * it is expected to be renewed on the next call before its expiration.
+	 * @param lockKeys the keys for locks to renew.
+	 * @return the future with the keys for locks which leases have not been renewed.
+	 * @since 3.0.11
+	 */
+	public CompletableFuture<Set<String>> renewLocks(Collection<String> lockKeys) {
+		Set<String> notRenewed = ConcurrentHashMap.newKeySet();
+		List<CompletableFuture<Void>> renewals = new ArrayList<>();
+		for (String lockKey : lockKeys) {
+			DynamoDbLock dynamoDbLock = this.locks.get(lockKey);
+			if (dynamoDbLock == null || !dynamoDbLock.delegate.isHeldByCurrentThread()) {
+				notRenewed.add(lockKey);
+			}
+			else {
+				renewals.add(
+						dynamoDbLock.renewAsync()
+								.thenAccept(renewed -> {
+									if (!renewed) {
+										notRenewed.add(lockKey);
+									}
+								}));
+			}
+		}
+		return CompletableFuture.allOf(renewals.toArray(new CompletableFuture<?>[0]))
+				.thenApply(v -> notRenewed);
+	}
+
+	/**
+	 * Store a heartbeat for the owner of this registry in the group
+	 * and return the number of live owners in this group.
+	 * @param group the group of cluster nodes, e.g. a consumer group.
+	 * @return the number of live owners in the group.
+	 * @since 3.0.11
+	 * @see DynamoDbLockRepository#heartbeat(String)
+	 */
+	public int heartbeat(String group) {
+		return this.dynamoDbLockRepository.heartbeat(group);
+	}
+
+	/**
+	 * Return the lease duration of the locks and heartbeats in this registry.
+	 * @return the lease duration.
+	 * @since 3.0.11
+	 * @see DynamoDbLockRepository#getLeaseDuration()
+	 */
+	public Duration getLeaseDuration() {
+		return this.dynamoDbLockRepository.getLeaseDuration();
+	}
+
 	@Override
 	public String toString() {
 		return "DynamoDbLockRegistry{" + "tableName='" + this.dynamoDbLockRepository.getTableName() + '\''
@@ -298,6 +361,25 @@ public class DynamoDbLockRegistry implements ExpirableLockRegistry, RenewableLoc
 			}
 		}
 
+		CompletableFuture<Boolean> renewAsync() {
+			return DynamoDbLockRegistry.this.dynamoDbLockRepository.renewAsync(this.key)
+					.handle((renewed, ex) -> {
+						if (ex == null) {
+							if (renewed) {
+								this.lastUsed = System.currentTimeMillis();
+							}
+							return renewed;
+						}
+						Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+						if (cause instanceof TransactionConflictException) {
+							// The lease is still valid: try again on the next renewal
+							return true;
+						}
+						LOGGER.warn("Failed to renew mutex at " + this.key, cause);
+						return false;
+					});
+		}
+
 		public boolean isAcquiredInThisProcess() {
 			return DynamoDbLockRegistry.this.dynamoDbLockRepository.isAcquired(this.key);
 		}
@@ -53,6 +53,7 @@ import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
 
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 
 /**
@@ -97,6 +98,17 @@ public class DynamoDbLockRepository implements InitializingBean, DisposableBean,
 	 */
 	public static final String TTL_ATTR = "expireAt";
 
+	/**
+	 * The {@value HEARTBEAT_KEY_PREFIX} prefix for the {@link #KEY_ATTR} of the group heartbeat items in the table.
+	 */
+	public static final String HEARTBEAT_KEY_PREFIX = "SpringIntegrationHeartbeat:";
+
+	/**
+	 * The {@value HEARTBEAT_OWNER_PREFIX} prefix for the owner attributes of the group heartbeat item.
+	 * The value of such an attribute is the epoch second until the owner heartbeat is valid.
+	 */
+	public static final String HEARTBEAT_OWNER_PREFIX = "heartbeat:";
+
 	private static final String LOCK_EXISTS_EXPRESSION =
 			String.format("attribute_exists(%s) AND %s = :owner", KEY_ATTR, OWNER_ATTR);
 
@@ -114,6 +126,8 @@ public class DynamoDbLockRepository implements InitializingBean, DisposableBean,
 
 	private final Set<String> heldLocks = Collections.synchronizedSet(new HashSet<>());
 
+	private final Set<String> heartbeats = Collections.synchronizedSet(new HashSet<>());
+
 	private final DynamoDbAsyncClient dynamoDB;
 
 	private final String tableName;
@@ -171,6 +185,15 @@ public class DynamoDbLockRepository implements InitializingBean, DisposableBean,
 		this.leaseDuration = leaseDuration;
 	}
 
+	/**
+	 * Return the lease duration for the locks and heartbeats.
+	 * @return the lease duration.
+	 * @since 3.0.11
+	 */
+	public Duration getLeaseDuration() {
+		return this.leaseDuration;
+	}
+
 	public String getTableName() {
 		return this.tableName;
 	}
@@ -411,6 +434,26 @@ public class DynamoDbLockRepository implements InitializingBean, DisposableBean,
 	 * @return renewed or not.
 	 */
 	public boolean renew(String lock) {
+		try {
+			return renewAsync(lock).get();
+		}
+		catch (CompletionException | ExecutionException ex) {
+			return rethrowAsRuntimeException(ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return rethrowAsRuntimeException(ex);
+		}
+	}
+
+	/**
+	 * Renew the lease for a lock without blocking the current thread.
+	 * Several leases can be renewed concurrently this way.
+	 * @param lock the lock to renew.
+	 * @return the future with renewed or not result.
+	 * @since 3.0.11
+	 */
+	public CompletableFuture<Boolean> renewAsync(String lock) {
 		awaitForActive();
 		if (this.heldLocks.contains(lock)) {
 			UpdateItemRequest.Builder updateItemRequest =
@@ -420,23 +463,108 @@ public class DynamoDbLockRepository implements InitializingBean, DisposableBean,
 							.updateExpression("SET " + TTL_ATTR + " = :ttl")
 							.conditionExpression(LOCK_EXISTS_EXPRESSION)
 							.expressionAttributeValues(ownerWithTtlValues(ttlEpochSeconds()));
-			try {
-				this.dynamoDB.updateItem(updateItemRequest.build()).get();
-				return true;
-			}
-			catch (CompletionException | ExecutionException ex) {
-				Throwable cause = ex.getCause();
-				if (!(cause instanceof ConditionalCheckFailedException)) {
-					rethrowAsRuntimeException(cause);
+			return this.dynamoDB.updateItem(updateItemRequest.build())
+					.handle((response, ex) -> {
+						if (ex == null) {
+							return true;
+						}
+						Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+						if (cause instanceof ConditionalCheckFailedException) {
+							return false;
+						}
+						throw ex instanceof CompletionException completionException
+								? completionException
+								: new CompletionException(cause);
+					});
+		}
+		return CompletableFuture.completedFuture(false);
+	}
+
+	/**
+	 * Store (or prolong) a heartbeat of this repository {@link #getOwner()} for the group
+	 * and count the number of owners with not expired heartbeats in this group, including this one.
+	 * The heartbeat is valid for the {@link #setLeaseDuration(Duration)}.
+	 * All the heartbeats of the group are attributes of a single item with the
+	 * {@value HEARTBEAT_KEY_PREFIX} + group key, so the count is a single item read
+	 * regardless of the number of locks in the table.
+	 * The expired heartbeats of other owners are removed from the item.
+	 * Can be used to balance locks fairly between live cluster nodes.
+	 * @param group the group of cluster nodes, e.g. a consumer group.
+	 * @return the number of live owners in the group.
+	 * @since 3.0.11
+	 */
+	public int heartbeat(String group) {
+		awaitForActive();
+		long currentTime = currentEpochSeconds();
+		String heartbeatKey = HEARTBEAT_KEY_PREFIX + group;
+		Map<String, AttributeValue> key = Map.of(KEY_ATTR, AttributeValue.fromS(heartbeatKey));
+
+		try {
+			this.dynamoDB.updateItem(request -> request
+							.tableName(this.tableName)
+							.key(key)
+							.updateExpression("SET #owner = :ttl, " + TTL_ATTR + " = :ttl")
+							.expressionAttributeNames(Map.of("#owner", HEARTBEAT_OWNER_PREFIX + this.owner))
+							.expressionAttributeValues(Map.of(":ttl", AttributeValue.fromN("" + ttlEpochSeconds()))))
+					.get();
+			this.heartbeats.add(heartbeatKey);
+
+			Map<String, AttributeValue> heartbeatItem =
+					this.dynamoDB.getItem(request -> request
+									.tableName(this.tableName)
+									.key(key)
+									.consistentRead(true))
+							.get()
+							.item();
+
+			int liveOwners = 0;
+			for (Map.Entry<String, AttributeValue> entry : heartbeatItem.entrySet()) {
+				if (entry.getKey().startsWith(HEARTBEAT_OWNER_PREFIX)) {
+					if (Long.parseLong(entry.getValue().n()) >= currentTime) {
+						liveOwners++;
+					}
+					else {
+						removeHeartbeat(heartbeatKey, entry.getKey(), currentTime);
+					}
 				}
-				return false;
 			}
-			catch (InterruptedException ex) {
-				Thread.currentThread().interrupt();
-				return rethrowAsRuntimeException(ex.getCause());
+			return liveOwners;
+		}
+		catch (CompletionException | ExecutionException ex) {
+			return rethrowAsRuntimeException(ex.getCause());
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return rethrowAsRuntimeException(ex);
+		}
+	}
+
+	private void removeHeartbeat(String heartbeatKey, String ownerAttribute, @Nullable Long expiredBefore) {
+		UpdateItemRequest.Builder updateItemRequest =
+				UpdateItemRequest.builder()
+						.tableName(this.tableName)
+						.key(Map.of(KEY_ATTR, AttributeValue.fromS(heartbeatKey)))
+						.updateExpression("REMOVE #owner")
+						.expressionAttributeNames(Map.of("#owner", ownerAttribute));
+		if (expiredBefore != null) {
+			// Don't remove the heartbeat prolonged concurrently by its owner
+			updateItemRequest
+					.conditionExpression("#owner < :ttl")
+					.expressionAttributeValues(Map.of(":ttl", AttributeValue.fromN("" + expiredBefore)));
+		}
+		try {
+			this.dynamoDB.updateItem(updateItemRequest.build()).get();
+		}
+		catch (CompletionException | ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (!(cause instanceof ConditionalCheckFailedException)) {
+				rethrowAsRuntimeException(cause);
 			}
 		}
-		return false;
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			rethrowAsRuntimeException(ex);
+		}
 	}
 
 	@Override
@@ -450,6 +578,11 @@ public class DynamoDbLockRepository implements InitializingBean, DisposableBean,
 			this.heldLocks.forEach(this::deleteFromDb);
 			this.heldLocks.clear();
 		}
+		synchronized (this.heartbeats) {
+			this.heartbeats.forEach(heartbeatKey ->
+					removeHeartbeat(heartbeatKey, HEARTBEAT_OWNER_PREFIX + this.owner, null));
+			this.heartbeats.clear();
+		}
 	}
 
 	private long ttlEpochSeconds() {
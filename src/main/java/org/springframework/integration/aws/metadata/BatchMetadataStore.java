@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.metadata;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.integration.metadata.MetadataStore;
+
+/**
+ * The {@link MetadataStore} extension for reading values for many keys in bulk,
+ * e.g. all the shard checkpoints of a Kinesis stream in a few round trips.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+public interface BatchMetadataStore extends MetadataStore {
+
+	/**
+	 * Read the values for the provided keys.
+	 * @param keys the keys to read values for.
+	 * @return the map of keys to their values; the keys without values are not present in the map.
+	 */
+	Map<String, String> getAll(Collection<String> keys);
+
+}
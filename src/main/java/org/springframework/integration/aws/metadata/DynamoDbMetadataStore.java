@@ -18,11 +18,17 @@ package org.springframework.integration.aws.metadata;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
@@ -38,6 +44,7 @@ import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
 import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
 import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughput;
 import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
@@ -52,12 +59,13 @@ import org.springframework.util.Assert;
 
 /**
  * The {@link ConcurrentMetadataStore} for the {@link DynamoDbAsyncClient}.
+ * The {@link #getAll(Collection)} is performed with {@code BatchGetItem} requests.
  *
  * @author Artem Bilan
  * @author Asiel Caballero
  * @since 1.1
  */
-public class DynamoDbMetadataStore implements ConcurrentMetadataStore, InitializingBean {
+public class DynamoDbMetadataStore implements ConcurrentMetadataStore, BatchMetadataStore, InitializingBean {
 
 	private static final Log logger = LogFactory.getLog(DynamoDbMetadataStore.class);
 
@@ -84,6 +92,13 @@ public class DynamoDbMetadataStore implements ConcurrentMetadataStore, Initializ
 
 	private static final String KEY_NOT_EXISTS_EXPRESSION = String.format("attribute_not_exists(%s)", KEY);
 
+	/**
+	 * The maximum number of keys in a single {@code BatchGetItem} request.
+	 */
+	private static final int BATCH_GET_MAX_KEYS = 100;
+
+	private static final int BATCH_GET_MAX_ATTEMPTS = 10;
+
 	private final DynamoDbAsyncClient dynamoDB;
 
 	private final String tableName;
@@ -280,6 +295,74 @@ public class DynamoDbMetadataStore implements ConcurrentMetadataStore, Initializ
 		}
 	}
 
+	/**
+	 * Read the values for the provided keys with {@code BatchGetItem} requests of up to 100 keys each,
+	 * which are performed concurrently.
+	 * The unprocessed keys (e.g. because of throttling) are re-requested with an exponential backoff.
+	 * @param keys the keys to read values for.
+	 * @return the map of keys to their values; the keys without values are not present in the map.
+	 * @since 3.0.11
+	 */
+	@Override
+	public Map<String, String> getAll(Collection<String> keys) {
+		Assert.notNull(keys, "'keys' must not be null.");
+
+		awaitForActive();
+
+		List<Map<String, AttributeValue>> itemKeys = new ArrayList<>();
+		for (String key : new LinkedHashSet<>(keys)) {
+			Assert.hasText(key, "'key' must not be empty.");
+			itemKeys.add(Map.of(KEY, AttributeValue.fromS(key)));
+		}
+
+		Map<String, String> values = new ConcurrentHashMap<>();
+		List<CompletableFuture<Void>> batches = new ArrayList<>();
+		for (int i = 0; i < itemKeys.size(); i += BATCH_GET_MAX_KEYS) {
+			KeysAndAttributes keysAndAttributes =
+					KeysAndAttributes.builder()
+							.keys(itemKeys.subList(i, Math.min(i + BATCH_GET_MAX_KEYS, itemKeys.size())))
+							.projectionExpression(KEY + ", " + VALUE)
+							.build();
+			batches.add(batchGetItems(keysAndAttributes, values, 0));
+		}
+
+		try {
+			CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).join();
+			return values;
+		}
+		catch (CompletionException ex) {
+			return rethrowAsRuntimeException(ex.getCause());
+		}
+	}
+
+	private CompletableFuture<Void> batchGetItems(KeysAndAttributes keysAndAttributes, Map<String, String> values,
+			int attempt) {
+
+		if (attempt >= BATCH_GET_MAX_ATTEMPTS) {
+			return CompletableFuture.failedFuture(
+					new IllegalStateException("The keys " + keysAndAttributes.keys() + " have not been read from the "
+							+ this.tableName + " in " + BATCH_GET_MAX_ATTEMPTS + " attempts"));
+		}
+
+		return this.dynamoDB.batchGetItem(request -> request.requestItems(Map.of(this.tableName, keysAndAttributes)))
+				.thenCompose(response -> {
+					for (Map<String, AttributeValue> item : response.responses().getOrDefault(this.tableName, List.of())) {
+						String value = getValueIfAny(item);
+						if (value != null) {
+							values.put(item.get(KEY).s(), value);
+						}
+					}
+					KeysAndAttributes unprocessedKeys = response.unprocessedKeys().get(this.tableName);
+					if (unprocessedKeys == null || unprocessedKeys.keys().isEmpty()) {
+						return CompletableFuture.completedFuture(null);
+					}
+					Executor delayedExecutor =
+							CompletableFuture.delayedExecutor(50L << Math.min(attempt, 6), TimeUnit.MILLISECONDS);
+					return CompletableFuture.runAsync(() -> { }, delayedExecutor)
+							.thenCompose(v -> batchGetItems(unprocessedKeys, values, attempt + 1));
+				});
+	}
+
 	@Override
 	public String putIfAbsent(String key, String value) {
 		Assert.hasText(key, "'key' must not be empty.");
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.kinesis.KinesisMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.messaging.Message;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+@DirtiesContext
+class KinesisMessageDrivenChannelAdapterAdaptivePollingTests {
+
+	private static final String STREAM = "adaptivePollingStream";
+
+	@Autowired
+	private QueueChannel kinesisChannel;
+
+	@Autowired
+	private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter;
+
+	@Autowired
+	private KinesisAsyncClient amazonKinesis;
+
+	@Test
+	void laggingShardIsPolledWithMaximumLimit() {
+		this.kinesisMessageDrivenChannelAdapter.start();
+
+		for (int i = 1; i <= 2; i++) {
+			Message<?> message = this.kinesisChannel.receive(10000);
+			assertThat(message).isNotNull();
+			assertThat(message.getPayload()).isEqualTo("foo" + i);
+		}
+
+		await().untilAsserted(() ->
+				verify(this.amazonKinesis, atLeast(3)).getRecords(any(GetRecordsRequest.class)));
+
+		ArgumentCaptor<GetRecordsRequest> getRecordsRequestCaptor = ArgumentCaptor.forClass(GetRecordsRequest.class);
+		verify(this.amazonKinesis, atLeast(3)).getRecords(getRecordsRequestCaptor.capture());
+
+		List<GetRecordsRequest> requests = getRecordsRequestCaptor.getAllValues();
+		// Not known as lagging yet
+		assertThat(requests.get(0).limit()).isEqualTo(25);
+		// After 'millisBehindLatest' of the first batch
+		assertThat(requests.get(1).limit()).isEqualTo(10000);
+		// Caught up
+		assertThat(requests.get(2).limit()).isEqualTo(25);
+
+		this.kinesisMessageDrivenChannelAdapter.stop();
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public KinesisAsyncClient amazonKinesis() {
+			KinesisAsyncClient amazonKinesis = mock(KinesisAsyncClient.class);
+
+			given(amazonKinesis.getShardIterator(any(GetShardIteratorRequest.class)))
+					.willReturn(
+							CompletableFuture.completedFuture(
+									GetShardIteratorResponse.builder()
+											.shardIterator("iterator1")
+											.build()));
+
+			willAnswer(invocation -> {
+				GetRecordsRequest request = invocation.getArgument(0);
+				int iteration = Integer.parseInt(request.shardIterator().substring("iterator".length()));
+				GetRecordsResponse.Builder response =
+						GetRecordsResponse.builder()
+								.nextShardIterator("iterator" + Math.min(iteration + 1, 3))
+								// The first batch is far behind the tip of the stream
+								.millisBehindLatest(iteration == 1 ? 60_000L : 0L);
+				if (iteration < 3) {
+					response.records(
+							Record.builder()
+									.partitionKey("partition1")
+									.sequenceNumber("" + iteration)
+									.data(SdkBytes.fromUtf8String("foo" + iteration))
+									.build());
+				}
+				return CompletableFuture.completedFuture(response.build());
+			})
+					.given(amazonKinesis)
+					.getRecords(any(GetRecordsRequest.class));
+
+			return amazonKinesis;
+		}
+
+		@Bean
+		public ConcurrentMetadataStore checkpointStore() {
+			return new SimpleMetadataStore();
+		}
+
+		@Bean
+		public QueueChannel kinesisChannel() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter() {
+			KinesisMessageDrivenChannelAdapter adapter =
+					new KinesisMessageDrivenChannelAdapter(amazonKinesis(), KinesisShardOffset.trimHorizon(STREAM, "0"));
+			adapter.setAutoStartup(false);
+			adapter.setOutputChannel(kinesisChannel());
+			adapter.setCheckpointStore(checkpointStore());
+			adapter.setAdaptivePolling(true);
+			adapter.setRecordsLimit(25);
+			adapter.setConverter(String::new);
+			adapter.setMaxConsumerBackoff(100);
+
+			DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+			dfa.setPropertyValue("consumerBackoff", 10);
+			dfa.setPropertyValue("idleBetweenPolls", 1);
+
+			return adapter;
+		}
+
+	}
+
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.kinesis.KinesisMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.integration.support.management.micrometer.MicrometerMetricsCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+@DirtiesContext
+class KinesisMessageDrivenChannelAdapterBackpressureTests {
+
+	private static final String STREAM = "backpressureStream";
+
+	private static final int RECORDS = 5;
+
+	@Autowired
+	private QueueChannel kinesisChannel;
+
+	@Autowired
+	private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter;
+
+	@Autowired
+	private KinesisAsyncClient amazonKinesis;
+
+	@Test
+	void pollingIsPausedWhenOutputChannelIsFull() {
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		this.kinesisMessageDrivenChannelAdapter.registerMetricsCaptor(new MicrometerMetricsCaptor(meterRegistry));
+		this.kinesisMessageDrivenChannelAdapter.start();
+
+		await().untilAsserted(() -> assertThat(this.kinesisChannel.getRemainingCapacity()).isZero());
+
+		// The consumer is paused and not blocked in the send
+		await().untilAsserted(() ->
+				assertThat(meterRegistry.get("spring.integration.kinesis.consumers")
+						.tag("state", "SLEEP")
+						.gauge()
+						.value())
+						.isEqualTo(1));
+		assertThat(this.kinesisChannel.getQueueSize()).isEqualTo(2);
+
+		for (int i = 1; i <= RECORDS; i++) {
+			Message<?> message = this.kinesisChannel.receive(10000);
+			assertThat(message).isNotNull();
+			assertThat(message.getPayload()).isEqualTo("foo" + i);
+		}
+
+		this.kinesisMessageDrivenChannelAdapter.stop();
+
+		ArgumentCaptor<GetRecordsRequest> getRecordsRequestCaptor = ArgumentCaptor.forClass(GetRecordsRequest.class);
+		verify(this.amazonKinesis, atLeastOnce()).getRecords(getRecordsRequestCaptor.capture());
+		assertThat(getRecordsRequestCaptor.getAllValues())
+				.extracting(GetRecordsRequest::limit)
+				.allSatisfy(limit -> assertThat(limit).isBetween(1, 2));
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public KinesisAsyncClient amazonKinesis() {
+			KinesisAsyncClient amazonKinesis = mock(KinesisAsyncClient.class);
+
+			willAnswer(invocation ->
+					CompletableFuture.completedFuture(
+							GetShardIteratorResponse.builder()
+									.shardIterator("0:1")
+									.build()))
+					.given(amazonKinesis)
+					.getShardIterator(any(GetShardIteratorRequest.class));
+
+			willAnswer(invocation -> {
+				GetRecordsRequest request = invocation.getArgument(0);
+				int next = Integer.parseInt(request.shardIterator().split(":")[1]);
+				List<Record> records = new ArrayList<>();
+				while (next <= RECORDS && records.size() < request.limit()) {
+					records.add(
+							Record.builder()
+									.partitionKey("partition1")
+									.sequenceNumber(Integer.toString(next))
+									.data(SdkBytes.fromUtf8String("foo" + next))
+									.build());
+					next++;
+				}
+				return CompletableFuture.completedFuture(
+						GetRecordsResponse.builder()
+								.nextShardIterator("0:" + next)
+								.millisBehindLatest(0L)
+								.records(records)
+								.build());
+			})
+					.given(amazonKinesis)
+					.getRecords(any(GetRecordsRequest.class));
+
+			return amazonKinesis;
+		}
+
+		@Bean
+		public QueueChannel kinesisChannel() {
+			return new QueueChannel(2);
+		}
+
+		@Bean
+		public KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter() {
+			KinesisMessageDrivenChannelAdapter adapter =
+					new KinesisMessageDrivenChannelAdapter(amazonKinesis(), KinesisShardOffset.trimHorizon(STREAM, "0"));
+			adapter.setAutoStartup(false);
+			adapter.setOutputChannel(kinesisChannel());
+			adapter.setCheckpointStore(new SimpleMetadataStore());
+			adapter.setBackpressure(true);
+			adapter.setConverter(String::new);
+
+			DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+			dfa.setPropertyValue("consumerBackoff", 10);
+			dfa.setPropertyValue("idleBetweenPolls", 1);
+
+			return adapter;
+		}
+
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.kinesis.KinesisMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.messaging.Message;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+@DirtiesContext
+class KinesisMessageDrivenChannelAdapterByteBufferConverterTests {
+
+	private static final String STREAM = "byteBufferStream";
+
+	@Autowired
+	private QueueChannel kinesisChannel;
+
+	@Autowired
+	private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter;
+
+	@Test
+	void recordDataIsDeliveredAsReadOnlyByteBufferView() {
+		this.kinesisMessageDrivenChannelAdapter.start();
+
+		Message<?> message = this.kinesisChannel.receive(10000);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isInstanceOf(ByteBuffer.class);
+		ByteBuffer payload = (ByteBuffer) message.getPayload();
+		assertThat(payload.isReadOnly()).isTrue();
+		assertThat(StandardCharsets.UTF_8.decode(payload).toString()).isEqualTo("foo");
+
+		this.kinesisMessageDrivenChannelAdapter.stop();
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public KinesisAsyncClient amazonKinesis() {
+			KinesisAsyncClient amazonKinesis = mock(KinesisAsyncClient.class);
+
+			willAnswer(invocation ->
+					CompletableFuture.completedFuture(
+							GetShardIteratorResponse.builder()
+									.shardIterator("0:1")
+									.build()))
+					.given(amazonKinesis)
+					.getShardIterator(any(GetShardIteratorRequest.class));
+
+			willAnswer(invocation -> {
+				GetRecordsRequest request = invocation.getArgument(0);
+				GetRecordsResponse.Builder response =
+						GetRecordsResponse.builder()
+								.nextShardIterator("0:2")
+								.millisBehindLatest(0L);
+				if ("0:1".equals(request.shardIterator())) {
+					response.records(
+							Record.builder()
+									.partitionKey("partition1")
+									.sequenceNumber("1")
+									.data(SdkBytes.fromUtf8String("foo"))
+									.build());
+				}
+				return CompletableFuture.completedFuture(response.build());
+			})
+					.given(amazonKinesis)
+					.getRecords(any(GetRecordsRequest.class));
+
+			return amazonKinesis;
+		}
+
+		@Bean
+		public QueueChannel kinesisChannel() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter() {
+			KinesisMessageDrivenChannelAdapter adapter =
+					new KinesisMessageDrivenChannelAdapter(amazonKinesis(), KinesisShardOffset.trimHorizon(STREAM, "0"));
+			adapter.setAutoStartup(false);
+			adapter.setOutputChannel(kinesisChannel());
+			adapter.setCheckpointStore(new SimpleMetadataStore());
+			adapter.setByteBufferConverter(buffer -> buffer);
+
+			DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+			dfa.setPropertyValue("consumerBackoff", 10);
+			dfa.setPropertyValue("idleBetweenPolls", 1);
+
+			return adapter;
+		}
+
+	}
+
+}
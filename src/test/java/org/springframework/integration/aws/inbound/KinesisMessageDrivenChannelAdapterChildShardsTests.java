@@ -0,0 +1,278 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.ChildShard;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.kinesis.KinesisMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.aws.testing.InMemoryKinesisClient;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.integration.support.locks.DefaultLockRegistry;
+import org.springframework.integration.support.locks.LockRegistry;
+import org.springframework.messaging.Message;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+@DirtiesContext
+class KinesisMessageDrivenChannelAdapterChildShardsTests {
+
+	private static final String STREAM = "childShardsStream";
+
+	@Autowired
+	private QueueChannel kinesisChannel;
+
+	@Autowired
+	private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter;
+
+	@Autowired
+	private KinesisAsyncClient amazonKinesis;
+
+	@Autowired
+	private ConcurrentMetadataStore checkpointStore;
+
+	@Test
+	void childShardsAreConsumedWithoutListingStream() {
+		this.kinesisMessageDrivenChannelAdapter.start();
+
+		Set<Object> payloads = new HashSet<>();
+		for (int i = 0; i < 3; i++) {
+			Message<?> message = this.kinesisChannel.receive(10000);
+			assertThat(message).isNotNull();
+			payloads.add(message.getPayload());
+		}
+		assertThat(payloads).containsExactlyInAnyOrder("parent", "child1", "child2");
+
+		await().untilAsserted(() ->
+				assertThat(this.checkpointStore.get("SpringIntegration:" + STREAM + ":parent")).isEqualTo("100"));
+
+		this.kinesisMessageDrivenChannelAdapter.stop();
+
+		// The ending sequence number of the closed shard is known from the listing on start
+		verify(this.amazonKinesis, times(1)).listShards(any(ListShardsRequest.class));
+
+		ArgumentCaptor<GetShardIteratorRequest> shardIteratorRequestCaptor =
+				ArgumentCaptor.forClass(GetShardIteratorRequest.class);
+		verify(this.amazonKinesis, atLeast(3)).getShardIterator(shardIteratorRequestCaptor.capture());
+		assertThat(shardIteratorRequestCaptor.getAllValues())
+				.filteredOn(request -> request.shardId().startsWith("child"))
+				.extracting(GetShardIteratorRequest::shardIteratorType)
+				.containsOnly(ShardIteratorType.TRIM_HORIZON);
+	}
+
+	@Test
+	void mergedChildShardIsConsumedWhenParentsAreLockedByDifferentNodes() {
+		String stream = "mergeStream";
+		InMemoryKinesisClient amazonKinesis = new InMemoryKinesisClient();
+		amazonKinesis.createStream(request -> request.streamName(stream).shardCount(2)).join();
+		ConcurrentMetadataStore checkpointStore = new SimpleMetadataStore();
+		QueueChannel kinesisChannel = new QueueChannel();
+		LockRegistry clusterLocks = new DefaultLockRegistry();
+		// Held by the test thread: never acquired by the nodes
+		ReentrantLock lockedByAnotherNode = new ReentrantLock();
+		lockedByAnotherNode.lock();
+
+		KinesisMessageDrivenChannelAdapter node1 =
+				clusterNode(amazonKinesis, stream, checkpointStore, kinesisChannel,
+						lockKey -> lockKey.toString().endsWith("shardId-000000000001")
+								? lockedByAnotherNode
+								: clusterLocks.obtain(lockKey));
+		KinesisMessageDrivenChannelAdapter node2 =
+				clusterNode(amazonKinesis, stream, checkpointStore, kinesisChannel,
+						lockKey -> lockKey.toString().endsWith("shardId-000000000000")
+								? lockedByAnotherNode
+								: clusterLocks.obtain(lockKey));
+
+		try {
+			node1.start();
+			node2.start();
+
+			amazonKinesis.mergeShards(request -> request
+							.streamName(stream)
+							.shardToMerge("shardId-000000000000")
+							.adjacentShardToMerge("shardId-000000000001"))
+					.join();
+			amazonKinesis.putRecord(request -> request
+							.streamName(stream)
+							.partitionKey("key")
+							.data(SdkBytes.fromUtf8String("child")))
+					.join();
+
+			Message<?> message = kinesisChannel.receive(20000);
+			assertThat(message).isNotNull();
+			assertThat(message.getPayload()).isEqualTo("child");
+		}
+		finally {
+			node1.stop();
+			node2.stop();
+			node1.destroy();
+			node2.destroy();
+			lockedByAnotherNode.unlock();
+		}
+	}
+
+	private static KinesisMessageDrivenChannelAdapter clusterNode(InMemoryKinesisClient amazonKinesis, String stream,
+			ConcurrentMetadataStore checkpointStore, QueueChannel kinesisChannel, LockRegistry lockRegistry) {
+
+		KinesisMessageDrivenChannelAdapter adapter = new KinesisMessageDrivenChannelAdapter(amazonKinesis, stream);
+		adapter.setBeanFactory(new DefaultListableBeanFactory());
+		adapter.setOutputChannel(kinesisChannel);
+		adapter.setCheckpointStore(checkpointStore);
+		adapter.setLockRegistry(lockRegistry);
+		adapter.setStreamInitialSequence(KinesisShardOffset.trimHorizon());
+		adapter.setConverter(String::new);
+
+		DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+		dfa.setPropertyValue("consumerBackoff", 10);
+		dfa.setPropertyValue("idleBetweenPolls", 1);
+
+		adapter.afterPropertiesSet();
+		return adapter;
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public KinesisAsyncClient amazonKinesis() {
+			KinesisAsyncClient amazonKinesis = mock(KinesisAsyncClient.class);
+
+			willAnswer(invocation ->
+					CompletableFuture.completedFuture(
+							ListShardsResponse.builder()
+									.shards(Shard.builder()
+											.shardId("parent")
+											.sequenceNumberRange(range -> range.endingSequenceNumber("100"))
+											.build())
+									.build()))
+					.given(amazonKinesis)
+					.listShards(any(ListShardsRequest.class));
+
+			willAnswer(invocation -> {
+				GetShardIteratorRequest request = invocation.getArgument(0);
+				return CompletableFuture.completedFuture(
+						GetShardIteratorResponse.builder()
+								.shardIterator(request.shardId() + ":start")
+								.build());
+			})
+					.given(amazonKinesis)
+					.getShardIterator(any(GetShardIteratorRequest.class));
+
+			willAnswer(invocation -> {
+				GetRecordsRequest request = invocation.getArgument(0);
+				String[] shardIterator = request.shardIterator().split(":");
+				String shardId = shardIterator[0];
+				GetRecordsResponse.Builder response = GetRecordsResponse.builder().millisBehindLatest(0L);
+				if ("done".equals(shardIterator[1])) {
+					response.nextShardIterator(request.shardIterator());
+				}
+				else {
+					response.records(
+							Record.builder()
+									.partitionKey("partition1")
+									.sequenceNumber("1")
+									.data(SdkBytes.fromUtf8String(shardId))
+									.build());
+					if ("parent".equals(shardId)) {
+						response.childShards(
+								ChildShard.builder().shardId("child1").parentShards("parent").build(),
+								ChildShard.builder().shardId("child2").parentShards("parent").build());
+					}
+					else {
+						response.nextShardIterator(shardId + ":done");
+					}
+				}
+				return CompletableFuture.completedFuture(response.build());
+			})
+					.given(amazonKinesis)
+					.getRecords(any(GetRecordsRequest.class));
+
+			return amazonKinesis;
+		}
+
+		@Bean
+		public ConcurrentMetadataStore checkpointStore() {
+			return new SimpleMetadataStore();
+		}
+
+		@Bean
+		public QueueChannel kinesisChannel() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter() {
+			KinesisMessageDrivenChannelAdapter adapter =
+					new KinesisMessageDrivenChannelAdapter(amazonKinesis(), STREAM);
+			adapter.setAutoStartup(false);
+			adapter.setOutputChannel(kinesisChannel());
+			adapter.setCheckpointStore(checkpointStore());
+			adapter.setStreamInitialSequence(KinesisShardOffset.trimHorizon());
+			adapter.setConverter(String::new);
+
+			DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+			dfa.setPropertyValue("consumerBackoff", 10);
+			dfa.setPropertyValue("idleBetweenPolls", 1);
+
+			return adapter;
+		}
+
+	}
+
+}
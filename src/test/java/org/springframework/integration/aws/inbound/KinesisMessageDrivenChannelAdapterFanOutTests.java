@@ -0,0 +1,223 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Flux;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.ConsumerStatus;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryResponse;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.RegisterStreamConsumerResponse;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEvent;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEventStream;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardRequest;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponse;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponseHandler;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.kinesis.KinesisMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.aws.support.AwsHeaders;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.messaging.Message;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+@DirtiesContext
+class KinesisMessageDrivenChannelAdapterFanOutTests {
+
+	private static final String STREAM = "fanOutStream";
+
+	private static final String CONSUMER_ARN = "arn:aws:kinesis:us-east-1:000000000000:stream/fanOutStream/consumer/test";
+
+	@Autowired
+	private QueueChannel kinesisChannel;
+
+	@Autowired
+	private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter;
+
+	@Autowired
+	private KinesisAsyncClient amazonKinesis;
+
+	@Autowired
+	private ConcurrentMetadataStore checkpointStore;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void recordsAreConsumedFromShardSubscription() {
+		this.kinesisMessageDrivenChannelAdapter.start();
+
+		Message<?> message = this.kinesisChannel.receive(10000);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isEqualTo("foo");
+		assertThat(message.getHeaders())
+				.containsEntry(AwsHeaders.RECEIVED_SEQUENCE_NUMBER, "1")
+				.containsEntry(AwsHeaders.SHARD, "shardId-000000000000")
+				.containsEntry(AwsHeaders.RECEIVED_STREAM, STREAM);
+
+		await().untilAsserted(() ->
+				assertThat(this.checkpointStore.get("SpringIntegration:" + STREAM + ":shardId-000000000000"))
+						.isEqualTo("1"));
+
+		ArgumentCaptor<SubscribeToShardRequest> subscribeToShardRequestCaptor =
+				ArgumentCaptor.forClass(SubscribeToShardRequest.class);
+
+		await().untilAsserted(() ->
+				verify(this.amazonKinesis, atLeast(2))
+						.subscribeToShard(subscribeToShardRequestCaptor.capture(),
+								any(SubscribeToShardResponseHandler.class)));
+
+		SubscribeToShardRequest firstRequest = subscribeToShardRequestCaptor.getAllValues().get(0);
+		assertThat(firstRequest.consumerARN()).isEqualTo(CONSUMER_ARN);
+		assertThat(firstRequest.startingPosition().type()).isEqualTo(ShardIteratorType.TRIM_HORIZON);
+
+		SubscribeToShardRequest secondRequest = subscribeToShardRequestCaptor.getAllValues().get(1);
+		assertThat(secondRequest.startingPosition().type()).isEqualTo(ShardIteratorType.AFTER_SEQUENCE_NUMBER);
+		assertThat(secondRequest.startingPosition().sequenceNumber()).isEqualTo("1");
+
+		this.kinesisMessageDrivenChannelAdapter.stop();
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		@SuppressWarnings("unchecked")
+		public KinesisAsyncClient amazonKinesis() {
+			KinesisAsyncClient amazonKinesis = mock(KinesisAsyncClient.class);
+
+			given(amazonKinesis.listShards(any(ListShardsRequest.class)))
+					.willReturn(
+							CompletableFuture.completedFuture(
+									ListShardsResponse.builder()
+											.shards(Shard.builder()
+													.shardId("shardId-000000000000")
+													.sequenceNumberRange(range -> {
+													})
+													.build())
+											.build()));
+
+			given(amazonKinesis.describeStreamSummary(any(Consumer.class)))
+					.willReturn(
+							CompletableFuture.completedFuture(
+									DescribeStreamSummaryResponse.builder()
+											.streamDescriptionSummary(summary -> summary.streamARN("streamArn"))
+											.build()));
+
+			given(amazonKinesis.registerStreamConsumer(any(Consumer.class)))
+					.willReturn(
+							CompletableFuture.completedFuture(
+									RegisterStreamConsumerResponse.builder()
+											.consumer(consumer -> consumer
+													.consumerARN(CONSUMER_ARN)
+													.consumerStatus(ConsumerStatus.ACTIVE))
+											.build()));
+
+			SubscribeToShardEvent event =
+					SubscribeToShardEvent.builder()
+							.continuationSequenceNumber("1")
+							.millisBehindLatest(0L)
+							.records(Record.builder()
+									.partitionKey("partition1")
+									.sequenceNumber("1")
+									.data(SdkBytes.fromUtf8String("foo"))
+									.build())
+							.build();
+
+			willAnswer(invocation -> {
+				SubscribeToShardResponseHandler handler = invocation.getArgument(1);
+				handler.responseReceived(SubscribeToShardResponse.builder().build());
+				handler.onEventStream(SdkPublisher.adapt(Flux.<SubscribeToShardEventStream>just(event)));
+				return new CompletableFuture<>();
+			})
+					.willAnswer(invocation -> {
+						SubscribeToShardResponseHandler handler = invocation.getArgument(1);
+						handler.responseReceived(SubscribeToShardResponse.builder().build());
+						handler.onEventStream(SdkPublisher.adapt(Flux.never()));
+						return new CompletableFuture<>();
+					})
+					.given(amazonKinesis)
+					.subscribeToShard(any(SubscribeToShardRequest.class), any(SubscribeToShardResponseHandler.class));
+
+			return amazonKinesis;
+		}
+
+		@Bean
+		public ConcurrentMetadataStore checkpointStore() {
+			return new SimpleMetadataStore();
+		}
+
+		@Bean
+		public QueueChannel kinesisChannel() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter() {
+			KinesisMessageDrivenChannelAdapter adapter =
+					new KinesisMessageDrivenChannelAdapter(amazonKinesis(), STREAM);
+			adapter.setAutoStartup(false);
+			adapter.setOutputChannel(kinesisChannel());
+			adapter.setCheckpointStore(checkpointStore());
+			adapter.setStreamInitialSequence(KinesisShardOffset.trimHorizon());
+			adapter.setEnhancedFanOutConsumerName("test");
+			adapter.setConverter(String::new);
+
+			DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+			dfa.setPropertyValue("describeStreamBackoff", 10);
+			dfa.setPropertyValue("consumerBackoff", 10);
+			dfa.setPropertyValue("idleBetweenPolls", 1);
+
+			return adapter;
+		}
+
+	}
+
+}
@@ -0,0 +1,822 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardRequest;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponseHandler;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.kinesis.CheckpointMode;
+import org.springframework.integration.aws.inbound.kinesis.KinesisMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.aws.lock.DynamoDbLockRegistry;
+import org.springframework.integration.aws.lock.DynamoDbLockRepository;
+import org.springframework.integration.aws.support.AwsHeaders;
+import org.springframework.integration.aws.testing.InMemoryDynamoDbClient;
+import org.springframework.integration.aws.testing.InMemoryKinesisClient;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.integration.support.locks.DefaultLockRegistry;
+import org.springframework.integration.support.locks.LockRegistry;
+import org.springframework.integration.support.management.micrometer.MicrometerMetricsCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The {@link KinesisMessageDrivenChannelAdapter} consumption features against the {@link InMemoryKinesisClient}.
+ * Every test configures its own adapter on top of the shared one from the
+ * {@link #kinesisMessageDrivenChannelAdapter(Consumer)}.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+class KinesisMessageDrivenChannelAdapterInMemoryTests {
+
+	private static final String STREAM = "testStream";
+
+	private static final String SHARD = "shardId-000000000000";
+
+	private final InMemoryKinesisClient amazonKinesis = spy(new InMemoryKinesisClient());
+
+	private final ConcurrentMetadataStore checkpointStore = spy(new SimpleMetadataStore());
+
+	private final QueueChannel kinesisChannel = new QueueChannel();
+
+	private final List<KinesisMessageDrivenChannelAdapter> adapters = new ArrayList<>();
+
+	@Autowired
+	private BeanFactory beanFactory;
+
+	@AfterEach
+	void stopAdapters() {
+		for (KinesisMessageDrivenChannelAdapter adapter : this.adapters) {
+			adapter.stop();
+			adapter.destroy();
+		}
+	}
+
+	@Test
+	void laggingShardIsPolledWithMaximumLimit() {
+		createStream(1);
+		putRecords("foo1", "foo2", "foo3");
+
+		// The records are behind the tip of the stream over the lag threshold until the last one is read
+		String shardIterator =
+				this.amazonKinesis.getShardIterator(request ->
+								request.streamName(STREAM)
+										.shardId(SHARD)
+										.shardIteratorType(ShardIteratorType.TRIM_HORIZON))
+						.join()
+						.shardIterator();
+		await().until(() ->
+				this.amazonKinesis.getRecords(request -> request.shardIterator(shardIterator).limit(2))
+						.join()
+						.millisBehindLatest() > 50);
+		clearInvocations(this.amazonKinesis);
+
+		kinesisMessageDrivenChannelAdapter(adapter -> {
+			adapter.setAdaptivePolling(true);
+			adapter.setAdaptivePollingLagThreshold(50);
+			adapter.setRecordsLimit(2);
+			adapter.setMaxConsumerBackoff(100);
+		})
+				.start();
+
+		for (int i = 1; i <= 3; i++) {
+			assertThat(receive().getPayload()).isEqualTo("foo" + i);
+		}
+
+		await().untilAsserted(() ->
+				verify(this.amazonKinesis, atLeast(3)).getRecords(any(GetRecordsRequest.class)));
+
+		ArgumentCaptor<GetRecordsRequest> getRecordsRequestCaptor = ArgumentCaptor.forClass(GetRecordsRequest.class);
+		verify(this.amazonKinesis, atLeast(3)).getRecords(getRecordsRequestCaptor.capture());
+
+		List<GetRecordsRequest> requests = getRecordsRequestCaptor.getAllValues();
+		// Not known as lagging yet
+		assertThat(requests.get(0).limit()).isEqualTo(2);
+		// After 'millisBehindLatest' of the first batch
+		assertThat(requests.get(1).limit()).isEqualTo(10000);
+		// Caught up
+		assertThat(requests.get(2).limit()).isEqualTo(2);
+	}
+
+	@Test
+	void pollingIsPausedWhenOutputChannelIsFull() {
+		createStream(1);
+		putRecords("foo1", "foo2", "foo3", "foo4", "foo5");
+
+		QueueChannel kinesisChannel = new QueueChannel(2);
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter =
+				kinesisMessageDrivenChannelAdapter(adapter -> {
+					adapter.setOutputChannel(kinesisChannel);
+					adapter.setBackpressure(true);
+					adapter.registerMetricsCaptor(new MicrometerMetricsCaptor(meterRegistry));
+				});
+		kinesisMessageDrivenChannelAdapter.start();
+
+		await().untilAsserted(() -> assertThat(kinesisChannel.getRemainingCapacity()).isZero());
+
+		// The consumer is paused and not blocked in the send
+		await().untilAsserted(() ->
+				assertThat(meterRegistry.get("spring.integration.kinesis.consumers")
+						.tag("state", "SLEEP")
+						.gauge()
+						.value())
+						.isEqualTo(1));
+		assertThat(kinesisChannel.getQueueSize()).isEqualTo(2);
+
+		for (int i = 1; i <= 5; i++) {
+			Message<?> message = kinesisChannel.receive(10000);
+			assertThat(message).isNotNull();
+			assertThat(message.getPayload()).isEqualTo("foo" + i);
+		}
+
+		kinesisMessageDrivenChannelAdapter.stop();
+
+		ArgumentCaptor<GetRecordsRequest> getRecordsRequestCaptor = ArgumentCaptor.forClass(GetRecordsRequest.class);
+		verify(this.amazonKinesis, atLeast(1)).getRecords(getRecordsRequestCaptor.capture());
+		assertThat(getRecordsRequestCaptor.getAllValues())
+				.extracting(GetRecordsRequest::limit)
+				.allSatisfy(limit -> assertThat(limit).isBetween(1, 2));
+	}
+
+	@Test
+	void recordDataIsDeliveredAsReadOnlyByteBufferView() {
+		createStream(1);
+		putRecords("foo");
+
+		kinesisMessageDrivenChannelAdapter(adapter -> adapter.setByteBufferConverter(buffer -> buffer))
+				.start();
+
+		Message<?> message = receive();
+		assertThat(message.getPayload()).isInstanceOf(ByteBuffer.class);
+		ByteBuffer payload = (ByteBuffer) message.getPayload();
+		assertThat(payload.isReadOnly()).isTrue();
+		assertThat(StandardCharsets.UTF_8.decode(payload).toString()).isEqualTo("foo");
+	}
+
+	@Test
+	void childShardsAreConsumedWithoutRebalancingStream() {
+		createStream(1);
+		putRecords("parent");
+
+		kinesisMessageDrivenChannelAdapter(adapter -> {
+		})
+				.start();
+
+		assertThat(receive().getPayload()).isEqualTo("parent");
+
+		BigInteger newStartingHashKey = BigInteger.ONE.shiftLeft(127);
+		this.amazonKinesis.splitShard(request -> request
+						.streamName(STREAM)
+						.shardToSplit(SHARD)
+						.newStartingHashKey(newStartingHashKey.toString()))
+				.join();
+		putRecord("child1", BigInteger.ZERO);
+		putRecord("child2", newStartingHashKey);
+
+		Set<Object> payloads = new HashSet<>();
+		payloads.add(receive().getPayload());
+		payloads.add(receive().getPayload());
+		assertThat(payloads).containsExactlyInAnyOrder("child1", "child2");
+
+		// The listing on start and the one for the ending sequence number of the closed shard
+		verify(this.amazonKinesis, times(2)).listShards(any(ListShardsRequest.class));
+
+		ArgumentCaptor<GetShardIteratorRequest> shardIteratorRequestCaptor =
+				ArgumentCaptor.forClass(GetShardIteratorRequest.class);
+		verify(this.amazonKinesis, atLeast(3)).getShardIterator(shardIteratorRequestCaptor.capture());
+		assertThat(shardIteratorRequestCaptor.getAllValues())
+				.filteredOn(request -> !SHARD.equals(request.shardId()))
+				.extracting(GetShardIteratorRequest::shardIteratorType)
+				.containsOnly(ShardIteratorType.TRIM_HORIZON);
+
+		String endingSequenceNumber =
+				this.amazonKinesis.listShards(request -> request.streamName(STREAM))
+						.join()
+						.shards()
+						.get(0)
+						.sequenceNumberRange()
+						.endingSequenceNumber();
+		assertThat(checkpoint(SHARD)).isEqualTo(endingSequenceNumber);
+	}
+
+	@Test
+	void mergedChildShardIsConsumedWhenParentsAreLockedByDifferentNodes() {
+		createStream(2);
+		LockRegistry clusterLocks = new DefaultLockRegistry();
+		// Held by the test thread: never acquired by the nodes
+		ReentrantLock lockedByAnotherNode = new ReentrantLock();
+		lockedByAnotherNode.lock();
+
+		try {
+			kinesisMessageDrivenChannelAdapter(adapter ->
+					adapter.setLockRegistry(lockKey -> lockKey.toString().endsWith("shardId-000000000001")
+							? lockedByAnotherNode
+							: clusterLocks.obtain(lockKey)))
+					.start();
+			kinesisMessageDrivenChannelAdapter(adapter ->
+					adapter.setLockRegistry(lockKey -> lockKey.toString().endsWith(SHARD)
+							? lockedByAnotherNode
+							: clusterLocks.obtain(lockKey)))
+					.start();
+
+			this.amazonKinesis.mergeShards(request -> request
+							.streamName(STREAM)
+							.shardToMerge(SHARD)
+							.adjacentShardToMerge("shardId-000000000001"))
+					.join();
+			putRecords("child");
+
+			Message<?> message = this.kinesisChannel.receive(20000);
+			assertThat(message).isNotNull();
+			assertThat(message.getPayload()).isEqualTo("child");
+		}
+		finally {
+			stopAdapters();
+			this.adapters.clear();
+			lockedByAnotherNode.unlock();
+		}
+	}
+
+	@Test
+	void shardConsumersAreDispatchedByDeadlines() {
+		createStream(3);
+		Map<String, String> sequenceNumbers = putRecordPerShard();
+
+		kinesisMessageDrivenChannelAdapter(adapter -> adapter.setDeadlineScheduling(true))
+				.start();
+
+		assertEveryShardConsumed(sequenceNumbers);
+	}
+
+	@Test
+	void everyShardIsConsumedOnItsOwnThread() {
+		createStream(3);
+		Map<String, String> sequenceNumbers = putRecordPerShard();
+
+		kinesisMessageDrivenChannelAdapter(adapter -> adapter.setThreadPerShard(true))
+				.start();
+
+		assertEveryShardConsumed(sequenceNumbers);
+	}
+
+	@Test
+	void shardsAreConsumedByAnyIdleInvoker() {
+		createStream(3);
+		Map<String, String> sequenceNumbers = putRecordPerShard();
+
+		KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter =
+				kinesisMessageDrivenChannelAdapter(adapter -> {
+					adapter.setConcurrency(2);
+					adapter.setWorkStealing(true);
+				});
+		kinesisMessageDrivenChannelAdapter.start();
+
+		assertEveryShardConsumed(sequenceNumbers);
+
+		assertThat(kinesisMessageDrivenChannelAdapter.getConsumerInvokersUtilization())
+				.hasSize(2)
+				.allSatisfy((name, utilization) -> assertThat(utilization).isBetween(0.0, 1.0));
+	}
+
+	@Test
+	void recordsAreConsumedFromShardSubscription() {
+		createStream(1);
+		List<String> sequenceNumbers = putRecords("foo1");
+
+		kinesisMessageDrivenChannelAdapter(adapter -> adapter.setEnhancedFanOutConsumerName("test"))
+				.start();
+
+		Message<?> message = receive();
+		assertThat(message.getPayload()).isEqualTo("foo1");
+		assertThat(message.getHeaders())
+				.containsEntry(AwsHeaders.RECEIVED_SEQUENCE_NUMBER, sequenceNumbers.get(0))
+				.containsEntry(AwsHeaders.SHARD, SHARD)
+				.containsEntry(AwsHeaders.RECEIVED_STREAM, STREAM);
+
+		// Pushed into the open subscription
+		sequenceNumbers = putRecords("foo2");
+		assertThat(receive().getPayload()).isEqualTo("foo2");
+
+		String lastSequenceNumber = sequenceNumbers.get(0);
+		await().untilAsserted(() -> assertThat(checkpoint(SHARD)).isEqualTo(lastSequenceNumber));
+
+		ArgumentCaptor<SubscribeToShardRequest> subscribeToShardRequestCaptor =
+				ArgumentCaptor.forClass(SubscribeToShardRequest.class);
+		verify(this.amazonKinesis, atLeast(1))
+				.subscribeToShard(subscribeToShardRequestCaptor.capture(), any(SubscribeToShardResponseHandler.class));
+
+		SubscribeToShardRequest firstRequest = subscribeToShardRequestCaptor.getAllValues().get(0);
+		assertThat(firstRequest.startingPosition().type()).isEqualTo(ShardIteratorType.TRIM_HORIZON);
+		assertThat(this.amazonKinesis.describeStreamConsumer(request -> request.consumerARN(firstRequest.consumerARN()))
+				.join()
+				.consumerDescription()
+				.consumerName())
+				.isEqualTo("test");
+
+		verify(this.amazonKinesis, never()).getRecords(any(GetRecordsRequest.class));
+	}
+
+	@Test
+	void recordsAreOrderedPerPartitionKey() {
+		createStream(1);
+		PutRecordsRequestEntry[] entries = new PutRecordsRequestEntry[20];
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] =
+					PutRecordsRequestEntry.builder()
+							.partitionKey("key" + (i % 4))
+							.data(SdkBytes.fromUtf8String("foo" + i))
+							.build();
+		}
+		List<PutRecordsResultEntry> results =
+				this.amazonKinesis.putRecords(request -> request.streamName(STREAM).records(entries))
+						.join()
+						.records();
+
+		kinesisMessageDrivenChannelAdapter(adapter -> {
+			adapter.setCheckpointMode(CheckpointMode.record);
+			adapter.setKeyOrderedConcurrency(3);
+		})
+				.start();
+
+		Map<Object, List<String>> sequencesPerKey = new HashMap<>();
+		for (int i = 0; i < entries.length; i++) {
+			Message<?> message = receive();
+			sequencesPerKey.computeIfAbsent(message.getHeaders().get(AwsHeaders.RECEIVED_PARTITION_KEY),
+							key -> new ArrayList<>())
+					.add((String) message.getHeaders().get(AwsHeaders.RECEIVED_SEQUENCE_NUMBER));
+		}
+
+		assertThat(sequencesPerKey).hasSize(4);
+		// The sequence numbers of the same length are ordered as strings
+		sequencesPerKey.values().forEach(sequences -> assertThat(sequences).isSorted().hasSize(entries.length / 4));
+
+		await().untilAsserted(() ->
+				assertThat(checkpoint(SHARD)).isEqualTo(results.get(results.size() - 1).sequenceNumber()));
+	}
+
+	@Test
+	void shardConsumerMetersAreRegistered() {
+		createStream(1);
+		putRecords("foo", "bar");
+
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter =
+				kinesisMessageDrivenChannelAdapter(adapter -> {
+				});
+		kinesisMessageDrivenChannelAdapter.registerMetricsCaptor(new MicrometerMetricsCaptor(meterRegistry));
+		kinesisMessageDrivenChannelAdapter.start();
+
+		receive();
+		receive();
+
+		await().untilAsserted(() ->
+				assertThat(meterRegistry.get("spring.integration.kinesis.consumer.polls")
+						.tag("stream", STREAM)
+						.tag("shard", SHARD)
+						.tag("result", "empty")
+						.counter()
+						.count())
+						.isGreaterThan(0));
+
+		assertThat(meterRegistry.get("spring.integration.kinesis.consumer.polls")
+				.tag("result", "records")
+				.counter()
+				.count())
+				.isEqualTo(1);
+
+		assertThat(meterRegistry.get("spring.integration.kinesis.consumer.get.records")
+				.tag("shard", SHARD)
+				.timer()
+				.count())
+				.isGreaterThan(1);
+
+		assertThat(meterRegistry.get("spring.integration.kinesis.consumer.millis.behind.latest")
+				.tag("shard", SHARD)
+				.gauge()
+				.value())
+				.isEqualTo(0);
+
+		assertThat(meterRegistry.get("spring.integration.kinesis.consumer.checkpoint")
+				.tag("result", "stored")
+				.timer()
+				.count())
+				.isGreaterThan(0);
+
+		assertThat(meterRegistry.get("spring.integration.kinesis.consumers")
+				.tag("state", "NEW")
+				.gauge()
+				.value())
+				.isEqualTo(0);
+
+		kinesisMessageDrivenChannelAdapter.stop();
+
+		// The shard consumer meters are removed with the consumer
+		assertThat(meterRegistry.find("spring.integration.kinesis.consumer.get.records").timer()).isNull();
+	}
+
+	@Test
+	void poisonRecordIsSkippedToDeadLetterChannelAfterAttempts() {
+		createStream(1);
+		List<String> sequenceNumbers = putRecords("good1", "poison", "good2");
+
+		AtomicInteger poisonAttempts = new AtomicInteger();
+		DirectChannel processingChannel = new DirectChannel();
+		processingChannel.subscribe(message -> {
+			if ("poison".equals(message.getPayload())) {
+				poisonAttempts.incrementAndGet();
+				throw new IllegalStateException("Cannot process the poison record");
+			}
+			this.kinesisChannel.send(message);
+		});
+		QueueChannel deadLetterChannel = new QueueChannel();
+
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter =
+				kinesisMessageDrivenChannelAdapter(adapter -> {
+					adapter.setOutputChannel(processingChannel);
+					adapter.setCheckpointMode(CheckpointMode.record);
+					adapter.setMaxRecordAttempts(3);
+					adapter.setDeadLetterChannel(deadLetterChannel);
+				});
+		kinesisMessageDrivenChannelAdapter.registerMetricsCaptor(new MicrometerMetricsCaptor(meterRegistry));
+		kinesisMessageDrivenChannelAdapter.start();
+
+		List<Object> payloads = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			payloads.add(receive().getPayload());
+		}
+
+		// The batch is re-fetched for every attempt, and the recovered records are skipped afterwards
+		assertThat(payloads).containsExactly("good1", "good1", "good1", "good2");
+
+		Message<?> deadLetter = deadLetterChannel.receive(10000);
+		assertThat(deadLetter).isInstanceOf(ErrorMessage.class);
+		MessagingException exception = (MessagingException) deadLetter.getPayload();
+		assertThat(exception.getFailedMessage().getPayload()).isEqualTo("poison");
+		assertThat(exception).hasRootCauseInstanceOf(IllegalStateException.class);
+
+		assertThat(poisonAttempts).hasValue(3);
+
+		await().untilAsserted(() -> assertThat(checkpoint(SHARD)).isEqualTo(sequenceNumbers.get(2)));
+
+		assertThat(this.kinesisChannel.receive(100)).isNull();
+
+		assertThat(meterRegistry.get("spring.integration.kinesis.consumer.failed.records")
+				.tag("action", "retried")
+				.counter()
+				.count())
+				.isEqualTo(2);
+
+		assertThat(meterRegistry.get("spring.integration.kinesis.consumer.failed.records")
+				.tag("action", "skipped")
+				.counter()
+				.count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void shardMetersAreKeptForReplacementConsumer() {
+		createStream(1);
+		putRecords("foo1");
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter =
+				kinesisMessageDrivenChannelAdapter(adapter -> {
+					// The replaced consumer is stopped when its lock is released after the replacement is started
+					adapter.setNonBlockingConsumers(true);
+					adapter.setLockRegistry(new DefaultLockRegistry());
+					adapter.setLockRenewalTimeout(1000);
+					adapter.registerMetricsCaptor(new MicrometerMetricsCaptor(meterRegistry));
+				});
+		kinesisMessageDrivenChannelAdapter.start();
+
+		assertThat(receive().getPayload()).isEqualTo("foo1");
+
+		kinesisMessageDrivenChannelAdapter.resetCheckpointForShardToTrimHorizon(STREAM, SHARD);
+
+		assertThat(receive().getPayload()).isEqualTo("foo1");
+
+		await().untilAsserted(() ->
+				assertThat(meterRegistry.get("spring.integration.kinesis.consumer.polls")
+						.tag("shard", SHARD)
+						.tag("result", "records")
+						.counter()
+						.count())
+						.isGreaterThan(0));
+
+		kinesisMessageDrivenChannelAdapter.stop();
+
+		await().untilAsserted(() ->
+				assertThat(meterRegistry.find("spring.integration.kinesis.consumer.polls").counters()).isEmpty());
+	}
+
+	@Test
+	void shardIteratorsOfSleepingConsumersAreRefreshedAheadOfExpiration() {
+		AtomicInteger expiredIterators = new AtomicInteger();
+		willAnswer(invocation ->
+				((CompletableFuture<?>) invocation.callRealMethod())
+						.whenComplete((response, ex) -> {
+							Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+							if (cause instanceof ExpiredIteratorException) {
+								expiredIterators.incrementAndGet();
+							}
+						}))
+				.given(this.amazonKinesis)
+				.getRecords(any(GetRecordsRequest.class));
+
+		createStream(1);
+		this.amazonKinesis.setIteratorTtl(Duration.ofMillis(1000));
+		putRecords("first");
+
+		kinesisMessageDrivenChannelAdapter(adapter -> {
+			adapter.setConsumerBackoff(3000);
+			adapter.setShardIteratorRefreshInterval(400);
+		})
+				.start();
+
+		assertThat(receive().getPayload()).isEqualTo("first");
+
+		// Wait for the initial shard iterator and at least three refreshes, that is longer than the shard iterator TTL,
+		// while the consumer backs off after an empty batch
+		await().untilAsserted(() ->
+				verify(this.amazonKinesis, atLeast(4)).getShardIterator(any(GetShardIteratorRequest.class)));
+
+		putRecords("second");
+
+		assertThat(receive().getPayload()).isEqualTo("second");
+
+		assertThat(expiredIterators).hasValue(0);
+	}
+
+	@Test
+	void recordsAddedWhileSleepingAreNotSkippedByShardIteratorRefreshFromLatest() {
+		createStream(1);
+		this.amazonKinesis.setIteratorTtl(Duration.ofMillis(1000));
+
+		kinesisMessageDrivenChannelAdapter(adapter -> {
+			adapter.setStreamInitialSequence(KinesisShardOffset.latest());
+			adapter.setConsumerBackoff(3000);
+			adapter.setShardIteratorRefreshInterval(400);
+		})
+				.start();
+
+		// The consumer backs off after an empty batch with the LATEST shard iterator
+		await().untilAsserted(() -> verify(this.amazonKinesis, atLeast(1)).getRecords(any(GetRecordsRequest.class)));
+
+		putRecords("first");
+
+		// Wait for at least three refreshes, that is longer than the shard iterator TTL:
+		// the iterator is refreshed at its position before the record
+		await().untilAsserted(() ->
+				verify(this.amazonKinesis, atLeast(4)).getShardIterator(any(GetShardIteratorRequest.class)));
+
+		putRecords("second");
+
+		assertThat(receive().getPayload()).isEqualTo("first");
+		assertThat(receive().getPayload()).isEqualTo("second");
+	}
+
+	@Test
+	void shardLocksAreKeptWhenRenewalIsNotCompletedInTime() {
+		createStream(1);
+		InMemoryDynamoDbClient dynamoDb = new InMemoryDynamoDbClient();
+		DynamoDbLockRepository lockRepository = new DynamoDbLockRepository(dynamoDb);
+		lockRepository.setLeaseDuration(Duration.ofSeconds(30));
+		lockRepository.afterPropertiesSet();
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		try {
+			kinesisMessageDrivenChannelAdapter(adapter -> {
+				adapter.setLockRegistry(new DynamoDbLockRegistry(lockRepository));
+				adapter.setLockRenewalTimeout(10);
+				adapter.registerMetricsCaptor(new MicrometerMetricsCaptor(meterRegistry));
+			})
+					.start();
+
+			putRecords("foo1");
+			assertThat(receive().getPayload()).isEqualTo("foo1");
+
+			// Every renewal batch is completed after the timeout from now on
+			dynamoDb.setLatency(Duration.ofMillis(500));
+
+			await().untilAsserted(() ->
+					assertThat(meterRegistry.get("spring.integration.kinesis.lock.renew")
+							.timer()
+							.count())
+							.isGreaterThanOrEqualTo(3));
+
+			putRecords("foo2");
+			assertThat(receive().getPayload()).isEqualTo("foo2");
+
+			assertThat(lockRepository.isAcquired("SpringIntegration:" + STREAM + ":" + SHARD)).isTrue();
+			// The shard consumer has not been stopped for a lost lock and started again
+			verify(this.amazonKinesis, times(1)).getShardIterator(any(GetShardIteratorRequest.class));
+		}
+		finally {
+			stopAdapters();
+			this.adapters.clear();
+			lockRepository.close();
+		}
+	}
+
+	@Test
+	void recordCheckpointsAreFlushedOnStop() {
+		createStream(1);
+		List<String> sequenceNumbers = putRecords("foo1", "foo2", "foo3");
+
+		KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter =
+				kinesisMessageDrivenChannelAdapter(adapter -> {
+					adapter.setCheckpointMode(CheckpointMode.record);
+					adapter.setCheckpointFlushInterval(60_000);
+				});
+		kinesisMessageDrivenChannelAdapter.start();
+
+		for (int i = 1; i <= 3; i++) {
+			assertThat(receive().getPayload()).isEqualTo("foo" + i);
+		}
+
+		kinesisMessageDrivenChannelAdapter.stop();
+
+		assertThat(checkpoint(SHARD)).isEqualTo(sequenceNumbers.get(2));
+		// Not a write per record: only the initial (possibly empty) flush and the flush on stop
+		verify(this.checkpointStore, atMost(1)).putIfAbsent(anyString(), anyString());
+		verify(this.checkpointStore, atMost(1)).replace(anyString(), anyString(), anyString());
+	}
+
+	/**
+	 * Create the adapter for the {@link #STREAM} from its trim horizon into the {@link #kinesisChannel}
+	 * with the {@link #checkpointStore}, polling the shards without delays.
+	 * @param configurer the test-specific configuration of the adapter.
+	 * @return the initialized adapter; stopped after the test.
+	 */
+	private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter(
+			Consumer<KinesisMessageDrivenChannelAdapter> configurer) {
+
+		KinesisMessageDrivenChannelAdapter adapter = new KinesisMessageDrivenChannelAdapter(this.amazonKinesis, STREAM);
+		adapter.setBeanFactory(this.beanFactory);
+		adapter.setOutputChannel(this.kinesisChannel);
+		adapter.setCheckpointStore(this.checkpointStore);
+		adapter.setStreamInitialSequence(KinesisShardOffset.trimHorizon());
+		adapter.setConverter(String::new);
+
+		DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+		dfa.setPropertyValue("consumerBackoff", 10);
+		dfa.setPropertyValue("idleBetweenPolls", 1);
+
+		configurer.accept(adapter);
+		adapter.afterPropertiesSet();
+		this.adapters.add(adapter);
+		return adapter;
+	}
+
+	private void createStream(int shardCount) {
+		this.amazonKinesis.createStream(request -> request.streamName(STREAM).shardCount(shardCount)).join();
+	}
+
+	private List<String> putRecords(String... payloads) {
+		List<String> sequenceNumbers = new ArrayList<>();
+		for (String payload : payloads) {
+			sequenceNumbers.add(
+					this.amazonKinesis.putRecord(request ->
+									request.streamName(STREAM)
+											.partitionKey("key")
+											.data(SdkBytes.fromUtf8String(payload)))
+							.join()
+							.sequenceNumber());
+		}
+		return sequenceNumbers;
+	}
+
+	private void putRecord(String payload, BigInteger hashKey) {
+		this.amazonKinesis.putRecord(request ->
+						request.streamName(STREAM)
+								.partitionKey("key")
+								.explicitHashKey(hashKey.toString())
+								.data(SdkBytes.fromUtf8String(payload)))
+				.join();
+	}
+
+	/**
+	 * Put the {@code foo-<shardId>} record into every shard of the {@link #STREAM}.
+	 * @return the sequence numbers of the records per shard.
+	 */
+	private Map<String, String> putRecordPerShard() {
+		Map<String, String> sequenceNumbers = new HashMap<>();
+		List<Shard> shards = this.amazonKinesis.listShards(request -> request.streamName(STREAM)).join().shards();
+		for (Shard shard : shards) {
+			String sequenceNumber =
+					this.amazonKinesis.putRecord(request ->
+									request.streamName(STREAM)
+											.partitionKey("key")
+											.explicitHashKey(shard.hashKeyRange().startingHashKey())
+											.data(SdkBytes.fromUtf8String("foo-" + shard.shardId())))
+							.join()
+							.sequenceNumber();
+			sequenceNumbers.put(shard.shardId(), sequenceNumber);
+		}
+		return sequenceNumbers;
+	}
+
+	private void assertEveryShardConsumed(Map<String, String> sequenceNumbers) {
+		Set<Object> shards = new HashSet<>();
+		for (int i = 0; i < sequenceNumbers.size(); i++) {
+			Message<?> message = receive();
+			shards.add(message.getHeaders().get(AwsHeaders.SHARD));
+			assertThat(message.getPayload()).isEqualTo("foo-" + message.getHeaders().get(AwsHeaders.SHARD));
+		}
+
+		assertThat(shards).containsExactlyInAnyOrderElementsOf(sequenceNumbers.keySet());
+
+		await().untilAsserted(() ->
+				sequenceNumbers.forEach((shard, sequenceNumber) ->
+						assertThat(checkpoint(shard)).isEqualTo(sequenceNumber)));
+	}
+
+	private Message<?> receive() {
+		Message<?> message = this.kinesisChannel.receive(10000);
+		assertThat(message).isNotNull();
+		return message;
+	}
+
+	private String checkpoint(String shard) {
+		return this.checkpointStore.get("SpringIntegration:" + STREAM + ":" + shard);
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+	}
+
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.kinesis.CheckpointMode;
+import org.springframework.integration.aws.inbound.kinesis.KinesisMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.aws.testing.InMemoryKinesisClient;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.integration.support.management.micrometer.MicrometerMetricsCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.support.ErrorMessage;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+@DirtiesContext
+class KinesisMessageDrivenChannelAdapterPoisonRecordTests {
+
+	private static final String STREAM = "poisonStream";
+
+	@Autowired
+	private InMemoryKinesisClient amazonKinesis;
+
+	@Autowired
+	private QueueChannel kinesisChannel;
+
+	@Autowired
+	private QueueChannel deadLetterChannel;
+
+	@Autowired
+	private AtomicInteger poisonAttempts;
+
+	@Autowired
+	private ConcurrentMetadataStore checkpointStore;
+
+	@Autowired
+	private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter;
+
+	@Test
+	void poisonRecordIsSkippedToDeadLetterChannelAfterAttempts() {
+		List<String> sequenceNumbers =
+				this.amazonKinesis.putRecords(request ->
+								request.streamName(STREAM)
+										.records(entry -> entry.partitionKey("key").data(SdkBytes.fromUtf8String("good1")),
+												entry -> entry.partitionKey("key").data(SdkBytes.fromUtf8String("poison")),
+												entry -> entry.partitionKey("key").data(SdkBytes.fromUtf8String("good2"))))
+						.join()
+						.records()
+						.stream()
+						.map(PutRecordsResultEntry::sequenceNumber)
+						.toList();
+
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		this.kinesisMessageDrivenChannelAdapter.registerMetricsCaptor(new MicrometerMetricsCaptor(meterRegistry));
+		this.kinesisMessageDrivenChannelAdapter.start();
+
+		List<Object> payloads = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Message<?> message = this.kinesisChannel.receive(10000);
+			assertThat(message).isNotNull();
+			payloads.add(message.getPayload());
+		}
+
+		// The batch is re-fetched for every attempt, and the recovered records are skipped afterwards
+		assertThat(payloads).containsExactly("good1", "good1", "good1", "good2");
+
+		Message<?> deadLetter = this.deadLetterChannel.receive(10000);
+		assertThat(deadLetter).isInstanceOf(ErrorMessage.class);
+		MessagingException exception = (MessagingException) deadLetter.getPayload();
+		assertThat(exception.getFailedMessage().getPayload()).isEqualTo("poison");
+		assertThat(exception).hasRootCauseInstanceOf(IllegalStateException.class);
+
+		assertThat(this.poisonAttempts).hasValue(3);
+
+		await().untilAsserted(() ->
+				assertThat(this.checkpointStore.get("SpringIntegration:" + STREAM + ":shardId-000000000000"))
+						.isEqualTo(sequenceNumbers.get(2)));
+
+		assertThat(this.kinesisChannel.receive(100)).isNull();
+
+		assertThat(meterRegistry.get("spring.integration.kinesis.consumer.failed.records")
+				.tag("action", "retried")
+				.counter()
+				.count())
+				.isEqualTo(2);
+
+		assertThat(meterRegistry.get("spring.integration.kinesis.consumer.failed.records")
+				.tag("action", "skipped")
+				.counter()
+				.count())
+				.isEqualTo(1);
+
+		this.kinesisMessageDrivenChannelAdapter.stop();
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public InMemoryKinesisClient amazonKinesis() {
+			InMemoryKinesisClient amazonKinesis = new InMemoryKinesisClient();
+			amazonKinesis.createStream(request -> request.streamName(STREAM).shardCount(1)).join();
+			return amazonKinesis;
+		}
+
+		@Bean
+		public QueueChannel kinesisChannel() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public QueueChannel deadLetterChannel() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public AtomicInteger poisonAttempts() {
+			return new AtomicInteger();
+		}
+
+		@Bean
+		public DirectChannel processingChannel() {
+			DirectChannel processingChannel = new DirectChannel();
+			processingChannel.subscribe(message -> {
+				if ("poison".equals(message.getPayload())) {
+					poisonAttempts().incrementAndGet();
+					throw new IllegalStateException("Cannot process the poison record");
+				}
+				kinesisChannel().send(message);
+			});
+			return processingChannel;
+		}
+
+		@Bean
+		public ConcurrentMetadataStore checkpointStore() {
+			return new SimpleMetadataStore();
+		}
+
+		@Bean
+		public KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter() {
+			KinesisMessageDrivenChannelAdapter adapter = new KinesisMessageDrivenChannelAdapter(amazonKinesis(), STREAM);
+			adapter.setAutoStartup(false);
+			adapter.setOutputChannel(processingChannel());
+			adapter.setCheckpointStore(checkpointStore());
+			adapter.setCheckpointMode(CheckpointMode.record);
+			adapter.setStreamInitialSequence(KinesisShardOffset.trimHorizon());
+			adapter.setConverter(String::new);
+			adapter.setMaxRecordAttempts(3);
+			adapter.setDeadLetterChannel(deadLetterChannel());
+
+			DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+			dfa.setPropertyValue("consumerBackoff", 10);
+			dfa.setPropertyValue("idleBetweenPolls", 1);
+
+			return adapter;
+		}
+
+	}
+
+}
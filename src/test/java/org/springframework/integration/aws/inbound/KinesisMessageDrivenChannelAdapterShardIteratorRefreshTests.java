@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.kinesis.KinesisMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.aws.testing.InMemoryKinesisClient;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.messaging.Message;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+@DirtiesContext
+class KinesisMessageDrivenChannelAdapterShardIteratorRefreshTests {
+
+	private static final String STREAM = "refreshStream";
+
+	@Autowired
+	private CountingKinesisClient amazonKinesis;
+
+	@Autowired
+	private QueueChannel kinesisChannel;
+
+	@Autowired
+	private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter;
+
+	@Test
+	void shardIteratorsOfSleepingConsumersAreRefreshedAheadOfExpiration() {
+		this.amazonKinesis.putRecord(request ->
+						request.streamName(STREAM).partitionKey("key").data(SdkBytes.fromUtf8String("first")))
+				.join();
+
+		this.kinesisMessageDrivenChannelAdapter.start();
+
+		Message<?> message = this.kinesisChannel.receive(10000);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isEqualTo("first");
+
+		// Wait for the initial shard iterator and at least three refreshes, that is longer than the shard iterator TTL,
+		// while the consumer backs off after an empty batch
+		await().untilAsserted(() -> assertThat(this.amazonKinesis.shardIterators.get()).isGreaterThanOrEqualTo(4));
+
+		this.amazonKinesis.putRecord(request ->
+						request.streamName(STREAM).partitionKey("key").data(SdkBytes.fromUtf8String("second")))
+				.join();
+
+		message = this.kinesisChannel.receive(10000);
+		assertThat(message).isNotNull();
+		assertThat(message.getPayload()).isEqualTo("second");
+
+		this.kinesisMessageDrivenChannelAdapter.stop();
+
+		assertThat(this.amazonKinesis.expiredIterators).hasValue(0);
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public CountingKinesisClient amazonKinesis() {
+			CountingKinesisClient amazonKinesis = new CountingKinesisClient();
+			amazonKinesis.createStream(request -> request.streamName(STREAM).shardCount(1)).join();
+			amazonKinesis.setIteratorTtl(Duration.ofMillis(1000));
+			return amazonKinesis;
+		}
+
+		@Bean
+		public QueueChannel kinesisChannel() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter() {
+			KinesisMessageDrivenChannelAdapter adapter = new KinesisMessageDrivenChannelAdapter(amazonKinesis(), STREAM);
+			adapter.setAutoStartup(false);
+			adapter.setOutputChannel(kinesisChannel());
+			adapter.setCheckpointStore(new SimpleMetadataStore());
+			adapter.setStreamInitialSequence(KinesisShardOffset.trimHorizon());
+			adapter.setConverter(String::new);
+			adapter.setConsumerBackoff(3000);
+			adapter.setShardIteratorRefreshInterval(400);
+
+			DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+			dfa.setPropertyValue("idleBetweenPolls", 1);
+
+			return adapter;
+		}
+
+	}
+
+	static class CountingKinesisClient extends InMemoryKinesisClient {
+
+		final AtomicInteger shardIterators = new AtomicInteger();
+
+		final AtomicInteger expiredIterators = new AtomicInteger();
+
+		@Override
+		public CompletableFuture<GetShardIteratorResponse> getShardIterator(GetShardIteratorRequest request) {
+			this.shardIterators.incrementAndGet();
+			return super.getShardIterator(request);
+		}
+
+		@Override
+		public CompletableFuture<GetRecordsResponse> getRecords(GetRecordsRequest request) {
+			return super.getRecords(request)
+					.whenComplete((response, ex) -> {
+						Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+						if (cause instanceof ExpiredIteratorException) {
+							this.expiredIterators.incrementAndGet();
+						}
+					});
+		}
+
+	}
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+
+import org.springframework.integration.aws.inbound.kinesis.Checkpointer;
+import org.springframework.integration.aws.inbound.kinesis.KinesisReactiveSource;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.aws.support.AwsHeaders;
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.messaging.Message;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+class KinesisReactiveSourceTests {
+
+	private static final String STREAM = "reactiveStream";
+
+	@Test
+	void demandDrivesGetRecordsAndAcknowledgementCheckpoints() throws InterruptedException {
+		KinesisAsyncClient amazonKinesis = endlessShardKinesis();
+		ConcurrentMetadataStore checkpointStore = new SimpleMetadataStore();
+
+		KinesisReactiveSource reactiveSource = new KinesisReactiveSource(amazonKinesis);
+		reactiveSource.setCheckpointStore(checkpointStore);
+		reactiveSource.setConverter(String::new);
+
+		List<Message<?>> messages =
+				reactiveSource.consume(KinesisShardOffset.trimHorizon(STREAM, "0"))
+						.take(3)
+						.collectList()
+						.block(Duration.ofSeconds(10));
+
+		assertThat(messages).extracting(Message::getPayload).containsExactly("foo1", "foo2", "foo3");
+
+		ArgumentCaptor<GetRecordsRequest> getRecordsRequestCaptor = ArgumentCaptor.forClass(GetRecordsRequest.class);
+		verify(amazonKinesis, atLeastOnce()).getRecords(getRecordsRequestCaptor.capture());
+		assertThat(getRecordsRequestCaptor.getAllValues().get(0).limit()).isEqualTo(3);
+
+		// Out of order acknowledgement doesn't move the checkpoint past the not acknowledged record
+		assertThat(messages.get(1).getHeaders().get(AwsHeaders.CHECKPOINTER, Checkpointer.class).checkpoint())
+				.isTrue();
+
+		Thread.sleep(100);
+
+		assertThat(checkpointStore.get("SpringIntegration:" + STREAM + ":0")).isNull();
+
+		messages.get(0).getHeaders().get(AwsHeaders.CHECKPOINTER, Checkpointer.class).checkpoint();
+
+		await().untilAsserted(() ->
+				assertThat(checkpointStore.get("SpringIntegration:" + STREAM + ":0")).isEqualTo("2"));
+
+		Message<?> next =
+				reactiveSource.consume(KinesisShardOffset.trimHorizon(STREAM, "0"))
+						.take(1)
+						.blockFirst(Duration.ofSeconds(10));
+
+		assertThat(next).isNotNull();
+		assertThat(next.getPayload()).isEqualTo("foo3");
+
+		ArgumentCaptor<GetShardIteratorRequest> shardIteratorRequestCaptor =
+				ArgumentCaptor.forClass(GetShardIteratorRequest.class);
+		verify(amazonKinesis, atLeastOnce()).getShardIterator(shardIteratorRequestCaptor.capture());
+		GetShardIteratorRequest resumeRequest = shardIteratorRequestCaptor.getValue();
+		assertThat(resumeRequest.shardIteratorType()).isEqualTo(ShardIteratorType.AFTER_SEQUENCE_NUMBER);
+		assertThat(resumeRequest.startingSequenceNumber()).isEqualTo("2");
+	}
+
+	private static KinesisAsyncClient endlessShardKinesis() {
+		KinesisAsyncClient amazonKinesis = mock(KinesisAsyncClient.class);
+
+		willAnswer(invocation -> {
+			GetShardIteratorRequest request = invocation.getArgument(0);
+			int start =
+					ShardIteratorType.AFTER_SEQUENCE_NUMBER.equals(request.shardIteratorType())
+							? Integer.parseInt(request.startingSequenceNumber()) + 1
+							: 1;
+			return CompletableFuture.completedFuture(
+					GetShardIteratorResponse.builder()
+							.shardIterator("0:" + start)
+							.build());
+		})
+				.given(amazonKinesis)
+				.getShardIterator(any(GetShardIteratorRequest.class));
+
+		willAnswer(invocation -> {
+			GetRecordsRequest request = invocation.getArgument(0);
+			int next = Integer.parseInt(request.shardIterator().split(":")[1]);
+			List<Record> records = new ArrayList<>();
+			for (int i = 0; i < request.limit(); i++, next++) {
+				records.add(
+						Record.builder()
+								.partitionKey("partition1")
+								.sequenceNumber(Integer.toString(next))
+								.data(SdkBytes.fromUtf8String("foo" + next))
+								.build());
+			}
+			return CompletableFuture.completedFuture(
+					GetRecordsResponse.builder()
+							.nextShardIterator("0:" + next)
+							.millisBehindLatest(0L)
+							.records(records)
+							.build());
+		})
+				.given(amazonKinesis)
+				.getRecords(any(GetRecordsRequest.class));
+
+		return amazonKinesis;
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.integration.aws.inbound.kinesis.KinesisReadQuota;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+class KinesisReadQuotaTests {
+
+	@Test
+	void callsAreLimitedPerShard() {
+		KinesisReadQuota readQuota = new KinesisReadQuota();
+
+		for (int i = 0; i < 5; i++) {
+			assertThat(readQuota.tryAcquireCall("stream", "shard1")).isZero();
+		}
+
+		assertThat(readQuota.tryAcquireCall("stream", "shard1")).isBetween(1L, 200L);
+		assertThat(readQuota.tryAcquireCall("stream", "shard2")).isZero();
+	}
+
+	@Test
+	void callsAreDelayedAfterBytesBudgetExceeded() {
+		KinesisReadQuota readQuota = new KinesisReadQuota();
+		readQuota.setBytesPerSecond(1000);
+
+		assertThat(readQuota.tryAcquireCall("stream", "shard1")).isZero();
+		readQuota.recordBytes("stream", "shard1", 2000);
+
+		assertThat(readQuota.tryAcquireCall("stream", "shard1")).isBetween(900L, 1000L);
+	}
+
+	@Test
+	void callsAreLimitedPerStream() {
+		KinesisReadQuota readQuota = new KinesisReadQuota();
+		readQuota.setStreamCallsPerSecond(2);
+
+		assertThat(readQuota.tryAcquireCall("stream", "shard1")).isZero();
+		assertThat(readQuota.tryAcquireCall("stream", "shard2")).isZero();
+		assertThat(readQuota.tryAcquireCall("stream", "shard3")).isPositive();
+		assertThat(readQuota.tryAcquireCall("anotherStream", "shard3")).isZero();
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+class KplRecordDeaggregatorTests {
+
+	@Test
+	void aggregatedRecordIsDeaggregated() throws Exception {
+		Record record =
+				Record.builder()
+						.partitionKey("aggregated")
+						.sequenceNumber("100")
+						.data(SdkBytes.fromByteArray(aggregate(List.of("key1", "key2"), "foo", "bar", "baz")))
+						.build();
+
+		List<Record> subRecords = KplRecordDeaggregator.deaggregate(List.of(record));
+
+		assertThat(subRecords).extracting(Record::sequenceNumber).containsExactly("100.0", "100.1", "100");
+		assertThat(subRecords).extracting(Record::partitionKey).containsExactly("key1", "key2", "key1");
+		assertThat(subRecords).extracting(r -> r.data().asUtf8String()).containsExactly("foo", "bar", "baz");
+
+		assertThat(SequenceNumbers.compare("100.0", "100.1")).isNegative();
+		assertThat(SequenceNumbers.compare("100.1", "100")).isNegative();
+		assertThat(SequenceNumbers.compare("100", "99.5")).isPositive();
+		assertThat(SequenceNumbers.compare("100.10", "100.9")).isPositive();
+	}
+
+	@Test
+	void notAggregatedRecordIsReturnedAsIs() throws Exception {
+		Record plain =
+				Record.builder()
+						.partitionKey("plain")
+						.sequenceNumber("1")
+						.data(SdkBytes.fromUtf8String("foo"))
+						.build();
+
+		byte[] corrupted = aggregate(List.of("key1"), "foo");
+		corrupted[corrupted.length - 1]++;
+		Record wrongChecksum =
+				Record.builder()
+						.partitionKey("wrongChecksum")
+						.sequenceNumber("2")
+						.data(SdkBytes.fromByteArray(corrupted))
+						.build();
+
+		assertThat(KplRecordDeaggregator.deaggregate(List.of(plain, wrongChecksum)))
+				.containsExactly(plain, wrongChecksum);
+	}
+
+	/**
+	 * Build the KPL aggregated record data: magic + AggregatedRecord protobuf + MD5 of protobuf.
+	 * The sub-records get partition keys from the table in round-robin.
+	 */
+	private static byte[] aggregate(List<String> partitionKeys, String... data) throws Exception {
+		ByteArrayOutputStream protobuf = new ByteArrayOutputStream();
+		for (String partitionKey : partitionKeys) {
+			writeBytes(protobuf, 1, partitionKey.getBytes(StandardCharsets.UTF_8));
+		}
+		for (int i = 0; i < data.length; i++) {
+			ByteArrayOutputStream subRecord = new ByteArrayOutputStream();
+			writeVarint(subRecord, 1 << 3);
+			writeVarint(subRecord, i % partitionKeys.size());
+			writeBytes(subRecord, 3, data[i].getBytes(StandardCharsets.UTF_8));
+			writeBytes(protobuf, 3, subRecord.toByteArray());
+		}
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream();
+		result.write(new byte[] { (byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2 });
+		result.write(protobuf.toByteArray());
+		result.write(MessageDigest.getInstance("MD5").digest(protobuf.toByteArray()));
+		return result.toByteArray();
+	}
+
+	private static void writeBytes(ByteArrayOutputStream out, int fieldNumber, byte[] bytes) {
+		writeVarint(out, (fieldNumber << 3) | 2);
+		writeVarint(out, bytes.length);
+		out.writeBytes(bytes);
+	}
+
+	private static void writeVarint(ByteArrayOutputStream out, long value) {
+		while ((value & ~0x7FL) != 0) {
+			out.write((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.write((int) value);
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+class SequenceNumbersTests {
+
+	@Test
+	void compareAsBigIntegers() {
+		String[][] pairs = {
+				{ "1", "2" },
+				{ "2", "10" },
+				{ "10", "10" },
+				{ "007", "7" },
+				{ "0", "000" },
+				{ "49590338271490256608559692538361571095921575989136588898",
+						"49590338271490256608559692538361571095921575989136588899" },
+				{ "49590338271490256608559692538361571095921575989136588898",
+						"9590338271490256608559692538361571095921575989136588898" }
+		};
+
+		for (String[] pair : pairs) {
+			int expected = Integer.signum(new BigInteger(pair[0]).compareTo(new BigInteger(pair[1])));
+			assertThat(Integer.signum(SequenceNumbers.compare(pair[0], pair[1]))).isEqualTo(expected);
+			assertThat(Integer.signum(SequenceNumbers.compare(pair[1], pair[0]))).isEqualTo(-expected);
+		}
+	}
+
+	@Test
+	void invalidSequenceNumberRejected() {
+		for (String sequence : new String[] { "", "-1", "12a" }) {
+			assertThatExceptionOfType(NumberFormatException.class)
+					.isThrownBy(() -> SequenceNumbers.compare(sequence, "1"));
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.inbound.kinesis;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.integration.metadata.ConcurrentMetadataStore;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+class ShardCheckpointerTests {
+
+	@Test
+	void checkpointsDoNotReadStoreForEveryWrite() {
+		ConcurrentMetadataStore checkpointStore = spy(new SimpleMetadataStore());
+		ShardCheckpointer checkpointer = new ShardCheckpointer(checkpointStore, "key");
+
+		assertThat(checkpointer.getCheckpoint()).isNull();
+		assertThat(checkpointer.checkpoint("1")).isTrue();
+		assertThat(checkpointer.checkpoint("2")).isTrue();
+		assertThat(checkpointer.checkpoint("3")).isTrue();
+		assertThat(checkpointer.checkpoint("2")).isFalse();
+
+		assertThat(checkpointStore.get("key")).isEqualTo("3");
+		verify(checkpointStore, times(2)).get("key");
+	}
+
+	@Test
+	void checkpointReadsStoreOnConditionalWriteFailure() {
+		ConcurrentMetadataStore checkpointStore = new SimpleMetadataStore();
+		ShardCheckpointer checkpointer = new ShardCheckpointer(checkpointStore, "key");
+
+		assertThat(checkpointer.checkpoint("1")).isTrue();
+
+		checkpointStore.put("key", "5");
+
+		assertThat(checkpointer.checkpoint("3")).isFalse();
+		assertThat(checkpointer.getLastCheckpointValue()).isEqualTo("5");
+		assertThat(checkpointer.checkpoint("7")).isTrue();
+		assertThat(checkpointStore.get("key")).isEqualTo("7");
+	}
+
+	@Test
+	void checkpointDoesNotOverwriteProgressOfAnotherConsumer() {
+		ConcurrentMetadataStore checkpointStore = new SimpleMetadataStore();
+		ShardCheckpointer checkpointer = new ShardCheckpointer(checkpointStore, "key");
+
+		assertThat(checkpointer.checkpoint("5")).isTrue();
+
+		// A new owner of the shard is behind this consumer
+		checkpointStore.put("key", "2");
+
+		assertThat(checkpointer.checkpoint("7")).isFalse();
+		assertThat(checkpointStore.get("key")).isEqualTo("2");
+	}
+
+	@Test
+	void abandonDropsPendingWriteBehindCheckpoint() {
+		ConcurrentMetadataStore checkpointStore = new SimpleMetadataStore();
+		ShardCheckpointer checkpointer = new ShardCheckpointer(checkpointStore, "key", true);
+
+		assertThat(checkpointer.checkpoint("1")).isTrue();
+		checkpointer.flush();
+		assertThat(checkpointer.checkpoint("3")).isTrue();
+
+		checkpointer.abandon();
+		checkpointer.flush();
+
+		assertThat(checkpointStore.get("key")).isEqualTo("1");
+		assertThat(checkpointer.checkpoint("5")).isFalse();
+	}
+
+}
@@ -19,6 +19,7 @@ package org.springframework.integration.aws.lock;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -368,6 +369,41 @@ class DynamoDbLockRegistryTests implements LocalstackContainerTest {
 		}
 	}
 
+	@Test
+	void locksRenewInBatch() {
+		Lock fooLock = this.dynamoDbLockRegistry.obtain("foo");
+		Lock barLock = this.dynamoDbLockRegistry.obtain("bar");
+
+		assertThat(fooLock.tryLock()).isTrue();
+		assertThat(barLock.tryLock()).isTrue();
+		try {
+			assertThat(this.dynamoDbLockRegistry.renewLocks(List.of("foo", "bar", "baz")).join())
+					.containsExactly("baz");
+		}
+		finally {
+			fooLock.unlock();
+			barLock.unlock();
+		}
+	}
+
+	@Test
+	void heartbeatCountsLiveOwners() {
+		DynamoDbLockRepository dynamoDbLockRepository1 = new DynamoDbLockRepository(DYNAMO_DB);
+		dynamoDbLockRepository1.afterPropertiesSet();
+		DynamoDbLockRepository dynamoDbLockRepository2 = new DynamoDbLockRepository(DYNAMO_DB);
+		dynamoDbLockRepository2.afterPropertiesSet();
+
+		assertThat(new DynamoDbLockRegistry(dynamoDbLockRepository1).heartbeat("heartbeatGroup")).isEqualTo(1);
+		assertThat(dynamoDbLockRepository2.heartbeat("heartbeatGroup")).isEqualTo(2);
+		assertThat(dynamoDbLockRepository2.heartbeat("anotherHeartbeatGroup")).isEqualTo(1);
+
+		dynamoDbLockRepository2.close();
+
+		assertThat(dynamoDbLockRepository1.heartbeat("heartbeatGroup")).isEqualTo(1);
+
+		dynamoDbLockRepository1.close();
+	}
+
 	@Configuration
 	public static class ContextConfiguration {
 
@@ -17,6 +17,8 @@
 package org.springframework.integration.aws.metadata;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
@@ -148,4 +150,28 @@ class DynamoDbMetadataStoreTests implements LocalstackContainerTest {
 		assertThat(fileID).isEqualTo("4567");
 	}
 
+	@Test
+	void getAll() {
+		List<String> keys = new ArrayList<>();
+		for (int i = 0; i < 150; i++) {
+			String key = "getAllKey" + i;
+			keys.add(key);
+			if (i % 2 == 0) {
+				store.put(key, "value" + i);
+			}
+		}
+		keys.add(this.file1);
+
+		Map<String, String> values = store.getAll(keys);
+
+		assertThat(values).hasSize(75)
+				.containsEntry("getAllKey0", "value0")
+				.containsEntry("getAllKey148", "value148")
+				.doesNotContainKeys("getAllKey1", this.file1);
+
+		for (int i = 0; i < 150; i += 2) {
+			store.remove("getAllKey" + i);
+		}
+	}
+
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+import org.springframework.integration.aws.lock.DynamoDbLockRepository;
+import org.springframework.integration.aws.metadata.DynamoDbMetadataStore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+class InMemoryDynamoDbClientTests {
+
+	private final InMemoryDynamoDbClient dynamoDb = new InMemoryDynamoDbClient();
+
+	@Test
+	void metadataStoreOperations() {
+		DynamoDbMetadataStore store = new DynamoDbMetadataStore(this.dynamoDb);
+		store.setTimeToLive(60_000);
+		store.afterPropertiesSet();
+
+		assertThat(store.putIfAbsent("foo", "bar")).isNull();
+		assertThat(store.putIfAbsent("foo", "baz")).isEqualTo("bar");
+		assertThat(store.replace("foo", "baz", "qux")).isFalse();
+		assertThat(store.replace("foo", "bar", "qux")).isTrue();
+		assertThat(store.get("foo")).isEqualTo("qux");
+
+		store.put("bar", "baz");
+
+		// The throttled BatchGetItem returns all the keys as unprocessed to be re-requested
+		AtomicInteger batchGetItemCalls = new AtomicInteger();
+		this.dynamoDb.setThrottling(request ->
+				request instanceof BatchGetItemRequest && batchGetItemCalls.incrementAndGet() == 1);
+		assertThat(store.getAll(List.of("foo", "bar", "baz")))
+				.containsOnly(Map.entry("foo", "qux"), Map.entry("bar", "baz"));
+		assertThat(batchGetItemCalls).hasValue(2);
+
+		assertThat(store.remove("foo")).isEqualTo("qux");
+		assertThat(store.remove("foo")).isNull();
+		assertThat(store.get("foo")).isNull();
+	}
+
+	@Test
+	void lockRepositoryOperations() throws InterruptedException {
+		DynamoDbLockRepository repository1 = new DynamoDbLockRepository(this.dynamoDb);
+		repository1.setLeaseDuration(Duration.ofSeconds(10));
+		repository1.afterPropertiesSet();
+		DynamoDbLockRepository repository2 = new DynamoDbLockRepository(this.dynamoDb);
+		repository2.setLeaseDuration(Duration.ofSeconds(10));
+		repository2.afterPropertiesSet();
+
+		assertThat(repository1.acquire("lock")).isTrue();
+		assertThat(repository1.acquire("lock")).isTrue();
+		assertThat(repository2.acquire("lock")).isFalse();
+		assertThat(repository1.isAcquired("lock")).isTrue();
+		assertThat(repository2.isAcquired("lock")).isFalse();
+		assertThat(repository1.renew("lock")).isTrue();
+
+		assertThat(repository1.heartbeat("group")).isEqualTo(1);
+		assertThat(repository2.heartbeat("group")).isEqualTo(2);
+
+		repository1.delete("lock");
+		assertThat(repository2.acquire("lock")).isTrue();
+		assertThat(repository1.isAcquired("lock")).isFalse();
+		assertThat(repository2.isAcquired("lock")).isTrue();
+
+		repository1.close();
+		repository2.close();
+	}
+
+	@Test
+	void expiredItemsAreAbsent() {
+		createTable("ttlTable", "id", null);
+		this.dynamoDb.updateTimeToLive(request ->
+						request.tableName("ttlTable")
+								.timeToLiveSpecification(ttl -> ttl.attributeName("expireAt").enabled(true)))
+				.join();
+
+		long now = Instant.now().getEpochSecond();
+		this.dynamoDb.putItem(request ->
+						request.tableName("ttlTable")
+								.item(Map.of("id", AttributeValue.fromS("expired"),
+										"expireAt", AttributeValue.fromN("" + (now - 10)))))
+				.join();
+		this.dynamoDb.putItem(request ->
+						request.tableName("ttlTable")
+								.item(Map.of("id", AttributeValue.fromS("live"),
+										"expireAt", AttributeValue.fromN("" + (now + 60)))))
+				.join();
+
+		assertThat(this.dynamoDb.getItem(request ->
+						request.tableName("ttlTable").key(Map.of("id", AttributeValue.fromS("expired"))))
+				.join()
+				.hasItem())
+				.isFalse();
+		assertThat(this.dynamoDb.describeTable(request -> request.tableName("ttlTable")).join().table().itemCount())
+				.isEqualTo(1);
+
+		// The expired item doesn't fail the attribute_not_exists() condition
+		this.dynamoDb.putItem(request ->
+						request.tableName("ttlTable")
+								.item(Map.of("id", AttributeValue.fromS("expired")))
+								.conditionExpression("attribute_not_exists(id)"))
+				.join();
+
+		assertThatExceptionOfType(CompletionException.class)
+				.isThrownBy(() ->
+						this.dynamoDb.putItem(request ->
+										request.tableName("ttlTable")
+												.item(Map.of("id", AttributeValue.fromS("live")))
+												.conditionExpression("attribute_not_exists(id)"))
+								.join())
+				.withCauseInstanceOf(ConditionalCheckFailedException.class);
+	}
+
+	@Test
+	void queryAndUpdateWithRangeKey() {
+		createTable("rangeTable", "pk", "sk");
+		for (int i = 0; i < 10; i++) {
+			int sk = i;
+			this.dynamoDb.putItem(request ->
+							request.tableName("rangeTable")
+									.item(Map.of("pk", AttributeValue.fromS("p"),
+											"sk", AttributeValue.fromN("" + sk),
+											"counter", AttributeValue.fromN("0"))))
+					.join();
+		}
+
+		Map<String, AttributeValue> updated =
+				this.dynamoDb.updateItem(request ->
+								request.tableName("rangeTable")
+										.key(Map.of("pk", AttributeValue.fromS("p"), "sk", AttributeValue.fromN("3")))
+										.updateExpression("SET #counter = #counter + :one")
+										.expressionAttributeNames(Map.of("#counter", "counter"))
+										.expressionAttributeValues(Map.of(":one", AttributeValue.fromN("1")))
+										.returnValues(ReturnValue.UPDATED_NEW))
+						.join()
+						.attributes();
+		assertThat(updated).containsOnly(Map.entry("counter", AttributeValue.fromN("1")));
+
+		List<String> sortKeys = new ArrayList<>();
+		Map<String, AttributeValue> exclusiveStartKey = null;
+		do {
+			Map<String, AttributeValue> startKey = exclusiveStartKey;
+			QueryResponse response =
+					this.dynamoDb.query(request -> {
+								request.tableName("rangeTable")
+										.keyConditionExpression("pk = :pk AND sk BETWEEN :from AND :to")
+										.filterExpression("counter = :zero")
+										.expressionAttributeValues(Map.of(
+												":pk", AttributeValue.fromS("p"),
+												":from", AttributeValue.fromN("2"),
+												":to", AttributeValue.fromN("8"),
+												":zero", AttributeValue.fromN("0")))
+										.scanIndexForward(false)
+										.limit(3);
+								if (startKey != null) {
+									request.exclusiveStartKey(startKey);
+								}
+							})
+							.join();
+			response.items().forEach(item -> sortKeys.add(item.get("sk").n()));
+			exclusiveStartKey = response.hasLastEvaluatedKey() ? response.lastEvaluatedKey() : null;
+		}
+		while (exclusiveStartKey != null);
+
+		assertThat(sortKeys).containsExactly("8", "7", "6", "5", "4", "2");
+	}
+
+	private void createTable(String tableName, String hashKey, String rangeKey) {
+		List<KeySchemaElement> keySchema = new ArrayList<>();
+		List<AttributeDefinition> attributeDefinitions = new ArrayList<>();
+		keySchema.add(KeySchemaElement.builder().attributeName(hashKey).keyType(KeyType.HASH).build());
+		attributeDefinitions.add(
+				AttributeDefinition.builder().attributeName(hashKey).attributeType(ScalarAttributeType.S).build());
+		if (rangeKey != null) {
+			keySchema.add(KeySchemaElement.builder().attributeName(rangeKey).keyType(KeyType.RANGE).build());
+			attributeDefinitions.add(
+					AttributeDefinition.builder().attributeName(rangeKey).attributeType(ScalarAttributeType.N).build());
+		}
+		this.dynamoDb.createTable(request ->
+						request.tableName(tableName)
+								.keySchema(keySchema)
+								.attributeDefinitions(attributeDefinitions))
+				.join();
+	}
+
+}
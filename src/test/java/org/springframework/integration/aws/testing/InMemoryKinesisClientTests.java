@@ -0,0 +1,357 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.InvalidArgumentException;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEvent;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEventStream;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponseHandler;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.kinesis.KinesisMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.inbound.kinesis.KinesisShardOffset;
+import org.springframework.integration.aws.outbound.KinesisMessageHandler;
+import org.springframework.integration.channel.DirectChannel;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.metadata.SimpleMetadataStore;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.support.GenericMessage;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+@DirtiesContext
+class InMemoryKinesisClientTests {
+
+	private static final String STREAM = "inMemoryStream";
+
+	private static final String LOAD_STREAM = "inMemoryLoadStream";
+
+	@Autowired
+	private InMemoryKinesisClient amazonKinesis;
+
+	@Autowired
+	private MessageHandler kinesisMessageHandler;
+
+	@Autowired
+	private MessageHandler loadMessageHandler;
+
+	@Autowired
+	private QueueChannel kinesisChannel;
+
+	@Autowired
+	private DirectChannel loadChannel;
+
+	@Autowired
+	private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter;
+
+	@Test
+	void recordsAreConsumedFromSplitShardsWhenThrottled() {
+		this.kinesisMessageDrivenChannelAdapter.start();
+
+		for (int i = 0; i < 50; i++) {
+			this.kinesisMessageHandler.handleMessage(new GenericMessage<>("before" + i));
+		}
+
+		Shard shard = this.amazonKinesis.listShards(request -> request.streamName(STREAM)).join().shards().get(0);
+		BigInteger startingHashKey = new BigInteger(shard.hashKeyRange().startingHashKey());
+		BigInteger endingHashKey = new BigInteger(shard.hashKeyRange().endingHashKey());
+		this.amazonKinesis.splitShard(request ->
+						request.streamName(STREAM)
+								.shardToSplit(shard.shardId())
+								.newStartingHashKey(startingHashKey.add(endingHashKey).shiftRight(1).toString()))
+				.join();
+
+		for (int i = 0; i < 50; i++) {
+			this.kinesisMessageHandler.handleMessage(new GenericMessage<>("after" + i));
+		}
+
+		Set<Object> payloads = new HashSet<>();
+		for (int i = 0; i < 100; i++) {
+			Message<?> message = this.kinesisChannel.receive(10000);
+			assertThat(message).isNotNull();
+			payloads.add(message.getPayload());
+		}
+		assertThat(payloads).hasSize(100);
+
+		assertThat(this.amazonKinesis.listShards(request -> request.streamName(STREAM)).join().shards())
+				.hasSize(4)
+				.filteredOn(closed -> closed.sequenceNumberRange().endingSequenceNumber() != null)
+				.extracting(Shard::shardId)
+				.containsExactly(shard.shardId());
+
+		this.kinesisMessageDrivenChannelAdapter.stop();
+	}
+
+	@Test
+	void loadGeneratorMeasuresEndToEndLatency() throws InterruptedException {
+		LoadGenerator loadGenerator = new LoadGenerator(10_000);
+		loadGenerator.setProducers(4);
+		loadGenerator.setTimeout(Duration.ofSeconds(60));
+
+		MessageHandler deliveries = message -> loadGenerator.delivered(Long.parseLong((String) message.getPayload()));
+		this.loadChannel.subscribe(deliveries);
+
+		LoadReport report =
+				loadGenerator.run(sendTime -> this.loadMessageHandler.handleMessage(
+						new GenericMessage<>(Long.toString(sendTime))));
+
+		this.loadChannel.unsubscribe(deliveries);
+
+		assertThat(report.getSent()).isEqualTo(10_000);
+		assertThat(report.getFailed()).isZero();
+		assertThat(report.getDelivered()).isEqualTo(10_000);
+		assertThat(report.getThroughput()).isPositive();
+		assertThat(report.getP50()).isLessThanOrEqualTo(report.getP99());
+		assertThat(report.getP99()).isLessThanOrEqualTo(report.getMax());
+	}
+
+	@Test
+	void shardIteratorsResolveSequenceNumbersAndExpire() throws InterruptedException {
+		InMemoryKinesisClient kinesisClient = new InMemoryKinesisClient();
+		kinesisClient.createStream(request -> request.streamName("iteratorStream").shardCount(1)).join();
+		List<String> sequenceNumbers =
+				kinesisClient.putRecords(request ->
+								request.streamName("iteratorStream")
+										.records(entry -> entry.partitionKey("key").data(SdkBytes.fromUtf8String("first")),
+												entry -> entry.partitionKey("key").data(SdkBytes.fromUtf8String("second"))))
+						.join()
+						.records()
+						.stream()
+						.map(entry -> entry.sequenceNumber())
+						.toList();
+
+		String shardIterator =
+				kinesisClient.getShardIterator(request ->
+								request.streamName("iteratorStream")
+										.shardId("shardId-000000000000")
+										.shardIteratorType(ShardIteratorType.AFTER_SEQUENCE_NUMBER)
+										.startingSequenceNumber(sequenceNumbers.get(0)))
+						.join()
+						.shardIterator();
+
+		GetRecordsResponse response =
+				kinesisClient.getRecords(request -> request.shardIterator(shardIterator)).join();
+		assertThat(response.records())
+				.extracting(Record::sequenceNumber)
+				.containsExactly(sequenceNumbers.get(1));
+		assertThat(response.millisBehindLatest()).isZero();
+
+		kinesisClient.setIteratorTtl(Duration.ofMillis(10));
+		Thread.sleep(50);
+
+		assertThatExceptionOfType(CompletionException.class)
+				.isThrownBy(() ->
+						kinesisClient.getRecords(request -> request.shardIterator(response.nextShardIterator())).join())
+				.withCauseInstanceOf(ExpiredIteratorException.class);
+	}
+
+	@Test
+	void explicitHashKeyOutsideOfHashKeyRangeIsRejected() {
+		InMemoryKinesisClient kinesisClient = new InMemoryKinesisClient();
+		kinesisClient.createStream(request -> request.streamName("hashKeyStream").shardCount(2)).join();
+
+		for (String explicitHashKey : List.of("-1", BigInteger.ONE.shiftLeft(128).toString(), "notANumber")) {
+			assertThatExceptionOfType(CompletionException.class)
+					.isThrownBy(() ->
+							kinesisClient.putRecord(request ->
+											request.streamName("hashKeyStream")
+													.partitionKey("key")
+													.explicitHashKey(explicitHashKey)
+													.data(SdkBytes.fromUtf8String("data")))
+									.join())
+					.withCauseInstanceOf(InvalidArgumentException.class);
+		}
+
+		assertThat(kinesisClient.putRecord(request ->
+								request.streamName("hashKeyStream")
+										.partitionKey("key")
+										.explicitHashKey(BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE).toString())
+										.data(SdkBytes.fromUtf8String("data")))
+						.join()
+						.shardId())
+				.isEqualTo("shardId-000000000001");
+	}
+
+	@Test
+	void recordsArePushedFromShardSubscriptionUntilShardEnd() throws InterruptedException {
+		InMemoryKinesisClient kinesisClient = new InMemoryKinesisClient();
+		kinesisClient.createStream(request -> request.streamName("fanOutStream").shardCount(1)).join();
+		String streamArn =
+				kinesisClient.describeStreamSummary(request -> request.streamName("fanOutStream"))
+						.join()
+						.streamDescriptionSummary()
+						.streamARN();
+		String consumerArn =
+				kinesisClient.registerStreamConsumer(request ->
+								request.streamARN(streamArn)
+										.consumerName("fanOutConsumer"))
+						.join()
+						.consumer()
+						.consumerARN();
+
+		BlockingQueue<SubscribeToShardEventStream> events = new LinkedBlockingQueue<>();
+		CompletableFuture<Void> subscription =
+				kinesisClient.subscribeToShard(request ->
+								request.consumerARN(consumerArn)
+										.shardId("shardId-000000000000")
+										.startingPosition(position -> position.type(ShardIteratorType.TRIM_HORIZON)),
+						SubscribeToShardResponseHandler.builder()
+								.subscriber(events::add)
+								.build());
+
+		String sequenceNumber =
+				kinesisClient.putRecord(request ->
+								request.streamName("fanOutStream")
+										.partitionKey("key")
+										.data(SdkBytes.fromUtf8String("pushed")))
+						.join()
+						.sequenceNumber();
+
+		SubscribeToShardEvent event = (SubscribeToShardEvent) events.poll(10, TimeUnit.SECONDS);
+		assertThat(event).isNotNull();
+		assertThat(event.records())
+				.extracting(Record::sequenceNumber)
+				.containsExactly(sequenceNumber);
+		assertThat(event.continuationSequenceNumber()).isEqualTo(sequenceNumber);
+
+		Shard shard = kinesisClient.listShards(request -> request.streamName("fanOutStream")).join().shards().get(0);
+		kinesisClient.splitShard(request ->
+						request.streamName("fanOutStream")
+								.shardToSplit(shard.shardId())
+								.newStartingHashKey(BigInteger.ONE.shiftLeft(127).toString()))
+				.join();
+
+		event = (SubscribeToShardEvent) events.poll(10, TimeUnit.SECONDS);
+		assertThat(event).isNotNull();
+		assertThat(event.records()).isEmpty();
+		assertThat(event.continuationSequenceNumber()).isNull();
+		assertThat(event.childShards()).hasSize(2);
+
+		subscription.join();
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class Config {
+
+		@Bean
+		public InMemoryKinesisClient amazonKinesis() {
+			InMemoryKinesisClient amazonKinesis = new InMemoryKinesisClient();
+			amazonKinesis.createStream(request -> request.streamName(STREAM).shardCount(2)).join();
+			amazonKinesis.createStream(request -> request.streamName(LOAD_STREAM).shardCount(4)).join();
+			// Throttle every third GetRecords of the functional test stream
+			AtomicInteger getRecordsCalls = new AtomicInteger();
+			amazonKinesis.setThrottling(request ->
+					request instanceof GetRecordsRequest getRecordsRequest
+							&& getRecordsRequest.shardIterator().startsWith(STREAM + '/')
+							&& getRecordsCalls.incrementAndGet() % 3 == 0);
+			return amazonKinesis;
+		}
+
+		@Bean
+		public MessageHandler kinesisMessageHandler() {
+			return kinesisMessageHandler(STREAM);
+		}
+
+		@Bean
+		public MessageHandler loadMessageHandler() {
+			return kinesisMessageHandler(LOAD_STREAM);
+		}
+
+		@Bean
+		public QueueChannel kinesisChannel() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public DirectChannel loadChannel() {
+			return new DirectChannel();
+		}
+
+		@Bean
+		public KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter() {
+			KinesisMessageDrivenChannelAdapter adapter = kinesisMessageDrivenChannelAdapter(STREAM);
+			adapter.setAutoStartup(false);
+			adapter.setOutputChannel(kinesisChannel());
+			return adapter;
+		}
+
+		@Bean
+		public KinesisMessageDrivenChannelAdapter loadMessageDrivenChannelAdapter() {
+			KinesisMessageDrivenChannelAdapter adapter = kinesisMessageDrivenChannelAdapter(LOAD_STREAM);
+			adapter.setOutputChannel(loadChannel());
+			return adapter;
+		}
+
+		private KinesisMessageHandler kinesisMessageHandler(String stream) {
+			KinesisMessageHandler kinesisMessageHandler = new KinesisMessageHandler(amazonKinesis());
+			kinesisMessageHandler.setStream(stream);
+			kinesisMessageHandler.setPartitionKeyExpressionString("payload");
+			kinesisMessageHandler.setConverter(source -> ((String) source).getBytes());
+			return kinesisMessageHandler;
+		}
+
+		private KinesisMessageDrivenChannelAdapter kinesisMessageDrivenChannelAdapter(String stream) {
+			KinesisMessageDrivenChannelAdapter adapter = new KinesisMessageDrivenChannelAdapter(amazonKinesis(), stream);
+			adapter.setCheckpointStore(new SimpleMetadataStore());
+			adapter.setStreamInitialSequence(KinesisShardOffset.trimHorizon());
+			adapter.setConverter(String::new);
+
+			DirectFieldAccessor dfa = new DirectFieldAccessor(adapter);
+			dfa.setPropertyValue("consumerBackoff", 10);
+			dfa.setPropertyValue("idleBetweenPolls", 1);
+
+			return adapter;
+		}
+
+	}
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.awspring.cloud.sqs.listener.SqsContainerOptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.integration.aws.inbound.SqsMessageDrivenChannelAdapter;
+import org.springframework.integration.aws.outbound.SnsMessageHandler;
+import org.springframework.integration.aws.outbound.SqsMessageHandler;
+import org.springframework.integration.channel.QueueChannel;
+import org.springframework.integration.config.EnableIntegration;
+import org.springframework.integration.core.MessageProducer;
+import org.springframework.integration.support.MessageBuilder;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.PollableChannel;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+@SpringJUnitConfig
+@DirtiesContext
+class InMemorySnsSqsClientTests {
+
+	private static final InMemorySqsClient AMAZON_SQS = new InMemorySqsClient();
+
+	private static final InMemorySnsClient AMAZON_SNS = new InMemorySnsClient(AMAZON_SQS);
+
+	private static String testQueueUrl;
+
+	private static String rawQueueUrl;
+
+	private static String notificationQueueUrl;
+
+	private static String topicArn;
+
+	@Autowired
+	private PollableChannel inputChannel;
+
+	@Autowired
+	private MessageHandler sqsMessageHandler;
+
+	@Autowired
+	private MessageHandler snsMessageHandler;
+
+	@BeforeAll
+	static void setup() {
+		testQueueUrl = AMAZON_SQS.createQueue(request -> request.queueName("testQueue")).join().queueUrl();
+		rawQueueUrl = AMAZON_SQS.createQueue(request -> request.queueName("rawQueue")).join().queueUrl();
+		notificationQueueUrl =
+				AMAZON_SQS.createQueue(request -> request.queueName("notificationQueue")).join().queueUrl();
+		topicArn = AMAZON_SNS.createTopic(request -> request.name("testTopic")).join().topicArn();
+
+		AMAZON_SNS.subscribe(request ->
+						request.topicArn(topicArn)
+								.protocol("sqs")
+								.endpoint(queueArn(rawQueueUrl))
+								.attributes(Map.of("RawMessageDelivery", "true")))
+				.join();
+		AMAZON_SNS.subscribe(request ->
+						request.topicArn(topicArn)
+								.protocol("sqs")
+								.endpoint(queueArn(notificationQueueUrl)))
+				.join();
+	}
+
+	@Test
+	void sqsMessageHandlerToMessageDrivenChannelAdapter() {
+		this.sqsMessageHandler.handleMessage(
+				MessageBuilder.withPayload("messageContent")
+						.setHeader("someAttribute", "someValue")
+						.build());
+
+		org.springframework.messaging.Message<?> receive = this.inputChannel.receive(10000);
+		assertThat(receive).isNotNull();
+		assertThat(receive.getPayload()).isEqualTo("messageContent");
+		assertThat(receive.getHeaders().get("someAttribute")).isEqualTo("someValue");
+
+		// The message is deleted from the queue with the acknowledgement
+		await().untilAsserted(() ->
+				assertThat(
+						AMAZON_SQS.getQueueAttributes(request ->
+										request.queueUrl(testQueueUrl).attributeNames(QueueAttributeName.ALL))
+								.join()
+								.attributes())
+						.containsEntry(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES, "0")
+						.containsEntry(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES_NOT_VISIBLE, "0"));
+	}
+
+	@Test
+	void snsMessagesAreDeliveredToSubscribedQueues() throws Exception {
+		this.snsMessageHandler.handleMessage(
+				MessageBuilder.withPayload("snsContent")
+						.setHeader("someAttribute", "someValue")
+						.build());
+
+		assertThat(AMAZON_SNS.getPublishedCount(topicArn)).isEqualTo(1);
+
+		List<Message> rawMessages =
+				AMAZON_SQS.receiveMessage(request ->
+								request.queueUrl(rawQueueUrl)
+										.messageAttributeNames("All"))
+						.join()
+						.messages();
+		assertThat(rawMessages).hasSize(1);
+		assertThat(rawMessages.get(0).body()).isEqualTo("snsContent");
+		assertThat(rawMessages.get(0).messageAttributes().get("someAttribute").stringValue()).isEqualTo("someValue");
+
+		List<Message> notifications =
+				AMAZON_SQS.receiveMessage(request -> request.queueUrl(notificationQueueUrl))
+						.join()
+						.messages();
+		assertThat(notifications).hasSize(1);
+		JsonNode notification = new ObjectMapper().readTree(notifications.get(0).body());
+		assertThat(notification.get("Type").asText()).isEqualTo("Notification");
+		assertThat(notification.get("TopicArn").asText()).isEqualTo(topicArn);
+		assertThat(notification.get("Message").asText()).isEqualTo("snsContent");
+		assertThat(notification.at("/MessageAttributes/someAttribute/Value").asText()).isEqualTo("someValue");
+	}
+
+	@Test
+	void fifoQueueDeduplicatesAndBlocksGroupsInFlight() {
+		String fifoQueueUrl =
+				AMAZON_SQS.createQueue(request ->
+								request.queueName("testQueue.fifo")
+										.attributes(Map.of(QueueAttributeName.CONTENT_BASED_DEDUPLICATION, "true")))
+						.join()
+						.queueUrl();
+
+		for (String body : List.of("a", "a", "b")) {
+			AMAZON_SQS.sendMessage(request -> request.queueUrl(fifoQueueUrl).messageGroupId("g1").messageBody(body))
+					.join();
+		}
+
+		List<Message> messages =
+				AMAZON_SQS.receiveMessage(request -> request.queueUrl(fifoQueueUrl).maxNumberOfMessages(10))
+						.join()
+						.messages();
+		assertThat(messages).extracting(Message::body).containsExactly("a", "b");
+
+		AMAZON_SQS.sendMessage(request -> request.queueUrl(fifoQueueUrl).messageGroupId("g1").messageBody("c"))
+				.join();
+		AMAZON_SQS.sendMessage(request -> request.queueUrl(fifoQueueUrl).messageGroupId("g2").messageBody("d"))
+				.join();
+
+		assertThat(AMAZON_SQS.receiveMessage(request -> request.queueUrl(fifoQueueUrl).maxNumberOfMessages(10))
+				.join()
+				.messages())
+				.extracting(Message::body)
+				.containsExactly("d");
+
+		AMAZON_SQS.deleteMessageBatch(request ->
+						request.queueUrl(fifoQueueUrl)
+								.entries(messages.stream()
+										.map(message -> DeleteMessageBatchRequestEntry.builder()
+												.id(message.messageId())
+												.receiptHandle(message.receiptHandle())
+												.build())
+										.toList()))
+				.join();
+
+		assertThat(AMAZON_SQS.receiveMessage(request -> request.queueUrl(fifoQueueUrl).maxNumberOfMessages(10))
+				.join()
+				.messages())
+				.extracting(Message::body)
+				.containsExactly("c");
+	}
+
+	@Test
+	void longPollingReceiveIsCompletedBySend() {
+		String queueUrl = AMAZON_SQS.createQueue(request -> request.queueName("longPollingQueue")).join().queueUrl();
+
+		CompletableFuture<ReceiveMessageResponse> receive =
+				AMAZON_SQS.receiveMessage(request -> request.queueUrl(queueUrl).waitTimeSeconds(10));
+		assertThat(receive).isNotDone();
+
+		AMAZON_SQS.sendMessage(request -> request.queueUrl(queueUrl).messageBody("longPolling")).join();
+
+		assertThat(receive).succeedsWithin(Duration.ofSeconds(10))
+				.extracting(response -> response.messages().get(0).body())
+				.isEqualTo("longPolling");
+	}
+
+	private static String queueArn(String queueUrl) {
+		return AMAZON_SQS.getQueueAttributes(request ->
+						request.queueUrl(queueUrl).attributeNames(QueueAttributeName.QUEUE_ARN))
+				.join()
+				.attributes()
+				.get(QueueAttributeName.QUEUE_ARN);
+	}
+
+	@Configuration
+	@EnableIntegration
+	public static class ContextConfiguration {
+
+		@Bean
+		public PollableChannel inputChannel() {
+			return new QueueChannel();
+		}
+
+		@Bean
+		public MessageProducer sqsMessageDrivenChannelAdapter() {
+			SqsMessageDrivenChannelAdapter adapter = new SqsMessageDrivenChannelAdapter(AMAZON_SQS, "testQueue");
+			adapter.setOutputChannel(inputChannel());
+			adapter.setSqsContainerOptions(SqsContainerOptions.builder().pollTimeout(Duration.ofSeconds(1)).build());
+			return adapter;
+		}
+
+		@Bean
+		public MessageHandler sqsMessageHandler() {
+			SqsMessageHandler sqsMessageHandler = new SqsMessageHandler(AMAZON_SQS);
+			sqsMessageHandler.setQueue("testQueue");
+			return sqsMessageHandler;
+		}
+
+		@Bean
+		public MessageHandler snsMessageHandler() {
+			SnsMessageHandler snsMessageHandler = new SnsMessageHandler(AMAZON_SNS);
+			snsMessageHandler.setTopicArn(topicArn);
+			return snsMessageHandler;
+		}
+
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.util.Assert;
+
+/**
+ * The base class for the in-memory AWS service clients.
+ * The responses are completed on the calling thread, or after the configured latency
+ * on the {@link CompletableFuture#delayedExecutor(long, TimeUnit)}.
+ * The service errors complete the futures with a {@link CompletionException} cause,
+ * the same way as the real asynchronous AWS clients do.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+abstract class AbstractInMemoryClient {
+
+	/**
+	 * The account id for the ARNs and URLs of the in-memory resources.
+	 */
+	static final String ACCOUNT_ID = "000000000000";
+
+	/**
+	 * The region for the ARNs and URLs of the in-memory resources.
+	 */
+	static final String REGION = "us-east-1";
+
+	/**
+	 * The scheduler for delayed tasks of the in-memory clients, e.g. the SQS long polling timeouts.
+	 */
+	static final ScheduledExecutorService SCHEDULER =
+			Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "in-memory-aws-scheduler");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	private volatile long latencyNanos;
+
+	/**
+	 * Set the latency for every response of this client.
+	 * Defaults to zero: the responses are completed on the calling thread.
+	 * @param latency the latency to simulate.
+	 */
+	public void setLatency(Duration latency) {
+		Assert.notNull(latency, "'latency' must not be null");
+		Assert.isTrue(!latency.isNegative(), "'latency' must not be negative");
+		this.latencyNanos = latency.toNanos();
+	}
+
+	/**
+	 * Complete the future with the response (or the error) after the configured latency.
+	 * @param response the response supplier; may throw the service exception.
+	 * @param <T> the response type.
+	 * @return the future for the response.
+	 */
+	<T> CompletableFuture<T> respond(Supplier<T> response) {
+		long latency = this.latencyNanos;
+		if (latency == 0) {
+			try {
+				return CompletableFuture.completedFuture(response.get());
+			}
+			catch (RuntimeException ex) {
+				return CompletableFuture.failedFuture(new CompletionException(ex));
+			}
+		}
+		return CompletableFuture.supplyAsync(response,
+				CompletableFuture.delayedExecutor(latency, TimeUnit.NANOSECONDS));
+	}
+
+	/**
+	 * Complete the future after the configured latency.
+	 * @param response the future for the response which is completed in the future, e.g. a long polling.
+	 * @param <T> the response type.
+	 * @return the future for the response.
+	 */
+	<T> CompletableFuture<T> respondAsync(Supplier<CompletableFuture<T>> response) {
+		return respond(response).thenCompose(future -> future);
+	}
+
+	/**
+	 * Release the resources of this client.
+	 */
+	public void close() {
+		// No-op. The in-memory state is released with this client.
+	}
+
+}
@@ -0,0 +1,681 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * The evaluator for the subset of DynamoDB expressions used by the {@link InMemoryDynamoDbClient}.
+ * <ul>
+ * <li>Condition (and key condition, filter) expressions: the {@code =}, {@code <>}, {@code <}, {@code <=},
+ * {@code >}, {@code >=} comparisons, {@code BETWEEN}, {@code IN}, the {@code attribute_exists},
+ * {@code attribute_not_exists}, {@code begins_with} and {@code contains} functions,
+ * {@code AND}, {@code OR}, {@code NOT} and parentheses;
+ * <li>Update expressions: {@code SET} (with {@code +}, {@code -}, {@code if_not_exists} and
+ * {@code list_append}), {@code REMOVE} and {@code ADD} for numbers;
+ * <li>Projection expressions.
+ * </ul>
+ * Only top-level attributes are supported: no nested paths or list indexes.
+ * The parsed expressions are cached, so the same expression strings are parsed only once.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+final class DynamoDbExpressions {
+
+	private static final Map<String, Condition> CONDITIONS = new ConcurrentHashMap<>();
+
+	private static final Map<String, List<UpdateAction>> UPDATES = new ConcurrentHashMap<>();
+
+	private static final Map<String, List<Path>> PROJECTIONS = new ConcurrentHashMap<>();
+
+	private DynamoDbExpressions() {
+	}
+
+	/**
+	 * Evaluate the condition expression against the item.
+	 * @param expression the condition expression; {@code null} matches any item.
+	 * @param item the item to evaluate against; empty for the absent item.
+	 * @param names the expression attribute names.
+	 * @param values the expression attribute values.
+	 * @return whether the item matches the condition.
+	 */
+	static boolean matches(@Nullable String expression, Map<String, AttributeValue> item, Map<String, String> names,
+			Map<String, AttributeValue> values) {
+
+		if (expression == null || expression.isBlank()) {
+			return true;
+		}
+		return CONDITIONS.computeIfAbsent(expression, key -> new Parser(key).parseCondition())
+				.test(item, new Context(names, values));
+	}
+
+	/**
+	 * Apply the update expression to the item.
+	 * All the values are evaluated against the item state before the update.
+	 * @param expression the update expression.
+	 * @param item the item to update.
+	 * @param names the expression attribute names.
+	 * @param values the expression attribute values.
+	 * @return the names of the updated (including removed) attributes.
+	 */
+	static Set<String> update(String expression, Map<String, AttributeValue> item, Map<String, String> names,
+			Map<String, AttributeValue> values) {
+
+		List<UpdateAction> actions = UPDATES.computeIfAbsent(expression, key -> new Parser(key).parseUpdate());
+		Context context = new Context(names, values);
+		Map<String, AttributeValue> original = new HashMap<>(item);
+		Map<String, AttributeValue> updates = new LinkedHashMap<>();
+		for (UpdateAction action : actions) {
+			updates.put(action.path.name(context), action.value.resolve(original, context));
+		}
+		updates.forEach((name, value) -> {
+			if (value != null) {
+				item.put(name, value);
+			}
+			else {
+				item.remove(name);
+			}
+		});
+		return updates.keySet();
+	}
+
+	/**
+	 * Project the item onto the attributes of the projection expression.
+	 * @param expression the projection expression; {@code null} for all the attributes.
+	 * @param item the item to project.
+	 * @param names the expression attribute names.
+	 * @return the projected item.
+	 */
+	static Map<String, AttributeValue> project(@Nullable String expression, Map<String, AttributeValue> item,
+			Map<String, String> names) {
+
+		if (expression == null || expression.isBlank()) {
+			return item;
+		}
+		List<Path> paths = PROJECTIONS.computeIfAbsent(expression, key -> new Parser(key).parseProjection());
+		Context context = new Context(names, Collections.emptyMap());
+		Map<String, AttributeValue> projection = new HashMap<>();
+		for (Path path : paths) {
+			String name = path.name(context);
+			AttributeValue value = item.get(name);
+			if (value != null) {
+				projection.put(name, value);
+			}
+		}
+		return projection;
+	}
+
+	/**
+	 * Compare the values of the same scalar type.
+	 * @param left the left value.
+	 * @param right the right value.
+	 * @return the comparison result or {@code null} if the values are not comparable.
+	 */
+	@Nullable
+	static Integer compare(AttributeValue left, AttributeValue right) {
+		if (left.type() != right.type()) {
+			return null;
+		}
+		return switch (left.type()) {
+			case S -> left.s().compareTo(right.s());
+			case N -> new BigDecimal(left.n()).compareTo(new BigDecimal(right.n()));
+			case B -> compareBytes(left.b().asByteArrayUnsafe(), right.b().asByteArrayUnsafe());
+			default -> left.equals(right) ? 0 : null;
+		};
+	}
+
+	private static int compareBytes(byte[] left, byte[] right) {
+		int length = Math.min(left.length, right.length);
+		for (int i = 0; i < length; i++) {
+			int result = Integer.compare(left[i] & 0xff, right[i] & 0xff);
+			if (result != 0) {
+				return result;
+			}
+		}
+		return Integer.compare(left.length, right.length);
+	}
+
+	private static boolean contains(AttributeValue container, AttributeValue value) {
+		return switch (container.type()) {
+			case S -> value.type() == AttributeValue.Type.S && container.s().contains(value.s());
+			case SS -> value.type() == AttributeValue.Type.S && container.ss().contains(value.s());
+			case NS -> value.type() == AttributeValue.Type.N && container.ns().contains(value.n());
+			case L -> container.l().contains(value);
+			default -> false;
+		};
+	}
+
+	private static AttributeValue arithmetic(@Nullable AttributeValue left, @Nullable AttributeValue right,
+			boolean plus) {
+
+		if (left == null || right == null
+				|| left.type() != AttributeValue.Type.N || right.type() != AttributeValue.Type.N) {
+
+			throw validation("An operand in the update expression has an incorrect data type");
+		}
+		BigDecimal leftNumber = new BigDecimal(left.n());
+		BigDecimal rightNumber = new BigDecimal(right.n());
+		return AttributeValue.fromN((plus ? leftNumber.add(rightNumber) : leftNumber.subtract(rightNumber))
+				.toPlainString());
+	}
+
+	static DynamoDbException validation(String message) {
+		return (DynamoDbException) DynamoDbException.builder()
+				.message(message)
+				.statusCode(400)
+				.build();
+	}
+
+	/**
+	 * The expression attribute names and values of the request.
+	 */
+	private static final class Context {
+
+		private final Map<String, String> names;
+
+		private final Map<String, AttributeValue> values;
+
+		Context(Map<String, String> names, Map<String, AttributeValue> values) {
+			this.names = names;
+			this.values = values;
+		}
+
+	}
+
+	/**
+	 * The parsed condition expression.
+	 */
+	@FunctionalInterface
+	private interface Condition {
+
+		boolean test(Map<String, AttributeValue> item, Context context);
+
+	}
+
+	/**
+	 * The parsed operand: an attribute path, an expression attribute value or a function.
+	 */
+	@FunctionalInterface
+	private interface Operand {
+
+		@Nullable
+		AttributeValue resolve(Map<String, AttributeValue> item, Context context);
+
+	}
+
+	/**
+	 * The top-level attribute path: the attribute name or the expression attribute name placeholder.
+	 */
+	private static final class Path implements Operand {
+
+		private final String token;
+
+		Path(String token) {
+			this.token = token;
+		}
+
+		String name(Context context) {
+			if (this.token.startsWith("#")) {
+				String name = context.names.get(this.token);
+				if (name == null) {
+					throw validation("An expression attribute name used in the document path is not defined; "
+							+ "attribute name: " + this.token);
+				}
+				return name;
+			}
+			return this.token;
+		}
+
+		@Override
+		@Nullable
+		public AttributeValue resolve(Map<String, AttributeValue> item, Context context) {
+			return item.get(name(context));
+		}
+
+	}
+
+	/**
+	 * The {@code SET} (or {@code REMOVE}, when the value is resolved to {@code null}) action for the attribute.
+	 */
+	private static final class UpdateAction {
+
+		private final Path path;
+
+		private final Operand value;
+
+		UpdateAction(Path path, Operand value) {
+			this.path = path;
+			this.value = value;
+		}
+
+	}
+
+	/**
+	 * The recursive descent parser for the expressions.
+	 */
+	private static final class Parser {
+
+		private final String expression;
+
+		private final List<String> tokens;
+
+		private int position;
+
+		Parser(String expression) {
+			this.expression = expression;
+			this.tokens = tokenize(expression);
+		}
+
+		Condition parseCondition() {
+			Condition condition = parseOr();
+			expectEnd();
+			return condition;
+		}
+
+		List<UpdateAction> parseUpdate() {
+			List<UpdateAction> actions = new ArrayList<>();
+			while (peek() != null) {
+				String clause = next().toUpperCase(Locale.ROOT);
+				switch (clause) {
+					case "SET" -> {
+						do {
+							Path path = parsePath();
+							expect("=");
+							actions.add(new UpdateAction(path, parseSetValue()));
+						}
+						while (accept(","));
+					}
+					case "REMOVE" -> {
+						do {
+							actions.add(new UpdateAction(parsePath(), (item, context) -> null));
+						}
+						while (accept(","));
+					}
+					case "ADD" -> {
+						do {
+							Path path = parsePath();
+							Operand value = parseOperand();
+							actions.add(new UpdateAction(path, (item, context) -> {
+								AttributeValue current = path.resolve(item, context);
+								AttributeValue increment = value.resolve(item, context);
+								return current != null ? arithmetic(current, increment, true) : increment;
+							}));
+						}
+						while (accept(","));
+					}
+					default -> throw invalid("Unsupported update clause: " + clause);
+				}
+			}
+			if (actions.isEmpty()) {
+				throw invalid("Empty update expression");
+			}
+			return actions;
+		}
+
+		List<Path> parseProjection() {
+			List<Path> paths = new ArrayList<>();
+			do {
+				paths.add(parsePath());
+			}
+			while (accept(","));
+			expectEnd();
+			return paths;
+		}
+
+		private Condition parseOr() {
+			Condition condition = parseAnd();
+			while (acceptKeyword("OR")) {
+				Condition left = condition;
+				Condition right = parseAnd();
+				condition = (item, context) -> left.test(item, context) || right.test(item, context);
+			}
+			return condition;
+		}
+
+		private Condition parseAnd() {
+			Condition condition = parseNot();
+			while (acceptKeyword("AND")) {
+				Condition left = condition;
+				Condition right = parseNot();
+				condition = (item, context) -> left.test(item, context) && right.test(item, context);
+			}
+			return condition;
+		}
+
+		private Condition parseNot() {
+			if (acceptKeyword("NOT")) {
+				Condition condition = parseNot();
+				return (item, context) -> !condition.test(item, context);
+			}
+			return parsePrimary();
+		}
+
+		private Condition parsePrimary() {
+			if (accept("(")) {
+				Condition condition = parseOr();
+				expect(")");
+				return condition;
+			}
+			String token = peek();
+			if (token != null && "(".equals(peek(1))) {
+				switch (token) {
+					case "attribute_exists" -> {
+						Path path = parseFunctionPath();
+						return (item, context) -> path.resolve(item, context) != null;
+					}
+					case "attribute_not_exists" -> {
+						Path path = parseFunctionPath();
+						return (item, context) -> path.resolve(item, context) == null;
+					}
+					case "begins_with" -> {
+						Operand[] arguments = parseFunctionArguments(2);
+						return (item, context) -> {
+							AttributeValue value = arguments[0].resolve(item, context);
+							AttributeValue prefix = arguments[1].resolve(item, context);
+							return value != null && prefix != null
+									&& value.type() == AttributeValue.Type.S && prefix.type() == AttributeValue.Type.S
+									&& value.s().startsWith(prefix.s());
+						};
+					}
+					case "contains" -> {
+						Operand[] arguments = parseFunctionArguments(2);
+						return (item, context) -> {
+							AttributeValue container = arguments[0].resolve(item, context);
+							AttributeValue value = arguments[1].resolve(item, context);
+							return container != null && value != null && contains(container, value);
+						};
+					}
+					default -> throw invalid("Unsupported function: " + token);
+				}
+			}
+			Operand left = parseOperand();
+			if (acceptKeyword("BETWEEN")) {
+				Operand low = parseOperand();
+				expectKeyword("AND");
+				Operand high = parseOperand();
+				return (item, context) -> {
+					Integer lowResult = compareOperands(left, low, item, context);
+					Integer highResult = compareOperands(left, high, item, context);
+					return lowResult != null && lowResult >= 0 && highResult != null && highResult <= 0;
+				};
+			}
+			if (acceptKeyword("IN")) {
+				expect("(");
+				List<Operand> candidates = new ArrayList<>();
+				do {
+					candidates.add(parseOperand());
+				}
+				while (accept(","));
+				expect(")");
+				return (item, context) -> {
+					for (Operand candidate : candidates) {
+						Integer result = compareOperands(left, candidate, item, context);
+						if (result != null && result == 0) {
+							return true;
+						}
+					}
+					return false;
+				};
+			}
+			String comparator = next();
+			Operand right = parseOperand();
+			return switch (comparator) {
+				case "=" -> (item, context) -> {
+					Integer result = compareOperands(left, right, item, context);
+					return result != null && result == 0;
+				};
+				case "<>" -> (item, context) -> {
+					Integer result = compareOperands(left, right, item, context);
+					return result == null || result != 0;
+				};
+				case "<" -> (item, context) -> {
+					Integer result = compareOperands(left, right, item, context);
+					return result != null && result < 0;
+				};
+				case "<=" -> (item, context) -> {
+					Integer result = compareOperands(left, right, item, context);
+					return result != null && result <= 0;
+				};
+				case ">" -> (item, context) -> {
+					Integer result = compareOperands(left, right, item, context);
+					return result != null && result > 0;
+				};
+				case ">=" -> (item, context) -> {
+					Integer result = compareOperands(left, right, item, context);
+					return result != null && result >= 0;
+				};
+				default -> throw invalid("Unsupported comparator: " + comparator);
+			};
+		}
+
+		@Nullable
+		private static Integer compareOperands(Operand left, Operand right, Map<String, AttributeValue> item,
+				Context context) {
+
+			AttributeValue leftValue = left.resolve(item, context);
+			AttributeValue rightValue = right.resolve(item, context);
+			return leftValue != null && rightValue != null ? compare(leftValue, rightValue) : null;
+		}
+
+		private Operand parseSetValue() {
+			Operand left = parseSetOperand();
+			if (accept("+")) {
+				Operand right = parseSetOperand();
+				return (item, context) -> arithmetic(left.resolve(item, context), right.resolve(item, context), true);
+			}
+			if (accept("-")) {
+				Operand right = parseSetOperand();
+				return (item, context) -> arithmetic(left.resolve(item, context), right.resolve(item, context), false);
+			}
+			return left;
+		}
+
+		private Operand parseSetOperand() {
+			String token = peek();
+			if ("if_not_exists".equals(token) && "(".equals(peek(1))) {
+				Operand[] arguments = parseFunctionArguments(2);
+				return (item, context) -> {
+					AttributeValue value = arguments[0].resolve(item, context);
+					return value != null ? value : arguments[1].resolve(item, context);
+				};
+			}
+			if ("list_append".equals(token) && "(".equals(peek(1))) {
+				Operand[] arguments = parseFunctionArguments(2);
+				return (item, context) -> {
+					AttributeValue first = arguments[0].resolve(item, context);
+					AttributeValue second = arguments[1].resolve(item, context);
+					if (first == null || second == null
+							|| first.type() != AttributeValue.Type.L || second.type() != AttributeValue.Type.L) {
+
+						throw validation("An operand in the update expression has an incorrect data type");
+					}
+					List<AttributeValue> list = new ArrayList<>(first.l());
+					list.addAll(second.l());
+					return AttributeValue.fromL(list);
+				};
+			}
+			return parseOperand();
+		}
+
+		private Path parseFunctionPath() {
+			next();
+			expect("(");
+			Path path = parsePath();
+			expect(")");
+			return path;
+		}
+
+		private Operand[] parseFunctionArguments(int count) {
+			next();
+			expect("(");
+			Operand[] arguments = new Operand[count];
+			for (int i = 0; i < count; i++) {
+				if (i > 0) {
+					expect(",");
+				}
+				arguments[i] = parseOperand();
+			}
+			expect(")");
+			return arguments;
+		}
+
+		private Operand parseOperand() {
+			String token = next();
+			if (token.startsWith(":")) {
+				return (item, context) -> {
+					AttributeValue value = context.values.get(token);
+					if (value == null) {
+						throw validation("An expression attribute value used in expression is not defined; "
+								+ "attribute value: " + token);
+					}
+					return value;
+				};
+			}
+			return toPath(token);
+		}
+
+		private Path parsePath() {
+			return toPath(next());
+		}
+
+		private Path toPath(String token) {
+			if (!Character.isLetter(token.charAt(0)) && token.charAt(0) != '#' && token.charAt(0) != '_') {
+				throw invalid("Unexpected token: " + token);
+			}
+			return new Path(token);
+		}
+
+		@Nullable
+		private String peek() {
+			return peek(0);
+		}
+
+		@Nullable
+		private String peek(int ahead) {
+			int index = this.position + ahead;
+			return index < this.tokens.size() ? this.tokens.get(index) : null;
+		}
+
+		private String next() {
+			String token = peek();
+			if (token == null) {
+				throw invalid("Unexpected end of expression");
+			}
+			this.position++;
+			return token;
+		}
+
+		private boolean accept(String token) {
+			if (token.equals(peek())) {
+				this.position++;
+				return true;
+			}
+			return false;
+		}
+
+		private boolean acceptKeyword(String keyword) {
+			String token = peek();
+			if (token != null && keyword.equalsIgnoreCase(token)) {
+				this.position++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(String token) {
+			if (!accept(token)) {
+				throw invalid("Expected '" + token + "', but got '" + peek() + "'");
+			}
+		}
+
+		private void expectKeyword(String keyword) {
+			if (!acceptKeyword(keyword)) {
+				throw invalid("Expected '" + keyword + "', but got '" + peek() + "'");
+			}
+		}
+
+		private void expectEnd() {
+			if (peek() != null) {
+				throw invalid("Unexpected token: " + peek());
+			}
+		}
+
+		private DynamoDbException invalid(String message) {
+			return validation("Invalid expression [" + this.expression + "]: " + message);
+		}
+
+		private static List<String> tokenize(String expression) {
+			List<String> tokens = new ArrayList<>();
+			int length = expression.length();
+			int i = 0;
+			while (i < length) {
+				char c = expression.charAt(i);
+				if (Character.isWhitespace(c)) {
+					i++;
+				}
+				else if (c == '(' || c == ')' || c == ',' || c == '=' || c == '+' || c == '-') {
+					tokens.add(String.valueOf(c));
+					i++;
+				}
+				else if (c == '<' || c == '>') {
+					char following = i + 1 < length ? expression.charAt(i + 1) : 0;
+					if (following == '=' || (c == '<' && following == '>')) {
+						tokens.add(expression.substring(i, i + 2));
+						i += 2;
+					}
+					else {
+						tokens.add(String.valueOf(c));
+						i++;
+					}
+				}
+				else {
+					int start = i;
+					while (i < length && isNameCharacter(expression.charAt(i))) {
+						i++;
+					}
+					if (start == i) {
+						throw validation("Invalid expression [" + expression + "]: unexpected character '" + c + "'");
+					}
+					tokens.add(expression.substring(start, i));
+				}
+			}
+			return tokens;
+		}
+
+		private static boolean isNameCharacter(char c) {
+			return Character.isLetterOrDigit(c) || c == '_' || c == '#' || c == ':' || c == '.';
+		}
+
+	}
+
+}
@@ -0,0 +1,663 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.BillingModeSummary;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DeleteTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTimeToLiveRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTimeToLiveResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.ResourceInUseException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.model.TableStatus;
+import software.amazon.awssdk.services.dynamodb.model.TimeToLiveDescription;
+import software.amazon.awssdk.services.dynamodb.model.TimeToLiveStatus;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateTimeToLiveRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateTimeToLiveResponse;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+import software.amazon.awssdk.services.dynamodb.waiters.DynamoDbAsyncWaiter;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * The in-memory {@link DynamoDbAsyncClient} for offline functional and load tests.
+ * <p>
+ * Supports the tables with a hash key and an optional range key,
+ * the single item operations with condition expressions (evaluated atomically with the write)
+ * and all the {@link ReturnValue} options, {@code BatchGetItem}, {@code BatchWriteItem},
+ * and {@code Query} and {@code Scan} with filter and projection expressions and the pagination.
+ * The expressions support is described in the {@link DynamoDbExpressions}.
+ * <p>
+ * With the time to live enabled on the table, the expired items are treated as absent immediately,
+ * when AWS deletes them eventually within a few days.
+ * <p>
+ * The throttling can be injected via the {@link #setThrottling(Predicate)}:
+ * the single item requests, queries and scans are rejected with the {@link ProvisionedThroughputExceededException},
+ * and the batch requests return all their items as unprocessed.
+ * <p>
+ * The secondary indexes, transactions, streams and PartiQL are not supported.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+public class InMemoryDynamoDbClient extends AbstractInMemoryClient implements DynamoDbAsyncClient {
+
+	private static final int BATCH_GET_MAX_KEYS = 100;
+
+	private static final int BATCH_WRITE_MAX_ITEMS = 25;
+
+	private final Map<String, TableState> tables = new ConcurrentHashMap<>();
+
+	private final DynamoDbAsyncWaiter waiter =
+			DynamoDbAsyncWaiter.builder()
+					.client(this)
+					.scheduledExecutorService(SCHEDULER)
+					.build();
+
+	private volatile Predicate<DynamoDbRequest> throttling = request -> false;
+
+	/**
+	 * Set the predicate to reject the requests as throttled.
+	 * @param throttling the predicate to decide if the request is throttled.
+	 */
+	public void setThrottling(Predicate<DynamoDbRequest> throttling) {
+		Assert.notNull(throttling, "'throttling' must not be null");
+		this.throttling = throttling;
+	}
+
+	@Override
+	public String serviceName() {
+		return SERVICE_NAME;
+	}
+
+	@Override
+	public DynamoDbAsyncWaiter waiter() {
+		return this.waiter;
+	}
+
+	@Override
+	public CompletableFuture<CreateTableResponse> createTable(CreateTableRequest request) {
+		return respond(() -> {
+			TableState table = new TableState(request);
+			if (this.tables.putIfAbsent(request.tableName(), table) != null) {
+				throw ResourceInUseException.builder()
+						.message("Table already exists: " + request.tableName())
+						.build();
+			}
+			return CreateTableResponse.builder()
+					.tableDescription(table.describe())
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DescribeTableResponse> describeTable(DescribeTableRequest request) {
+		return respond(() ->
+				DescribeTableResponse.builder()
+						.table(table(request.tableName()).describe())
+						.build());
+	}
+
+	@Override
+	public CompletableFuture<DeleteTableResponse> deleteTable(DeleteTableRequest request) {
+		return respond(() -> {
+			TableState table = table(request.tableName());
+			this.tables.remove(request.tableName());
+			return DeleteTableResponse.builder()
+					.tableDescription(table.describe())
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<UpdateTimeToLiveResponse> updateTimeToLive(UpdateTimeToLiveRequest request) {
+		return respond(() -> {
+			TableState table = table(request.tableName());
+			table.ttlAttribute =
+					Boolean.TRUE.equals(request.timeToLiveSpecification().enabled())
+							? request.timeToLiveSpecification().attributeName()
+							: null;
+			return UpdateTimeToLiveResponse.builder()
+					.timeToLiveSpecification(request.timeToLiveSpecification())
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DescribeTimeToLiveResponse> describeTimeToLive(DescribeTimeToLiveRequest request) {
+		return respond(() -> {
+			String ttlAttribute = table(request.tableName()).ttlAttribute;
+			return DescribeTimeToLiveResponse.builder()
+					.timeToLiveDescription(
+							TimeToLiveDescription.builder()
+									.attributeName(ttlAttribute)
+									.timeToLiveStatus(ttlAttribute != null
+											? TimeToLiveStatus.ENABLED
+											: TimeToLiveStatus.DISABLED)
+									.build())
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+		return respond(() -> {
+			throttle(request);
+			TableState table = table(request.tableName());
+			Map<String, AttributeValue> item = table.live(table.items.get(table.key(request.key())));
+			GetItemResponse.Builder response = GetItemResponse.builder();
+			if (item != null) {
+				response.item(
+						DynamoDbExpressions.project(request.projectionExpression(), item,
+								request.expressionAttributeNames()));
+			}
+			return response.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<PutItemResponse> putItem(PutItemRequest request) {
+		return respond(() -> {
+			throttle(request);
+			TableState table = table(request.tableName());
+			Map<String, AttributeValue> newItem = Collections.unmodifiableMap(new HashMap<>(request.item()));
+			AtomicReference<Map<String, AttributeValue>> oldItem = new AtomicReference<>();
+			table.items.compute(table.key(newItem), (key, existing) -> {
+				Map<String, AttributeValue> current = table.live(existing);
+				checkCondition(request.conditionExpression(), current, request.expressionAttributeNames(),
+						request.expressionAttributeValues());
+				oldItem.set(current);
+				return newItem;
+			});
+			PutItemResponse.Builder response = PutItemResponse.builder();
+			if (ReturnValue.ALL_OLD.equals(request.returnValues()) && oldItem.get() != null) {
+				response.attributes(oldItem.get());
+			}
+			return response.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<UpdateItemResponse> updateItem(UpdateItemRequest request) {
+		return respond(() -> {
+			throttle(request);
+			TableState table = table(request.tableName());
+			AtomicReference<Map<String, AttributeValue>> oldItem = new AtomicReference<>();
+			AtomicReference<Map<String, AttributeValue>> newItem = new AtomicReference<>();
+			AtomicReference<Set<String>> updatedAttributes = new AtomicReference<>(Collections.emptySet());
+			table.items.compute(table.key(request.key()), (key, existing) -> {
+				Map<String, AttributeValue> current = table.live(existing);
+				checkCondition(request.conditionExpression(), current, request.expressionAttributeNames(),
+						request.expressionAttributeValues());
+				Map<String, AttributeValue> item = new HashMap<>(current != null ? current : request.key());
+				if (request.updateExpression() != null) {
+					Set<String> updated =
+							DynamoDbExpressions.update(request.updateExpression(), item,
+									request.expressionAttributeNames(), request.expressionAttributeValues());
+					for (String keyAttribute : table.keyAttributes) {
+						if (updated.contains(keyAttribute)) {
+							throw DynamoDbExpressions.validation("Cannot update attribute " + keyAttribute
+									+ ". This attribute is part of the key");
+						}
+					}
+					updatedAttributes.set(updated);
+				}
+				oldItem.set(current);
+				newItem.set(Collections.unmodifiableMap(item));
+				return newItem.get();
+			});
+			Map<String, AttributeValue> attributes =
+					switch (request.returnValues() != null ? request.returnValues() : ReturnValue.NONE) {
+						case ALL_OLD -> oldItem.get();
+						case UPDATED_OLD -> select(oldItem.get(), updatedAttributes.get());
+						case ALL_NEW -> newItem.get();
+						case UPDATED_NEW -> select(newItem.get(), updatedAttributes.get());
+						default -> null;
+					};
+			UpdateItemResponse.Builder response = UpdateItemResponse.builder();
+			if (attributes != null && !attributes.isEmpty()) {
+				response.attributes(attributes);
+			}
+			return response.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DeleteItemResponse> deleteItem(DeleteItemRequest request) {
+		return respond(() -> {
+			throttle(request);
+			TableState table = table(request.tableName());
+			AtomicReference<Map<String, AttributeValue>> oldItem = new AtomicReference<>();
+			table.items.compute(table.key(request.key()), (key, existing) -> {
+				Map<String, AttributeValue> current = table.live(existing);
+				checkCondition(request.conditionExpression(), current, request.expressionAttributeNames(),
+						request.expressionAttributeValues());
+				oldItem.set(current);
+				return null;
+			});
+			DeleteItemResponse.Builder response = DeleteItemResponse.builder();
+			if (ReturnValue.ALL_OLD.equals(request.returnValues()) && oldItem.get() != null) {
+				response.attributes(oldItem.get());
+			}
+			return response.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<BatchGetItemResponse> batchGetItem(BatchGetItemRequest request) {
+		return respond(() -> {
+			int keys = 0;
+			for (KeysAndAttributes keysAndAttributes : request.requestItems().values()) {
+				keys += keysAndAttributes.keys().size();
+			}
+			if (keys > BATCH_GET_MAX_KEYS) {
+				throw DynamoDbExpressions.validation("Too many items requested for the BatchGetItem call");
+			}
+			if (this.throttling.test(request)) {
+				return BatchGetItemResponse.builder()
+						.responses(Collections.emptyMap())
+						.unprocessedKeys(request.requestItems())
+						.build();
+			}
+			Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+			request.requestItems().forEach((tableName, keysAndAttributes) -> {
+				TableState table = table(tableName);
+				List<Map<String, AttributeValue>> items = new ArrayList<>();
+				for (Map<String, AttributeValue> key : keysAndAttributes.keys()) {
+					Map<String, AttributeValue> item = table.live(table.items.get(table.key(key)));
+					if (item != null) {
+						items.add(
+								DynamoDbExpressions.project(keysAndAttributes.projectionExpression(), item,
+										keysAndAttributes.expressionAttributeNames()));
+					}
+				}
+				responses.put(tableName, items);
+			});
+			return BatchGetItemResponse.builder()
+					.responses(responses)
+					.unprocessedKeys(Collections.emptyMap())
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<BatchWriteItemResponse> batchWriteItem(BatchWriteItemRequest request) {
+		return respond(() -> {
+			int items = 0;
+			for (List<WriteRequest> writeRequests : request.requestItems().values()) {
+				items += writeRequests.size();
+			}
+			if (items > BATCH_WRITE_MAX_ITEMS) {
+				throw DynamoDbExpressions.validation("Too many items requested for the BatchWriteItem call");
+			}
+			if (this.throttling.test(request)) {
+				return BatchWriteItemResponse.builder()
+						.unprocessedItems(request.requestItems())
+						.build();
+			}
+			request.requestItems().forEach((tableName, writeRequests) -> {
+				TableState table = table(tableName);
+				for (WriteRequest writeRequest : writeRequests) {
+					if (writeRequest.putRequest() != null) {
+						Map<String, AttributeValue> item = writeRequest.putRequest().item();
+						table.items.put(table.key(item), Collections.unmodifiableMap(new HashMap<>(item)));
+					}
+					else if (writeRequest.deleteRequest() != null) {
+						table.items.remove(table.key(writeRequest.deleteRequest().key()));
+					}
+				}
+			});
+			return BatchWriteItemResponse.builder()
+					.unprocessedItems(Collections.emptyMap())
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<QueryResponse> query(QueryRequest request) {
+		return respond(() -> {
+			throttle(request);
+			if (request.keyConditionExpression() == null) {
+				throw DynamoDbExpressions.validation("Either the KeyConditions or KeyConditionExpression "
+						+ "parameter must be specified in the request");
+			}
+			TableState table = table(request.tableName());
+			List<Map<String, AttributeValue>> candidates = new ArrayList<>();
+			for (Map<String, AttributeValue> item : table.items.values()) {
+				item = table.live(item);
+				if (item != null
+						&& DynamoDbExpressions.matches(request.keyConditionExpression(), item,
+						request.expressionAttributeNames(), request.expressionAttributeValues())) {
+
+					candidates.add(item);
+				}
+			}
+			Comparator<Map<String, AttributeValue>> order = table.order;
+			if (Boolean.FALSE.equals(request.scanIndexForward())) {
+				order = order.reversed();
+			}
+			Page page =
+					page(table, candidates, order, request.exclusiveStartKey(), request.limit(),
+							request.filterExpression(), request.projectionExpression(),
+							request.expressionAttributeNames(), request.expressionAttributeValues());
+			QueryResponse.Builder response =
+					QueryResponse.builder()
+							.count(page.items.size())
+							.scannedCount(page.scannedCount)
+							.lastEvaluatedKey(page.lastEvaluatedKey);
+			if (!Select.COUNT.equals(request.select())) {
+				response.items(page.items);
+			}
+			return response.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<ScanResponse> scan(ScanRequest request) {
+		return respond(() -> {
+			throttle(request);
+			TableState table = table(request.tableName());
+			List<Map<String, AttributeValue>> candidates = new ArrayList<>();
+			for (Map<String, AttributeValue> item : table.items.values()) {
+				item = table.live(item);
+				if (item != null) {
+					candidates.add(item);
+				}
+			}
+			Page page =
+					page(table, candidates, table.order, request.exclusiveStartKey(), request.limit(),
+							request.filterExpression(), request.projectionExpression(),
+							request.expressionAttributeNames(), request.expressionAttributeValues());
+			ScanResponse.Builder response =
+					ScanResponse.builder()
+							.count(page.items.size())
+							.scannedCount(page.scannedCount)
+							.lastEvaluatedKey(page.lastEvaluatedKey);
+			if (!Select.COUNT.equals(request.select())) {
+				response.items(page.items);
+			}
+			return response.build();
+		});
+	}
+
+	private void throttle(DynamoDbRequest request) {
+		if (this.throttling.test(request)) {
+			throw ProvisionedThroughputExceededException.builder()
+					.message("The level of configured provisioned throughput for the table was exceeded.")
+					.build();
+		}
+	}
+
+	private TableState table(@Nullable String tableName) {
+		TableState table = tableName != null ? this.tables.get(tableName) : null;
+		if (table == null) {
+			throw ResourceNotFoundException.builder()
+					.message("Requested resource not found: Table: " + tableName + " not found")
+					.build();
+		}
+		return table;
+	}
+
+	private static void checkCondition(@Nullable String conditionExpression,
+			@Nullable Map<String, AttributeValue> item, Map<String, String> names,
+			Map<String, AttributeValue> values) {
+
+		if (!DynamoDbExpressions.matches(conditionExpression, item != null ? item : Collections.emptyMap(),
+				names, values)) {
+
+			throw ConditionalCheckFailedException.builder()
+					.message("The conditional request failed")
+					.build();
+		}
+	}
+
+	@Nullable
+	private static Map<String, AttributeValue> select(@Nullable Map<String, AttributeValue> item,
+			Set<String> attributes) {
+
+		if (item == null) {
+			return null;
+		}
+		Map<String, AttributeValue> selected = new HashMap<>();
+		for (String attribute : attributes) {
+			AttributeValue value = item.get(attribute);
+			if (value != null) {
+				selected.put(attribute, value);
+			}
+		}
+		return selected;
+	}
+
+	/**
+	 * Sort the candidates, skip them up to the exclusive start key, then apply the limit
+	 * (the number of evaluated items), the filter and the projection.
+	 */
+	private static Page page(TableState table, List<Map<String, AttributeValue>> candidates,
+			Comparator<Map<String, AttributeValue>> order, Map<String, AttributeValue> exclusiveStartKey,
+			@Nullable Integer limit, @Nullable String filterExpression, @Nullable String projectionExpression,
+			Map<String, String> names, Map<String, AttributeValue> values) {
+
+		candidates.sort(order);
+		int from = 0;
+		if (!exclusiveStartKey.isEmpty()) {
+			while (from < candidates.size() && order.compare(candidates.get(from), exclusiveStartKey) <= 0) {
+				from++;
+			}
+		}
+		int to = limit != null ? Math.min(candidates.size(), from + limit) : candidates.size();
+		List<Map<String, AttributeValue>> items = new ArrayList<>();
+		for (Map<String, AttributeValue> item : candidates.subList(from, to)) {
+			if (DynamoDbExpressions.matches(filterExpression, item, names, values)) {
+				items.add(DynamoDbExpressions.project(projectionExpression, item, names));
+			}
+		}
+		Map<String, AttributeValue> lastEvaluatedKey = null;
+		if (to < candidates.size() && to > from) {
+			lastEvaluatedKey = new HashMap<>();
+			Map<String, AttributeValue> lastEvaluated = candidates.get(to - 1);
+			for (String keyAttribute : table.keyAttributes) {
+				lastEvaluatedKey.put(keyAttribute, lastEvaluated.get(keyAttribute));
+			}
+		}
+		return new Page(items, to - from, lastEvaluatedKey);
+	}
+
+	/**
+	 * The result of the query or scan.
+	 */
+	private static final class Page {
+
+		private final List<Map<String, AttributeValue>> items;
+
+		private final int scannedCount;
+
+		@Nullable
+		private final Map<String, AttributeValue> lastEvaluatedKey;
+
+		Page(List<Map<String, AttributeValue>> items, int scannedCount,
+				@Nullable Map<String, AttributeValue> lastEvaluatedKey) {
+
+			this.items = items;
+			this.scannedCount = scannedCount;
+			this.lastEvaluatedKey = lastEvaluatedKey;
+		}
+
+	}
+
+	/**
+	 * The table: its schema and items by their primary key values.
+	 */
+	private static final class TableState {
+
+		private final String name;
+
+		private final String arn;
+
+		private final Instant creationDateTime = Instant.now();
+
+		private final List<KeySchemaElement> keySchema;
+
+		private final List<AttributeDefinition> attributeDefinitions;
+
+		private final BillingMode billingMode;
+
+		private final List<String> keyAttributes = new ArrayList<>();
+
+		private final Comparator<Map<String, AttributeValue>> order;
+
+		private final Map<List<AttributeValue>, Map<String, AttributeValue>> items = new ConcurrentHashMap<>();
+
+		@Nullable
+		private volatile String ttlAttribute;
+
+		TableState(CreateTableRequest request) {
+			this.name = request.tableName();
+			this.arn = "arn:aws:dynamodb:" + REGION + ":" + ACCOUNT_ID + ":table/" + this.name;
+			this.keySchema = request.keySchema();
+			this.attributeDefinitions = request.attributeDefinitions();
+			this.billingMode = request.billingMode() != null ? request.billingMode() : BillingMode.PROVISIONED;
+			String hashKey = null;
+			String rangeKey = null;
+			for (KeySchemaElement element : this.keySchema) {
+				if (KeyType.HASH.equals(element.keyType())) {
+					hashKey = element.attributeName();
+				}
+				else if (KeyType.RANGE.equals(element.keyType())) {
+					rangeKey = element.attributeName();
+				}
+			}
+			if (hashKey == null) {
+				throw DynamoDbExpressions.validation("No Hash Key specified in schema. "
+						+ "All Dynamo DB tables must have exactly one hash key");
+			}
+			this.keyAttributes.add(hashKey);
+			if (rangeKey != null) {
+				this.keyAttributes.add(rangeKey);
+			}
+			Comparator<Map<String, AttributeValue>> order = null;
+			for (String keyAttribute : this.keyAttributes) {
+				Comparator<Map<String, AttributeValue>> byAttribute =
+						(left, right) ->
+								Objects.requireNonNullElse(
+										DynamoDbExpressions.compare(left.get(keyAttribute), right.get(keyAttribute)),
+										0);
+				order = order != null ? order.thenComparing(byAttribute) : byAttribute;
+			}
+			this.order = order;
+		}
+
+		List<AttributeValue> key(Map<String, AttributeValue> attributes) {
+			List<AttributeValue> key = new ArrayList<>(this.keyAttributes.size());
+			for (String keyAttribute : this.keyAttributes) {
+				AttributeValue value = attributes.get(keyAttribute);
+				if (value == null) {
+					throw DynamoDbExpressions.validation("One of the required keys was not given a value");
+				}
+				key.add(value);
+			}
+			return key;
+		}
+
+		/**
+		 * Return the item if it is present and not expired.
+		 */
+		@Nullable
+		Map<String, AttributeValue> live(@Nullable Map<String, AttributeValue> item) {
+			String ttl = this.ttlAttribute;
+			if (item != null && ttl != null) {
+				AttributeValue expireAt = item.get(ttl);
+				if (expireAt != null && expireAt.n() != null
+						&& new BigDecimal(expireAt.n()).longValue() < Instant.now().getEpochSecond()) {
+
+					return null;
+				}
+			}
+			return item;
+		}
+
+		TableDescription describe() {
+			long itemCount = 0;
+			for (Map<String, AttributeValue> item : this.items.values()) {
+				if (live(item) != null) {
+					itemCount++;
+				}
+			}
+			return TableDescription.builder()
+					.tableName(this.name)
+					.tableArn(this.arn)
+					.tableStatus(TableStatus.ACTIVE)
+					.creationDateTime(this.creationDateTime)
+					.keySchema(this.keySchema)
+					.attributeDefinitions(this.attributeDefinitions)
+					.billingModeSummary(BillingModeSummary.builder().billingMode(this.billingMode).build())
+					.itemCount(itemCount)
+					.build();
+		}
+
+	}
+
+}
@@ -0,0 +1,1078 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.ChildShard;
+import software.amazon.awssdk.services.kinesis.model.Consumer;
+import software.amazon.awssdk.services.kinesis.model.ConsumerDescription;
+import software.amazon.awssdk.services.kinesis.model.ConsumerStatus;
+import software.amazon.awssdk.services.kinesis.model.CreateStreamRequest;
+import software.amazon.awssdk.services.kinesis.model.CreateStreamResponse;
+import software.amazon.awssdk.services.kinesis.model.DeleteStreamRequest;
+import software.amazon.awssdk.services.kinesis.model.DeleteStreamResponse;
+import software.amazon.awssdk.services.kinesis.model.DeregisterStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.DeregisterStreamConsumerResponse;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamConsumerResponse;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryResponse;
+import software.amazon.awssdk.services.kinesis.model.ExpiredIteratorException;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.kinesis.model.HashKeyRange;
+import software.amazon.awssdk.services.kinesis.model.InvalidArgumentException;
+import software.amazon.awssdk.services.kinesis.model.KinesisRequest;
+import software.amazon.awssdk.services.kinesis.model.LimitExceededException;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.MergeShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.MergeShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.kinesis.model.PutRecordRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.RegisterStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.RegisterStreamConsumerResponse;
+import software.amazon.awssdk.services.kinesis.model.ResourceInUseException;
+import software.amazon.awssdk.services.kinesis.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kinesis.model.SequenceNumberRange;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.model.SplitShardRequest;
+import software.amazon.awssdk.services.kinesis.model.SplitShardResponse;
+import software.amazon.awssdk.services.kinesis.model.StartingPosition;
+import software.amazon.awssdk.services.kinesis.model.StreamDescriptionSummary;
+import software.amazon.awssdk.services.kinesis.model.StreamStatus;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEvent;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEventStream;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardRequest;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponse;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponseHandler;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * The in-memory {@link KinesisAsyncClient} for offline functional and load tests.
+ * <p>
+ * Supports streams with shards distributed over the hash key space by the MD5 of the partition key
+ * (or the explicit hash key), {@code PutRecord(s)}, shard iterators of all the types with
+ * an expiration, {@code GetRecords} with {@code MillisBehindLatest} and {@code ChildShards} for closed shards,
+ * {@code ListShards} with pagination, and resharding via {@code SplitShard} and {@code MergeShards}.
+ * The records are never trimmed from the shards.
+ * <p>
+ * The enhanced fan-out is supported via {@code RegisterStreamConsumer} (the stream consumers are {@code ACTIVE}
+ * immediately) and {@code SubscribeToShard}: the records are pushed to the subscriber as soon as they are put
+ * into the shard, on the subscriber demand. As in Kinesis, an empty event is pushed if there are no new records
+ * for 5 seconds, and the subscription is completed after 5 minutes or when the closed shard is read to its end.
+ * <p>
+ * The throttling can be injected via the {@link #setThrottling(Predicate)}:
+ * the data plane requests are rejected with the {@link ProvisionedThroughputExceededException}
+ * and the control plane requests with the {@link LimitExceededException}.
+ * <p>
+ * The stream management API other than create/delete is not supported.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+public class InMemoryKinesisClient extends AbstractInMemoryClient implements KinesisAsyncClient {
+
+	private static final BigInteger MAX_HASH_KEY = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+
+	private static final String SEQUENCE_NUMBER_PREFIX = "4959033827149025660855969253836157";
+
+	private static final int SEQUENCE_NUMBER_COUNTER_DIGITS = 22;
+
+	private static final int DEFAULT_GET_RECORDS_LIMIT = 10000;
+
+	private static final int DEFAULT_LIST_SHARDS_LIMIT = 1000;
+
+	private static final String STREAM_ARN_RESOURCE = ":stream/";
+
+	private static final long SUBSCRIPTION_HEARTBEAT_MILLIS = Duration.ofSeconds(5).toMillis();
+
+	private static final long SUBSCRIPTION_TTL_MILLIS = Duration.ofMinutes(5).toMillis();
+
+	private static final ExecutorService SUBSCRIPTION_EXECUTOR =
+			Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "in-memory-kinesis-subscription");
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	private static final ThreadLocal<MessageDigest> MD5 =
+			ThreadLocal.withInitial(() -> {
+				try {
+					return MessageDigest.getInstance("MD5");
+				}
+				catch (NoSuchAlgorithmException ex) {
+					throw new IllegalStateException(ex);
+				}
+			});
+
+	private final Map<String, StreamState> streams = new ConcurrentHashMap<>();
+
+	private final AtomicLong sequenceNumbers = new AtomicLong();
+
+	private final Set<ShardSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+	private volatile long iteratorTtlMillis = Duration.ofMinutes(5).toMillis();
+
+	private volatile Predicate<KinesisRequest> throttling = request -> false;
+
+	/**
+	 * Set the time after which the shard iterators expire.
+	 * Defaults to 5 minutes as in Kinesis.
+	 * @param iteratorTtl the shard iterator time to live.
+	 */
+	public void setIteratorTtl(Duration iteratorTtl) {
+		Assert.notNull(iteratorTtl, "'iteratorTtl' must not be null");
+		this.iteratorTtlMillis = iteratorTtl.toMillis();
+	}
+
+	/**
+	 * Set the predicate to reject the requests as throttled, e.g. every N-th {@code GetRecords}
+	 * or randomly with some probability.
+	 * @param throttling the predicate to decide if the request is throttled.
+	 */
+	public void setThrottling(Predicate<KinesisRequest> throttling) {
+		Assert.notNull(throttling, "'throttling' must not be null");
+		this.throttling = throttling;
+	}
+
+	@Override
+	public String serviceName() {
+		return SERVICE_NAME;
+	}
+
+	@Override
+	public CompletableFuture<CreateStreamResponse> createStream(CreateStreamRequest request) {
+		return respond(() -> {
+			int shardCount = request.shardCount() != null ? request.shardCount() : 1;
+			if (shardCount < 1) {
+				throw InvalidArgumentException.builder().message("The shard count must be positive").build();
+			}
+			StreamState stream = new StreamState(request.streamName());
+			BigInteger step = MAX_HASH_KEY.divide(BigInteger.valueOf(shardCount));
+			for (int i = 0; i < shardCount; i++) {
+				BigInteger start = step.multiply(BigInteger.valueOf(i));
+				BigInteger end = i == shardCount - 1 ? MAX_HASH_KEY : start.add(step).subtract(BigInteger.ONE);
+				stream.addShard(new ShardState(stream.nextShardId(), null, null, start, end, nextSequenceNumber()));
+			}
+			if (this.streams.putIfAbsent(request.streamName(), stream) != null) {
+				throw ResourceInUseException.builder()
+						.message("Stream " + request.streamName() + " already exists")
+						.build();
+			}
+			return CreateStreamResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DeleteStreamResponse> deleteStream(DeleteStreamRequest request) {
+		return respond(() -> {
+			if (this.streams.remove(request.streamName()) == null) {
+				throw streamNotFound(request.streamName());
+			}
+			return DeleteStreamResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DescribeStreamSummaryResponse> describeStreamSummary(
+			DescribeStreamSummaryRequest request) {
+
+		return respond(() -> {
+			throttleControlPlane(request);
+			StreamState stream = stream(request.streamName());
+			return DescribeStreamSummaryResponse.builder()
+					.streamDescriptionSummary(
+							StreamDescriptionSummary.builder()
+									.streamName(stream.name)
+									.streamARN(stream.arn)
+									.streamStatus(StreamStatus.ACTIVE)
+									.streamCreationTimestamp(stream.creationTimestamp)
+									.retentionPeriodHours(24)
+									.openShardCount(stream.openShards.size())
+									.consumerCount(stream.consumers.size())
+									.enhancedMonitoring(Collections.emptyList())
+									.build())
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<ListShardsResponse> listShards(ListShardsRequest request) {
+		return respond(() -> {
+			throttleControlPlane(request);
+			String streamName = request.streamName();
+			int offset = 0;
+			if (request.nextToken() != null) {
+				String[] token = request.nextToken().split("/");
+				if (token.length != 2) {
+					throw InvalidArgumentException.builder().message("Invalid NextToken").build();
+				}
+				streamName = token[0];
+				offset = Integer.parseInt(token[1]);
+			}
+			StreamState stream = stream(streamName);
+			List<ShardState> shards = stream.shards;
+			int limit = request.maxResults() != null ? request.maxResults() : DEFAULT_LIST_SHARDS_LIMIT;
+			int end = Math.min(shards.size(), offset + limit);
+			List<Shard> page = new ArrayList<>(end - offset);
+			for (ShardState shard : shards.subList(offset, end)) {
+				page.add(shard.toShard());
+			}
+			return ListShardsResponse.builder()
+					.shards(page)
+					.nextToken(end < shards.size() ? stream.name + "/" + end : null)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<SplitShardResponse> splitShard(SplitShardRequest request) {
+		return respond(() -> {
+			throttleControlPlane(request);
+			StreamState stream = stream(request.streamName());
+			BigInteger newStartingHashKey = new BigInteger(request.newStartingHashKey());
+			synchronized (stream) {
+				ShardState parent = stream.openShard(request.shardToSplit());
+				if (newStartingHashKey.compareTo(parent.startingHashKey) <= 0
+						|| newStartingHashKey.compareTo(parent.endingHashKey) > 0) {
+
+					throw InvalidArgumentException.builder()
+							.message("The NewStartingHashKey is out of the shard hash key range")
+							.build();
+				}
+				ShardState left =
+						new ShardState(stream.nextShardId(), parent.shardId, null, parent.startingHashKey,
+								newStartingHashKey.subtract(BigInteger.ONE), nextSequenceNumber());
+				ShardState right =
+						new ShardState(stream.nextShardId(), parent.shardId, null, newStartingHashKey,
+								parent.endingHashKey, nextSequenceNumber());
+				parent.close(nextSequenceNumber(), List.of(left, right));
+				stream.addShard(left);
+				stream.addShard(right);
+			}
+			return SplitShardResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<MergeShardsResponse> mergeShards(MergeShardsRequest request) {
+		return respond(() -> {
+			throttleControlPlane(request);
+			StreamState stream = stream(request.streamName());
+			synchronized (stream) {
+				ShardState parent = stream.openShard(request.shardToMerge());
+				ShardState adjacent = stream.openShard(request.adjacentShardToMerge());
+				ShardState lower = parent.startingHashKey.compareTo(adjacent.startingHashKey) < 0 ? parent : adjacent;
+				ShardState upper = lower == parent ? adjacent : parent;
+				if (!lower.endingHashKey.add(BigInteger.ONE).equals(upper.startingHashKey)) {
+					throw InvalidArgumentException.builder()
+							.message("The shards " + parent.shardId + " and " + adjacent.shardId + " are not adjacent")
+							.build();
+				}
+				ShardState child =
+						new ShardState(stream.nextShardId(), parent.shardId, adjacent.shardId,
+								lower.startingHashKey, upper.endingHashKey, nextSequenceNumber());
+				String endingSequenceNumber = nextSequenceNumber();
+				parent.close(endingSequenceNumber, List.of(child));
+				adjacent.close(endingSequenceNumber, List.of(child));
+				stream.addShard(child);
+			}
+			return MergeShardsResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<PutRecordResponse> putRecord(PutRecordRequest request) {
+		return respond(() -> {
+			throttleDataPlane(request);
+			StreamState stream = stream(request.streamName());
+			PutRecordsResultEntry result =
+					stream.put(request.partitionKey(), request.explicitHashKey(), request.data());
+			return PutRecordResponse.builder()
+					.shardId(result.shardId())
+					.sequenceNumber(result.sequenceNumber())
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<PutRecordsResponse> putRecords(PutRecordsRequest request) {
+		return respond(() -> {
+			throttleDataPlane(request);
+			if (request.records().size() > 500) {
+				throw InvalidArgumentException.builder()
+						.message("The PutRecords request must not contain more than 500 records")
+						.build();
+			}
+			StreamState stream = stream(request.streamName());
+			List<PutRecordsResultEntry> results = new ArrayList<>(request.records().size());
+			for (PutRecordsRequestEntry entry : request.records()) {
+				results.add(stream.put(entry.partitionKey(), entry.explicitHashKey(), entry.data()));
+			}
+			return PutRecordsResponse.builder()
+					.records(results)
+					.failedRecordCount(0)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<GetShardIteratorResponse> getShardIterator(GetShardIteratorRequest request) {
+		return respond(() -> {
+			throttleDataPlane(request);
+			StreamState stream = stream(request.streamName());
+			ShardState shard = stream.shard(request.shardId());
+			int position =
+					shard.positionOf(request.shardIteratorType(), request.startingSequenceNumber(),
+							request.timestamp());
+			return GetShardIteratorResponse.builder()
+					.shardIterator(shardIterator(stream.name, shard.shardId, position))
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<GetRecordsResponse> getRecords(GetRecordsRequest request) {
+		return respond(() -> {
+			throttleDataPlane(request);
+			String[] iterator = request.shardIterator() != null ? request.shardIterator().split("/") : new String[0];
+			if (iterator.length != 4) {
+				throw InvalidArgumentException.builder()
+						.message("Invalid ShardIterator: " + request.shardIterator())
+						.build();
+			}
+			if (System.currentTimeMillis() - Long.parseLong(iterator[3]) > this.iteratorTtlMillis) {
+				throw ExpiredIteratorException.builder()
+						.message("Iterator expired. The iterator was created at time " + Instant.ofEpochMilli(
+								Long.parseLong(iterator[3])))
+						.build();
+			}
+			StreamState stream = stream(iterator[0]);
+			ShardState shard = stream.shard(iterator[1]);
+			int position = Integer.parseInt(iterator[2]);
+			int limit = request.limit() != null ? request.limit() : DEFAULT_GET_RECORDS_LIMIT;
+			ShardBatch batch = shard.read(position, limit);
+			GetRecordsResponse.Builder response =
+					GetRecordsResponse.builder()
+							.records(batch.records)
+							.millisBehindLatest(batch.millisBehindLatest);
+			if (batch.childShards != null) {
+				response.childShards(batch.childShards);
+			}
+			else {
+				response.nextShardIterator(shardIterator(stream.name, shard.shardId, batch.nextPosition));
+			}
+			return response.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<RegisterStreamConsumerResponse> registerStreamConsumer(
+			RegisterStreamConsumerRequest request) {
+
+		return respond(() -> {
+			throttleControlPlane(request);
+			StreamState stream = streamByArn(request.streamARN());
+			Instant creationTimestamp = Instant.now();
+			ConsumerDescription consumer =
+					ConsumerDescription.builder()
+							.consumerName(request.consumerName())
+							.consumerARN(stream.arn + "/consumer/" + request.consumerName() + ':'
+									+ creationTimestamp.getEpochSecond())
+							.consumerStatus(ConsumerStatus.ACTIVE)
+							.consumerCreationTimestamp(creationTimestamp)
+							.streamARN(stream.arn)
+							.build();
+			if (stream.consumers.putIfAbsent(request.consumerName(), consumer) != null) {
+				throw ResourceInUseException.builder()
+						.message("Consumer " + request.consumerName() + " under stream " + stream.name
+								+ " already exists for account " + ACCOUNT_ID + ".")
+						.build();
+			}
+			return RegisterStreamConsumerResponse.builder()
+					.consumer(
+							Consumer.builder()
+									.consumerName(consumer.consumerName())
+									.consumerARN(consumer.consumerARN())
+									.consumerStatus(consumer.consumerStatus())
+									.consumerCreationTimestamp(consumer.consumerCreationTimestamp())
+									.build())
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DescribeStreamConsumerResponse> describeStreamConsumer(
+			DescribeStreamConsumerRequest request) {
+
+		return respond(() -> {
+			throttleControlPlane(request);
+			return DescribeStreamConsumerResponse.builder()
+					.consumerDescription(
+							consumer(request.consumerARN(), request.streamARN(), request.consumerName()))
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DeregisterStreamConsumerResponse> deregisterStreamConsumer(
+			DeregisterStreamConsumerRequest request) {
+
+		return respond(() -> {
+			throttleControlPlane(request);
+			ConsumerDescription consumer =
+					consumer(request.consumerARN(), request.streamARN(), request.consumerName());
+			streamByArn(consumer.streamARN()).consumers.remove(consumer.consumerName());
+			for (ShardSubscription subscription : this.subscriptions) {
+				if (subscription.consumerArn.equals(consumer.consumerARN())) {
+					subscription.cancel();
+				}
+			}
+			return DeregisterStreamConsumerResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<Void> subscribeToShard(SubscribeToShardRequest request,
+			SubscribeToShardResponseHandler asyncResponseHandler) {
+
+		CompletableFuture<ShardSubscription> subscription =
+				respond(() -> {
+					throttleControlPlane(request);
+					ConsumerDescription consumer = consumer(request.consumerARN(), null, null);
+					ShardState shard = streamByArn(consumer.streamARN()).shard(request.shardId());
+					StartingPosition startingPosition = request.startingPosition();
+					if (startingPosition == null) {
+						throw InvalidArgumentException.builder().message("The StartingPosition is required").build();
+					}
+					int position =
+							shard.positionOf(startingPosition.type(), startingPosition.sequenceNumber(),
+									startingPosition.timestamp());
+					return new ShardSubscription(consumer.consumerARN(), shard, position, asyncResponseHandler);
+				});
+		subscription.whenComplete((result, ex) -> {
+			if (ex != null) {
+				asyncResponseHandler.exceptionOccurred(ex instanceof CompletionException ? ex.getCause() : ex);
+			}
+		});
+		return subscription.thenCompose(ShardSubscription::start);
+	}
+
+	/**
+	 * Cancel the active {@code SubscribeToShard} event streams.
+	 */
+	@Override
+	public void close() {
+		for (ShardSubscription subscription : this.subscriptions) {
+			subscription.cancel();
+		}
+	}
+
+	private void throttleDataPlane(KinesisRequest request) {
+		if (this.throttling.test(request)) {
+			throw ProvisionedThroughputExceededException.builder()
+					.message("Rate exceeded for the " + request.getClass().getSimpleName())
+					.build();
+		}
+	}
+
+	private void throttleControlPlane(KinesisRequest request) {
+		if (this.throttling.test(request)) {
+			throw LimitExceededException.builder()
+					.message("Rate exceeded for the " + request.getClass().getSimpleName())
+					.build();
+		}
+	}
+
+	private StreamState stream(@Nullable String streamName) {
+		StreamState stream = streamName != null ? this.streams.get(streamName) : null;
+		if (stream == null) {
+			throw streamNotFound(streamName);
+		}
+		return stream;
+	}
+
+	private StreamState streamByArn(@Nullable String arn) {
+		String streamName = null;
+		int start = arn != null ? arn.indexOf(STREAM_ARN_RESOURCE) : -1;
+		if (start > 0) {
+			start += STREAM_ARN_RESOURCE.length();
+			int end = arn.indexOf('/', start);
+			streamName = end > 0 ? arn.substring(start, end) : arn.substring(start);
+		}
+		return stream(streamName);
+	}
+
+	private ConsumerDescription consumer(@Nullable String consumerArn, @Nullable String streamArn,
+			@Nullable String consumerName) {
+
+		ConsumerDescription consumer = null;
+		if (consumerArn != null) {
+			for (ConsumerDescription candidate : streamByArn(consumerArn).consumers.values()) {
+				if (candidate.consumerARN().equals(consumerArn)) {
+					consumer = candidate;
+					break;
+				}
+			}
+		}
+		else if (consumerName != null) {
+			consumer = streamByArn(streamArn).consumers.get(consumerName);
+		}
+		if (consumer == null) {
+			throw ResourceNotFoundException.builder()
+					.message("Consumer " + (consumerArn != null ? consumerArn : consumerName) + " under account "
+							+ ACCOUNT_ID + " not found.")
+					.build();
+		}
+		return consumer;
+	}
+
+	private String nextSequenceNumber() {
+		String counter = Long.toString(this.sequenceNumbers.incrementAndGet());
+		return SEQUENCE_NUMBER_PREFIX + "0".repeat(SEQUENCE_NUMBER_COUNTER_DIGITS - counter.length()) + counter;
+	}
+
+	private static String shardIterator(String stream, String shardId, int position) {
+		return stream + '/' + shardId + '/' + position + '/' + System.currentTimeMillis();
+	}
+
+	private static ResourceNotFoundException streamNotFound(@Nullable String streamName) {
+		return ResourceNotFoundException.builder()
+				.message("Stream " + streamName + " under account " + ACCOUNT_ID + " not found.")
+				.build();
+	}
+
+	private static int compareSequenceNumbers(String left, String right) {
+		int result = Integer.compare(left.length(), right.length());
+		return result != 0 ? result : left.compareTo(right);
+	}
+
+	private static BigInteger explicitHashKey(String explicitHashKey) {
+		BigInteger hashKey = null;
+		try {
+			hashKey = new BigInteger(explicitHashKey);
+		}
+		catch (NumberFormatException ex) {
+			// Rejected below
+		}
+		if (hashKey == null || hashKey.signum() < 0 || hashKey.compareTo(MAX_HASH_KEY) > 0) {
+			throw InvalidArgumentException.builder()
+					.message("The ExplicitHashKey " + explicitHashKey + " is not a number in the range [0, "
+							+ MAX_HASH_KEY + "]")
+					.build();
+		}
+		return hashKey;
+	}
+
+	private static BigInteger hashKey(String partitionKey) {
+		return new BigInteger(1, MD5.get().digest(partitionKey.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * The stream: all its shards (including closed) and the open ones to put records into.
+	 */
+	private final class StreamState {
+
+		private final String name;
+
+		private final String arn;
+
+		private final Instant creationTimestamp = Instant.now();
+
+		private final AtomicInteger shardIds = new AtomicInteger();
+
+		private final Map<String, ShardState> shardsById = new ConcurrentHashMap<>();
+
+		private volatile List<ShardState> shards = Collections.emptyList();
+
+		private volatile List<ShardState> openShards = Collections.emptyList();
+
+		private final Map<String, ConsumerDescription> consumers = new ConcurrentHashMap<>();
+
+		StreamState(String name) {
+			this.name = name;
+			this.arn = "arn:aws:kinesis:" + REGION + ":" + ACCOUNT_ID + STREAM_ARN_RESOURCE + name;
+		}
+
+		String nextShardId() {
+			String counter = Integer.toString(this.shardIds.getAndIncrement());
+			return "shardId-" + "0".repeat(12 - counter.length()) + counter;
+		}
+
+		synchronized void addShard(ShardState shard) {
+			this.shardsById.put(shard.shardId, shard);
+			List<ShardState> allShards = new ArrayList<>(this.shards);
+			allShards.add(shard);
+			this.shards = allShards;
+			List<ShardState> open = new ArrayList<>();
+			for (ShardState candidate : allShards) {
+				if (candidate.endingSequenceNumber == null) {
+					open.add(candidate);
+				}
+			}
+			this.openShards = open;
+		}
+
+		ShardState shard(String shardId) {
+			ShardState shard = this.shardsById.get(shardId);
+			if (shard == null) {
+				throw ResourceNotFoundException.builder()
+						.message("Shard " + shardId + " in stream " + this.name + " under account " + ACCOUNT_ID
+								+ " does not exist")
+						.build();
+			}
+			return shard;
+		}
+
+		ShardState openShard(String shardId) {
+			ShardState shard = shard(shardId);
+			if (shard.endingSequenceNumber != null) {
+				throw ResourceInUseException.builder()
+						.message("Shard " + shardId + " in stream " + this.name + " is closed")
+						.build();
+			}
+			return shard;
+		}
+
+		PutRecordsResultEntry put(@Nullable String partitionKey, @Nullable String explicitHashKey, SdkBytes data) {
+			if (partitionKey == null) {
+				throw InvalidArgumentException.builder().message("The PartitionKey is required").build();
+			}
+			BigInteger hashKey = explicitHashKey != null ? explicitHashKey(explicitHashKey) : hashKey(partitionKey);
+			PutRecordsResultEntry result = append(partitionKey, hashKey, data);
+			if (result == null) {
+				// The shard has been closed concurrently: the resharding holds the stream monitor
+				// until the new shards are added, and they cover the hash key range of the closed one
+				synchronized (this) {
+					result = append(partitionKey, hashKey, data);
+				}
+				if (result == null) {
+					throw new IllegalStateException("No open shard for the hash key " + hashKey
+							+ " in stream " + this.name);
+				}
+			}
+			return result;
+		}
+
+		@Nullable
+		private PutRecordsResultEntry append(String partitionKey, BigInteger hashKey, SdkBytes data) {
+			for (ShardState shard : this.openShards) {
+				if (shard.startingHashKey.compareTo(hashKey) <= 0 && shard.endingHashKey.compareTo(hashKey) >= 0) {
+					String sequenceNumber = shard.append(partitionKey, data);
+					if (sequenceNumber == null) {
+						return null;
+					}
+					return PutRecordsResultEntry.builder()
+							.shardId(shard.shardId)
+							.sequenceNumber(sequenceNumber)
+							.build();
+				}
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * The shard with its records.
+	 */
+	private final class ShardState {
+
+		private final String shardId;
+
+		@Nullable
+		private final String parentShardId;
+
+		@Nullable
+		private final String adjacentParentShardId;
+
+		private final BigInteger startingHashKey;
+
+		private final BigInteger endingHashKey;
+
+		private final String startingSequenceNumber;
+
+		private final List<Record> records = new ArrayList<>();
+
+		@Nullable
+		private volatile String endingSequenceNumber;
+
+		private volatile List<ShardState> children = Collections.emptyList();
+
+		ShardState(String shardId, @Nullable String parentShardId, @Nullable String adjacentParentShardId,
+				BigInteger startingHashKey, BigInteger endingHashKey, String startingSequenceNumber) {
+
+			this.shardId = shardId;
+			this.parentShardId = parentShardId;
+			this.adjacentParentShardId = adjacentParentShardId;
+			this.startingHashKey = startingHashKey;
+			this.endingHashKey = endingHashKey;
+			this.startingSequenceNumber = startingSequenceNumber;
+		}
+
+		@Nullable
+		synchronized String append(String partitionKey, SdkBytes data) {
+			if (this.endingSequenceNumber != null) {
+				return null;
+			}
+			String sequenceNumber = nextSequenceNumber();
+			this.records.add(
+					Record.builder()
+							.partitionKey(partitionKey)
+							.sequenceNumber(sequenceNumber)
+							.data(data)
+							.approximateArrivalTimestamp(Instant.now())
+							.build());
+			// Wake up the shard subscriptions waiting for records
+			notifyAll();
+			return sequenceNumber;
+		}
+
+		synchronized void close(String endingSequenceNumber, List<ShardState> children) {
+			this.endingSequenceNumber = endingSequenceNumber;
+			this.children = children;
+			notifyAll();
+		}
+
+		/**
+		 * Check if there is anything to read from the position: records or the end of the closed shard.
+		 * @param position the position in the shard.
+		 * @return true if there are records from the position or the shard is closed.
+		 */
+		synchronized boolean isReadable(int position) {
+			return position < this.records.size() || this.endingSequenceNumber != null;
+		}
+
+		synchronized int positionOf(@Nullable ShardIteratorType type, @Nullable String sequenceNumber,
+				@Nullable Instant timestamp) {
+
+			if (type == null) {
+				throw InvalidArgumentException.builder().message("The ShardIteratorType is required").build();
+			}
+			return switch (type) {
+				case TRIM_HORIZON -> 0;
+				case LATEST -> this.records.size();
+				case AT_SEQUENCE_NUMBER -> positionOf(sequenceNumber, false);
+				case AFTER_SEQUENCE_NUMBER -> positionOf(sequenceNumber, true);
+				case AT_TIMESTAMP -> positionOf(timestamp);
+				default -> throw InvalidArgumentException.builder()
+						.message("Unsupported ShardIteratorType: " + type)
+						.build();
+			};
+		}
+
+		synchronized int positionOf(@Nullable String sequenceNumber, boolean after) {
+			if (sequenceNumber == null) {
+				throw InvalidArgumentException.builder().message("The StartingSequenceNumber is required").build();
+			}
+			int low = 0;
+			int high = this.records.size();
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				int result = compareSequenceNumbers(this.records.get(middle).sequenceNumber(), sequenceNumber);
+				if (result < 0 || (after && result == 0)) {
+					low = middle + 1;
+				}
+				else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		synchronized int positionOf(@Nullable Instant timestamp) {
+			if (timestamp == null) {
+				throw InvalidArgumentException.builder().message("The Timestamp is required").build();
+			}
+			int low = 0;
+			int high = this.records.size();
+			while (low < high) {
+				int middle = (low + high) >>> 1;
+				if (this.records.get(middle).approximateArrivalTimestamp().isBefore(timestamp)) {
+					low = middle + 1;
+				}
+				else {
+					high = middle;
+				}
+			}
+			return low;
+		}
+
+		synchronized ShardBatch read(int position, int limit) {
+			int size = this.records.size();
+			int from = Math.min(position, size);
+			int to = Math.min(size, from + limit);
+			List<Record> batch = new ArrayList<>(this.records.subList(from, to));
+			long millisBehindLatest =
+					to < size
+							? Math.max(0, System.currentTimeMillis()
+							- this.records.get(to).approximateArrivalTimestamp().toEpochMilli())
+							: 0;
+			List<ChildShard> childShards = null;
+			if (this.endingSequenceNumber != null && to == size) {
+				childShards = new ArrayList<>();
+				for (ShardState child : this.children) {
+					List<String> parents = new ArrayList<>();
+					parents.add(child.parentShardId);
+					if (child.adjacentParentShardId != null) {
+						parents.add(child.adjacentParentShardId);
+					}
+					childShards.add(
+							ChildShard.builder()
+									.shardId(child.shardId)
+									.parentShards(parents)
+									.hashKeyRange(child.hashKeyRange())
+									.build());
+				}
+			}
+			String continuationSequenceNumber = null;
+			if (childShards == null) {
+				continuationSequenceNumber =
+						to > 0 ? this.records.get(to - 1).sequenceNumber() : this.startingSequenceNumber;
+			}
+			return new ShardBatch(batch, millisBehindLatest, to, childShards, continuationSequenceNumber);
+		}
+
+		HashKeyRange hashKeyRange() {
+			return HashKeyRange.builder()
+					.startingHashKey(this.startingHashKey.toString())
+					.endingHashKey(this.endingHashKey.toString())
+					.build();
+		}
+
+		Shard toShard() {
+			return Shard.builder()
+					.shardId(this.shardId)
+					.parentShardId(this.parentShardId)
+					.adjacentParentShardId(this.adjacentParentShardId)
+					.hashKeyRange(hashKeyRange())
+					.sequenceNumberRange(
+							SequenceNumberRange.builder()
+									.startingSequenceNumber(this.startingSequenceNumber)
+									.endingSequenceNumber(this.endingSequenceNumber)
+									.build())
+					.build();
+		}
+
+	}
+
+	/**
+	 * The records read from a shard position.
+	 * The {@code ChildShards} are present (and the continuation sequence number is null)
+	 * only when the closed shard is read to its end.
+	 */
+	private static final class ShardBatch {
+
+		private final List<Record> records;
+
+		private final long millisBehindLatest;
+
+		private final int nextPosition;
+
+		@Nullable
+		private final List<ChildShard> childShards;
+
+		@Nullable
+		private final String continuationSequenceNumber;
+
+		ShardBatch(List<Record> records, long millisBehindLatest, int nextPosition,
+				@Nullable List<ChildShard> childShards, @Nullable String continuationSequenceNumber) {
+
+			this.records = records;
+			this.millisBehindLatest = millisBehindLatest;
+			this.nextPosition = nextPosition;
+			this.childShards = childShards;
+			this.continuationSequenceNumber = continuationSequenceNumber;
+		}
+
+		SubscribeToShardEvent toEvent() {
+			SubscribeToShardEvent.Builder event =
+					SubscribeToShardEvent.builder()
+							.records(this.records)
+							.millisBehindLatest(this.millisBehindLatest)
+							.continuationSequenceNumber(this.continuationSequenceNumber);
+			if (this.childShards != null) {
+				event.childShards(this.childShards);
+			}
+			return event.build();
+		}
+
+	}
+
+	/**
+	 * The {@code SubscribeToShard} event stream: the records are pushed from the shard as they arrive
+	 * on the {@link #SUBSCRIPTION_EXECUTOR} thread, one event per requested item.
+	 */
+	private final class ShardSubscription implements Subscription, Runnable {
+
+		private final String consumerArn;
+
+		private final ShardState shard;
+
+		private final SubscribeToShardResponseHandler responseHandler;
+
+		private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+		private final AtomicLong demand = new AtomicLong();
+
+		private final long expiration = System.currentTimeMillis() + SUBSCRIPTION_TTL_MILLIS;
+
+		private int position;
+
+		private volatile Subscriber<? super SubscribeToShardEventStream> subscriber;
+
+		private volatile boolean cancelled;
+
+		ShardSubscription(String consumerArn, ShardState shard, int position,
+				SubscribeToShardResponseHandler responseHandler) {
+
+			this.consumerArn = consumerArn;
+			this.shard = shard;
+			this.position = position;
+			this.responseHandler = responseHandler;
+		}
+
+		CompletableFuture<Void> start() {
+			InMemoryKinesisClient.this.subscriptions.add(this);
+			this.responseHandler.responseReceived(SubscribeToShardResponse.builder().build());
+			this.responseHandler.onEventStream(eventStreamSubscriber -> {
+				this.subscriber = eventStreamSubscriber;
+				eventStreamSubscriber.onSubscribe(this);
+				SUBSCRIPTION_EXECUTOR.execute(this);
+			});
+			return this.completion;
+		}
+
+		@Override
+		public void request(long n) {
+			this.demand.accumulateAndGet(n, (current, requested) -> {
+				long sum = current + requested;
+				return sum < 0 ? Long.MAX_VALUE : sum;
+			});
+			wakeUp();
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+			wakeUp();
+		}
+
+		@Override
+		public void run() {
+			long heartbeat = System.currentTimeMillis() + SUBSCRIPTION_HEARTBEAT_MILLIS;
+			try {
+				while (!this.cancelled && System.currentTimeMillis() < this.expiration) {
+					ShardBatch batch = awaitBatch(heartbeat);
+					if (batch != null) {
+						this.demand.decrementAndGet();
+						this.position = batch.nextPosition;
+						heartbeat = System.currentTimeMillis() + SUBSCRIPTION_HEARTBEAT_MILLIS;
+						this.subscriber.onNext(batch.toEvent());
+						if (batch.continuationSequenceNumber == null) {
+							break;
+						}
+					}
+				}
+				finish(null);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				finish(ex);
+			}
+			catch (RuntimeException ex) {
+				finish(ex);
+			}
+		}
+
+		@Nullable
+		private ShardBatch awaitBatch(long heartbeat) throws InterruptedException {
+			synchronized (this.shard) {
+				long now = System.currentTimeMillis();
+				boolean requested = this.demand.get() > 0;
+				if (requested && (now >= heartbeat || this.shard.isReadable(this.position))) {
+					return this.shard.read(this.position, DEFAULT_GET_RECORDS_LIMIT);
+				}
+				if (!this.cancelled) {
+					long waitUntil = requested ? Math.min(heartbeat, this.expiration) : this.expiration;
+					this.shard.wait(Math.max(1, waitUntil - now));
+				}
+				return null;
+			}
+		}
+
+		private void wakeUp() {
+			synchronized (this.shard) {
+				this.shard.notifyAll();
+			}
+		}
+
+		private void finish(@Nullable Throwable error) {
+			InMemoryKinesisClient.this.subscriptions.remove(this);
+			if (error == null || this.cancelled) {
+				if (!this.cancelled) {
+					this.subscriber.onComplete();
+					this.responseHandler.complete();
+				}
+				this.completion.complete(null);
+			}
+			else {
+				this.subscriber.onError(error);
+				this.responseHandler.exceptionOccurred(error);
+				this.completion.completeExceptionally(error);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.CreateTopicRequest;
+import software.amazon.awssdk.services.sns.model.CreateTopicResponse;
+import software.amazon.awssdk.services.sns.model.DeleteTopicRequest;
+import software.amazon.awssdk.services.sns.model.DeleteTopicResponse;
+import software.amazon.awssdk.services.sns.model.EmptyBatchRequestException;
+import software.amazon.awssdk.services.sns.model.InvalidParameterException;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.NotFoundException;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+import software.amazon.awssdk.services.sns.model.PublishBatchResultEntry;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
+import software.amazon.awssdk.services.sns.model.SnsException;
+import software.amazon.awssdk.services.sns.model.SubscribeRequest;
+import software.amazon.awssdk.services.sns.model.SubscribeResponse;
+import software.amazon.awssdk.services.sns.model.TooManyEntriesInBatchRequestException;
+import software.amazon.awssdk.services.sns.model.UnsubscribeRequest;
+import software.amazon.awssdk.services.sns.model.UnsubscribeResponse;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * The in-memory {@link SnsAsyncClient} for offline functional and load tests.
+ * <p>
+ * Supports topics, {@code Publish} and {@code PublishBatch} (including the {@code json} message structure),
+ * and the {@code sqs} protocol subscriptions which deliver the messages into the queues
+ * of the provided {@link InMemorySqsClient}: as an SNS notification JSON envelope,
+ * or as is with the {@code RawMessageDelivery} subscription attribute.
+ * <p>
+ * Other protocols, filter policies, SMS and mobile push are not supported.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+public class InMemorySnsClient extends AbstractInMemoryClient implements SnsAsyncClient {
+
+	private static final int MAX_BATCH_ENTRIES = 10;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private final Map<String, TopicState> topics = new ConcurrentHashMap<>();
+
+	private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+	@Nullable
+	private final InMemorySqsClient sqsClient;
+
+	/**
+	 * Create an instance without subscriptions support.
+	 */
+	public InMemorySnsClient() {
+		this(null);
+	}
+
+	/**
+	 * Create an instance to deliver the messages into the queues of the provided SQS client.
+	 * @param sqsClient the SQS client for the {@code sqs} protocol subscriptions.
+	 */
+	public InMemorySnsClient(@Nullable InMemorySqsClient sqsClient) {
+		this.sqsClient = sqsClient;
+	}
+
+	/**
+	 * Return the number of the messages published to the topic.
+	 * @param topicArn the topic ARN.
+	 * @return the number of published messages.
+	 */
+	public long getPublishedCount(String topicArn) {
+		return topic(topicArn).published.get();
+	}
+
+	@Override
+	public String serviceName() {
+		return SERVICE_NAME;
+	}
+
+	@Override
+	public CompletableFuture<CreateTopicResponse> createTopic(CreateTopicRequest request) {
+		return respond(() -> {
+			TopicState topic = this.topics.computeIfAbsent(topicArn(request.name()), TopicState::new);
+			return CreateTopicResponse.builder()
+					.topicArn(topic.arn)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DeleteTopicResponse> deleteTopic(DeleteTopicRequest request) {
+		return respond(() -> {
+			TopicState topic = this.topics.remove(request.topicArn());
+			if (topic != null) {
+				this.subscriptions.keySet().removeAll(topic.subscriptions.keySet());
+			}
+			return DeleteTopicResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<SubscribeResponse> subscribe(SubscribeRequest request) {
+		return respond(() -> {
+			TopicState topic = topic(request.topicArn());
+			if (!"sqs".equals(request.protocol()) || this.sqsClient == null) {
+				throw InvalidParameterException.builder()
+						.message("Invalid parameter: Protocol " + request.protocol() + " is not supported")
+						.statusCode(400)
+						.build();
+			}
+			boolean raw = Boolean.parseBoolean(request.attributes().get("RawMessageDelivery"));
+			Subscription subscription =
+					new Subscription(topic.arn + ':' + UUID.randomUUID(), request.endpoint(), raw);
+			topic.subscriptions.put(subscription.arn, subscription);
+			this.subscriptions.put(subscription.arn, subscription);
+			return SubscribeResponse.builder()
+					.subscriptionArn(subscription.arn)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<UnsubscribeResponse> unsubscribe(UnsubscribeRequest request) {
+		return respond(() -> {
+			if (this.subscriptions.remove(request.subscriptionArn()) != null) {
+				for (TopicState topic : this.topics.values()) {
+					topic.subscriptions.remove(request.subscriptionArn());
+				}
+			}
+			return UnsubscribeResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<PublishResponse> publish(PublishRequest request) {
+		return respond(() -> {
+			if (request.topicArn() == null) {
+				throw invalidParameter("Invalid parameter: TopicArn - only topics are supported");
+			}
+			TopicState topic = topic(request.topicArn());
+			String messageId = UUID.randomUUID().toString();
+			publish(topic, messageId, request.message(), request.subject(), request.messageStructure(),
+					request.messageAttributes(), request.messageGroupId(), request.messageDeduplicationId());
+			return PublishResponse.builder()
+					.messageId(messageId)
+					.sequenceNumber(request.messageGroupId() != null
+							? Long.toString(topic.sequenceNumbers.incrementAndGet())
+							: null)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<PublishBatchResponse> publishBatch(PublishBatchRequest request) {
+		return respond(() -> {
+			if (request.publishBatchRequestEntries().isEmpty()) {
+				throw EmptyBatchRequestException.builder()
+						.message("The batch request doesn't contain any entries")
+						.statusCode(400)
+						.build();
+			}
+			if (request.publishBatchRequestEntries().size() > MAX_BATCH_ENTRIES) {
+				throw TooManyEntriesInBatchRequestException.builder()
+						.message("The batch request contains more entries than permissible")
+						.statusCode(400)
+						.build();
+			}
+			TopicState topic = topic(request.topicArn());
+			List<PublishBatchResultEntry> successful = new ArrayList<>();
+			List<BatchResultErrorEntry> failed = new ArrayList<>();
+			for (PublishBatchRequestEntry entry : request.publishBatchRequestEntries()) {
+				String messageId = UUID.randomUUID().toString();
+				try {
+					publish(topic, messageId, entry.message(), entry.subject(), entry.messageStructure(),
+							entry.messageAttributes(), entry.messageGroupId(), entry.messageDeduplicationId());
+					successful.add(
+							PublishBatchResultEntry.builder()
+									.id(entry.id())
+									.messageId(messageId)
+									.sequenceNumber(entry.messageGroupId() != null
+											? Long.toString(topic.sequenceNumbers.incrementAndGet())
+											: null)
+									.build());
+				}
+				catch (SnsException ex) {
+					failed.add(
+							BatchResultErrorEntry.builder()
+									.id(entry.id())
+									.code(ex.getClass().getSimpleName())
+									.message(ex.getMessage())
+									.senderFault(true)
+									.build());
+				}
+			}
+			return PublishBatchResponse.builder()
+					.successful(successful)
+					.failed(failed)
+					.build();
+		});
+	}
+
+	private void publish(TopicState topic, String messageId, String message, @Nullable String subject,
+			@Nullable String messageStructure, Map<String, MessageAttributeValue> messageAttributes,
+			@Nullable String messageGroupId, @Nullable String messageDeduplicationId) {
+
+		if (message == null) {
+			throw invalidParameter("Invalid parameter: Empty message");
+		}
+		String sqsMessage = message;
+		if ("json".equals(messageStructure)) {
+			sqsMessage = sqsMessage(message);
+		}
+		topic.published.incrementAndGet();
+		for (Subscription subscription : topic.subscriptions.values()) {
+			if (subscription.raw) {
+				this.sqsClient.deliver(subscription.endpoint, sqsMessage, sqsMessageAttributes(messageAttributes),
+						messageGroupId, messageDeduplicationId);
+			}
+			else {
+				this.sqsClient.deliver(subscription.endpoint,
+						notification(topic, subscription, messageId, sqsMessage, subject, messageAttributes),
+						Map.of(), messageGroupId, messageDeduplicationId);
+			}
+		}
+	}
+
+	private String sqsMessage(String message) {
+		try {
+			JsonNode messages = this.objectMapper.readTree(message);
+			JsonNode sqsMessage = messages.has("sqs") ? messages.get("sqs") : messages.get("default");
+			if (sqsMessage == null || !sqsMessage.isTextual()) {
+				throw invalidParameter("Invalid parameter: Message Structure - No default entry in JSON message body");
+			}
+			return sqsMessage.asText();
+		}
+		catch (JsonProcessingException ex) {
+			throw invalidParameter("Invalid parameter: Message Structure - JSON message body failed to parse");
+		}
+	}
+
+	private String notification(TopicState topic, Subscription subscription, String messageId, String message,
+			@Nullable String subject, Map<String, MessageAttributeValue> messageAttributes) {
+
+		Map<String, Object> notification = new LinkedHashMap<>();
+		notification.put("Type", "Notification");
+		notification.put("MessageId", messageId);
+		notification.put("TopicArn", topic.arn);
+		if (subject != null) {
+			notification.put("Subject", subject);
+		}
+		notification.put("Message", message);
+		notification.put("Timestamp", Instant.now().toString());
+		notification.put("SignatureVersion", "1");
+		notification.put("Signature", "");
+		notification.put("SigningCertURL", "https://sns." + REGION + ".amazonaws.com/SimpleNotificationService.pem");
+		notification.put("UnsubscribeURL", "https://sns." + REGION + ".amazonaws.com/"
+				+ "?Action=Unsubscribe&SubscriptionArn=" + subscription.arn);
+		if (!messageAttributes.isEmpty()) {
+			Map<String, Map<String, String>> attributes = new LinkedHashMap<>();
+			messageAttributes.forEach((name, value) ->
+					attributes.put(name, Map.of("Type", value.dataType(),
+							"Value", value.binaryValue() != null
+									? Base64.getEncoder().encodeToString(value.binaryValue().asByteArrayUnsafe())
+									: value.stringValue())));
+			notification.put("MessageAttributes", attributes);
+		}
+		try {
+			return this.objectMapper.writeValueAsString(notification);
+		}
+		catch (JsonProcessingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private TopicState topic(@Nullable String topicArn) {
+		TopicState topic = topicArn != null ? this.topics.get(topicArn) : null;
+		if (topic == null) {
+			throw NotFoundException.builder()
+					.message("Topic does not exist")
+					.statusCode(404)
+					.build();
+		}
+		return topic;
+	}
+
+	private static String topicArn(String name) {
+		return "arn:aws:sns:" + REGION + ":" + ACCOUNT_ID + ":" + name;
+	}
+
+	private static SnsException invalidParameter(String message) {
+		return InvalidParameterException.builder()
+				.message(message)
+				.statusCode(400)
+				.build();
+	}
+
+	private static Map<String, software.amazon.awssdk.services.sqs.model.MessageAttributeValue> sqsMessageAttributes(
+			Map<String, MessageAttributeValue> messageAttributes) {
+
+		Map<String, software.amazon.awssdk.services.sqs.model.MessageAttributeValue> sqsMessageAttributes =
+				new HashMap<>();
+		messageAttributes.forEach((name, value) ->
+				sqsMessageAttributes.put(name,
+						software.amazon.awssdk.services.sqs.model.MessageAttributeValue.builder()
+								.dataType(value.dataType())
+								.stringValue(value.stringValue())
+								.binaryValue(value.binaryValue() != null
+										? SdkBytes.fromByteArrayUnsafe(value.binaryValue().asByteArrayUnsafe())
+										: null)
+								.build()));
+		return sqsMessageAttributes;
+	}
+
+	/**
+	 * The topic with its subscriptions.
+	 */
+	private static final class TopicState {
+
+		private final String arn;
+
+		private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+		private final AtomicLong published = new AtomicLong();
+
+		private final AtomicLong sequenceNumbers = new AtomicLong();
+
+		TopicState(String arn) {
+			this.arn = arn;
+		}
+
+	}
+
+	/**
+	 * The {@code sqs} protocol subscription.
+	 */
+	private static final class Subscription {
+
+		private final String arn;
+
+		private final String endpoint;
+
+		private final boolean raw;
+
+		Subscription(String arn, String endpoint, boolean raw) {
+			this.arn = arn;
+			this.endpoint = endpoint;
+			this.raw = raw;
+		}
+
+	}
+
+}
@@ -0,0 +1,779 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityResponse;
+import software.amazon.awssdk.services.sqs.model.CreateQueueRequest;
+import software.amazon.awssdk.services.sqs.model.CreateQueueResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteQueueRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteQueueResponse;
+import software.amazon.awssdk.services.sqs.model.EmptyBatchRequestException;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueAttributesResponse;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlRequest;
+import software.amazon.awssdk.services.sqs.model.GetQueueUrlResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.MessageNotInflightException;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.PurgeQueueRequest;
+import software.amazon.awssdk.services.sqs.model.PurgeQueueResponse;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+import software.amazon.awssdk.services.sqs.model.QueueDoesNotExistException;
+import software.amazon.awssdk.services.sqs.model.ReceiptHandleIsInvalidException;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SqsException;
+import software.amazon.awssdk.services.sqs.model.TooManyEntriesInBatchRequestException;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.DigestUtils;
+
+/**
+ * The in-memory {@link SqsAsyncClient} for offline functional and load tests.
+ * <p>
+ * Supports standard and FIFO (the {@code .fifo} suffix) queues with sending, receiving (including long polling),
+ * deleting and changing the visibility of messages, individually and in batches,
+ * the message delays and the visibility timeouts.
+ * The FIFO queues deduplicate messages within the 5 minutes interval
+ * and do not return messages of the group which has messages in flight.
+ * <p>
+ * The messages are never moved to a dead letter queue and never expire by the retention period.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+public class InMemorySqsClient extends AbstractInMemoryClient implements SqsAsyncClient {
+
+	private static final int MAX_BATCH_ENTRIES = 10;
+
+	private static final int DEFAULT_VISIBILITY_TIMEOUT = 30;
+
+	private static final long DEDUPLICATION_INTERVAL_MILLIS = Duration.ofMinutes(5).toMillis();
+
+	private final Map<String, QueueState> queues = new ConcurrentHashMap<>();
+
+	@Override
+	public String serviceName() {
+		return SERVICE_NAME;
+	}
+
+	@Override
+	public CompletableFuture<CreateQueueResponse> createQueue(CreateQueueRequest request) {
+		return respond(() -> {
+			QueueState queue =
+					this.queues.computeIfAbsent(request.queueName(),
+							name -> new QueueState(name, request.attributesAsStrings()));
+			return CreateQueueResponse.builder()
+					.queueUrl(queue.url)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<GetQueueUrlResponse> getQueueUrl(GetQueueUrlRequest request) {
+		return respond(() ->
+				GetQueueUrlResponse.builder()
+						.queueUrl(queue(request.queueName()).url)
+						.build());
+	}
+
+	@Override
+	public CompletableFuture<GetQueueAttributesResponse> getQueueAttributes(GetQueueAttributesRequest request) {
+		return respond(() -> {
+			QueueState queue = queue(request.queueUrl());
+			Map<String, String> attributes = queue.attributes();
+			List<String> names = request.attributeNamesAsStrings();
+			if (!names.contains(QueueAttributeName.ALL.toString())) {
+				attributes.keySet().retainAll(names);
+			}
+			return GetQueueAttributesResponse.builder()
+					.attributesWithStrings(attributes)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DeleteQueueResponse> deleteQueue(DeleteQueueRequest request) {
+		return respond(() -> {
+			QueueState queue = queue(request.queueUrl());
+			this.queues.remove(queue.name);
+			queue.purge();
+			return DeleteQueueResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<PurgeQueueResponse> purgeQueue(PurgeQueueRequest request) {
+		return respond(() -> {
+			queue(request.queueUrl()).purge();
+			return PurgeQueueResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<SendMessageResponse> sendMessage(SendMessageRequest request) {
+		return respond(() -> {
+			MessageState message =
+					queue(request.queueUrl())
+							.send(request.messageBody(), request.messageAttributes(), request.delaySeconds(),
+									request.messageGroupId(), request.messageDeduplicationId());
+			return SendMessageResponse.builder()
+					.messageId(message.messageId)
+					.md5OfMessageBody(message.md5OfBody)
+					.sequenceNumber(message.sequenceNumber)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<SendMessageBatchResponse> sendMessageBatch(SendMessageBatchRequest request) {
+		return respond(() -> {
+			checkBatchSize(request.entries());
+			QueueState queue = queue(request.queueUrl());
+			List<SendMessageBatchResultEntry> successful = new ArrayList<>();
+			List<BatchResultErrorEntry> failed = new ArrayList<>();
+			for (SendMessageBatchRequestEntry entry : request.entries()) {
+				try {
+					MessageState message =
+							queue.send(entry.messageBody(), entry.messageAttributes(), entry.delaySeconds(),
+									entry.messageGroupId(), entry.messageDeduplicationId());
+					successful.add(
+							SendMessageBatchResultEntry.builder()
+									.id(entry.id())
+									.messageId(message.messageId)
+									.md5OfMessageBody(message.md5OfBody)
+									.sequenceNumber(message.sequenceNumber)
+									.build());
+				}
+				catch (SqsException ex) {
+					failed.add(errorEntry(entry.id(), ex));
+				}
+			}
+			return SendMessageBatchResponse.builder()
+					.successful(successful)
+					.failed(failed)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<ReceiveMessageResponse> receiveMessage(ReceiveMessageRequest request) {
+		return respondAsync(() -> queue(request.queueUrl()).receive(request))
+				.thenApply(messages -> ReceiveMessageResponse.builder().messages(messages).build());
+	}
+
+	@Override
+	public CompletableFuture<DeleteMessageResponse> deleteMessage(DeleteMessageRequest request) {
+		return respond(() -> {
+			queue(request.queueUrl()).delete(request.receiptHandle());
+			return DeleteMessageResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<DeleteMessageBatchResponse> deleteMessageBatch(DeleteMessageBatchRequest request) {
+		return respond(() -> {
+			checkBatchSize(request.entries());
+			QueueState queue = queue(request.queueUrl());
+			List<DeleteMessageBatchResultEntry> successful = new ArrayList<>();
+			List<BatchResultErrorEntry> failed = new ArrayList<>();
+			for (DeleteMessageBatchRequestEntry entry : request.entries()) {
+				try {
+					queue.delete(entry.receiptHandle());
+					successful.add(DeleteMessageBatchResultEntry.builder().id(entry.id()).build());
+				}
+				catch (SqsException ex) {
+					failed.add(errorEntry(entry.id(), ex));
+				}
+			}
+			return DeleteMessageBatchResponse.builder()
+					.successful(successful)
+					.failed(failed)
+					.build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<ChangeMessageVisibilityResponse> changeMessageVisibility(
+			ChangeMessageVisibilityRequest request) {
+
+		return respond(() -> {
+			queue(request.queueUrl()).changeVisibility(request.receiptHandle(), request.visibilityTimeout());
+			return ChangeMessageVisibilityResponse.builder().build();
+		});
+	}
+
+	@Override
+	public CompletableFuture<ChangeMessageVisibilityBatchResponse> changeMessageVisibilityBatch(
+			ChangeMessageVisibilityBatchRequest request) {
+
+		return respond(() -> {
+			checkBatchSize(request.entries());
+			QueueState queue = queue(request.queueUrl());
+			List<ChangeMessageVisibilityBatchResultEntry> successful = new ArrayList<>();
+			List<BatchResultErrorEntry> failed = new ArrayList<>();
+			for (ChangeMessageVisibilityBatchRequestEntry entry : request.entries()) {
+				try {
+					queue.changeVisibility(entry.receiptHandle(), entry.visibilityTimeout());
+					successful.add(ChangeMessageVisibilityBatchResultEntry.builder().id(entry.id()).build());
+				}
+				catch (SqsException ex) {
+					failed.add(errorEntry(entry.id(), ex));
+				}
+			}
+			return ChangeMessageVisibilityBatchResponse.builder()
+					.successful(successful)
+					.failed(failed)
+					.build();
+		});
+	}
+
+	/**
+	 * Send the message into the queue on behalf of another in-memory service, e.g. an SNS subscription.
+	 * @param queue the queue ARN, URL or name.
+	 * @param body the message body.
+	 * @param messageAttributes the message attributes.
+	 * @param messageGroupId the message group id for the FIFO queue.
+	 * @param messageDeduplicationId the message deduplication id for the FIFO queue.
+	 */
+	void deliver(String queue, String body, Map<String, MessageAttributeValue> messageAttributes,
+			@Nullable String messageGroupId, @Nullable String messageDeduplicationId) {
+
+		queue(queue).send(body, messageAttributes, null, messageGroupId, messageDeduplicationId);
+	}
+
+	private QueueState queue(@Nullable String queue) {
+		String name = queue != null ? queue.substring(Math.max(queue.lastIndexOf('/'), queue.lastIndexOf(':')) + 1)
+				: null;
+		QueueState queueState = name != null ? this.queues.get(name) : null;
+		if (queueState == null) {
+			throw QueueDoesNotExistException.builder()
+					.message("The specified queue does not exist.")
+					.statusCode(400)
+					.build();
+		}
+		return queueState;
+	}
+
+	private static void checkBatchSize(List<?> entries) {
+		if (entries.isEmpty()) {
+			throw EmptyBatchRequestException.builder()
+					.message("There should be at least one entry in the request.")
+					.statusCode(400)
+					.build();
+		}
+		if (entries.size() > MAX_BATCH_ENTRIES) {
+			throw TooManyEntriesInBatchRequestException.builder()
+					.message("Maximum number of entries per request are " + MAX_BATCH_ENTRIES
+							+ ". You have sent " + entries.size() + ".")
+					.statusCode(400)
+					.build();
+		}
+	}
+
+	private static BatchResultErrorEntry errorEntry(String id, SqsException exception) {
+		return BatchResultErrorEntry.builder()
+				.id(id)
+				.code(exception.getClass().getSimpleName())
+				.message(exception.awsErrorDetails() != null
+						? exception.awsErrorDetails().errorMessage()
+						: exception.getMessage())
+				.senderFault(true)
+				.build();
+	}
+
+	private static SqsException invalidParameter(String message) {
+		return (SqsException) SqsException.builder()
+				.message(message)
+				.statusCode(400)
+				.build();
+	}
+
+	private static int attributeAsInt(Map<String, String> attributes, QueueAttributeName name, int defaultValue) {
+		String value = attributes.get(name.toString());
+		return value != null ? Integer.parseInt(value) : defaultValue;
+	}
+
+	/**
+	 * The queue with its messages and long polling receives.
+	 * All the state is guarded by the queue monitor.
+	 */
+	private static final class QueueState {
+
+		private final String name;
+
+		private final String url;
+
+		private final String arn;
+
+		private final boolean fifo;
+
+		private final Map<String, String> attributes;
+
+		private final Map<String, MessageState> messages = new LinkedHashMap<>();
+
+		private final List<PendingReceive> pendingReceives = new ArrayList<>();
+
+		private final Map<String, DeduplicationEntry> deduplication = new HashMap<>();
+
+		private final AtomicLong sequenceNumbers = new AtomicLong();
+
+		QueueState(String name, Map<String, String> attributes) {
+			this.name = name;
+			this.url = "https://sqs." + REGION + ".amazonaws.com/" + ACCOUNT_ID + "/" + name;
+			this.arn = "arn:aws:sqs:" + REGION + ":" + ACCOUNT_ID + ":" + name;
+			this.fifo = name.endsWith(".fifo");
+			this.attributes = new ConcurrentHashMap<>(attributes);
+			this.attributes.putIfAbsent(QueueAttributeName.VISIBILITY_TIMEOUT.toString(),
+					Integer.toString(DEFAULT_VISIBILITY_TIMEOUT));
+			this.attributes.putIfAbsent(QueueAttributeName.DELAY_SECONDS.toString(), "0");
+			this.attributes.putIfAbsent(QueueAttributeName.RECEIVE_MESSAGE_WAIT_TIME_SECONDS.toString(), "0");
+			this.attributes.put(QueueAttributeName.QUEUE_ARN.toString(), this.arn);
+			if (this.fifo) {
+				this.attributes.put(QueueAttributeName.FIFO_QUEUE.toString(), "true");
+			}
+		}
+
+		synchronized Map<String, String> attributes() {
+			Map<String, String> attributes = new HashMap<>(this.attributes);
+			long now = System.currentTimeMillis();
+			int visible = 0;
+			int notVisible = 0;
+			int delayed = 0;
+			for (MessageState message : this.messages.values()) {
+				if (message.visibleAt <= now) {
+					visible++;
+				}
+				else if (message.receiveCount > 0) {
+					notVisible++;
+				}
+				else {
+					delayed++;
+				}
+			}
+			attributes.put(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES.toString(), Integer.toString(visible));
+			attributes.put(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES_NOT_VISIBLE.toString(),
+					Integer.toString(notVisible));
+			attributes.put(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES_DELAYED.toString(),
+					Integer.toString(delayed));
+			return attributes;
+		}
+
+		MessageState send(String body, Map<String, MessageAttributeValue> messageAttributes,
+				@Nullable Integer delaySeconds, @Nullable String messageGroupId,
+				@Nullable String messageDeduplicationId) {
+
+			if (body == null || body.isEmpty()) {
+				throw invalidParameter("The request must contain the parameter MessageBody.");
+			}
+			if (this.fifo && messageGroupId == null) {
+				throw invalidParameter("The request must contain the parameter MessageGroupId.");
+			}
+			String deduplicationId = messageDeduplicationId;
+			if (this.fifo && deduplicationId == null) {
+				if (!Boolean.parseBoolean(
+						this.attributes.get(QueueAttributeName.CONTENT_BASED_DEDUPLICATION.toString()))) {
+
+					throw invalidParameter("The queue should either have ContentBasedDeduplication enabled "
+							+ "or MessageDeduplicationId provided explicitly");
+				}
+				deduplicationId = DigestUtils.md5DigestAsHex(body.getBytes(StandardCharsets.UTF_8));
+			}
+			int delay =
+					delaySeconds != null
+							? delaySeconds
+							: attributeAsInt(this.attributes, QueueAttributeName.DELAY_SECONDS, 0);
+			List<PendingReceive> completed;
+			MessageState message;
+			synchronized (this) {
+				long now = System.currentTimeMillis();
+				if (deduplicationId != null) {
+					this.deduplication.values().removeIf(entry -> entry.expiresAt <= now);
+					DeduplicationEntry duplicate = this.deduplication.get(deduplicationId);
+					if (duplicate != null) {
+						return duplicate.message;
+					}
+				}
+				message =
+						new MessageState(body, messageAttributes, messageGroupId, deduplicationId,
+								this.fifo ? Long.toString(this.sequenceNumbers.incrementAndGet()) : null,
+								now, now + TimeUnit.SECONDS.toMillis(delay));
+				this.messages.put(message.messageId, message);
+				if (deduplicationId != null) {
+					this.deduplication.put(deduplicationId,
+							new DeduplicationEntry(message, now + DEDUPLICATION_INTERVAL_MILLIS));
+				}
+				if (delay > 0) {
+					scheduleDrain(message.visibleAt - now);
+					completed = Collections.emptyList();
+				}
+				else {
+					completed = drainPendingReceives();
+				}
+			}
+			completed.forEach(PendingReceive::complete);
+			return message;
+		}
+
+		CompletableFuture<List<Message>> receive(ReceiveMessageRequest request) {
+			int maxNumberOfMessages = request.maxNumberOfMessages() != null ? request.maxNumberOfMessages() : 1;
+			if (maxNumberOfMessages < 1 || maxNumberOfMessages > MAX_BATCH_ENTRIES) {
+				throw invalidParameter("Value " + maxNumberOfMessages + " for parameter MaxNumberOfMessages is invalid. "
+						+ "Reason: Must be between 1 and 10, if provided.");
+			}
+			int waitTimeSeconds =
+					request.waitTimeSeconds() != null
+							? request.waitTimeSeconds()
+							: attributeAsInt(this.attributes, QueueAttributeName.RECEIVE_MESSAGE_WAIT_TIME_SECONDS, 0);
+			synchronized (this) {
+				List<Message> messages = poll(request, maxNumberOfMessages);
+				if (!messages.isEmpty() || waitTimeSeconds <= 0) {
+					return CompletableFuture.completedFuture(messages);
+				}
+				PendingReceive pendingReceive = new PendingReceive(request, maxNumberOfMessages);
+				this.pendingReceives.add(pendingReceive);
+				pendingReceive.timeout =
+						SCHEDULER.schedule(() -> expire(pendingReceive), waitTimeSeconds, TimeUnit.SECONDS);
+				long nextVisibleAt = Long.MAX_VALUE;
+				for (MessageState message : this.messages.values()) {
+					nextVisibleAt = Math.min(nextVisibleAt, message.visibleAt);
+				}
+				if (nextVisibleAt != Long.MAX_VALUE) {
+					scheduleDrain(nextVisibleAt - System.currentTimeMillis());
+				}
+				return pendingReceive.future;
+			}
+		}
+
+		void delete(String receiptHandle) {
+			String messageId = messageId(receiptHandle);
+			synchronized (this) {
+				// Deleting the message which has been already deleted is not an error
+				this.messages.remove(messageId);
+			}
+		}
+
+		void changeVisibility(String receiptHandle, @Nullable Integer visibilityTimeout) {
+			String messageId = messageId(receiptHandle);
+			List<PendingReceive> completed = Collections.emptyList();
+			synchronized (this) {
+				MessageState message = this.messages.get(messageId);
+				long now = System.currentTimeMillis();
+				if (message == null || message.receiveCount == 0 || message.visibleAt <= now) {
+					throw MessageNotInflightException.builder()
+							.message("Value " + receiptHandle + " for parameter ReceiptHandle is invalid. "
+									+ "Reason: Message does not exist or is not available for visibility timeout change.")
+							.statusCode(400)
+							.build();
+				}
+				int timeout = visibilityTimeout != null ? visibilityTimeout : 0;
+				message.visibleAt = now + TimeUnit.SECONDS.toMillis(timeout);
+				if (timeout == 0) {
+					completed = drainPendingReceives();
+				}
+				else if (!this.pendingReceives.isEmpty()) {
+					scheduleDrain(TimeUnit.SECONDS.toMillis(timeout));
+				}
+			}
+			completed.forEach(PendingReceive::complete);
+		}
+
+		void purge() {
+			List<PendingReceive> completed;
+			synchronized (this) {
+				this.messages.clear();
+				this.deduplication.clear();
+				completed = new ArrayList<>(this.pendingReceives);
+				this.pendingReceives.clear();
+			}
+			for (PendingReceive pendingReceive : completed) {
+				pendingReceive.messages = Collections.emptyList();
+				pendingReceive.complete();
+			}
+		}
+
+		/**
+		 * Take the visible messages for the receive request.
+		 * Must be called under the queue monitor.
+		 */
+		private List<Message> poll(ReceiveMessageRequest request, int maxNumberOfMessages) {
+			long now = System.currentTimeMillis();
+			int visibilityTimeout =
+					request.visibilityTimeout() != null
+							? request.visibilityTimeout()
+							: attributeAsInt(this.attributes, QueueAttributeName.VISIBILITY_TIMEOUT,
+							DEFAULT_VISIBILITY_TIMEOUT);
+			List<Message> messages = new ArrayList<>();
+			Set<String> blockedGroups = this.fifo ? new HashSet<>() : Collections.emptySet();
+			Iterator<MessageState> iterator = this.messages.values().iterator();
+			while (messages.size() < maxNumberOfMessages && iterator.hasNext()) {
+				MessageState message = iterator.next();
+				if (this.fifo && blockedGroups.contains(message.messageGroupId)) {
+					continue;
+				}
+				if (message.visibleAt > now) {
+					if (this.fifo) {
+						// The group order must be preserved: no messages after the one in flight
+						blockedGroups.add(message.messageGroupId);
+					}
+					continue;
+				}
+				message.receiveCount++;
+				if (message.firstReceiveTimestamp == 0) {
+					message.firstReceiveTimestamp = now;
+				}
+				message.visibleAt = now + TimeUnit.SECONDS.toMillis(visibilityTimeout);
+				messages.add(message.toMessage(request));
+			}
+			return messages;
+		}
+
+		/**
+		 * Fulfill the pending long polling receives with the visible messages.
+		 * Must be called under the queue monitor; the returned receives must be completed outside the monitor.
+		 */
+		private List<PendingReceive> drainPendingReceives() {
+			if (this.pendingReceives.isEmpty()) {
+				return Collections.emptyList();
+			}
+			List<PendingReceive> completed = new ArrayList<>();
+			Iterator<PendingReceive> iterator = this.pendingReceives.iterator();
+			while (iterator.hasNext()) {
+				PendingReceive pendingReceive = iterator.next();
+				List<Message> messages = poll(pendingReceive.request, pendingReceive.maxNumberOfMessages);
+				if (messages.isEmpty()) {
+					break;
+				}
+				iterator.remove();
+				pendingReceive.messages = messages;
+				completed.add(pendingReceive);
+			}
+			return completed;
+		}
+
+		private void drain() {
+			List<PendingReceive> completed;
+			synchronized (this) {
+				completed = drainPendingReceives();
+			}
+			completed.forEach(PendingReceive::complete);
+		}
+
+		private void scheduleDrain(long delayMillis) {
+			if (!this.pendingReceives.isEmpty()) {
+				SCHEDULER.schedule(this::drain, Math.max(delayMillis, 0), TimeUnit.MILLISECONDS);
+			}
+		}
+
+		private void expire(PendingReceive pendingReceive) {
+			synchronized (this) {
+				if (!this.pendingReceives.remove(pendingReceive)) {
+					return;
+				}
+				pendingReceive.messages = poll(pendingReceive.request, pendingReceive.maxNumberOfMessages);
+			}
+			pendingReceive.complete();
+		}
+
+		private static String messageId(@Nullable String receiptHandle) {
+			int separator = receiptHandle != null ? receiptHandle.indexOf('#') : -1;
+			if (separator < 0) {
+				throw ReceiptHandleIsInvalidException.builder()
+						.message("The input receipt handle \"" + receiptHandle + "\" is not a valid receipt handle.")
+						.statusCode(400)
+						.build();
+			}
+			return receiptHandle.substring(0, separator);
+		}
+
+	}
+
+	/**
+	 * The message in the queue with its receive state.
+	 */
+	private static final class MessageState {
+
+		private final String messageId = UUID.randomUUID().toString();
+
+		private final String body;
+
+		private final String md5OfBody;
+
+		private final Map<String, MessageAttributeValue> messageAttributes;
+
+		@Nullable
+		private final String messageGroupId;
+
+		@Nullable
+		private final String messageDeduplicationId;
+
+		@Nullable
+		private final String sequenceNumber;
+
+		private final long sentTimestamp;
+
+		private long visibleAt;
+
+		private int receiveCount;
+
+		private long firstReceiveTimestamp;
+
+		MessageState(String body, Map<String, MessageAttributeValue> messageAttributes,
+				@Nullable String messageGroupId, @Nullable String messageDeduplicationId,
+				@Nullable String sequenceNumber, long sentTimestamp, long visibleAt) {
+
+			this.body = body;
+			this.md5OfBody = DigestUtils.md5DigestAsHex(body.getBytes(StandardCharsets.UTF_8));
+			this.messageAttributes = messageAttributes;
+			this.messageGroupId = messageGroupId;
+			this.messageDeduplicationId = messageDeduplicationId;
+			this.sequenceNumber = sequenceNumber;
+			this.sentTimestamp = sentTimestamp;
+			this.visibleAt = visibleAt;
+		}
+
+		Message toMessage(ReceiveMessageRequest request) {
+			List<String> attributeNames = request.attributeNamesAsStrings();
+			boolean allAttributes = attributeNames.contains(QueueAttributeName.ALL.toString());
+			Map<MessageSystemAttributeName, String> attributes = new EnumMap<>(MessageSystemAttributeName.class);
+			attributes.put(MessageSystemAttributeName.SENDER_ID, ACCOUNT_ID);
+			attributes.put(MessageSystemAttributeName.SENT_TIMESTAMP, Long.toString(this.sentTimestamp));
+			attributes.put(MessageSystemAttributeName.APPROXIMATE_RECEIVE_COUNT, Integer.toString(this.receiveCount));
+			attributes.put(MessageSystemAttributeName.APPROXIMATE_FIRST_RECEIVE_TIMESTAMP,
+					Long.toString(this.firstReceiveTimestamp));
+			if (this.messageGroupId != null) {
+				attributes.put(MessageSystemAttributeName.MESSAGE_GROUP_ID, this.messageGroupId);
+				attributes.put(MessageSystemAttributeName.MESSAGE_DEDUPLICATION_ID, this.messageDeduplicationId);
+				attributes.put(MessageSystemAttributeName.SEQUENCE_NUMBER, this.sequenceNumber);
+			}
+			if (!allAttributes) {
+				attributes.keySet().removeIf(name -> !attributeNames.contains(name.toString()));
+			}
+
+			List<String> messageAttributeNames = request.messageAttributeNames();
+			Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
+			this.messageAttributes.forEach((name, value) -> {
+				for (String requested : messageAttributeNames) {
+					if ("All".equals(requested) || ".*".equals(requested) || requested.equals(name)
+							|| (requested.endsWith(".*")
+							&& name.startsWith(requested.substring(0, requested.length() - 1)))) {
+
+						messageAttributes.put(name, value);
+						break;
+					}
+				}
+			});
+
+			return Message.builder()
+					.messageId(this.messageId)
+					.receiptHandle(this.messageId + '#' + this.receiveCount)
+					.body(this.body)
+					.md5OfBody(this.md5OfBody)
+					.attributes(attributes)
+					.messageAttributes(messageAttributes)
+					.build();
+		}
+
+	}
+
+	/**
+	 * The message id remembered for the FIFO queue deduplication interval.
+	 */
+	private static final class DeduplicationEntry {
+
+		private final MessageState message;
+
+		private final long expiresAt;
+
+		DeduplicationEntry(MessageState message, long expiresAt) {
+			this.message = message;
+			this.expiresAt = expiresAt;
+		}
+
+	}
+
+	/**
+	 * The long polling receive waiting for messages.
+	 */
+	private static final class PendingReceive {
+
+		private final CompletableFuture<List<Message>> future = new CompletableFuture<>();
+
+		private final ReceiveMessageRequest request;
+
+		private final int maxNumberOfMessages;
+
+		private List<Message> messages = Collections.emptyList();
+
+		@Nullable
+		private ScheduledFuture<?> timeout;
+
+		PendingReceive(ReceiveMessageRequest request, int maxNumberOfMessages) {
+			this.request = request;
+			this.maxNumberOfMessages = maxNumberOfMessages;
+		}
+
+		void complete() {
+			if (this.timeout != null) {
+				this.timeout.cancel(false);
+			}
+			this.future.complete(this.messages);
+		}
+
+	}
+
+}
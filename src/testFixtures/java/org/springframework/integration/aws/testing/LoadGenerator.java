@@ -0,0 +1,261 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * The load generation harness: sends the configured number of messages from several producer threads,
+ * optionally paced to the target rate, and measures the end-to-end latency of their deliveries.
+ * <p>
+ * The producer callback is called with the send time ({@link System#nanoTime()}) to embed into the message,
+ * e.g. as a header or in the payload; the consumer side reports the delivery with this time
+ * via the {@link #delivered(long)}. With the target rate, the send time is the time when the message
+ * was scheduled to be sent, not when it was actually sent: so the latency includes the time the producer
+ * fell behind the schedule and the results are not skewed by the coordinated omission.
+ * <p>
+ * The latencies are recorded into a lock-free log-linear histogram with the precision of 1/16 (6.25%).
+ * <pre class="code">
+ * LoadGenerator loadGenerator = new LoadGenerator(1_000_000);
+ * loadGenerator.setProducers(4);
+ * loadGenerator.setRatePerSecond(50_000);
+ * adapter.setOutputChannel((message, timeout) -&gt; {
+ *     loadGenerator.delivered(message.getHeaders().get("sendTime", Long.class));
+ *     return true;
+ * });
+ * LoadReport report = loadGenerator.run(sendTime -&gt; handler.handleMessage(
+ *         MessageBuilder.withPayload(payload).setHeader("sendTime", sendTime).build()));
+ * </pre>
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+public class LoadGenerator {
+
+	private static final Log LOGGER = LogFactory.getLog(LoadGenerator.class);
+
+	private static final int SUB_BUCKET_BITS = 4;
+
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private static final int BUCKETS = (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+	private final long messages;
+
+	private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+	private final AtomicLong sent = new AtomicLong();
+
+	private final AtomicLong failed = new AtomicLong();
+
+	private final AtomicLong delivered = new AtomicLong();
+
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	private final AtomicBoolean running = new AtomicBoolean();
+
+	private int producers = 1;
+
+	private double ratePerSecond;
+
+	private Duration timeout = Duration.ofMinutes(5);
+
+	private boolean awaitDeliveries = true;
+
+	/**
+	 * Create an instance to send the provided number of messages.
+	 * @param messages the number of messages to send.
+	 */
+	public LoadGenerator(long messages) {
+		Assert.isTrue(messages > 0, "'messages' must be positive");
+		this.messages = messages;
+	}
+
+	/**
+	 * Set the number of producer threads.
+	 * Defaults to 1.
+	 * @param producers the number of producer threads.
+	 */
+	public void setProducers(int producers) {
+		Assert.isTrue(producers > 0, "'producers' must be positive");
+		this.producers = producers;
+	}
+
+	/**
+	 * Set the target rate of messages per second over all the producers.
+	 * Defaults to 0 - as fast as the producers can send.
+	 * @param ratePerSecond the target rate.
+	 */
+	public void setRatePerSecond(double ratePerSecond) {
+		Assert.isTrue(ratePerSecond >= 0, "'ratePerSecond' must not be negative");
+		this.ratePerSecond = ratePerSecond;
+	}
+
+	/**
+	 * Set the time to wait for the sending and deliveries to complete.
+	 * Defaults to 5 minutes.
+	 * @param timeout the timeout for the run.
+	 */
+	public void setTimeout(Duration timeout) {
+		Assert.notNull(timeout, "'timeout' must not be null");
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Set whether to wait for all the sent messages to be delivered before reporting.
+	 * Defaults to true.
+	 * Set to false to measure only the producer side.
+	 * @param awaitDeliveries wait for deliveries or not.
+	 */
+	public void setAwaitDeliveries(boolean awaitDeliveries) {
+		this.awaitDeliveries = awaitDeliveries;
+	}
+
+	/**
+	 * Record the delivery of the message sent at the provided time.
+	 * @param sendNanoTime the send time provided to the producer callback.
+	 */
+	public void delivered(long sendNanoTime) {
+		long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendNanoTime);
+		this.histogram.incrementAndGet(bucket(latency));
+		this.maxLatency.accumulateAndGet(latency, Math::max);
+		this.delivered.incrementAndGet();
+	}
+
+	/**
+	 * Send the messages via the producer callback and wait for them to be delivered.
+	 * The producer callback failures are counted and logged, the message is not resent.
+	 * @param producer the callback to send the message with the provided send time.
+	 * @return the report of the run.
+	 * @throws InterruptedException if the current thread is interrupted while waiting.
+	 */
+	public LoadReport run(LongConsumer producer) throws InterruptedException {
+		Assert.notNull(producer, "'producer' must not be null");
+		Assert.state(this.running.compareAndSet(false, true), "The LoadGenerator can be run only once");
+
+		long deadline = System.nanoTime() + this.timeout.toNanos();
+		long intervalNanos = this.ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / this.ratePerSecond) : 0;
+		AtomicLong tickets = new AtomicLong();
+		long start = System.nanoTime();
+
+		List<Thread> threads = new ArrayList<>(this.producers);
+		for (int i = 0; i < this.producers; i++) {
+			Thread thread = new Thread(() -> {
+				long ticket;
+				while ((ticket = tickets.getAndIncrement()) < this.messages && System.nanoTime() < deadline) {
+					long sendTime = System.nanoTime();
+					if (intervalNanos > 0) {
+						long scheduledTime = start + ticket * intervalNanos;
+						while ((sendTime = System.nanoTime()) < scheduledTime) {
+							LockSupport.parkNanos(scheduledTime - sendTime);
+						}
+						sendTime = scheduledTime;
+					}
+					try {
+						producer.accept(sendTime);
+						this.sent.incrementAndGet();
+					}
+					catch (RuntimeException ex) {
+						if (this.failed.getAndIncrement() == 0) {
+							LOGGER.warn("The producer has failed to send a message", ex);
+						}
+					}
+				}
+			}, "load-generator-" + i);
+			thread.setDaemon(true);
+			thread.start();
+			threads.add(thread);
+		}
+
+		for (Thread thread : threads) {
+			thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+		}
+
+		if (this.awaitDeliveries) {
+			while (this.delivered.get() < this.sent.get() && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+		}
+
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+		long completed = this.awaitDeliveries ? this.delivered.get() : this.sent.get();
+		double seconds = elapsed.toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+		return new LoadReport(this.sent.get(), this.failed.get(), this.delivered.get(), elapsed,
+				seconds > 0 ? completed / seconds : 0, latencyPercentile(0.5), latencyPercentile(0.9),
+				latencyPercentile(0.99), latencyPercentile(0.999), Duration.ofNanos(
+				TimeUnit.MICROSECONDS.toNanos(this.maxLatency.get())));
+	}
+
+	private Duration latencyPercentile(double percentile) {
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			total += this.histogram.get(i);
+		}
+		if (total == 0) {
+			return Duration.ZERO;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile * total));
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += this.histogram.get(i);
+			if (count >= rank) {
+				return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(bucketValue(i)));
+			}
+		}
+		return Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(this.maxLatency.get()));
+	}
+
+	/**
+	 * The values below 16 have their own buckets;
+	 * every next power of two range is split into 16 buckets.
+	 */
+	static int bucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) Math.max(value, 0);
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS));
+		return (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + mantissa;
+	}
+
+	/**
+	 * The lowest value of the bucket.
+	 */
+	static long bucketValue(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+		long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+		return mantissa << (exponent - SUB_BUCKET_BITS);
+	}
+
+}
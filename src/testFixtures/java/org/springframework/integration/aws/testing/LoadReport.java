@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026-present the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.integration.aws.testing;
+
+import java.time.Duration;
+
+/**
+ * The result of the {@link LoadGenerator#run} with the message counts,
+ * the throughput and the end-to-end latency percentiles.
+ *
+ * @author Artem Bilan
+ *
+ * @since 3.0.11
+ */
+public class LoadReport {
+
+	private final long sent;
+
+	private final long failed;
+
+	private final long delivered;
+
+	private final Duration elapsed;
+
+	private final double throughput;
+
+	private final Duration p50;
+
+	private final Duration p90;
+
+	private final Duration p99;
+
+	private final Duration p999;
+
+	private final Duration max;
+
+	LoadReport(long sent, long failed, long delivered, Duration elapsed, double throughput,
+			Duration p50, Duration p90, Duration p99, Duration p999, Duration max) {
+
+		this.sent = sent;
+		this.failed = failed;
+		this.delivered = delivered;
+		this.elapsed = elapsed;
+		this.throughput = throughput;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.p999 = p999;
+		this.max = max;
+	}
+
+	public long getSent() {
+		return this.sent;
+	}
+
+	public long getFailed() {
+		return this.failed;
+	}
+
+	public long getDelivered() {
+		return this.delivered;
+	}
+
+	public Duration getElapsed() {
+		return this.elapsed;
+	}
+
+	/**
+	 * Return the number of delivered (or sent, if deliveries are not awaited) messages per second.
+	 * @return the throughput.
+	 */
+	public double getThroughput() {
+		return this.throughput;
+	}
+
+	public Duration getP50() {
+		return this.p50;
+	}
+
+	public Duration getP90() {
+		return this.p90;
+	}
+
+	public Duration getP99() {
+		return this.p99;
+	}
+
+	public Duration getP999() {
+		return this.p999;
+	}
+
+	public Duration getMax() {
+		return this.max;
+	}
+
+	@Override
+	public String toString() {
+		return "LoadReport{" +
+				"sent=" + this.sent +
+				", failed=" + this.failed +
+				", delivered=" + this.delivered +
+				", elapsed=" + this.elapsed.toMillis() + "ms" +
+				", throughput=" + String.format("%.1f", this.throughput) + "/s" +
+				", p50=" + this.p50.toNanos() / 1000 + "us" +
+				", p90=" + this.p90.toNanos() / 1000 + "us" +
+				", p99=" + this.p99.toNanos() / 1000 + "us" +
+				", p999=" + this.p999.toNanos() / 1000 + "us" +
+				", max=" + this.max.toNanos() / 1000 + "us" +
+				'}';
+	}
+
+}
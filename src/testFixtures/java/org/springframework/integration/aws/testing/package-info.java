@@ -0,0 +1,4 @@
+/**
+ * Provides in-memory AWS service clients and load generation support for testing.
+ */
+package org.springframework.integration.aws.testing;